@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.client;
 
+import java.net.Inet6Address;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
@@ -29,6 +30,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.eclipse.jetty.client.internal.HttpAuthenticationStore;
@@ -62,6 +64,7 @@ import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
 import org.eclipse.jetty.util.thread.Scheduler;
@@ -119,6 +122,7 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
     private final ClientConnector connector;
     private AuthenticationStore authenticationStore = new HttpAuthenticationStore();
     private HttpCookieStore cookieStore;
+    private HttpResponseCache responseCache;
     private SocketAddressResolver resolver;
     private HttpField agentField = new HttpField(HttpHeader.USER_AGENT, USER_AGENT);
     private boolean followRedirects = true;
@@ -128,6 +132,7 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
     private int responseBufferSize = 16384;
     private int maxRedirects = 8;
     private long addressResolutionTimeout = 15000;
+    private long connectionAttemptDelay = 250;
     private boolean strictEventOrdering = false;
     private long destinationIdleTimeout;
     private String name = getClass().getSimpleName() + "@" + Integer.toHexString(hashCode());
@@ -212,6 +217,8 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
         handlers.put(new WWWAuthenticationProtocolHandler(this));
         handlers.put(new ProxyAuthenticationProtocolHandler(this));
         handlers.put(new UpgradeProtocolHandler());
+        if (responseCache != null)
+            handlers.put(responseCache);
 
         decoderFactories.put(new GZIPContentDecoder.Factory(byteBufferPool));
 
@@ -279,6 +286,27 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
         this.cookieStore = Objects.requireNonNull(cookieStore);
     }
 
+    /**
+     * Get the response cache associated with this instance.
+     * @return the response cache associated with this instance, or null if responses are not cached
+     */
+    public HttpResponseCache getResponseCache()
+    {
+        return responseCache;
+    }
+
+    /**
+     * Set the response cache associated with this instance.
+     * @param responseCache the response cache associated with this instance, or null to not cache responses
+     */
+    public void setResponseCache(HttpResponseCache responseCache)
+    {
+        if (isStarted())
+            throw new IllegalStateException();
+        updateBean(this.responseCache, responseCache);
+        this.responseCache = responseCache;
+    }
+
     public void putCookie(URI uri, HttpField field)
     {
         HttpCookie cookie = COOKIE_PARSER.parse(field.getValue());
@@ -552,7 +580,11 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
                 @Override
                 public void succeeded(List<InetSocketAddress> socketAddresses)
                 {
-                    connect(socketAddresses, 0, context);
+                    long delay = getConnectionAttemptDelay();
+                    if (delay > 0 && socketAddresses.size() > 1)
+                        new HappyEyeballs(socketAddresses, context, promise, delay).connect();
+                    else
+                        connect(socketAddresses, 0, context);
                 }
 
                 @Override
@@ -586,6 +618,152 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
         }
     }
 
+    /**
+     * <p>Races connection attempts to multiple addresses as specified by
+     * <a href="https://datatracker.ietf.org/doc/html/rfc8305">RFC 8305</a>.</p>
+     */
+    private class HappyEyeballs
+    {
+        private final AutoLock lock = new AutoLock();
+        private final List<InetSocketAddress> socketAddresses;
+        private final Map<String, Object> context;
+        private final Promise<Connection> promise;
+        private final long delay;
+        private Scheduler.Task task;
+        private Throwable failure;
+        private int index;
+        private int attempts;
+        private boolean complete;
+
+        private HappyEyeballs(List<InetSocketAddress> socketAddresses, Map<String, Object> context, Promise<Connection> promise, long delay)
+        {
+            this.socketAddresses = interleave(socketAddresses);
+            this.context = context;
+            this.promise = promise;
+            this.delay = delay;
+        }
+
+        /**
+         * <p>Sorts the addresses so that address families alternate,
+         * starting with the family of the first address.</p>
+         */
+        private static List<InetSocketAddress> interleave(List<InetSocketAddress> socketAddresses)
+        {
+            boolean ipv6 = socketAddresses.get(0).getAddress() instanceof Inet6Address;
+            List<InetSocketAddress> preferred = new ArrayList<>();
+            List<InetSocketAddress> others = new ArrayList<>();
+            for (InetSocketAddress socketAddress : socketAddresses)
+            {
+                if (socketAddress.getAddress() instanceof Inet6Address == ipv6)
+                    preferred.add(socketAddress);
+                else
+                    others.add(socketAddress);
+            }
+            if (others.isEmpty())
+                return socketAddresses;
+            List<InetSocketAddress> result = new ArrayList<>(socketAddresses.size());
+            for (int i = 0; i < Math.max(preferred.size(), others.size()); ++i)
+            {
+                if (i < preferred.size())
+                    result.add(preferred.get(i));
+                if (i < others.size())
+                    result.add(others.get(i));
+            }
+            return result;
+        }
+
+        private void connect()
+        {
+            InetSocketAddress socketAddress;
+            try (AutoLock ignored = lock.lock())
+            {
+                if (complete || index == socketAddresses.size())
+                    return;
+                socketAddress = socketAddresses.get(index++);
+                ++attempts;
+                if (task != null)
+                    task.cancel();
+                task = index < socketAddresses.size() ? getScheduler().schedule(this::connect, delay, TimeUnit.MILLISECONDS) : null;
+            }
+
+            if (LOG.isDebugEnabled())
+                LOG.debug("Connection attempt to {}", socketAddress);
+
+            // Each attempt needs its own context, as transports store per-connection state in it.
+            Map<String, Object> attemptContext = new ConcurrentHashMap<>(context);
+            attemptContext.put(HttpClientTransport.HTTP_CONNECTION_PROMISE_CONTEXT_KEY, new Promise<Connection>()
+            {
+                @Override
+                public void succeeded(Connection connection)
+                {
+                    onConnectionSucceeded(socketAddress, connection);
+                }
+
+                @Override
+                public void failed(Throwable x)
+                {
+                    onConnectionFailed(socketAddress, x);
+                }
+            });
+            HttpClient.this.transport.connect((SocketAddress)socketAddress, attemptContext);
+        }
+
+        private void onConnectionSucceeded(InetSocketAddress socketAddress, Connection connection)
+        {
+            boolean winner;
+            try (AutoLock ignored = lock.lock())
+            {
+                --attempts;
+                winner = !complete;
+                complete = true;
+                if (task != null)
+                    task.cancel();
+                task = null;
+            }
+
+            if (LOG.isDebugEnabled())
+                LOG.debug("Connection attempt to {} succeeded, winner={}: {}", socketAddress, winner, connection);
+
+            if (winner)
+                promise.succeeded(connection);
+            else
+                connection.close();
+        }
+
+        private void onConnectionFailed(InetSocketAddress socketAddress, Throwable x)
+        {
+            boolean next = false;
+            Throwable failure = null;
+            try (AutoLock ignored = lock.lock())
+            {
+                --attempts;
+                if (complete)
+                    return;
+                if (this.failure == null)
+                    this.failure = x;
+                else if (this.failure != x)
+                    this.failure.addSuppressed(x);
+                if (index < socketAddresses.size())
+                {
+                    next = true;
+                }
+                else if (attempts == 0)
+                {
+                    complete = true;
+                    failure = this.failure;
+                }
+            }
+
+            if (LOG.isDebugEnabled())
+                LOG.debug("Connection attempt to {} failed", socketAddress, x);
+
+            if (next)
+                connect();
+            else if (failure != null)
+                promise.failed(failure);
+        }
+    }
+
     private HttpConversation newConversation()
     {
         return new HttpConversation();
@@ -681,6 +859,36 @@ public class HttpClient extends ContainerLifeCycle implements AutoCloseable
         this.addressResolutionTimeout = addressResolutionTimeout;
     }
 
+    /**
+     * @return the delay, in milliseconds, before racing a connection attempt to the next resolved address
+     * @see #setConnectionAttemptDelay(long)
+     */
+    @ManagedAttribute("The delay, in milliseconds, before racing a connection attempt to the next resolved address")
+    public long getConnectionAttemptDelay()
+    {
+        return connectionAttemptDelay;
+    }
+
+    /**
+     * <p>Sets the delay before racing a connection attempt to the next resolved address,
+     * as specified by the Happy Eyeballs algorithm defined in
+     * <a href="https://datatracker.ietf.org/doc/html/rfc8305">RFC 8305</a>.</p>
+     * <p>When a host resolves to multiple addresses, they are interleaved by address family
+     * (IPv6 and IPv4), and a connection attempt is made to the first address.
+     * If the attempt does not complete within this delay, a connection attempt to the next
+     * address is started in parallel, and so on; the first connection that succeeds is used,
+     * and the others are closed.
+     * A failed connection attempt immediately starts the attempt to the next address.</p>
+     * <p>A zero or negative value disables racing, and the addresses are tried sequentially
+     * in the order returned by the {@link SocketAddressResolver}.</p>
+     *
+     * @param connectionAttemptDelay the delay, in milliseconds, before racing a connection attempt to the next resolved address
+     */
+    public void setConnectionAttemptDelay(long connectionAttemptDelay)
+    {
+        this.connectionAttemptDelay = connectionAttemptDelay;
+    }
+
     /**
      * @return the max time, in milliseconds, a connection can be idle (that is, without traffic of bytes in either direction)
      */
@@ -0,0 +1,816 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.client.transport.HttpConversation;
+import org.eclipse.jetty.client.transport.HttpRequest;
+import org.eclipse.jetty.client.transport.HttpResponse;
+import org.eclipse.jetty.client.transport.ResponseListeners;
+import org.eclipse.jetty.http.HttpDateTime;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.eclipse.jetty.io.content.ChunksContentSource;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A private HTTP response cache for {@link HttpClient}, following
+ * <a href="https://www.rfc-editor.org/rfc/rfc9111">RFC 9111</a>.</p>
+ * <p>The cache is enabled via {@link HttpClient#setResponseCache(HttpResponseCache)}.
+ * {@code GET} requests whose response is stored and fresh are served directly
+ * from the cache, without resolving a {@link Destination} and therefore without
+ * using a connection; in this case the response listeners are notified, but the
+ * request listeners are not, since no request is sent to the server.</p>
+ * <p>Stored responses that are stale but have a validator ({@code ETag} or
+ * {@code Last-Modified}) are revalidated with a conditional request; if the
+ * server replies {@code 304 Not Modified}, this class, acting as a
+ * {@link ProtocolHandler}, updates the stored response and replays it to the
+ * application.</p>
+ * <p>Response content is stored in {@link RetainableByteBuffer}s acquired from
+ * the {@link HttpClient#getByteBufferPool() client ByteBufferPool}, and stored
+ * responses are evicted in least recently used order when the total content
+ * size exceeds {@link #getMaxSize()}.</p>
+ * <p>Requests with conditional headers set by the application, and responses
+ * larger than {@link #getMaxEntrySize()} are not cached.
+ * Successful responses to unsafe requests such as {@code POST} invalidate
+ * the stored response for the same URI.</p>
+ */
+@ManagedObject("HTTP response cache")
+public class HttpResponseCache extends AbstractLifeCycle implements ProtocolHandler
+{
+    public static final String NAME = "response-cache";
+    private static final Logger LOG = LoggerFactory.getLogger(HttpResponseCache.class);
+    private static final String REVALIDATION_ATTRIBUTE = HttpResponseCache.class.getName() + ".revalidation";
+    private static final Set<HttpHeader> CONDITIONAL_HEADERS = EnumSet.of(
+        HttpHeader.IF_MATCH,
+        HttpHeader.IF_NONE_MATCH,
+        HttpHeader.IF_MODIFIED_SINCE,
+        HttpHeader.IF_UNMODIFIED_SINCE,
+        HttpHeader.IF_RANGE,
+        HttpHeader.RANGE
+    );
+    private static final EnumSet<HttpHeader> HOP_HEADERS = EnumSet.of(
+        HttpHeader.CONNECTION,
+        HttpHeader.KEEP_ALIVE,
+        HttpHeader.PROXY_CONNECTION,
+        HttpHeader.TRANSFER_ENCODING,
+        HttpHeader.TE,
+        HttpHeader.TRAILER,
+        HttpHeader.UPGRADE,
+        HttpHeader.AGE
+    );
+    // Status codes that are cacheable by default, see RFC 9110 section 15.1.
+    private static final Set<Integer> HEURISTIC_STATUSES = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+
+    private final AutoLock lock = new AutoLock();
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final HttpClient client;
+    private long size;
+    private long maxSize = 32 * 1024 * 1024;
+    private int maxEntrySize = 1024 * 1024;
+
+    public HttpResponseCache(HttpClient client)
+    {
+        this.client = Objects.requireNonNull(client);
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    /**
+     * @return the max total size in bytes of the stored response content
+     */
+    @ManagedAttribute("The max total size in bytes of the stored response content")
+    public long getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize the max total size in bytes of the stored response content
+     */
+    public void setMaxSize(long maxSize)
+    {
+        try (AutoLock ignored = lock.lock())
+        {
+            this.maxSize = maxSize;
+            evict();
+        }
+    }
+
+    /**
+     * @return the max size in bytes of the content of a single stored response
+     */
+    @ManagedAttribute("The max size in bytes of the content of a single stored response")
+    public int getMaxEntrySize()
+    {
+        return maxEntrySize;
+    }
+
+    /**
+     * @param maxEntrySize the max size in bytes of the content of a single stored response
+     */
+    public void setMaxEntrySize(int maxEntrySize)
+    {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    @ManagedAttribute("The total size in bytes of the stored response content")
+    public long getSize()
+    {
+        try (AutoLock ignored = lock.lock())
+        {
+            return size;
+        }
+    }
+
+    @ManagedAttribute("The number of stored responses")
+    public int getEntryCount()
+    {
+        try (AutoLock ignored = lock.lock())
+        {
+            return entries.size();
+        }
+    }
+
+    @ManagedAttribute("The number of requests served from the cache without contacting the server")
+    public long getHits()
+    {
+        return hits.longValue();
+    }
+
+    @ManagedAttribute("The number of requests that could not be served from the cache")
+    public long getMisses()
+    {
+        return misses.longValue();
+    }
+
+    @ManagedAttribute("The number of stored responses successfully revalidated with the server")
+    public long getRevalidations()
+    {
+        return revalidations.longValue();
+    }
+
+    @ManagedAttribute("The number of responses stored in the cache")
+    public long getStores()
+    {
+        return stores.longValue();
+    }
+
+    @ManagedAttribute("The number of stored responses evicted to make room for others")
+    public long getEvictions()
+    {
+        return evictions.longValue();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        hits.reset();
+        misses.reset();
+        revalidations.reset();
+        stores.reset();
+        evictions.reset();
+    }
+
+    /**
+     * <p>Removes all the stored responses.</p>
+     */
+    @ManagedOperation(value = "Removes all the stored responses", impact = "ACTION")
+    public void clear()
+    {
+        List<Entry> removed;
+        try (AutoLock ignored = lock.lock())
+        {
+            removed = new ArrayList<>(entries.values());
+            entries.clear();
+            size = 0;
+        }
+        removed.forEach(Entry::release);
+    }
+
+    /**
+     * <p>Removes the stored response for the given URI, if any.</p>
+     *
+     * @param uri the URI of the stored response
+     * @return whether a stored response was removed
+     */
+    public boolean invalidate(String uri)
+    {
+        Entry entry;
+        try (AutoLock ignored = lock.lock())
+        {
+            entry = entries.remove(uri);
+            if (entry != null)
+                size -= entry.contentLength();
+        }
+        if (entry == null)
+            return false;
+        entry.release();
+        return true;
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        clear();
+        super.doStop();
+    }
+
+    /**
+     * <p>Serves the given request from this cache, if possible.</p>
+     * <p>This method is invoked by {@link HttpClient} before the request is sent.
+     * If the request cannot be served from the cache, this method may modify the
+     * request, for example to revalidate a stored response, or to store the response.</p>
+     *
+     * @param request the request to serve
+     * @param listener the listener notified of the response events, or {@code null}
+     * @return {@code true} if the request was served from the cache and must not
+     * be sent, {@code false} if the request must be sent
+     */
+    public boolean serve(HttpRequest request, Response.CompleteListener listener)
+    {
+        if (!isRunning())
+            return false;
+
+        String method = request.getMethod();
+        if (!HttpMethod.GET.is(method))
+        {
+            if (!HttpMethod.HEAD.is(method) && !HttpMethod.OPTIONS.is(method) && !HttpMethod.TRACE.is(method))
+            {
+                // Successful responses to unsafe methods invalidate the stored response.
+                String key = key(request);
+                request.onResponseSuccess(response ->
+                {
+                    int status = response.getStatus();
+                    if (status >= 200 && status < 400)
+                        invalidate(key);
+                });
+            }
+            return false;
+        }
+
+        HttpFields requestHeaders = request.getHeaders();
+        for (HttpField field : requestHeaders)
+        {
+            if (CONDITIONAL_HEADERS.contains(field.getHeader()))
+                return false;
+        }
+
+        Directives directives = Directives.from(requestHeaders);
+        if (directives.noStore)
+            return false;
+        if (!directives.noCache && requestHeaders.contains(HttpHeader.PRAGMA, "no-cache") && !requestHeaders.contains(HttpHeader.CACHE_CONTROL))
+            directives = directives.withNoCache();
+
+        String key = key(request);
+        long now = System.currentTimeMillis();
+        Entry entry;
+        boolean fresh = false;
+        try (AutoLock ignored = lock.lock())
+        {
+            entry = entries.get(key);
+            if (entry != null)
+            {
+                fresh = entry.isFresh(now, directives);
+                if (!entry.matches(requestHeaders) || !fresh && !entry.hasValidators())
+                    entry = null;
+                else
+                    entry.retain();
+            }
+        }
+
+        if (entry != null && fresh)
+        {
+            hits.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Cache hit {} for {}", entry, request);
+            ResponseListeners listeners = new ResponseListeners(request.getResponseListeners());
+            if (listener != null)
+                listeners.addCompleteListener(listener, true);
+            Entry hit = entry;
+            client.getExecutor().execute(() ->
+            {
+                try
+                {
+                    replay(listeners, request, hit);
+                }
+                finally
+                {
+                    hit.release();
+                }
+            });
+            return true;
+        }
+
+        misses.increment();
+        if (entry != null)
+        {
+            // The entry is stale but has validators, revalidate it.
+            if (LOG.isDebugEnabled())
+                LOG.debug("Cache revalidation {} for {}", entry, request);
+            Entry stale = entry;
+            request.attribute(REVALIDATION_ATTRIBUTE, new Revalidation(key, stale, now));
+            request.headers(headers ->
+            {
+                String etag = stale.headers.get(HttpHeader.ETAG);
+                if (etag != null)
+                    headers.put(HttpHeader.IF_NONE_MATCH, etag);
+                String lastModified = stale.headers.get(HttpHeader.LAST_MODIFIED);
+                if (lastModified != null)
+                    headers.put(HttpHeader.IF_MODIFIED_SINCE, lastModified);
+            });
+            request.onComplete(result -> stale.release());
+        }
+
+        StoreListener storeListener = new StoreListener(key, request, now);
+        request.onResponseHeaders(storeListener)
+            .onResponseContent(storeListener)
+            .onResponseSuccess(storeListener)
+            .onResponseFailure(storeListener);
+        return false;
+    }
+
+    @Override
+    public boolean accept(Request request, Response response)
+    {
+        return response.getStatus() == HttpStatus.NOT_MODIFIED_304 &&
+            request.getAttributes().get(REVALIDATION_ATTRIBUTE) instanceof Revalidation;
+    }
+
+    @Override
+    public Response.Listener getResponseListener()
+    {
+        return new RevalidationListener();
+    }
+
+    private static String key(Request request)
+    {
+        return request.getURI().toString();
+    }
+
+    private void store(String key, Entry entry)
+    {
+        List<Entry> removed = new ArrayList<>();
+        try (AutoLock ignored = lock.lock())
+        {
+            Entry existing = entries.put(key, entry);
+            size += entry.contentLength();
+            if (existing != null)
+            {
+                size -= existing.contentLength();
+                removed.add(existing);
+            }
+            removed.addAll(evict());
+        }
+        stores.increment();
+        if (LOG.isDebugEnabled())
+            LOG.debug("Cache store {} for {}", entry, key);
+        removed.forEach(Entry::release);
+    }
+
+    private List<Entry> evict()
+    {
+        assert lock.isHeldByCurrentThread();
+        List<Entry> evicted = List.of();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext())
+        {
+            Entry entry = iterator.next();
+            iterator.remove();
+            size -= entry.contentLength();
+            if (evicted.isEmpty())
+                evicted = new ArrayList<>();
+            evicted.add(entry);
+            evictions.increment();
+        }
+        return evicted;
+    }
+
+    private void replay(ResponseListeners listeners, HttpRequest request, Entry entry)
+    {
+        Response response = entry.newResponse(request, System.currentTimeMillis());
+        listeners.notifyBegin(response);
+        for (HttpField field : response.getHeaders())
+        {
+            listeners.notifyHeader(response, field);
+        }
+        listeners.notifyHeaders(response);
+        RetainableByteBuffer content = entry.content;
+        if (content != null)
+        {
+            // The chunk holds a reference to the content,
+            // released when the application consumes it.
+            content.retain();
+            Content.Chunk chunk = Content.Chunk.asChunk(content.getByteBuffer().slice(), true, content);
+            listeners.notifyContentSource(response, new ChunksContentSource(List.of(chunk)));
+        }
+        listeners.notifySuccess(response);
+        listeners.notifyComplete(new Result(request, response));
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[entries=%d,size=%d/%d]", getClass().getSimpleName(), hashCode(), getEntryCount(), getSize(), getMaxSize());
+    }
+
+    private record Revalidation(String key, Entry entry, long requestTime)
+    {
+    }
+
+    /**
+     * <p>The cache directives from the {@code Cache-Control} header.</p>
+     */
+    private record Directives(boolean noStore, boolean noCache, long maxAge, long minFresh, boolean hasExpiry)
+    {
+        private static Directives from(HttpFields headers)
+        {
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAge = -1;
+            long minFresh = 0;
+            for (String value : headers.getCSV(HttpHeader.CACHE_CONTROL, false))
+            {
+                String directive = value.trim().toLowerCase(Locale.ENGLISH);
+                if ("no-store".equals(directive))
+                    noStore = true;
+                else if (directive.startsWith("no-cache"))
+                    noCache = true;
+                else if (directive.startsWith("max-age="))
+                    maxAge = seconds(directive.substring("max-age=".length()));
+                else if (directive.startsWith("min-fresh="))
+                    minFresh = Math.max(0, seconds(directive.substring("min-fresh=".length())));
+            }
+            return new Directives(noStore, noCache, maxAge, minFresh, maxAge >= 0);
+        }
+
+        private static long seconds(String value)
+        {
+            try
+            {
+                return Long.parseLong(value);
+            }
+            catch (NumberFormatException x)
+            {
+                // Invalid values are treated as already stale.
+                return 0;
+            }
+        }
+
+        private Directives withNoCache()
+        {
+            return new Directives(noStore, true, maxAge, minFresh, hasExpiry);
+        }
+    }
+
+    private static class Entry
+    {
+        private final HttpVersion version;
+        private final int status;
+        private final String reason;
+        private final HttpFields headers;
+        private final Map<String, String> variants;
+        private final RetainableByteBuffer content;
+        private final long responseTime;
+        private final long initialAge;
+        private final long freshnessLifetime;
+        private final boolean noCache;
+
+        private Entry(HttpVersion version, int status, String reason, HttpFields headers, Map<String, String> variants, RetainableByteBuffer content, long requestTime, long responseTime, Directives directives)
+        {
+            this.version = version;
+            this.status = status;
+            this.reason = reason;
+            this.headers = headers;
+            this.variants = variants;
+            this.content = content;
+            this.responseTime = responseTime;
+            this.noCache = directives.noCache;
+
+            // See RFC 9111 section 4.2.3.
+            long date = parseDate(headers.get(HttpHeader.DATE));
+            if (date < 0)
+                date = responseTime;
+            long ageValue = 0;
+            try
+            {
+                ageValue = Math.max(0, headers.getLongField(HttpHeader.AGE));
+            }
+            catch (NumberFormatException ignored)
+            {
+            }
+            long apparentAge = Math.max(0, responseTime - date);
+            long correctedAgeValue = TimeUnit.SECONDS.toMillis(ageValue) + (responseTime - requestTime);
+            this.initialAge = Math.max(apparentAge, correctedAgeValue);
+
+            // See RFC 9111 section 4.2.1 and 4.2.2.
+            long lifetime = 0;
+            if (directives.maxAge >= 0)
+            {
+                lifetime = TimeUnit.SECONDS.toMillis(directives.maxAge);
+            }
+            else if (headers.contains(HttpHeader.EXPIRES))
+            {
+                long expires = parseDate(headers.get(HttpHeader.EXPIRES));
+                lifetime = expires < 0 ? 0 : Math.max(0, expires - date);
+            }
+            else if (HEURISTIC_STATUSES.contains(status))
+            {
+                long lastModified = parseDate(headers.get(HttpHeader.LAST_MODIFIED));
+                if (lastModified >= 0)
+                    lifetime = Math.max(0, date - lastModified) / 10;
+            }
+            this.freshnessLifetime = lifetime;
+        }
+
+        private static long parseDate(String value)
+        {
+            return value == null ? -1 : HttpDateTime.parseToEpoch(value);
+        }
+
+        private long contentLength()
+        {
+            return content == null ? 0 : content.remaining();
+        }
+
+        private long currentAge(long now)
+        {
+            return initialAge + Math.max(0, now - responseTime);
+        }
+
+        private boolean isFresh(long now, Directives request)
+        {
+            if (noCache || request.noCache)
+                return false;
+            long age = currentAge(now);
+            if (age >= freshnessLifetime)
+                return false;
+            if (request.maxAge >= 0 && age > TimeUnit.SECONDS.toMillis(request.maxAge))
+                return false;
+            return freshnessLifetime - age >= TimeUnit.SECONDS.toMillis(request.minFresh);
+        }
+
+        private boolean hasValidators()
+        {
+            return headers.contains(HttpHeader.ETAG) || headers.contains(HttpHeader.LAST_MODIFIED);
+        }
+
+        private boolean matches(HttpFields requestHeaders)
+        {
+            for (Map.Entry<String, String> variant : variants.entrySet())
+            {
+                if (!Objects.equals(variant.getValue(), requestHeaders.get(variant.getKey())))
+                    return false;
+            }
+            return true;
+        }
+
+        private Response newResponse(Request request, long now)
+        {
+            CachedResponse response = new CachedResponse(request);
+            response.version(version).status(status).reason(reason);
+            response.headers(fields ->
+            {
+                fields.add(headers);
+                fields.put(HttpHeader.AGE, TimeUnit.MILLISECONDS.toSeconds(currentAge(now)));
+            });
+            return response;
+        }
+
+        private void retain()
+        {
+            if (content != null)
+                content.retain();
+        }
+
+        private void release()
+        {
+            if (content != null)
+                content.release();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x[status=%d,length=%d,lifetime=%d]", getClass().getSimpleName(), hashCode(), status, contentLength(), freshnessLifetime);
+        }
+    }
+
+    private static class CachedResponse extends HttpResponse
+    {
+        private CachedResponse(Request request)
+        {
+            super(request);
+        }
+    }
+
+    private class StoreListener implements Response.HeadersListener, Response.ContentListener, Response.SuccessListener, Response.FailureListener
+    {
+        private final String key;
+        private final Request request;
+        private final long requestTime;
+        private Directives directives;
+        private Map<String, String> variants;
+        private RetainableByteBuffer content;
+        private boolean storable;
+
+        private StoreListener(String key, Request request, long requestTime)
+        {
+            this.key = key;
+            this.request = request;
+            this.requestTime = requestTime;
+        }
+
+        private boolean accept(Response response)
+        {
+            // Ignore responses replayed from the cache, and responses
+            // to other requests that copied the listeners, such as redirects.
+            return response.getRequest() == request && !(response instanceof CachedResponse);
+        }
+
+        @Override
+        public void onHeaders(Response response)
+        {
+            if (!accept(response))
+                return;
+            HttpFields headers = response.getHeaders();
+            directives = Directives.from(headers);
+            if (directives.noStore)
+                return;
+            int status = response.getStatus();
+            if (status == HttpStatus.PARTIAL_CONTENT_206 || status == HttpStatus.NOT_MODIFIED_304)
+                return;
+            if (!HEURISTIC_STATUSES.contains(status) && !directives.hasExpiry && !headers.contains(HttpHeader.EXPIRES))
+                return;
+            long contentLength = headers.getLongField(HttpHeader.CONTENT_LENGTH);
+            if (contentLength > getMaxEntrySize())
+                return;
+            variants = new HashMap<>();
+            for (String name : headers.getCSV(HttpHeader.VARY, false))
+            {
+                if ("*".equals(name))
+                    return;
+                variants.put(name, request.getHeaders().get(name));
+            }
+            if (contentLength > 0)
+                content = acquire((int)contentLength);
+            storable = true;
+        }
+
+        @Override
+        public void onContent(Response response, ByteBuffer buffer)
+        {
+            if (!storable || !accept(response))
+                return;
+            int length = buffer.remaining();
+            if (content == null || BufferUtil.space(content.getByteBuffer()) < length)
+            {
+                long required = (content == null ? 0 : content.remaining()) + length;
+                if (required > getMaxEntrySize())
+                {
+                    abandon();
+                    return;
+                }
+                int capacity = (int)Math.min(getMaxEntrySize(), Math.max(required, 2L * (content == null ? 0 : content.capacity())));
+                RetainableByteBuffer larger = acquire(capacity);
+                if (content != null)
+                {
+                    BufferUtil.append(larger.getByteBuffer(), content.getByteBuffer());
+                    content.release();
+                }
+                content = larger;
+            }
+            BufferUtil.append(content.getByteBuffer(), buffer.slice());
+        }
+
+        @Override
+        public void onSuccess(Response response)
+        {
+            if (!storable || !accept(response))
+                return;
+            storable = false;
+            HttpFields.Mutable headers = HttpFields.build(response.getHeaders());
+            headers.remove(HOP_HEADERS);
+            RetainableByteBuffer stored = content;
+            content = null;
+            if (stored != null && !stored.hasRemaining())
+            {
+                stored.release();
+                stored = null;
+            }
+            store(key, new Entry(response.getVersion(), response.getStatus(), response.getReason(), headers.asImmutable(), variants, stored, requestTime, System.currentTimeMillis(), directives));
+        }
+
+        @Override
+        public void onFailure(Response response, Throwable failure)
+        {
+            if (accept(response))
+                abandon();
+        }
+
+        private RetainableByteBuffer acquire(int capacity)
+        {
+            ByteBufferPool byteBufferPool = client.getByteBufferPool();
+            return byteBufferPool.acquire(capacity, false);
+        }
+
+        private void abandon()
+        {
+            storable = false;
+            if (content != null)
+                content.release();
+            content = null;
+        }
+    }
+
+    private class RevalidationListener implements Response.Listener
+    {
+        @Override
+        public void onComplete(Result result)
+        {
+            HttpRequest request = (HttpRequest)result.getRequest();
+            HttpConversation conversation = request.getConversation();
+            conversation.updateResponseListeners(null);
+            ResponseListeners listeners = conversation.getResponseListeners();
+            if (result.isFailed())
+            {
+                listeners.emitFailureComplete(result);
+                return;
+            }
+
+            Revalidation revalidation = (Revalidation)request.getAttributes().get(REVALIDATION_ATTRIBUTE);
+            Entry entry = revalidated(revalidation, result.getResponse());
+            revalidations.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Cache revalidated {} for {}", entry, request);
+            replay(listeners, request, entry);
+        }
+
+        private Entry revalidated(Revalidation revalidation, Response notModified)
+        {
+            // See RFC 9111 section 4.3.4: update the stored headers with the 304 ones.
+            Entry stale = revalidation.entry();
+            HttpFields.Mutable headers = HttpFields.build(stale.headers);
+            for (HttpField field : notModified.getHeaders())
+            {
+                HttpHeader header = field.getHeader();
+                if (header == HttpHeader.CONTENT_LENGTH || HOP_HEADERS.contains(header))
+                    continue;
+                headers.put(field);
+            }
+            HttpFields updated = headers.asImmutable();
+            Directives directives = Directives.from(updated);
+            stale.retain();
+            Entry entry = new Entry(stale.version, stale.status, stale.reason, updated, stale.variants, stale.content, revalidation.requestTime(), System.currentTimeMillis(), directives);
+            store(revalidation.key(), entry);
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.jetty.util.ConcurrentPool;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A {@link ConnectionPool} that provides the connection that is expected
+ * to complete a request the soonest, using the <em>power of two choices</em>
+ * algorithm.</p>
+ * <p>For every connection, this class tracks the number of in-flight requests
+ * and an exponentially weighted moving average (EWMA) of the request latency,
+ * that is the time between the connection is acquired and it is released.
+ * When a connection is requested, two connections are sampled at random and
+ * the one with the lower cost, computed as the product of the latency and the
+ * number of in-flight requests plus one, is provided.
+ * Connections that have not completed a request yet have no latency estimate
+ * of their own and are assumed to perform like the pool-wide average.
+ * The time accumulated by the in-flight requests since the last completion is
+ * a lower bound of the latency, so that a connection that stalls becomes more
+ * costly as time passes, even if it has never completed a request.</p>
+ * <p>Sampling only two connections keeps the selection cost constant, while
+ * avoiding the herd behavior of always picking the globally least loaded
+ * connection with stale information.</p>
+ * <p>For multiplexed connections the latency is estimated, using Little's law,
+ * from the number of in-flight requests over time.</p>
+ *
+ * @see RandomConnectionPool
+ */
+@ManagedObject
+public class LeastLatencyConnectionPool extends MultiplexConnectionPool
+{
+    private final Map<Connection, Latency> latencies;
+    private final AtomicLong meanLatency;
+    private volatile double latencyWeight = 0.3D;
+
+    public LeastLatencyConnectionPool(Destination destination, int maxConnections)
+    {
+        this(destination, maxConnections, 1);
+    }
+
+    public LeastLatencyConnectionPool(Destination destination, int maxConnections, int initialMaxMultiplex)
+    {
+        this(destination, maxConnections, initialMaxMultiplex, new ConcurrentHashMap<>(), new AtomicLong());
+    }
+
+    private LeastLatencyConnectionPool(Destination destination, int maxConnections, int initialMaxMultiplex, Map<Connection, Latency> latencies, AtomicLong meanLatency)
+    {
+        super(destination, () -> new LatencyPool(maxConnections, newMaxMultiplexer(initialMaxMultiplex), latencies, meanLatency), initialMaxMultiplex);
+        this.latencies = latencies;
+        this.meanLatency = meanLatency;
+    }
+
+    /**
+     * @return the weight of the most recent latency sample in the moving average
+     */
+    @ManagedAttribute("The weight of the most recent latency sample in the moving average")
+    public double getLatencyWeight()
+    {
+        return latencyWeight;
+    }
+
+    /**
+     * <p>Sets the weight of the most recent latency sample in the moving average.</p>
+     * <p>Larger values react faster to latency changes, smaller values smooth out spikes.</p>
+     *
+     * @param latencyWeight the weight, greater than 0 and at most 1
+     */
+    public void setLatencyWeight(double latencyWeight)
+    {
+        if (!(latencyWeight > 0D && latencyWeight <= 1D))
+            throw new IllegalArgumentException("Invalid latency weight " + latencyWeight);
+        this.latencyWeight = latencyWeight;
+    }
+
+    /**
+     * @return the moving average of the latency of all connections, in milliseconds,
+     * or {@code -1} if no connection has completed a request yet
+     */
+    @ManagedAttribute("The moving average of the latency of all connections, in milliseconds")
+    public long getMeanLatency()
+    {
+        long mean = meanLatency.get();
+        return mean == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(mean);
+    }
+
+    /**
+     * @param connection the connection
+     * @return the moving average of the latency of the given connection, in milliseconds,
+     * or {@code -1} if the connection has not completed a request yet
+     */
+    public long getLatency(Connection connection)
+    {
+        Latency latency = latencies.get(connection);
+        if (latency == null)
+            return -1;
+        long average = latency.average;
+        return average == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(average);
+    }
+
+    /**
+     * @param connection the connection
+     * @return the number of requests in-flight on the given connection
+     */
+    public int getInFlight(Connection connection)
+    {
+        Latency latency = latencies.get(connection);
+        return latency == null ? 0 : latency.inFlight;
+    }
+
+    @Override
+    public Connection acquire(boolean create)
+    {
+        Connection connection = super.acquire(create);
+        if (connection != null)
+        {
+            Latency latency = latencies.get(connection);
+            if (latency != null)
+                latency.onAcquired();
+        }
+        return connection;
+    }
+
+    @Override
+    public boolean release(Connection connection)
+    {
+        Latency latency = latencies.get(connection);
+        if (latency != null)
+        {
+            double weight = latencyWeight;
+            long sample = latency.onReleased(weight);
+            if (sample > 0)
+                meanLatency.updateAndGet(current -> average(current, sample, weight));
+        }
+        return super.release(connection);
+    }
+
+    @Override
+    protected void onCreated(Connection connection)
+    {
+        latencies.put(connection, new Latency());
+        super.onCreated(connection);
+    }
+
+    @Override
+    protected void onRemoved(Connection connection)
+    {
+        latencies.remove(connection);
+        super.onRemoved(connection);
+    }
+
+    private static long average(long current, long sample, double weight)
+    {
+        return current == 0 ? sample : current + (long)(weight * (sample - current));
+    }
+
+    private static class LatencyPool extends ConcurrentPool<Connection>
+    {
+        private final Map<Connection, Latency> latencies;
+        private final AtomicLong meanLatency;
+
+        private LatencyPool(int maxSize, ToIntFunction<Connection> maxMultiplex, Map<Connection, Latency> latencies, AtomicLong meanLatency)
+        {
+            super(StrategyType.RANDOM, maxSize, maxMultiplex);
+            this.latencies = latencies;
+            this.meanLatency = meanLatency;
+        }
+
+        @Override
+        protected int startIndex(int size)
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(size);
+            if (size == 1)
+                return first;
+            int second = random.nextInt(size - 1);
+            if (second >= first)
+                ++second;
+            long mean = meanLatency.get();
+            return cost(second, mean) < cost(first, mean) ? second : first;
+        }
+
+        private long cost(int index, long mean)
+        {
+            Entry<Connection> entry = entryAt(index);
+            Connection connection = entry == null ? null : entry.getPooled();
+            if (connection == null)
+                return Long.MAX_VALUE;
+            Latency latency = latencies.get(connection);
+            if (latency == null)
+                return Long.MAX_VALUE;
+            return latency.cost(mean);
+        }
+    }
+
+    private static class Latency
+    {
+        private final AutoLock lock = new AutoLock();
+        private long lastNanoTime = NanoTime.now();
+        private long area;
+        private volatile int inFlight;
+        private volatile long average;
+
+        private void onAcquired()
+        {
+            try (AutoLock ignored = lock.lock())
+            {
+                advance();
+                inFlight = inFlight + 1;
+            }
+        }
+
+        private long onReleased(double weight)
+        {
+            try (AutoLock ignored = lock.lock())
+            {
+                if (inFlight == 0)
+                    return 0;
+                advance();
+                inFlight = inFlight - 1;
+                // Little's law: the area under the in-flight curve since
+                // the previous completion estimates this request latency.
+                long sample = Math.max(1L, area);
+                area = 0;
+                average = average(average, sample, weight);
+                return sample;
+            }
+        }
+
+        private void advance()
+        {
+            long now = NanoTime.now();
+            area += inFlight * NanoTime.elapsed(lastNanoTime, now);
+            lastNanoTime = now;
+        }
+
+        private long cost(long mean)
+        {
+            int inFlight;
+            long pending;
+            try (AutoLock ignored = lock.lock())
+            {
+                inFlight = this.inFlight;
+                pending = area + inFlight * NanoTime.since(lastNanoTime);
+            }
+            // Connections without a latency estimate are assumed to be average,
+            // slightly less so they win ties and quickly get an estimate.
+            long estimate = average == 0 ? mean - 1 : average;
+            // The requests in-flight since the last completion have
+            // already taken at least this long, even if they never complete.
+            long latency = Math.max(Math.max(1L, estimate), pending);
+            return (inFlight + 1) * latency;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.client.internal.HttpContentResponse;
+import org.eclipse.jetty.client.transport.HttpDestination;
+import org.eclipse.jetty.client.transport.ResponseListeners;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Sends requests with speculative <em>hedged</em> requests, to reduce the
+ * tail latency of requests to destinations with highly variable latencies.</p>
+ * <p>When a request sent via {@link #send(Request, Response.CompleteListener)}
+ * does not complete within the {@link #getPercentile() percentile} of the
+ * latencies recently observed for its {@link Destination}, a copy of the request
+ * is sent; since the original request still occupies its connection, the copy
+ * is typically sent on another connection.
+ * The first request that completes successfully wins, and the other is
+ * {@link Request#abort(Throwable) aborted}.</p>
+ * <p>Only idempotent requests without content are hedged.
+ * Hedged requests are limited by the {@link HttpDestination#getRetryBudget()
+ * destination retry budget}, so that hedging does not multiply the load on a
+ * destination that is already slow because it is overloaded.</p>
+ * <p>The response content is buffered up to {@link #getMaxContentLength()} bytes,
+ * and the response events are notified to the listener passed to {@code send(...)}
+ * for the winning request only; listeners added to the request itself are notified
+ * for the original request only.</p>
+ */
+@ManagedObject("Sends hedged requests")
+public class RequestHedger
+{
+    private static final Logger LOG = LoggerFactory.getLogger(RequestHedger.class);
+
+    private final Map<Origin, LatencyHistory> histories = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetRejections = new LongAdder();
+    private final HttpClient client;
+    private double percentile = 95D;
+    private long minDelay = 5;
+    private long maxDelay = 1000;
+    private int maxContentLength = 2 * 1024 * 1024;
+
+    public RequestHedger(HttpClient client)
+    {
+        this.client = Objects.requireNonNull(client);
+    }
+
+    /**
+     * @return the percentile of the recent request latencies after which a hedged request is sent
+     */
+    @ManagedAttribute("The percentile of the recent request latencies after which a hedged request is sent")
+    public double getPercentile()
+    {
+        return percentile;
+    }
+
+    /**
+     * @param percentile the percentile of the recent request latencies after which a hedged request is sent
+     */
+    public void setPercentile(double percentile)
+    {
+        if (!(percentile > 0D && percentile <= 100D))
+            throw new IllegalArgumentException("Invalid percentile " + percentile);
+        this.percentile = percentile;
+    }
+
+    /**
+     * @return the min delay in milliseconds before a hedged request is sent
+     */
+    @ManagedAttribute("The min delay in milliseconds before a hedged request is sent")
+    public long getMinDelay()
+    {
+        return minDelay;
+    }
+
+    /**
+     * @param minDelay the min delay in milliseconds before a hedged request is sent
+     */
+    public void setMinDelay(long minDelay)
+    {
+        this.minDelay = minDelay;
+    }
+
+    /**
+     * <p>Returns the max delay in milliseconds before a hedged request is sent.</p>
+     * <p>This is also the delay used for destinations that have no recent latencies.</p>
+     *
+     * @return the max delay in milliseconds before a hedged request is sent
+     */
+    @ManagedAttribute("The max delay in milliseconds before a hedged request is sent")
+    public long getMaxDelay()
+    {
+        return maxDelay;
+    }
+
+    /**
+     * @param maxDelay the max delay in milliseconds before a hedged request is sent
+     */
+    public void setMaxDelay(long maxDelay)
+    {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * @return the max length in bytes of the buffered response content
+     */
+    @ManagedAttribute("The max length in bytes of the buffered response content")
+    public int getMaxContentLength()
+    {
+        return maxContentLength;
+    }
+
+    /**
+     * @param maxContentLength the max length in bytes of the buffered response content
+     */
+    public void setMaxContentLength(int maxContentLength)
+    {
+        this.maxContentLength = maxContentLength;
+    }
+
+    @ManagedAttribute("The number of requests sent")
+    public long getRequests()
+    {
+        return requests.longValue();
+    }
+
+    @ManagedAttribute("The number of hedged requests sent")
+    public long getHedges()
+    {
+        return hedges.longValue();
+    }
+
+    @ManagedAttribute("The number of hedged requests that completed before the original request")
+    public long getHedgeWins()
+    {
+        return hedgeWins.longValue();
+    }
+
+    @ManagedAttribute("The number of hedged requests not sent because the retry budget was exhausted")
+    public long getBudgetRejections()
+    {
+        return budgetRejections.longValue();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        requests.reset();
+        hedges.reset();
+        hedgeWins.reset();
+        budgetRejections.reset();
+    }
+
+    /**
+     * @param origin the origin of a destination
+     * @return the delay in milliseconds before a hedged request to the given origin is sent
+     */
+    public long getHedgeDelay(Origin origin)
+    {
+        LatencyHistory history = histories.get(origin);
+        long latency = history == null ? -1 : history.percentileLatency;
+        if (latency < 0)
+            return getMaxDelay();
+        return Math.max(getMinDelay(), Math.min(getMaxDelay(), latency));
+    }
+
+    /**
+     * <p>Sends the given request, and possibly a hedged copy of it.</p>
+     *
+     * @param request the request to send
+     * @return a {@link CompletableFuture} completed with the response of the request that won
+     */
+    public CompletableFuture<ContentResponse> send(Request request)
+    {
+        CompletableFuture<ContentResponse> completable = new CompletableFuture<>();
+        send(request, result ->
+        {
+            if (result.isFailed())
+                completable.completeExceptionally(result.getFailure());
+            else
+                completable.complete((ContentResponse)result.getResponse());
+        });
+        return completable;
+    }
+
+    /**
+     * <p>Sends the given request, and possibly a hedged copy of it.</p>
+     *
+     * @param request the request to send
+     * @param listener the listener notified of the response events of the request that won
+     */
+    public void send(Request request, Response.CompleteListener listener)
+    {
+        HttpDestination destination = (HttpDestination)client.resolveDestination(request);
+        LatencyHistory history = histories.computeIfAbsent(destination.getOrigin(), key -> new LatencyHistory());
+        requests.increment();
+        new Hedge(request, Objects.requireNonNull(listener), destination, history).send();
+    }
+
+    private static boolean isHedgeable(Request request)
+    {
+        if (request.getBody() != null)
+            return false;
+        HttpMethod method = HttpMethod.fromString(request.getMethod());
+        return method != null && method.isIdempotent();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[percentile=%.1f,delay=%d..%dms]", getClass().getSimpleName(), hashCode(), getPercentile(), getMinDelay(), getMaxDelay());
+    }
+
+    private class Hedge
+    {
+        private final AutoLock lock = new AutoLock();
+        private final List<Attempt> attempts = new ArrayList<>(2);
+        private final Request request;
+        private final HttpFields headers;
+        private final Response.CompleteListener listener;
+        private final HttpDestination destination;
+        private final LatencyHistory history;
+        private final long beginNanoTime = NanoTime.now();
+        private Scheduler.Task task;
+        private boolean complete;
+
+        private Hedge(Request request, Response.CompleteListener listener, HttpDestination destination, LatencyHistory history)
+        {
+            this.request = request;
+            // Capture the headers before they are modified by sending the request.
+            this.headers = HttpFields.build(request.getHeaders()).asImmutable();
+            this.listener = listener;
+            this.destination = destination;
+            this.history = history;
+        }
+
+        private void send()
+        {
+            Attempt attempt = new Attempt(request);
+            try (AutoLock ignored = lock.lock())
+            {
+                attempts.add(attempt);
+                if (isHedgeable(request))
+                {
+                    long delay = getHedgeDelay(destination.getOrigin());
+                    task = client.getScheduler().schedule(this::hedge, delay, TimeUnit.MILLISECONDS);
+                }
+            }
+            attempt.send();
+        }
+
+        private void hedge()
+        {
+            Attempt attempt;
+            try (AutoLock ignored = lock.lock())
+            {
+                task = null;
+                if (complete)
+                    return;
+                if (!destination.getRetryBudget().tryWithdraw())
+                {
+                    budgetRejections.increment();
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Retry budget exhausted, not hedging {}", request);
+                    return;
+                }
+                attempt = new Attempt(copy());
+                attempts.add(attempt);
+            }
+            hedges.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Hedging {} with {}", request, attempt.request);
+            attempt.send();
+        }
+
+        /**
+         * <p>Copies the original request, with the headers it had before it was sent.</p>
+         * <p>The request and response listeners, and the push handler, of the original
+         * request are not carried over to the copy.</p>
+         *
+         * @return a copy of the original request
+         */
+        private Request copy()
+        {
+            Request copy = client.newRequest(request.getURI())
+                .transport(request.getTransport())
+                .method(request.getMethod())
+                .version(request.getVersion())
+                .tag(request.getTag())
+                .idleTimeout(request.getIdleTimeout(), TimeUnit.MILLISECONDS)
+                .timeout(request.getTimeout(), TimeUnit.MILLISECONDS)
+                .followRedirects(request.isFollowRedirects())
+                .headers(fields -> fields.clear().add(headers));
+            request.getAttributes().forEach(copy::attribute);
+            // The cookies are only converted to a header when the request is sent.
+            request.getCookies().forEach(copy::cookie);
+            return copy;
+        }
+
+        private void onComplete(Attempt attempt, Result result)
+        {
+            List<Attempt> losers = new ArrayList<>(1);
+            try (AutoLock ignored = lock.lock())
+            {
+                attempt.completed = true;
+                if (complete)
+                    return;
+                boolean pending = attempts.stream().anyMatch(other -> !other.completed);
+                // Wait for the other requests, unless the application aborted the request.
+                boolean aborted = request.getAbortCause() != null;
+                if (result.isFailed() && pending && !aborted)
+                    return;
+                complete = true;
+                if (task != null)
+                    task.cancel();
+                task = null;
+                for (Attempt other : attempts)
+                {
+                    if (other != attempt && !other.completed)
+                        losers.add(other);
+                }
+            }
+
+            for (Attempt loser : losers)
+            {
+                Throwable cause = request.getAbortCause();
+                if (cause == null)
+                    cause = new HttpRequestException("Request superseded by hedged request", loser.request);
+                loser.request.abort(cause);
+            }
+
+            if (result.isSucceeded())
+            {
+                // Record the latency observed by the application, from when the original
+                // request was sent, so that slow original requests remain in the samples.
+                history.record(NanoTime.millisSince(beginNanoTime), getPercentile());
+                if (attempt.request != request)
+                    hedgeWins.increment();
+            }
+
+            ResponseListeners listeners = new ResponseListeners();
+            listeners.addCompleteListener(listener, true);
+            ContentResponse response = new HttpContentResponse(result.getResponse(), attempt.getContent(), attempt.getMediaType(), attempt.getEncoding());
+            if (result.isSucceeded())
+                listeners.emitSuccessComplete(new Result(result.getRequest(), response));
+            else
+                listeners.emitFailureComplete(new Result(result.getRequest(), result.getRequestFailure(), response, result.getResponseFailure()));
+        }
+
+        private class Attempt extends BufferingResponseListener
+        {
+            private final Request request;
+            private boolean completed;
+
+            private Attempt(Request request)
+            {
+                super(getMaxContentLength());
+                this.request = request;
+            }
+
+            private void send()
+            {
+                request.send(this);
+            }
+
+            @Override
+            public void onComplete(Result result)
+            {
+                Hedge.this.onComplete(this, result);
+            }
+        }
+    }
+
+    /**
+     * <p>The recent latencies of the successful requests to a destination.</p>
+     */
+    private static class LatencyHistory
+    {
+        private static final int SAMPLES = 256;
+        private static final int UPDATE_INTERVAL = 16;
+
+        private final AutoLock lock = new AutoLock();
+        private final long[] samples = new long[SAMPLES];
+        private int index;
+        private int count;
+        private volatile long percentileLatency = -1;
+
+        private void record(long latency, double percentile)
+        {
+            try (AutoLock ignored = lock.lock())
+            {
+                samples[index] = latency;
+                index = (index + 1) % SAMPLES;
+                count = Math.min(count + 1, SAMPLES);
+                // Sorting is expensive, so update the percentile only periodically
+                // once there are enough samples to make it meaningful.
+                if (count < UPDATE_INTERVAL || index % UPDATE_INTERVAL == 0)
+                {
+                    long[] sorted = Arrays.copyOf(samples, count);
+                    Arrays.sort(sorted);
+                    int rank = (int)Math.ceil(percentile / 100D * count) - 1;
+                    percentileLatency = sorted[Math.max(0, Math.min(count - 1, rank))];
+                }
+            }
+        }
+    }
+}
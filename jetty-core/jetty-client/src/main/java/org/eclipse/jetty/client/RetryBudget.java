@@ -0,0 +1,198 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A token bucket that limits the number of retries, or hedged requests,
+ * sent to a {@link Destination} to a fraction of the requests sent to it.</p>
+ * <p>Every request {@link #deposit() deposits} {@link #getRatio() ratio} tokens
+ * in the bucket, and every retry must {@link #tryWithdraw() withdraw} one token.
+ * The bucket is also refilled at {@link #getMinRetriesPerSecond() a minimum rate},
+ * so that low traffic destinations can still retry, and it holds at most
+ * {@link #getCapacity() capacity} tokens.</p>
+ * <p>When a destination fails, retries quickly drain the bucket, so that retries
+ * do not multiply the load on the destination when it can least sustain it.</p>
+ */
+@ManagedObject("Retry budget")
+public class RetryBudget
+{
+    private static final long SCALE = 1000;
+
+    private final AtomicLong balance = new AtomicLong();
+    private final LongAdder withdrawn = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AutoLock lock = new AutoLock();
+    private final double ratio;
+    private final int minRetriesPerSecond;
+    private final int capacity;
+    private final long depositAmount;
+    private final long maxBalance;
+    private long refillNanoTime = NanoTime.now();
+
+    /**
+     * <p>Creates a retry budget that allows 10% of retries, at least 10 retries
+     * per second, with a capacity of 100 retries.</p>
+     */
+    public RetryBudget()
+    {
+        this(0.1D, 10, 100);
+    }
+
+    /**
+     * @param ratio the number of retries allowed per request, between 0 and 1
+     * @param minRetriesPerSecond the number of retries per second allowed regardless of the number of requests
+     * @param capacity the max number of retries that can be accumulated in the budget
+     */
+    public RetryBudget(double ratio, int minRetriesPerSecond, int capacity)
+    {
+        if (ratio < 0D || ratio > 1D)
+            throw new IllegalArgumentException("Invalid ratio " + ratio);
+        if (minRetriesPerSecond < 0)
+            throw new IllegalArgumentException("Invalid min retries per second " + minRetriesPerSecond);
+        if (capacity < 1)
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.capacity = capacity;
+        this.depositAmount = Math.round(ratio * SCALE);
+        this.maxBalance = capacity * SCALE;
+        this.balance.set(Math.min(maxBalance, minRetriesPerSecond * SCALE));
+    }
+
+    @ManagedAttribute("The number of retries allowed per request")
+    public double getRatio()
+    {
+        return ratio;
+    }
+
+    @ManagedAttribute("The number of retries per second allowed regardless of the number of requests")
+    public int getMinRetriesPerSecond()
+    {
+        return minRetriesPerSecond;
+    }
+
+    @ManagedAttribute("The max number of retries that can be accumulated")
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return the number of retries currently allowed
+     */
+    @ManagedAttribute("The number of retries currently allowed")
+    public int getBalance()
+    {
+        refill();
+        return (int)(balance.get() / SCALE);
+    }
+
+    @ManagedAttribute("The number of retries allowed by this budget")
+    public long getWithdrawn()
+    {
+        return withdrawn.longValue();
+    }
+
+    @ManagedAttribute("The number of retries rejected by this budget")
+    public long getRejected()
+    {
+        return rejected.longValue();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        withdrawn.reset();
+        rejected.reset();
+    }
+
+    /**
+     * <p>Deposits the tokens earned by sending a request.</p>
+     */
+    public void deposit()
+    {
+        add(depositAmount);
+    }
+
+    /**
+     * <p>Tries to withdraw the token necessary to send a retry.</p>
+     *
+     * @return whether a retry can be sent
+     */
+    public boolean tryWithdraw()
+    {
+        refill();
+        while (true)
+        {
+            long current = balance.get();
+            if (current < SCALE)
+            {
+                rejected.increment();
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE))
+            {
+                withdrawn.increment();
+                return true;
+            }
+        }
+    }
+
+    private void add(long amount)
+    {
+        while (true)
+        {
+            long current = balance.get();
+            // Fast path for the common case of a full bucket.
+            if (current >= maxBalance)
+                return;
+            if (balance.compareAndSet(current, Math.min(maxBalance, current + amount)))
+                return;
+        }
+    }
+
+    private void refill()
+    {
+        if (minRetriesPerSecond == 0)
+            return;
+        long amount;
+        try (AutoLock ignored = lock.lock())
+        {
+            long now = NanoTime.now();
+            // Cap the elapsed time to avoid overflows, the bucket would be full anyway.
+            long elapsed = Math.min(NanoTime.elapsed(refillNanoTime, now), TimeUnit.SECONDS.toNanos(capacity));
+            amount = elapsed * minRetriesPerSecond * SCALE / TimeUnit.SECONDS.toNanos(1);
+            if (amount == 0)
+                return;
+            refillNanoTime = now;
+        }
+        add(amount);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[balance=%d/%d,ratio=%.2f,min=%d/s]", getClass().getSimpleName(), hashCode(), getBalance(), getCapacity(), getRatio(), getMinRetriesPerSecond());
+    }
+}
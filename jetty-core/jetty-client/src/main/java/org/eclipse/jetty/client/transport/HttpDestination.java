@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.nio.channels.AsynchronousCloseException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
@@ -29,6 +30,7 @@ import org.eclipse.jetty.client.Origin;
 import org.eclipse.jetty.client.ProxyConfiguration;
 import org.eclipse.jetty.client.Request;
 import org.eclipse.jetty.client.Response;
+import org.eclipse.jetty.client.RetryBudget;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpScheme;
@@ -67,6 +69,7 @@ public class HttpDestination extends ContainerLifeCycle implements Destination,
     private final RequestTimeouts requestTimeouts;
     private final AutoLock staleLock = new AutoLock();
     private ConnectionPool connectionPool;
+    private RetryBudget retryBudget = new RetryBudget();
     private boolean stale;
     private long activeNanoTime;
 
@@ -124,6 +127,7 @@ public class HttpDestination extends ContainerLifeCycle implements Destination,
         if (tag instanceof ClientConnectionFactory.Decorator)
             connectionFactory = ((ClientConnectionFactory.Decorator)tag).apply(connectionFactory);
         this.connectionFactory = connectionFactory;
+        addBean(retryBudget);
     }
 
     public void accept(Connection connection)
@@ -285,6 +289,25 @@ public class HttpDestination extends ContainerLifeCycle implements Destination,
         return connectionPool;
     }
 
+    /**
+     * @return the budget that limits the retries sent to this destination
+     */
+    @ManagedAttribute(value = "The retry budget", readonly = true)
+    public RetryBudget getRetryBudget()
+    {
+        return retryBudget;
+    }
+
+    /**
+     * @param retryBudget the budget that limits the retries sent to this destination
+     */
+    public void setRetryBudget(RetryBudget retryBudget)
+    {
+        Objects.requireNonNull(retryBudget);
+        updateBean(this.retryBudget, retryBudget);
+        this.retryBudget = retryBudget;
+    }
+
     @Override
     public void succeeded()
     {
@@ -300,6 +323,7 @@ public class HttpDestination extends ContainerLifeCycle implements Destination,
     @Override
     public void send(Request request, Response.CompleteListener listener)
     {
+        retryBudget.deposit();
         ((HttpRequest)request).sendAsync(this, listener);
     }
 
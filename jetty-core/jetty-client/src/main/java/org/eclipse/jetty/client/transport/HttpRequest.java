@@ -44,6 +44,7 @@ import org.eclipse.jetty.client.Connection;
 import org.eclipse.jetty.client.ContentResponse;
 import org.eclipse.jetty.client.Destination;
 import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpResponseCache;
 import org.eclipse.jetty.client.Origin;
 import org.eclipse.jetty.client.PathRequestContent;
 import org.eclipse.jetty.client.Request;
@@ -740,6 +741,9 @@ public class HttpRequest implements Request
     @Override
     public void send(Response.CompleteListener listener)
     {
+        HttpResponseCache responseCache = client.getResponseCache();
+        if (responseCache != null && responseCache.serve(this, listener))
+            return;
         Destination destination = client.resolveDestination(this);
         destination.send(this, listener);
     }
@@ -23,6 +23,7 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -59,6 +60,8 @@ import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ConnectionPoolTest
@@ -75,15 +78,16 @@ public class ConnectionPoolTest
         return pool;
     });
     private static final ConnectionPoolFactory ROUND_ROBIN = new ConnectionPoolFactory("round-robin", destination -> new RoundRobinConnectionPool(destination, destination.getHttpClient().getMaxConnectionsPerDestination()));
+    private static final ConnectionPoolFactory LEAST_LATENCY = new ConnectionPoolFactory("least-latency", destination -> new LeastLatencyConnectionPool(destination, destination.getHttpClient().getMaxConnectionsPerDestination()));
 
     public static Stream<ConnectionPoolFactory> pools()
     {
-        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION, ROUND_ROBIN);
+        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION, ROUND_ROBIN, LEAST_LATENCY);
     }
 
     public static Stream<ConnectionPoolFactory> poolsNoRoundRobin()
     {
-        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION);
+        return Stream.of(DUPLEX, MULTIPLEX, RANDOM, DUPLEX_MAX_DURATION, LEAST_LATENCY);
     }
 
     private Server server;
@@ -703,6 +707,116 @@ public class ConnectionPoolTest
         assertThat(connectionPool.toString(), not(nullValue()));
     }
 
+    @Test
+    public void testLeastLatencyAvoidsSlowConnection() throws Exception
+    {
+        AtomicReference<String> slowConnection = new AtomicReference<>();
+        AtomicInteger slowRequests = new AtomicInteger();
+        startServer(new EmptyServerHandler()
+        {
+            @Override
+            protected void service(org.eclipse.jetty.server.Request request, Response response) throws Exception
+            {
+                // The first connection that sends a request is the slow one.
+                String connectionId = request.getConnectionMetaData().getId();
+                slowConnection.compareAndSet(null, connectionId);
+                if (connectionId.equals(slowConnection.get()))
+                {
+                    slowRequests.incrementAndGet();
+                    Thread.sleep(200);
+                }
+            }
+        });
+        int maxConnections = 2;
+        startClient(destination ->
+        {
+            try
+            {
+                LeastLatencyConnectionPool connectionPool = new LeastLatencyConnectionPool(destination, maxConnections);
+                LifeCycle.start(connectionPool);
+                connectionPool.preCreateConnections(maxConnections).get(5, TimeUnit.SECONDS);
+                return connectionPool;
+            }
+            catch (Exception x)
+            {
+                throw new RuntimeException(x);
+            }
+        });
+
+        int requests = 20;
+        for (int i = 0; i < requests; ++i)
+        {
+            ContentResponse response = client.newRequest("localhost", connector.getLocalPort())
+                .timeout(5, TimeUnit.SECONDS)
+                .send();
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+        }
+
+        // Once the slow connection has a latency estimate, the fast connection is always preferred.
+        assertThat(slowRequests.get(), lessThanOrEqualTo(1));
+
+        HttpDestination destination = (HttpDestination)client.getDestinations().get(0);
+        LeastLatencyConnectionPool connectionPool = (LeastLatencyConnectionPool)destination.getConnectionPool();
+        assertThat(connectionPool.getConnectionCount(), is(maxConnections));
+        for (Connection connection : connectionPool.getIdleConnections())
+        {
+            assertThat(connectionPool.getInFlight(connection), is(0));
+        }
+    }
+
+    @Test
+    public void testLeastLatencyAvoidsStalledNewMultiplexedConnection() throws Exception
+    {
+        startServer(new EmptyServerHandler());
+        int maxMultiplex = 8;
+        startClient(destination ->
+        {
+            LeastLatencyConnectionPool connectionPool = new LeastLatencyConnectionPool(destination, 2, maxMultiplex);
+            LifeCycle.start(connectionPool);
+            return connectionPool;
+        });
+
+        Destination destination = client.resolveDestination(new Origin("http", "localhost", connector.getLocalPort()));
+        LeastLatencyConnectionPool connectionPool = (LeastLatencyConnectionPool)destination.getConnectionPool();
+
+        // Give the first connection a latency estimate.
+        connectionPool.preCreateConnections(1).get(5, TimeUnit.SECONDS);
+        Connection fast = connectionPool.acquire(false);
+        assertNotNull(fast);
+        for (int i = 0; i < 10; ++i)
+        {
+            assertTrue(connectionPool.release(fast));
+            assertSame(fast, connectionPool.acquire(false));
+        }
+        assertTrue(connectionPool.release(fast));
+
+        // The new connection gets a request that never completes.
+        connectionPool.preCreateConnections(2).get(5, TimeUnit.SECONDS);
+        Connection stalled = null;
+        while (stalled == null)
+        {
+            Connection connection = connectionPool.acquire(false);
+            assertNotNull(connection);
+            if (connection == fast)
+                assertTrue(connectionPool.release(connection));
+            else
+                stalled = connection;
+        }
+        assertThat(connectionPool.getLatency(stalled), is(-1L));
+
+        Thread.sleep(100);
+
+        // The stalled connection has no latency estimate, but it must not be preferred.
+        for (int i = 0; i < 100; ++i)
+        {
+            Connection connection = connectionPool.acquire(false);
+            assertSame(fast, connection);
+            assertTrue(connectionPool.release(connection));
+        }
+        assertThat(connectionPool.getInFlight(stalled), is(1));
+        assertTrue(connectionPool.release(stalled));
+    }
+
     public static class ConnectionPoolFactory
     {
         private final String name;
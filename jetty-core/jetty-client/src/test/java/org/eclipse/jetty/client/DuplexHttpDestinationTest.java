@@ -370,6 +370,22 @@ public class DuplexHttpDestinationTest extends AbstractHttpClientServerTest
         assertTrue(client.getDestinations().isEmpty(), "Destination must be removed after connection error");
     }
 
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testSetNullRetryBudgetKeepsCurrentBudget(Scenario scenario) throws Exception
+    {
+        start(scenario, new EmptyServerHandler());
+
+        HttpDestination destination = new HttpDestination(client, new Origin("http", "localhost", connector.getLocalPort()));
+        RetryBudget retryBudget = destination.getRetryBudget();
+        assertTrue(destination.contains(retryBudget));
+
+        assertThrows(NullPointerException.class, () -> destination.setRetryBudget(null));
+
+        assertSame(retryBudget, destination.getRetryBudget());
+        assertTrue(destination.contains(retryBudget));
+    }
+
     private Connection peekIdleConnection(DuplexConnectionPool connectionPool, long time, TimeUnit unit)
     {
         return await().atMost(time, unit).until(() ->
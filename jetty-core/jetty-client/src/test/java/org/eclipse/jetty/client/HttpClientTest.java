@@ -17,9 +17,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
@@ -28,6 +30,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -85,6 +88,7 @@ import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -856,6 +860,58 @@ public class HttpClientTest extends AbstractHttpClientServerTest
             .send();
     }
 
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testConnectHostWithMultipleAddressesRacesUnresponsiveAddress(Scenario scenario) throws Exception
+    {
+        // A server socket that never accepts, with its accept queue full,
+        // so that further connect operations to it do not complete.
+        List<Socket> sockets = new ArrayList<>();
+        try (ServerSocket blackHole = new ServerSocket(0, 1, InetAddress.getLoopbackAddress()))
+        {
+            while (true)
+            {
+                Socket socket = new Socket();
+                sockets.add(socket);
+                try
+                {
+                    socket.connect(blackHole.getLocalSocketAddress(), 500);
+                }
+                catch (SocketTimeoutException x)
+                {
+                    break;
+                }
+                Assumptions.assumeTrue(sockets.size() < 16, "Could not fill the accept queue");
+            }
+
+            startServer(scenario, new EmptyServerHandler());
+            startClient(scenario, client ->
+            {
+                client.setConnectTimeout(15000);
+                client.setConnectionAttemptDelay(100);
+                client.setSocketAddressResolver((host, port, promise) ->
+                    promise.succeeded(List.of(
+                        (InetSocketAddress)blackHole.getLocalSocketAddress(),
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+                    )));
+            });
+
+            long begin = NanoTime.now();
+            ContentResponse response = client.newRequest("localhost", connector.getLocalPort())
+                .scheme(scenario.getScheme())
+                .headers(headers -> headers.put(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE))
+                .timeout(10, TimeUnit.SECONDS)
+                .send();
+
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+            assertThat(NanoTime.millisSince(begin), lessThan(client.getConnectTimeout() / 2));
+        }
+        finally
+        {
+            sockets.forEach(IO::close);
+        }
+    }
+
     @ParameterizedTest
     @ArgumentsSource(ScenarioProvider.class)
     public void testCustomUserAgent(Scenario scenario) throws Exception
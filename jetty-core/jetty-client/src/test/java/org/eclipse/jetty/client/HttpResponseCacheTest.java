@@ -0,0 +1,272 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HttpResponseCacheTest extends AbstractHttpClientServerTest
+{
+    private HttpResponseCache responseCache;
+
+    private void start(Scenario scenario, Handler handler, int maxSize) throws Exception
+    {
+        startServer(scenario, handler);
+        startClient(scenario, httpClient ->
+        {
+            responseCache = new HttpResponseCache(httpClient);
+            responseCache.setMaxSize(maxSize);
+            httpClient.setResponseCache(responseCache);
+        });
+    }
+
+    private ContentResponse send(Scenario scenario, String path) throws Exception
+    {
+        return client.newRequest("localhost", connector.getLocalPort())
+            .scheme(scenario.getScheme())
+            .path(path)
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testFreshResponseServedFromCache(Scenario scenario) throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(scenario, new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, org.eclipse.jetty.server.Response response, Callback callback)
+            {
+                response.getHeaders().put(HttpHeader.CACHE_CONTROL, "max-age=60");
+                Content.Sink.write(response, true, "content-" + requests.incrementAndGet(), callback);
+                return true;
+            }
+        }, 1024);
+
+        ContentResponse response1 = send(scenario, "/fresh");
+        assertEquals(HttpStatus.OK_200, response1.getStatus());
+        assertEquals("content-1", response1.getContentAsString());
+
+        ContentResponse response2 = send(scenario, "/fresh");
+        assertEquals(HttpStatus.OK_200, response2.getStatus());
+        assertEquals("content-1", response2.getContentAsString());
+        assertThat(response2.getHeaders().get(HttpHeader.AGE), notNullValue());
+
+        assertThat(requests.get(), is(1));
+        assertThat(responseCache.getHits(), is(1L));
+        assertThat(responseCache.getMisses(), is(1L));
+        assertThat(responseCache.getEntryCount(), is(1));
+        assertThat(responseCache.getSize(), is((long)"content-1".length()));
+
+        // The request Cache-Control directives are honored.
+        ContentResponse response3 = client.newRequest("localhost", connector.getLocalPort())
+            .scheme(scenario.getScheme())
+            .path("/fresh")
+            .headers(headers -> headers.put(HttpHeader.CACHE_CONTROL, "no-cache"))
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+        assertEquals("content-2", response3.getContentAsString());
+        assertThat(requests.get(), is(2));
+
+        // The response to the no-cache request replaced the stored one.
+        assertEquals("content-2", send(scenario, "/fresh").getContentAsString());
+        assertThat(requests.get(), is(2));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testNoStoreResponseNotCached(Scenario scenario) throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(scenario, new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, org.eclipse.jetty.server.Response response, Callback callback)
+            {
+                response.getHeaders().put(HttpHeader.CACHE_CONTROL, "max-age=60, no-store");
+                Content.Sink.write(response, true, "content-" + requests.incrementAndGet(), callback);
+                return true;
+            }
+        }, 1024);
+
+        assertEquals("content-1", send(scenario, "/no-store").getContentAsString());
+        assertEquals("content-2", send(scenario, "/no-store").getContentAsString());
+        assertThat(responseCache.getEntryCount(), is(0));
+        assertThat(responseCache.getHits(), is(0L));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testStaleResponseRevalidated(Scenario scenario) throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger notModified = new AtomicInteger();
+        start(scenario, new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, org.eclipse.jetty.server.Response response, Callback callback)
+            {
+                requests.incrementAndGet();
+                response.getHeaders().put(HttpHeader.CACHE_CONTROL, "max-age=0");
+                response.getHeaders().put(HttpHeader.ETAG, "\"v1\"");
+                if ("\"v1\"".equals(request.getHeaders().get(HttpHeader.IF_NONE_MATCH)))
+                {
+                    notModified.incrementAndGet();
+                    response.setStatus(HttpStatus.NOT_MODIFIED_304);
+                    response.getHeaders().put("X-Revalidated", "true");
+                    callback.succeeded();
+                    return true;
+                }
+                Content.Sink.write(response, true, "content", callback);
+                return true;
+            }
+        }, 1024);
+
+        ContentResponse response1 = send(scenario, "/stale");
+        assertEquals(HttpStatus.OK_200, response1.getStatus());
+        assertEquals("content", response1.getContentAsString());
+
+        ContentResponse response2 = send(scenario, "/stale");
+        assertEquals(HttpStatus.OK_200, response2.getStatus());
+        assertEquals("content", response2.getContentAsString());
+        // The stored headers are updated with the 304 ones.
+        assertEquals("true", response2.getHeaders().get("X-Revalidated"));
+
+        assertThat(requests.get(), is(2));
+        assertThat(notModified.get(), is(1));
+        assertThat(responseCache.getRevalidations(), is(1L));
+        assertThat(responseCache.getEntryCount(), is(1));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testUnsafeRequestInvalidates(Scenario scenario) throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(scenario, new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, org.eclipse.jetty.server.Response response, Callback callback)
+            {
+                response.getHeaders().put(HttpHeader.CACHE_CONTROL, "max-age=60");
+                Content.Sink.write(response, true, "content-" + requests.incrementAndGet(), callback);
+                return true;
+            }
+        }, 1024);
+
+        assertEquals("content-1", send(scenario, "/resource").getContentAsString());
+        assertEquals("content-1", send(scenario, "/resource").getContentAsString());
+
+        ContentResponse response = client.newRequest("localhost", connector.getLocalPort())
+            .scheme(scenario.getScheme())
+            .method(HttpMethod.POST)
+            .path("/resource")
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertThat(responseCache.getEntryCount(), is(0));
+
+        assertEquals("content-3", send(scenario, "/resource").getContentAsString());
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testVaryingRequestHeader(Scenario scenario) throws Exception
+    {
+        AtomicInteger requests = new AtomicInteger();
+        start(scenario, new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, org.eclipse.jetty.server.Response response, Callback callback)
+            {
+                response.getHeaders().put(HttpHeader.CACHE_CONTROL, "max-age=60");
+                response.getHeaders().put(HttpHeader.VARY, "Accept-Language");
+                String language = request.getHeaders().get(HttpHeader.ACCEPT_LANGUAGE);
+                Content.Sink.write(response, true, language + "-" + requests.incrementAndGet(), callback);
+                return true;
+            }
+        }, 1024);
+
+        assertEquals("en-1", send(scenario, "/vary", "en").getContentAsString());
+        assertEquals("en-1", send(scenario, "/vary", "en").getContentAsString());
+        assertEquals("it-2", send(scenario, "/vary", "it").getContentAsString());
+        assertThat(requests.get(), is(2));
+    }
+
+    private ContentResponse send(Scenario scenario, String path, String language) throws Exception
+    {
+        return client.newRequest("localhost", connector.getLocalPort())
+            .scheme(scenario.getScheme())
+            .path(path)
+            .headers(headers -> headers.put(HttpHeader.ACCEPT_LANGUAGE, language))
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testEviction(Scenario scenario) throws Exception
+    {
+        String content = "x".repeat(600);
+        AtomicInteger requests = new AtomicInteger();
+        start(scenario, new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, org.eclipse.jetty.server.Response response, Callback callback)
+            {
+                requests.incrementAndGet();
+                response.getHeaders().put(HttpHeader.CACHE_CONTROL, "max-age=60");
+                Content.Sink.write(response, true, content, callback);
+                return true;
+            }
+        }, 1024);
+
+        assertEquals(content, send(scenario, "/one").getContentAsString());
+        assertEquals(content, send(scenario, "/two").getContentAsString());
+        assertThat(responseCache.getEntryCount(), is(1));
+        assertThat(responseCache.getEvictions(), is(1L));
+        assertThat(responseCache.getSize(), is((long)content.length()));
+
+        // The most recently stored response is still cached.
+        assertEquals(content, send(scenario, "/two").getContentAsString());
+        assertThat(requests.get(), is(2));
+
+        // The least recently used response was evicted.
+        assertEquals(content, send(scenario, "/one").getContentAsString());
+        assertThat(requests.get(), is(3));
+
+        // Responses larger than the max entry size are not stored.
+        responseCache.setMaxEntrySize(100);
+        assertEquals(content, send(scenario, "/three").getContentAsString());
+        assertEquals(content, send(scenario, "/three").getContentAsString());
+        assertThat(requests.get(), is(5));
+    }
+}
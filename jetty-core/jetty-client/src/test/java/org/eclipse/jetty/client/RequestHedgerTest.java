@@ -0,0 +1,186 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.client.transport.HttpDestination;
+import org.eclipse.jetty.http.HttpCookie;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.NanoTime;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestHedgerTest extends AbstractHttpClientServerTest
+{
+    private final CountDownLatch slowLatch = new CountDownLatch(1);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> cookies = new CopyOnWriteArrayList<>();
+    private int slowRequest = 1;
+    private RequestHedger hedger;
+
+    private void start(Scenario scenario) throws Exception
+    {
+        start(scenario, new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, org.eclipse.jetty.server.Response response, Callback callback) throws Exception
+            {
+                // Only one request is slow.
+                int count = requests.incrementAndGet();
+                cookies.add(String.valueOf(request.getHeaders().get(HttpHeader.COOKIE)));
+                if (count == slowRequest)
+                    slowLatch.await(5, TimeUnit.SECONDS);
+                Content.Sink.write(response, true, "response-" + count, callback);
+                return true;
+            }
+        });
+        hedger = new RequestHedger(client);
+    }
+
+    @AfterEach
+    public void releaseSlowRequest()
+    {
+        slowLatch.countDown();
+    }
+
+    private org.eclipse.jetty.client.Request newRequest(Scenario scenario)
+    {
+        return client.newRequest("localhost", connector.getLocalPort())
+            .scheme(scenario.getScheme())
+            .timeout(5, TimeUnit.SECONDS);
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testHedgedRequestWins(Scenario scenario) throws Exception
+    {
+        slowRequest = 2;
+        start(scenario);
+        hedger.setMaxDelay(100);
+
+        // Warm up, so that the original request is sent before the hedged request.
+        assertEquals("response-1", newRequest(scenario).send().getContentAsString());
+
+        long begin = NanoTime.now();
+        ContentResponse response = hedger.send(newRequest(scenario)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("response-3", response.getContentAsString());
+        assertThat(NanoTime.millisSince(begin), lessThan(2500L));
+        assertThat(hedger.getRequests(), is(1L));
+        assertThat(hedger.getHedges(), is(1L));
+        assertThat(hedger.getHedgeWins(), is(1L));
+        // The latency is measured from the original request, not from the hedged request.
+        HttpDestination destination = (HttpDestination)client.resolveDestination(newRequest(scenario));
+        assertThat(hedger.getHedgeDelay(destination.getOrigin()), is(100L));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testHedgedRequestCopiesCookies(Scenario scenario) throws Exception
+    {
+        start(scenario);
+        hedger.setMaxDelay(100);
+
+        ContentResponse response = hedger.send(newRequest(scenario).cookie(HttpCookie.from("name", "value"))).get(5, TimeUnit.SECONDS);
+
+        assertEquals("response-2", response.getContentAsString());
+        assertThat(cookies, contains("name=value", "name=value"));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testFastRequestsNotHedged(Scenario scenario) throws Exception
+    {
+        start(scenario);
+        slowLatch.countDown();
+        hedger.setMinDelay(1000);
+        hedger.setMaxDelay(2000);
+
+        for (int i = 0; i < 5; ++i)
+        {
+            ContentResponse response = hedger.send(newRequest(scenario)).get(5, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+        }
+
+        assertThat(hedger.getHedges(), is(0L));
+        HttpDestination destination = (HttpDestination)client.resolveDestination(newRequest(scenario));
+        // The recent latencies are small, so the delay is the min delay.
+        assertThat(hedger.getHedgeDelay(destination.getOrigin()), is(1000L));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testRetryBudgetLimitsHedges(Scenario scenario) throws Exception
+    {
+        start(scenario);
+        hedger.setMaxDelay(100);
+        HttpDestination destination = (HttpDestination)client.resolveDestination(newRequest(scenario));
+        destination.setRetryBudget(new RetryBudget(0D, 0, 1));
+
+        CountDownLatch latch = new CountDownLatch(1);
+        hedger.send(newRequest(scenario), result ->
+        {
+            if (result.isSucceeded())
+                latch.countDown();
+        });
+
+        // The hedged request is not sent, and the slow request is eventually completed.
+        Thread.sleep(500);
+        assertThat(hedger.getHedges(), is(0L));
+        assertThat(hedger.getBudgetRejections(), is(1L));
+        slowLatch.countDown();
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(requests.get(), is(1));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testRequestWithContentNotHedged(Scenario scenario) throws Exception
+    {
+        start(scenario);
+        hedger.setMaxDelay(100);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        hedger.send(newRequest(scenario).method(HttpMethod.POST).body(new StringRequestContent("content")), result ->
+        {
+            if (result.isSucceeded())
+                latch.countDown();
+        });
+
+        Thread.sleep(500);
+        slowLatch.countDown();
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(hedger.getHedges(), is(0L));
+        assertThat(requests.get(), is(1));
+    }
+}
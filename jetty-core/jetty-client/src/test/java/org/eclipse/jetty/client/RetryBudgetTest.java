@@ -0,0 +1,74 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RetryBudgetTest
+{
+    @Test
+    public void testDepositsAllowRetries()
+    {
+        RetryBudget budget = new RetryBudget(0.5D, 0, 2);
+        assertThat(budget.getBalance(), is(0));
+        assertFalse(budget.tryWithdraw());
+
+        budget.deposit();
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        // Deposits are capped by the capacity.
+        for (int i = 0; i < 10; ++i)
+        {
+            budget.deposit();
+        }
+        assertThat(budget.getBalance(), is(2));
+
+        assertThat(budget.getWithdrawn(), is(1L));
+        assertThat(budget.getRejected(), is(3L));
+    }
+
+    @Test
+    public void testMinRetriesPerSecond() throws Exception
+    {
+        RetryBudget budget = new RetryBudget(0D, 1000, 5);
+        // Initially allows one second worth of retries, capped by the capacity.
+        assertThat(budget.getBalance(), is(5));
+        for (int i = 0; i < 5; ++i)
+        {
+            assertTrue(budget.tryWithdraw());
+        }
+
+        // The budget is refilled over time.
+        Thread.sleep(50);
+        assertThat(budget.getBalance(), is(5));
+    }
+
+    @Test
+    public void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(-1D, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(2D, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(0.1D, -1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new RetryBudget(0.1D, 10, 0));
+    }
+}
@@ -588,6 +588,22 @@ public class HttpGenerator
             for (int f = 0; f < n; f++)
             {
                 HttpField field = fields.getField(f);
+                if (field instanceof PreEncodedHttpFields.Field blockField)
+                {
+                    // Bulk put the run of fields from a pre-encoded block.
+                    PreEncodedHttpFields block = blockField.getPreEncodedHttpFields();
+                    int from = blockField.getIndex();
+                    int to = block.getRunEnd(fields, f);
+                    block.putTo(header, HttpVersion.HTTP_1_0, from, to);
+                    for (int b = from; b < to; b++)
+                    {
+                        if (block.getField(b).getHeader() == HttpHeader.CONTENT_TYPE)
+                            contentType = true;
+                    }
+                    f += to - from - 1;
+                    continue;
+                }
+
                 HttpHeader h = field.getHeader();
                 if (h == null)
                     putTo(field, header);
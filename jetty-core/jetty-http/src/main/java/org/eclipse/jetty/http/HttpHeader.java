@@ -73,6 +73,7 @@ public enum HttpHeader
     IF_UNMODIFIED_SINCE("If-Unmodified-Since"),
     KEEP_ALIVE("Keep-Alive"),
     MAX_FORWARDS("Max-Forwards"),
+    PRIORITY("Priority"),
     PROXY_AUTHORIZATION("Proxy-Authorization"),
     RANGE("Range"),
     REQUEST_RANGE("Request-Range"),
@@ -17,6 +17,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -77,6 +78,10 @@ import static org.eclipse.jetty.http.HttpTokens.LINE_FEED;
  * For headers who's value is not known statically (eg. Host, COOKIE) then a
  * per parser dynamic Trie of {@link HttpFields} from previous parsed messages
  * is used to help the parsing of subsequent messages.
+ * If {@link #setHeaderCacheLearning(boolean) header cache learning} is enabled,
+ * then any other field that is repeated with the same value in subsequent
+ * messages (eg. X-Forwarded-For, tracing headers) is also added to the
+ * dynamic Trie, so that a single {@link HttpField} instance is shared.
  * </p>
  * <p>
  * The parser can work in varying compliance modes:
@@ -359,6 +364,27 @@ public class HttpParser
         _fieldCache.setCaseSensitive(headerCacheCaseSensitive);
     }
 
+    public boolean isHeaderCacheLearning()
+    {
+        return _fieldCache.isLearning();
+    }
+
+    /**
+     * <p>Sets whether the header field cache learns the fields that are not
+     * known to be cacheable, but that are repeated with the same value in
+     * subsequent messages parsed by this parser.</p>
+     * <p>A field is added to the cache the second time that it is seen with the
+     * same value, so that fields whose value changes for every message (eg. request
+     * identifiers) are not cached. The cache remains bounded by the
+     * {@link #setHeaderCacheSize(int) header cache size}.</p>
+     *
+     * @param headerCacheLearning whether the header field cache learns repeated fields
+     */
+    public void setHeaderCacheLearning(boolean headerCacheLearning)
+    {
+        _fieldCache.setLearning(headerCacheLearning);
+    }
+
     protected void checkViolation(Violation violation) throws BadMessageException
     {
         if (violation.isAllowedBy(_complianceMode))
@@ -1198,6 +1224,15 @@ public class HttpParser
                     _fieldCache.add(_field);
                 }
             }
+
+            // Learn repeated field?
+            if (_field == null && _fieldCache.learn(_headerString, _valueString))
+            {
+                String name = _header == null ? _headerString : caseInsensitiveHeader(_headerString, _header.asString());
+                _field = new HttpField(_header, name, _valueString);
+                _fieldCache.add(_field);
+            }
+
             if (LOG.isDebugEnabled())
                 LOG.debug("parsedHeader({}) header={}, headerString=[{}], valueString=[{}]", _field, _header, _headerString, _valueString);
             _handler.parsedHeader(_field != null ? _field : new HttpField(_header, _headerString, _valueString));
@@ -1246,6 +1281,14 @@ public class HttpParser
         // Process headers
         while ((_state == State.HEADER || _state == State.TRAILER) && buffer.hasRemaining())
         {
+            // Fast path for the bytes of a field value that need no specific handling.
+            if (_fieldState == FieldState.IN_VALUE && !_cr)
+            {
+                scanFieldValue(buffer);
+                if (!buffer.hasRemaining())
+                    break;
+            }
+
             // process each character
             HttpTokens.Token t = next(buffer);
             if (t == null)
@@ -1602,6 +1645,37 @@ public class HttpParser
         return false;
     }
 
+    /**
+     * <p>Appends to the field value the {@code SP} and {@code VCHAR} bytes that follow
+     * in the buffer, leaving any other byte (eg. CR, LF, HTAB or obs-text) to the state
+     * machine of {@link #parseFields(ByteBuffer)}.</p>
+     *
+     * @param buffer the buffer to scan
+     */
+    private void scanFieldValue(ByteBuffer buffer)
+    {
+        int position = buffer.position();
+        int limit = buffer.limit();
+        // Do not scan beyond the max header bytes, so that the state machine reports the failure.
+        if (_maxHeaderBytes > 0)
+            limit = Math.min(limit, position + Math.max(0, _maxHeaderBytes - _headerBytes));
+        int count = HttpTokens.countSpaceOrVchar(buffer, position, limit);
+        if (count == 0)
+            return;
+
+        for (int i = 0; i < count; i++)
+        {
+            byte b = buffer.get(position + i);
+            _string.append((char)b);
+            // Trailing whitespace is not part of the value.
+            if (b != HttpTokens.SPACE)
+                _length = _string.length();
+        }
+        if (_maxHeaderBytes > 0)
+            _headerBytes += count;
+        buffer.position(position + count);
+    }
+
     /**
      * Parse until next Event.
      *
@@ -2174,10 +2248,14 @@ public class HttpParser
 
     private static class FieldCache
     {
+        private static final int MAX_LEARNING_CANDIDATES = 64;
+
         private int _size = 1024;
         private Index.Mutable<HttpField> _cache;
         private List<HttpField> _cacheableFields;
         private boolean _caseSensitive;
+        private boolean _learning;
+        private Map<String, String> _candidates;
 
         public int getCapacity()
         {
@@ -2203,6 +2281,18 @@ public class HttpParser
             _caseSensitive = caseSensitive;
         }
 
+        public boolean isLearning()
+        {
+            return _learning;
+        }
+
+        public void setLearning(boolean learning)
+        {
+            _learning = learning;
+            if (!learning)
+                _candidates = null;
+        }
+
         public boolean isEnabled()
         {
             return _cache != NO_CACHE;
@@ -2239,6 +2329,32 @@ public class HttpParser
             return isEnabled() && header != null && valueString != null && valueString.length() <= _size;
         }
 
+        /**
+         * @param name the field name
+         * @param value the field value
+         * @return whether the field was seen with the same value the previous time
+         * that its name was seen, and therefore should be added to the cache
+         */
+        public boolean learn(String name, String value)
+        {
+            if (!_learning || !isEnabled() || name == null || value == null || name.length() + value.length() > _size)
+                return false;
+
+            if (_candidates == null)
+                _candidates = new HashMap<>();
+            String previous = _candidates.put(name, value);
+            if (value.equals(previous))
+            {
+                _candidates.remove(name);
+                return true;
+            }
+
+            // Bound the memory used to learn fields that are never repeated.
+            if (_candidates.size() > MAX_LEARNING_CANDIDATES)
+                _candidates.clear();
+            return false;
+        }
+
         private void prepare()
         {
             if (_cache == null && _cacheableFields != null)
@@ -0,0 +1,135 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+/**
+ * <p>A representation of the priority parameters as specified by
+ * <a href="https://datatracker.ietf.org/doc/html/rfc9218">RFC 9218</a>.</p>
+ * <p>This class parses the value of the {@code Priority} header,
+ * or of the PRIORITY_UPDATE frames of HTTP/2 and HTTP/3, for example:</p>
+ * <pre>{@code
+ * Priority: u=1
+ * Priority: u=5, i
+ * }</pre>
+ * <p>Lower urgency values are more urgent; incremental responses may be
+ * interleaved with other responses of the same urgency, while
+ * non-incremental responses are best sent one after the other.</p>
+ *
+ * @param urgency the urgency, from {@link #MIN_URGENCY} to {@link #MAX_URGENCY}
+ * @param incremental whether the response can be processed incrementally
+ */
+public record HttpPriority(int urgency, boolean incremental)
+{
+    public static final int MIN_URGENCY = 0;
+    public static final int MAX_URGENCY = 7;
+    public static final int DEFAULT_URGENCY = 3;
+    public static final HttpPriority DEFAULT = new HttpPriority(DEFAULT_URGENCY, false);
+
+    public HttpPriority
+    {
+        if (urgency < MIN_URGENCY || urgency > MAX_URGENCY)
+            throw new IllegalArgumentException("Invalid urgency " + urgency);
+    }
+
+    /**
+     * <p>Returns the priority specified by the {@code Priority} header
+     * of the given fields, or {@link #DEFAULT} if there is no such header.</p>
+     *
+     * @param fields the HTTP fields
+     * @return the priority specified by the given fields
+     */
+    public static HttpPriority from(HttpFields fields)
+    {
+        if (fields == null)
+            return DEFAULT;
+        String value = fields.get(HttpHeader.PRIORITY);
+        return value == null ? DEFAULT : from(value);
+    }
+
+    /**
+     * <p>Parses the given Structured Fields dictionary, for example {@code u=2, i}.</p>
+     * <p>Unknown keys, parameters and invalid values are ignored, so that
+     * the defaults are retained for the corresponding priority parameters.</p>
+     *
+     * @param value the priority field value
+     * @return the priority specified by the given value
+     */
+    public static HttpPriority from(String value)
+    {
+        return from(DEFAULT, value);
+    }
+
+    /**
+     * <p>Parses the given Structured Fields dictionary, retaining the parameters of
+     * the given base priority that are not specified by the value.</p>
+     *
+     * @param base the priority whose parameters are retained if not specified
+     * @param value the priority field value
+     * @return the priority specified by the given value
+     */
+    public static HttpPriority from(HttpPriority base, String value)
+    {
+        if (value == null)
+            return base;
+
+        int urgency = base.urgency();
+        boolean incremental = base.incremental();
+        int length = value.length();
+        int index = 0;
+        while (index < length)
+        {
+            int end = value.indexOf(',', index);
+            if (end < 0)
+                end = length;
+            int params = value.indexOf(';', index);
+            int member = params < 0 || params > end ? end : params;
+            int equals = value.indexOf('=', index);
+            boolean hasValue = equals >= 0 && equals < member;
+            String key = value.substring(index, hasValue ? equals : member).trim();
+            String item = hasValue ? value.substring(equals + 1, member).trim() : null;
+            switch (key)
+            {
+                case "u" ->
+                {
+                    if (item != null && item.length() == 1 && item.charAt(0) >= '0' && item.charAt(0) <= '0' + MAX_URGENCY)
+                        urgency = item.charAt(0) - '0';
+                }
+                case "i" ->
+                {
+                    if (item == null || "?1".equals(item))
+                        incremental = true;
+                    else if ("?0".equals(item))
+                        incremental = false;
+                }
+                default ->
+                {
+                    // Unknown keys must be ignored.
+                }
+            }
+            index = end + 1;
+        }
+
+        if (urgency == DEFAULT_URGENCY && !incremental)
+            return DEFAULT;
+        return new HttpPriority(urgency, incremental);
+    }
+
+    /**
+     * @return the Structured Fields representation of this priority, for example {@code u=2, i}
+     */
+    public String toHeaderValue()
+    {
+        return incremental ? "u=" + urgency + ", i" : "u=" + urgency;
+    }
+}
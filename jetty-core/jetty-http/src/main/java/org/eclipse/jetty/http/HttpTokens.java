@@ -13,6 +13,9 @@
 
 package org.eclipse.jetty.http;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import org.eclipse.jetty.util.TypeUtil;
 
 /**
@@ -27,6 +30,11 @@ public class HttpTokens
     static final byte SPACE = 0x20;
     static final byte[] CRLF = {CARRIAGE_RETURN, LINE_FEED};
 
+    private static final long BYTES_0x01 = 0x0101010101010101L;
+    private static final long BYTES_0x60 = 0x6060606060606060L;
+    private static final long BYTES_0x7F = 0x7F7F7F7F7F7F7F7FL;
+    private static final long BYTES_0x80 = 0x8080808080808080L;
+
     public enum EndOfContent
     {
         UNKNOWN_CONTENT, NO_CONTENT, EOF_CONTENT, CONTENT_LENGTH, CHUNKED_CONTENT
@@ -275,5 +283,48 @@ public class HttpTokens
     {
         return (c >= 256 || c < ' ');
     }
-}
 
+    /**
+     * <p>Counts the consecutive bytes of the given buffer that are either
+     * {@code SP} or {@code VCHAR}, that is in the range {@code 0x20-0x7E}.</p>
+     * <p>The bytes are checked 8 at a time, so that the common bytes of a
+     * field value are skipped without looking up their {@link Token}.</p>
+     *
+     * @param buffer the buffer to scan
+     * @param position the absolute position of the first byte to scan
+     * @param limit the absolute position after the last byte to scan
+     * @return the number of {@code SP} or {@code VCHAR} bytes found from the given position
+     */
+    static int countSpaceOrVchar(ByteBuffer buffer, int position, int limit)
+    {
+        int index = position;
+        while (index + Long.BYTES <= limit)
+        {
+            long word = buffer.getLong(index);
+            // For each byte, compute the high bit without carries between bytes.
+            long low7 = word & BYTES_0x7F;
+            // Set if the low 7 bits are not less than 0x20.
+            long notControl = (low7 + BYTES_0x60) & BYTES_0x80;
+            // Set if the low 7 bits are 0x7F.
+            long delete = (low7 + BYTES_0x01) & BYTES_0x80;
+            // Set if the byte is not in the range 0x20-0x7E.
+            long invalid = (~notControl | delete | word) & BYTES_0x80;
+            if (invalid != 0)
+            {
+                int bits = buffer.order() == ByteOrder.BIG_ENDIAN
+                    ? Long.numberOfLeadingZeros(invalid)
+                    : Long.numberOfTrailingZeros(invalid);
+                return index - position + (bits >>> 3);
+            }
+            index += Long.BYTES;
+        }
+        while (index < limit)
+        {
+            byte b = buffer.get(index);
+            if (b < SPACE || b == 0x7F)
+                break;
+            ++index;
+        }
+        return index - position;
+    }
+}
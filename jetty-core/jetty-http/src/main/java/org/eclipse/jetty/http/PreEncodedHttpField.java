@@ -16,6 +16,7 @@ package org.eclipse.jetty.http;
 import java.nio.ByteBuffer;
 import java.util.EnumMap;
 import java.util.ServiceLoader;
+import java.util.Set;
 
 import org.eclipse.jetty.util.TypeUtil;
 import org.slf4j.Logger;
@@ -115,6 +116,16 @@ public class PreEncodedHttpField extends HttpField
         return _encodedFields.get(version).length;
     }
 
+    byte[] getEncodedField(HttpVersion version)
+    {
+        return _encodedFields.get(version);
+    }
+
+    static Set<HttpVersion> getEncodedVersions()
+    {
+        return __encoders.keySet();
+    }
+
     @Override
     public boolean contains(String search)
     {
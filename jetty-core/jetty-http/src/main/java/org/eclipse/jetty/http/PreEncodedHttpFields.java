@@ -0,0 +1,210 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Objects;
+
+/**
+ * <p>An immutable block of {@link PreEncodedHttpField}s that is also pre-encoded as a whole.</p>
+ * <p>A set of fields that is added unchanged to many responses (for example {@code Server},
+ * {@code X-Content-Type-Options} or {@code Cache-Control}) can be frozen into a
+ * {@link PreEncodedHttpFields} block, which uses the {@link HttpFieldPreEncoder}s discovered
+ * by {@link PreEncodedHttpField} to encode every field and concatenates the results for each
+ * version of HTTP.  Each field of the block is a {@link Field} that knows its block and its
+ * position within it, so when the fields are added to a response with
+ * {@link HttpFields.Mutable#add(HttpFields)} a generator can recognize a contiguous run of
+ * them and write the whole run with a single bulk {@link ByteBuffer#put(byte[], int, int)},
+ * see {@link #putTo(ByteBuffer, HttpVersion, int, int)}.</p>
+ * <p>The fields that generators and encoders handle specially, such as {@code Content-Length},
+ * {@code Transfer-Encoding}, hop-by-hop fields and pseudo-headers, cannot be part of a block.</p>
+ */
+public class PreEncodedHttpFields extends ImmutableHttpFields
+{
+    private static final EnumSet<HttpHeader> EXCLUDED_HEADERS = EnumSet.of(
+        HttpHeader.CONTENT_LENGTH,
+        HttpHeader.TRANSFER_ENCODING,
+        HttpHeader.CONNECTION,
+        HttpHeader.KEEP_ALIVE,
+        HttpHeader.PROXY_CONNECTION,
+        HttpHeader.UPGRADE,
+        HttpHeader.TE);
+
+    /**
+     * <p>Creates a pre-encoded block from the given fields, in order.</p>
+     *
+     * @param fields the fields of the block
+     * @return the pre-encoded block
+     * @throws IllegalArgumentException if a field cannot be part of a block
+     */
+    public static PreEncodedHttpFields from(HttpField... fields)
+    {
+        return new PreEncodedHttpFields(fields);
+    }
+
+    /**
+     * <p>Creates a pre-encoded block from the given fields, in order.</p>
+     *
+     * @param fields the fields of the block
+     * @return the pre-encoded block
+     * @throws IllegalArgumentException if a field cannot be part of a block
+     */
+    public static PreEncodedHttpFields from(HttpFields fields)
+    {
+        return new PreEncodedHttpFields(fields.stream().toArray(HttpField[]::new));
+    }
+
+    private final EnumMap<HttpVersion, byte[]> _encodedFields = new EnumMap<>(HttpVersion.class);
+    private final EnumMap<HttpVersion, int[]> _offsets = new EnumMap<>(HttpVersion.class);
+
+    private PreEncodedHttpFields(HttpField[] fields)
+    {
+        super(new HttpField[fields.length]);
+        for (int i = 0; i < fields.length; i++)
+        {
+            HttpField field = Objects.requireNonNull(fields[i]);
+            HttpHeader header = field.getHeader();
+            if (header != null && EXCLUDED_HEADERS.contains(header) || field.getName().startsWith(":"))
+                throw new IllegalArgumentException("Cannot pre-encode " + field.getName() + " in a block");
+            if (field.getValue() == null)
+                throw new IllegalArgumentException("No value for " + field.getName());
+            _fields[i] = new Field(this, i, header, field.getName(), field.getValue());
+        }
+
+        for (HttpVersion version : PreEncodedHttpField.getEncodedVersions())
+        {
+            int[] offsets = new int[_size + 1];
+            for (int i = 0; i < _size; i++)
+            {
+                offsets[i + 1] = offsets[i] + ((Field)_fields[i]).getEncodedLength(version);
+            }
+            byte[] encoded = new byte[offsets[_size]];
+            for (int i = 0; i < _size; i++)
+            {
+                byte[] bytes = ((Field)_fields[i]).getEncodedField(version);
+                System.arraycopy(bytes, 0, encoded, offsets[i], bytes.length);
+            }
+            _encodedFields.put(version, encoded);
+            _offsets.put(version, offsets);
+        }
+    }
+
+    /**
+     * <p>Puts the pre-encoded bytes of the whole block into the given buffer.</p>
+     *
+     * @param bufferInFillMode the buffer to put the bytes into
+     * @param version the HTTP version of the encoding
+     */
+    public void putTo(ByteBuffer bufferInFillMode, HttpVersion version)
+    {
+        bufferInFillMode.put(_encodedFields.get(version));
+    }
+
+    /**
+     * <p>Puts the pre-encoded bytes of the fields from index {@code from} (inclusive)
+     * to index {@code to} (exclusive) into the given buffer, with a single bulk put.</p>
+     * <p>The bytes are the concatenation of the encodings of the individual fields, so this
+     * is only valid for versions whose field encoding does not depend on the encoder state,
+     * such as HTTP/1 or the static-table-only QPACK encoding.</p>
+     *
+     * @param bufferInFillMode the buffer to put the bytes into
+     * @param version the HTTP version of the encoding
+     * @param from the index of the first field to put
+     * @param to the index after the last field to put
+     */
+    public void putTo(ByteBuffer bufferInFillMode, HttpVersion version, int from, int to)
+    {
+        int[] offsets = _offsets.get(version);
+        bufferInFillMode.put(_encodedFields.get(version), offsets[from], offsets[to] - offsets[from]);
+    }
+
+    /**
+     * @param version the HTTP version of the encoding
+     * @return the length in bytes of the pre-encoded block
+     */
+    public int getEncodedLength(HttpVersion version)
+    {
+        return _encodedFields.get(version).length;
+    }
+
+    /**
+     * @param version the HTTP version of the encoding
+     * @param from the index of the first field
+     * @param to the index after the last field
+     * @return the length in bytes of the pre-encoded fields from index {@code from} (inclusive) to index {@code to} (exclusive)
+     */
+    public int getEncodedLength(HttpVersion version, int from, int to)
+    {
+        int[] offsets = _offsets.get(version);
+        return offsets[to] - offsets[from];
+    }
+
+    /**
+     * <p>Returns the index after the last field of the run of this block's fields
+     * that starts at the given position of the given fields.</p>
+     * <p>The run is made of the fields that are the very same instances, in the same order,
+     * as the fields of this block, so a block that was added with
+     * {@link HttpFields.Mutable#add(HttpFields)} and was not modified afterwards is a
+     * single run.</p>
+     *
+     * @param fields the fields to scan
+     * @param index the index in {@code fields} of a {@link Field} of this block
+     * @return the index in this block after the last field of the run
+     */
+    public int getRunEnd(HttpFields fields, int index)
+    {
+        Field field = (Field)fields.getField(index);
+        int end = field.getIndex() + 1;
+        int size = fields.size();
+        while (end < _size && ++index < size && fields.getField(index) == _fields[end])
+        {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * <p>A {@link PreEncodedHttpField} that is part of a {@link PreEncodedHttpFields} block.</p>
+     */
+    public static class Field extends PreEncodedHttpField
+    {
+        private final PreEncodedHttpFields _block;
+        private final int _index;
+
+        private Field(PreEncodedHttpFields block, int index, HttpHeader header, String name, String value)
+        {
+            super(header, name, value);
+            _block = block;
+            _index = index;
+        }
+
+        /**
+         * @return the block this field is part of
+         */
+        public PreEncodedHttpFields getPreEncodedHttpFields()
+        {
+            return _block;
+        }
+
+        /**
+         * @return the index of this field in its block
+         */
+        public int getIndex()
+        {
+            return _index;
+        }
+    }
+}
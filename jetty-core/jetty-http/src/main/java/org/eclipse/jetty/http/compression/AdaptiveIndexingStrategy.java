@@ -0,0 +1,135 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.compression;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.util.StringUtil;
+
+/**
+ * <p>An {@link IndexingStrategy} that tracks, per field name, how often the fields
+ * inserted into the dynamic table are later referenced, and stops inserting fields
+ * whose name has a low hit ratio.</p>
+ * <p>Fields with high-entropy values (for example request identifiers or timestamps)
+ * are rarely referenced after being inserted, so inserting them only evicts more
+ * useful entries from the dynamic table.
+ * Once at least {@code minInsertions} fields with a given name have been inserted,
+ * and less than {@code minHitRatio} of them have been referenced, fields with that
+ * name are encoded literally.
+ * One field in every {@code probeInterval} is still inserted, so that a name whose
+ * values become repetitive is indexed again.</p>
+ * <p>The counters are periodically halved, so that the strategy adapts to changes
+ * in the traffic, and at most {@code maxNames} names are tracked.</p>
+ */
+public class AdaptiveIndexingStrategy implements IndexingStrategy
+{
+    private static final int MAX_INSERTIONS = 256;
+
+    private final Map<String, Stats> _stats = new HashMap<>();
+    private final int _maxNames;
+    private final int _minInsertions;
+    private final double _minHitRatio;
+    private final int _probeInterval;
+
+    public AdaptiveIndexingStrategy()
+    {
+        this(128, 16, 0.125D, 64);
+    }
+
+    /**
+     * @param maxNames the max number of field names to track
+     * @param minInsertions the min number of insertions before the hit ratio of a name is evaluated
+     * @param minHitRatio the hit ratio below which fields are not inserted
+     * @param probeInterval the interval at which fields are inserted even if their hit ratio is low
+     */
+    public AdaptiveIndexingStrategy(int maxNames, int minInsertions, double minHitRatio, int probeInterval)
+    {
+        if (minInsertions <= 0 || minInsertions > MAX_INSERTIONS)
+            throw new IllegalArgumentException("Invalid minInsertions " + minInsertions);
+        if (probeInterval <= 0)
+            throw new IllegalArgumentException("Invalid probeInterval " + probeInterval);
+        _maxNames = maxNames;
+        _minInsertions = minInsertions;
+        _minHitRatio = minHitRatio;
+        _probeInterval = probeInterval;
+    }
+
+    @Override
+    public Indexing getIndexing(HttpField field)
+    {
+        Stats stats = _stats.get(field.getLowerCaseName());
+        if (stats == null || stats.insertions < _minInsertions)
+            return Indexing.INSERT;
+        if (stats.references >= stats.insertions * _minHitRatio)
+            return Indexing.INSERT;
+        if (++stats.literals % _probeInterval == 0)
+            return Indexing.INSERT;
+        return Indexing.LITERAL;
+    }
+
+    @Override
+    public void onInserted(HttpField field)
+    {
+        String name = field.getLowerCaseName();
+        Stats stats = _stats.get(name);
+        if (stats == null)
+        {
+            if (_stats.size() >= _maxNames)
+                return;
+            stats = new Stats();
+            _stats.put(name, stats);
+        }
+        if (++stats.insertions >= MAX_INSERTIONS)
+        {
+            stats.insertions /= 2;
+            stats.references /= 2;
+        }
+    }
+
+    @Override
+    public void onReferenced(HttpField field)
+    {
+        Stats stats = _stats.get(field.getLowerCaseName());
+        if (stats != null)
+            ++stats.references;
+    }
+
+    /**
+     * @param name the field name
+     * @return the ratio of the references over the insertions of fields with the given name,
+     * or {@code NaN} if no field with the given name has been inserted
+     */
+    public double getHitRatio(String name)
+    {
+        Stats stats = _stats.get(StringUtil.asciiToLowerCase(name));
+        if (stats == null || stats.insertions == 0)
+            return Double.NaN;
+        return (double)stats.references / stats.insertions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[names=%d]", getClass().getSimpleName(), hashCode(), _stats.size());
+    }
+
+    private static class Stats
+    {
+        private int insertions;
+        private int references;
+        private int literals;
+    }
+}
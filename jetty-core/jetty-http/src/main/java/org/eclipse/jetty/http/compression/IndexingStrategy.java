@@ -0,0 +1,93 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.compression;
+
+import org.eclipse.jetty.http.HttpField;
+
+/**
+ * <p>A strategy used by the HPACK and QPACK encoders to decide whether a field
+ * that is not already in the dynamic table should be inserted into it.</p>
+ * <p>The encoders only consult the strategy for fields that they would otherwise
+ * insert into the dynamic table; fields that are never indexed by the encoder
+ * (for example sensitive fields or fields that are too large) are not affected.</p>
+ * <p>Implementations are used by a single encoder, so they need not be thread-safe.</p>
+ */
+public interface IndexingStrategy
+{
+    /**
+     * A strategy that always inserts fields into the dynamic table.
+     */
+    IndexingStrategy INSERT = field -> Indexing.INSERT;
+
+    /**
+     * @param field the field to encode
+     * @return how the field should be encoded
+     */
+    Indexing getIndexing(HttpField field);
+
+    /**
+     * <p>Callback method invoked when a field has been inserted into the dynamic table.</p>
+     *
+     * @param field the field inserted
+     */
+    default void onInserted(HttpField field)
+    {
+    }
+
+    /**
+     * <p>Callback method invoked when a field has been encoded as a reference
+     * to an entry of the dynamic table.</p>
+     *
+     * @param field the field referenced
+     */
+    default void onReferenced(HttpField field)
+    {
+    }
+
+    /**
+     * The possible encodings of a field.
+     */
+    enum Indexing
+    {
+        /**
+         * The field is encoded literally and inserted into the dynamic table.
+         */
+        INSERT,
+        /**
+         * The field is encoded literally without being inserted into the dynamic table.
+         */
+        LITERAL,
+        /**
+         * The field is encoded literally without being inserted into the dynamic table,
+         * and intermediaries must not insert it either.
+         */
+        NEVER_INDEXED
+    }
+
+    /**
+     * <p>A factory for {@link IndexingStrategy} instances, one per encoder.</p>
+     */
+    interface Factory
+    {
+        /**
+         * A factory that returns {@link IndexingStrategy#INSERT}.
+         */
+        Factory INSERT = () -> IndexingStrategy.INSERT;
+
+        /**
+         * @return a new strategy for an encoder
+         */
+        IndexingStrategy newIndexingStrategy();
+    }
+}
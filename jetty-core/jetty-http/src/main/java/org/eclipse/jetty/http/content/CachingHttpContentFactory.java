@@ -16,13 +16,15 @@ package org.eclipse.jetty.http.content;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpField;
@@ -33,8 +35,13 @@ import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.IOResources;
 import org.eclipse.jetty.io.Retainable;
 import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.NanoTime;
 import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.compression.CompressionCodec;
 import org.eclipse.jetty.util.resource.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,10 +52,26 @@ import org.slf4j.LoggerFactory;
  * using it as a caching authority. Only HttpContent instances whose path is not a directory are cached.
  * </p>
  * <p>
- * No eviction is done by this {@link HttpContent.Factory}, once an entry is in the cache it is always
+ * No validation is done by this {@link HttpContent.Factory}, once an entry is in the cache it is always
  * assumed to be valid. This class can be extended to implement the validation behaviours on
  * {@link CachingHttpContent} which allow entries to be evicted once they become invalid.
  * </p>
+ * <p>
+ * When the cache grows over its limits, the entries to evict are chosen by the configured
+ * {@link EvictionPolicy}, by default a {@link LeastRecentlyUsedEvictionPolicy}.
+ * A {@link TinyLfuEvictionPolicy} may be configured for large sets of content where
+ * infrequently accessed content should not displace frequently accessed content.
+ * </p>
+ * <p>
+ * If {@link #setCompressionCodecs(List) compression codecs} are configured, compressed variants of
+ * the cached content are produced in memory on demand and cached alongside the content itself, until
+ * the content is removed from the cache.
+ * Cached content advertises these variants via {@link HttpContent#getPreCompressedContentFormats()},
+ * so that they are served as if they were precompressed files by {@link #getCompressedContent(String, CompressedContentFormat)},
+ * without compressing the content again for every request.
+ * The variants are not reachable via {@link #getContent(String)}, so they are never served for
+ * requests to the content path followed by the codec extension.
+ * </p>
  * <br>
  * The default values for the cache are:
  * <ul>
@@ -58,21 +81,31 @@ import org.slf4j.LoggerFactory;
  * </ul>
  * @see ValidatingCachingHttpContentFactory
  */
+@ManagedObject("Caching HttpContent Factory")
 public class CachingHttpContentFactory implements HttpContent.Factory
 {
     private static final Logger LOG = LoggerFactory.getLogger(CachingHttpContentFactory.class);
     private static final int DEFAULT_MAX_CACHED_FILE_SIZE = 128 * 1024 * 1024;
     private static final int DEFAULT_MAX_CACHED_FILES = 2048;
     private static final long DEFAULT_MAX_CACHE_SIZE = 256 * 1024 * 1024;
+    private static final int DEFAULT_MIN_COMPRESS_SIZE = 32;
 
     private final HttpContent.Factory _authority;
     private final ConcurrentHashMap<String, CachingHttpContent> _cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CompressedKey, CachingHttpContent> _compressedCache = new ConcurrentHashMap<>();
     private final AtomicLong _cachedSize = new AtomicLong();
     private final ByteBufferPool _bufferPool;
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+    private volatile EvictionPolicy _evictionPolicy = new LeastRecentlyUsedEvictionPolicy();
     private int _maxCachedFileSize = DEFAULT_MAX_CACHED_FILE_SIZE;
     private int _maxCachedFiles = DEFAULT_MAX_CACHED_FILES;
     private long _maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
     private boolean _useDirectByteBuffers = true;
+    private List<CompressionCodec> _compressionCodecs = List.of();
+    private List<CompressedContentFormat> _compressionFormats = List.of();
+    private int _minCompressSize = DEFAULT_MIN_COMPRESS_SIZE;
 
     public CachingHttpContentFactory(HttpContent.Factory authority, ByteBufferPool bufferPool)
     {
@@ -85,16 +118,73 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         return _cache;
     }
 
+    @ManagedAttribute("The size in bytes of the cached content")
     public long getCachedSize()
     {
         return _cachedSize.get();
     }
 
+    @ManagedAttribute("The number of cached files")
     public int getCachedFiles()
     {
         return _cache.size();
     }
 
+    @ManagedAttribute("The number of lookups served from the cache")
+    public long getCacheHits()
+    {
+        return _hits.sum();
+    }
+
+    @ManagedAttribute("The number of lookups not served from the cache")
+    public long getCacheMisses()
+    {
+        return _misses.sum();
+    }
+
+    @ManagedAttribute("The number of entries evicted to keep the cache within its limits")
+    public long getCacheEvictions()
+    {
+        return _evictions.sum();
+    }
+
+    @ManagedOperation(value = "Resets the cache statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _hits.reset();
+        _misses.reset();
+        _evictions.reset();
+    }
+
+    /**
+     * @return the policy used to choose the entries to evict when the cache is over its limits
+     */
+    public EvictionPolicy getEvictionPolicy()
+    {
+        return _evictionPolicy;
+    }
+
+    /**
+     * <p>Sets the policy used to choose the entries to evict when the cache is over its limits.</p>
+     * <p>The entries already present in the cache are registered with the new policy,
+     * but their access history is lost, so the policy should be set before the cache is used.</p>
+     *
+     * @param evictionPolicy the eviction policy
+     */
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy)
+    {
+        Objects.requireNonNull(evictionPolicy);
+        for (CachingHttpContent content : _cache.values())
+        {
+            evictionPolicy.onAdded(content.getKey(), content.getBytesOccupied());
+        }
+        EvictionPolicy oldPolicy = _evictionPolicy;
+        _evictionPolicy = evictionPolicy;
+        oldPolicy.clear();
+        shrinkCache();
+    }
+
+    @ManagedAttribute("The maximum size in bytes of a cached file")
     public int getMaxCachedFileSize()
     {
         return _maxCachedFileSize;
@@ -106,6 +196,7 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         shrinkCache();
     }
 
+    @ManagedAttribute("The maximum size in bytes of the cached content")
     public long getMaxCacheSize()
     {
         return _maxCacheSize;
@@ -121,6 +212,7 @@ public class CachingHttpContentFactory implements HttpContent.Factory
      * Get the max number of cached files..
      * @return the max number of cached files.
      */
+    @ManagedAttribute("The maximum number of cached files")
     public int getMaxCachedFiles()
     {
         return _maxCachedFiles;
@@ -146,37 +238,58 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         _useDirectByteBuffers = useDirectByteBuffers;
     }
 
-    private void shrinkCache()
+    /**
+     * @return the codecs used to produce the compressed variants of the cached content
+     */
+    public List<CompressionCodec> getCompressionCodecs()
     {
-        // While we need to shrink
-        int numCacheEntries = _cache.size();
-        while (numCacheEntries > 0 && (numCacheEntries > _maxCachedFiles || _cachedSize.get() > _maxCacheSize))
-        {
-            // Scan the entire cache and generate an ordered list by last accessed time.
-            SortedSet<CachingHttpContent> sorted = new TreeSet<>((c1, c2) ->
-            {
-                long delta = NanoTime.elapsed(c2.getLastAccessedNanos(), c1.getLastAccessedNanos());
-                if (delta != 0)
-                    return delta < 0 ? -1 : 1;
+        return _compressionCodecs;
+    }
+
+    /**
+     * <p>Sets the codecs used to produce the compressed variants of the cached content.</p>
+     * <p>The compressed variants are only produced for content that is cached
+     * after this method is called, so it should be called before the cache is used.</p>
+     *
+     * @param compressionCodecs the compression codecs, or an empty list to not produce compressed variants
+     */
+    public void setCompressionCodecs(List<CompressionCodec> compressionCodecs)
+    {
+        _compressionCodecs = List.copyOf(compressionCodecs);
+        _compressionFormats = _compressionCodecs.stream()
+            .map(codec -> new CompressedContentFormat(codec.getEncoding(), codec.getExtension()))
+            .toList();
+    }
 
-                delta = c1.getContentLengthValue() - c2.getContentLengthValue();
-                if (delta != 0)
-                    return delta < 0 ? -1 : 1;
+    @ManagedAttribute("The minimum size in bytes of content to compress")
+    public int getMinCompressSize()
+    {
+        return _minCompressSize;
+    }
 
-                return c1.getKey().compareTo(c2.getKey());
-            });
-            sorted.addAll(_cache.values());
+    public void setMinCompressSize(int minCompressSize)
+    {
+        _minCompressSize = minCompressSize;
+    }
+
+    private void shrinkCache()
+    {
+        // While we need to shrink, evict the entries chosen by the policy.
+        EvictionPolicy evictionPolicy = _evictionPolicy;
+        while (_cache.size() > _maxCachedFiles || _cachedSize.get() > _maxCacheSize)
+        {
+            String key = evictionPolicy.evict();
+            if (key == null)
+                break;
 
             // TODO: Can we remove the buffers from the content before evicting.
-            // Invalidate least recently used first
-            for (CachingHttpContent content : sorted)
+            // The key may be stale if the entry has been concurrently removed.
+            CachingHttpContent content = _cache.get(key);
+            if (content != null)
             {
-                if (_cache.size() <= _maxCachedFiles && _cachedSize.get() <= _maxCacheSize)
-                    break;
                 removeFromCache(content);
+                _evictions.increment();
             }
-
-            numCacheEntries = _cache.size();
         }
     }
 
@@ -184,6 +297,22 @@ public class CachingHttpContentFactory implements HttpContent.Factory
     {
         CachingHttpContent removed = _cache.remove(content.getKey());
         if (removed != null)
+        {
+            _evictionPolicy.onRemoved(removed.getKey());
+            removed.release();
+            _cachedSize.addAndGet(-removed.getBytesOccupied());
+            // The compressed variants do not outlive the content.
+            for (CompressedContentFormat format : _compressionFormats)
+            {
+                removeCompressedFromCache(new CompressedKey(removed.getKey(), format));
+            }
+        }
+    }
+
+    private void removeCompressedFromCache(CompressedKey key)
+    {
+        CachingHttpContent removed = _compressedCache.remove(key);
+        if (removed != null)
         {
             removed.release();
             _cachedSize.addAndGet(-removed.getBytesOccupied());
@@ -196,6 +325,10 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         {
             removeFromCache(content);
         }
+        for (CompressedKey key : _compressedCache.keySet())
+        {
+            removeCompressedFromCache(key);
+        }
     }
 
     /**
@@ -231,11 +364,16 @@ public class CachingHttpContentFactory implements HttpContent.Factory
             {
                 // If retain fails the CachingHttpContent was already evicted.
                 if (cachingHttpContent.retain())
+                {
+                    _hits.increment();
+                    _evictionPolicy.onAccessed(path);
                     return (cachingHttpContent instanceof NotFoundHttpContent) ? null : cachingHttpContent;
+                }
             }
             else
                 removeFromCache(cachingHttpContent);
         }
+        _misses.increment();
 
         HttpContent httpContent = _authority.getContent(path);
         if (!isCacheable(httpContent))
@@ -258,6 +396,7 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         if (added.get())
         {
             // We want to shrink cache only if we have just added an entry.
+            _evictionPolicy.onAdded(path, cachingHttpContent.getBytesOccupied());
             shrinkCache();
         }
         else if (httpContent != null)
@@ -275,11 +414,233 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         return new CachedHttpContent(p, httpContent);
     }
 
+    /**
+     * <p>Returns the precompressed content at the given path followed by the extension
+     * of the given format, if any, otherwise the in-memory compressed variant of the
+     * cached content at the given path, if the format is one of the
+     * {@link #getCompressionCodecs() compression codecs} formats.</p>
+     *
+     * @param path the path of the content
+     * @param format the compressed format of the variant
+     * @return the compressed variant, or null if there is no such variant
+     * @throws IOException if the content cannot be obtained from the authority
+     */
+    @Override
+    public HttpContent getCompressedContent(String path, CompressedContentFormat format) throws IOException
+    {
+        HttpContent precompressedContent = getContent(path + format.getExtension());
+        if (precompressedContent != null || !_compressionFormats.contains(format))
+            return precompressedContent;
+
+        CompressedKey compressedKey = new CompressedKey(path, format);
+        CachingHttpContent cachingHttpContent = _compressedCache.get(compressedKey);
+        if (cachingHttpContent != null)
+        {
+            if (cachingHttpContent.isValid())
+            {
+                // If retain fails the CachingHttpContent was already evicted.
+                if (cachingHttpContent.retain())
+                {
+                    _hits.increment();
+                    return (cachingHttpContent instanceof NotFoundHttpContent) ? null : cachingHttpContent;
+                }
+            }
+            else
+                removeCompressedFromCache(compressedKey);
+        }
+        _misses.increment();
+
+        HttpContent httpContent = newCompressedContent(path, format);
+
+        // The re-mapping function may be run multiple times by compute.
+        AtomicBoolean added = new AtomicBoolean();
+        cachingHttpContent = _compressedCache.computeIfAbsent(compressedKey, key ->
+        {
+            String variantPath = path + format.getExtension();
+            CachingHttpContent cachingContent = (httpContent == null) ? newNotFoundContent(variantPath) : newCachedContent(variantPath, httpContent);
+            added.set(true);
+            _cachedSize.addAndGet(cachingContent.getBytesOccupied());
+            return cachingContent;
+        });
+
+        // If retain fails the CachingHttpContent was already evicted.
+        if (!cachingHttpContent.retain())
+            return httpContent;
+
+        if (added.get())
+        {
+            // The content may have been removed while compressing it.
+            if (!_cache.containsKey(path))
+                removeCompressedFromCache(compressedKey);
+            shrinkCache();
+        }
+        else if (httpContent != null)
+        {
+            // If we did not add an entry we are using a cached version added by someone else,
+            // so we should release the local content.
+            httpContent.release();
+        }
+
+        return (cachingHttpContent instanceof NotFoundHttpContent) ? null : cachingHttpContent;
+    }
+
+    /**
+     * <p>Tests whether compressed variants of the given content should be produced.</p>
+     * <p>By default, content that is not already encoded, that is at least
+     * {@link #getMinCompressSize()} bytes long and that has a textual MIME type is compressible.</p>
+     *
+     * @param path the path of the content
+     * @param httpContent the content
+     * @return whether compressed variants of the content should be produced
+     */
+    protected boolean isCompressible(String path, HttpContent httpContent)
+    {
+        if (httpContent.getContentEncoding() != null)
+            return false;
+        if (httpContent.getContentLengthValue() < _minCompressSize)
+            return false;
+        String contentType = httpContent.getContentTypeValue();
+        if (contentType == null)
+            return false;
+        String mimeType = StringUtil.asciiToLowerCase(MimeTypes.getContentTypeWithoutCharset(contentType));
+        return mimeType.startsWith("text/") ||
+            mimeType.endsWith("/json") || mimeType.endsWith("+json") ||
+            mimeType.endsWith("/xml") || mimeType.endsWith("+xml") ||
+            mimeType.endsWith("/javascript") || mimeType.equals("image/svg+xml");
+    }
+
+    /**
+     * <p>Produces the in-memory compressed variant of the cached content at the given path.</p>
+     *
+     * @param path the path of the content
+     * @param format the compressed format of the variant
+     * @return the compressed variant, or null if there is no cached content to compress
+     * or if compressing does not reduce its size
+     * @throws IOException if the content cannot be obtained from the authority
+     */
+    protected HttpContent newCompressedContent(String path, CompressedContentFormat format) throws IOException
+    {
+        CompressionCodec codec = _compressionCodecs.stream()
+            .filter(c -> c.getEncoding().equals(format.getEncoding()) && c.getExtension().equals(format.getExtension()))
+            .findFirst()
+            .orElse(null);
+        if (codec == null)
+            return null;
+
+        CachingHttpContent cached = _cache.get(path);
+        if (cached == null || !cached.retain())
+            return null;
+
+        try
+        {
+            Set<CompressedContentFormat> formats = cached.getPreCompressedContentFormats();
+            if (formats == null || !formats.contains(format))
+                return null;
+            ByteBuffer content = cached.getByteBuffer();
+            if (content == null)
+                return null;
+            ByteBuffer compressed = compress(codec, content);
+            if (compressed == null)
+                return null;
+            HttpContent baseContent = _authority.getContent(path);
+            if (baseContent == null)
+                return null;
+            if (LOG.isDebugEnabled())
+                LOG.debug("Compressed {} with {} from {} to {} bytes", path, codec.getEncoding(), content.remaining(), compressed.remaining());
+            return new CompressedHttpContent(baseContent, codec, compressed);
+        }
+        finally
+        {
+            cached.release();
+        }
+    }
+
+    private ByteBuffer compress(CompressionCodec codec, ByteBuffer content)
+    {
+        CompressionCodec.Encoder encoder = codec.newEncoder(false);
+        if (encoder == null)
+            return null;
+        try
+        {
+            // Only a compressed variant smaller than the content is worth caching,
+            // so give up when the output buffer is full.
+            ByteBuffer output = ByteBuffer.allocate(content.remaining());
+            encoder.setInput(content);
+            encoder.finish();
+            while (!encoder.isFinished())
+            {
+                if (encoder.encode(output) == 0 && !output.hasRemaining())
+                    return null;
+            }
+            output.flip();
+            if (!_useDirectByteBuffers)
+                return output;
+            ByteBuffer direct = BufferUtil.allocateDirect(output.remaining());
+            BufferUtil.append(direct, output);
+            return direct;
+        }
+        finally
+        {
+            encoder.release();
+        }
+    }
+
     protected CachingHttpContent newNotFoundContent(String p)
     {
         return new NotFoundHttpContent(p);
     }
 
+    /**
+     * <p>A policy that chooses the entries to evict from a {@link CachingHttpContentFactory}
+     * cache when the cache is over its limits.</p>
+     * <p>Implementations are notified of every addition, access and removal of cache entries,
+     * possibly concurrently, so they must be thread-safe.
+     * Implementations should choose the entry to evict in constant time, without scanning
+     * all the cached entries, as eviction happens on the request path.</p>
+     */
+    public interface EvictionPolicy
+    {
+        /**
+         * <p>Called when an entry is added to the cache.</p>
+         *
+         * @param key the key of the entry
+         * @param weight the number of bytes occupied by the entry
+         */
+        void onAdded(String key, long weight);
+
+        /**
+         * <p>Called when an entry is found in the cache.</p>
+         * <p>Implementations may choose to ignore the access if recording it would
+         * cause contention with other threads.</p>
+         *
+         * @param key the key of the entry
+         */
+        void onAccessed(String key);
+
+        /**
+         * <p>Called when an entry is removed from the cache.</p>
+         *
+         * @param key the key of the entry
+         */
+        void onRemoved(String key);
+
+        /**
+         * <p>Chooses the entry to evict, and forgets about it.</p>
+         *
+         * @return the key of the entry to evict, or null if there are no entries to evict
+         */
+        String evict();
+
+        /**
+         * <p>Forgets about all the entries.</p>
+         */
+        void clear();
+    }
+
+    private record CompressedKey(String path, CompressedContentFormat format)
+    {
+    }
+
     protected interface CachingHttpContent extends HttpContent
     {
         long getLastAccessedNanos();
@@ -359,7 +720,7 @@ public class CachingHttpContentFactory implements HttpContent.Factory
             _bytesOccupied = httpContent.getBytesOccupied();
             _lastModifiedValue = httpContent.getLastModifiedValue();
             _characterEncoding = httpContent.getCharacterEncoding();
-            _compressedFormats = httpContent.getPreCompressedContentFormats();
+            _compressedFormats = compressedFormats(key, httpContent, buffer);
             _mimeType = httpContent.getMimeType();
             _contentLength = httpContent.getContentLength();
             _lastModifiedInstant = httpContent.getLastModifiedInstant();
@@ -367,6 +728,16 @@ public class CachingHttpContentFactory implements HttpContent.Factory
             _lastAccessed = NanoTime.now();
         }
 
+        private Set<CompressedContentFormat> compressedFormats(String key, HttpContent httpContent, RetainableByteBuffer buffer)
+        {
+            Set<CompressedContentFormat> formats = httpContent.getPreCompressedContentFormats();
+            if (formats == null || buffer == null || _compressionFormats.isEmpty() || !isCompressible(key, httpContent))
+                return formats;
+            Set<CompressedContentFormat> compressedFormats = new HashSet<>(formats);
+            compressedFormats.addAll(_compressionFormats);
+            return Set.copyOf(compressedFormats);
+        }
+
         @Override
         public long getContentLengthValue()
         {
@@ -481,6 +852,75 @@ public class CachingHttpContentFactory implements HttpContent.Factory
         }
     }
 
+    /**
+     * <p>The in-memory compressed variant of a content, that delegates to the content
+     * itself everything but the representation data and its metadata.</p>
+     */
+    private static class CompressedHttpContent extends HttpContent.Wrapper
+    {
+        private final CompressionCodec _codec;
+        private final ByteBuffer _buffer;
+        private final HttpField _contentEncoding;
+        private final HttpField _contentLength;
+
+        private CompressedHttpContent(HttpContent content, CompressionCodec codec, ByteBuffer buffer)
+        {
+            super(content);
+            _codec = codec;
+            _buffer = buffer;
+            _contentEncoding = new PreEncodedHttpField(HttpHeader.CONTENT_ENCODING, codec.getEncoding());
+            _contentLength = new HttpField.LongValueHttpField(HttpHeader.CONTENT_LENGTH, buffer.remaining());
+        }
+
+        @Override
+        public HttpField getContentEncoding()
+        {
+            return _contentEncoding;
+        }
+
+        @Override
+        public String getContentEncodingValue()
+        {
+            return _contentEncoding.getValue();
+        }
+
+        @Override
+        public HttpField getContentLength()
+        {
+            return _contentLength;
+        }
+
+        @Override
+        public long getContentLengthValue()
+        {
+            return _buffer.remaining();
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer()
+        {
+            return _buffer.asReadOnlyBuffer();
+        }
+
+        @Override
+        public long getBytesOccupied()
+        {
+            return _buffer.capacity();
+        }
+
+        @Override
+        public Set<CompressedContentFormat> getPreCompressedContentFormats()
+        {
+            return null;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x[%s,%s]", getClass().getSimpleName(), hashCode(), _codec.getEncoding(), getWrapped());
+        }
+    }
+
     protected static class NotFoundHttpContent implements CachingHttpContent
     {
         private volatile long _lastAccessed;
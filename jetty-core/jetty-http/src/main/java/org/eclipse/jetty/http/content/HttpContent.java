@@ -91,6 +91,21 @@ public interface HttpContent
          * @throws IOException if unable to get content
          */
         HttpContent getContent(String path) throws IOException;
+
+        /**
+         * <p>Returns the compressed variant of the content at the given path.</p>
+         * <p>By default, the compressed variant is the precompressed content at
+         * the given path followed by the extension of the given format.</p>
+         *
+         * @param path The path within the context to the resource
+         * @param format The compressed format of the variant
+         * @return A {@link HttpContent} compressed with the given format, or null if there is no such variant
+         * @throws IOException if unable to get content
+         */
+        default HttpContent getCompressedContent(String path, CompressedContentFormat format) throws IOException
+        {
+            return getContent(path + format.getExtension());
+        }
     }
 
     /**
@@ -0,0 +1,91 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A {@link CachingHttpContentFactory.EvictionPolicy} that evicts the least recently used entry.</p>
+ * <p>Entries are kept in access order, so that both recording an access and choosing
+ * the entry to evict are constant time operations.
+ * Accesses that would contend with other threads for the policy lock are not recorded.</p>
+ */
+public class LeastRecentlyUsedEvictionPolicy implements CachingHttpContentFactory.EvictionPolicy
+{
+    private final AutoLock _lock = new AutoLock();
+    private final LinkedHashMap<String, Long> _entries = new LinkedHashMap<>(16, 0.75F, true);
+
+    @Override
+    public void onAdded(String key, long weight)
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            _entries.put(key, weight);
+        }
+    }
+
+    @Override
+    public void onAccessed(String key)
+    {
+        try (AutoLock l = _lock.tryLock())
+        {
+            if (l.isHeldByCurrentThread())
+                _entries.get(key);
+        }
+    }
+
+    @Override
+    public void onRemoved(String key)
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            _entries.remove(key);
+        }
+    }
+
+    @Override
+    public String evict()
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            Iterator<String> iterator = _entries.keySet().iterator();
+            if (!iterator.hasNext())
+                return null;
+            String key = iterator.next();
+            iterator.remove();
+            return key;
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            _entries.clear();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        try (AutoLock ignored = _lock.tryLock())
+        {
+            return String.format("%s@%x[size=%d]", getClass().getSimpleName(), hashCode(), _entries.size());
+        }
+    }
+}
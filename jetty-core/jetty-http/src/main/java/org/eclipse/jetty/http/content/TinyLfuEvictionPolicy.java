@@ -0,0 +1,442 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>A {@link CachingHttpContentFactory.EvictionPolicy} implementing a size-aware
+ * <a href="https://arxiv.org/abs/1512.00727">W-TinyLFU</a> policy.</p>
+ * <p>New entries are added to a small <em>window</em> (1% of the entries) ordered by recency.
+ * Entries overflowing the window move to the <em>main</em> space, segmented in a
+ * <em>probation</em> and a <em>protected</em> area, where they become candidates
+ * for admission: when the cache needs to evict an entry, the candidate competes with the
+ * least recently used entry of the probation area, and the one that has been accessed
+ * less frequently is evicted.
+ * Access frequencies are estimated by a compact, periodically aged, count-min sketch,
+ * so that content accessed only once (for example by crawlers) does not displace
+ * content that is frequently accessed.</p>
+ * <p>Admission is size-aware: a candidate that is larger than the victim must be
+ * accessed more frequently than all the entries that must be evicted to make room for it.</p>
+ * <p>All the operations are constant time; accesses that would contend with other
+ * threads for the policy lock are not recorded.</p>
+ */
+@ManagedObject("W-TinyLFU Eviction Policy")
+public class TinyLfuEvictionPolicy implements CachingHttpContentFactory.EvictionPolicy
+{
+    private static final int MAX_VICTIMS = 8;
+
+    private final AutoLock _lock = new AutoLock();
+    private final Map<String, Node> _nodes = new HashMap<>();
+    private final Segment _window = new Segment();
+    private final Segment _probation = new Segment();
+    private final Segment _protected = new Segment();
+    private final FrequencySketch _sketch;
+    private Node _candidate;
+    private long _admitted;
+    private long _rejected;
+
+    public TinyLfuEvictionPolicy()
+    {
+        this(2048);
+    }
+
+    /**
+     * @param capacity the expected maximum number of entries, used to size the frequency sketch
+     */
+    public TinyLfuEvictionPolicy(int capacity)
+    {
+        _sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * @return the number of admission candidates that have been admitted in the main space, evicting another entry
+     */
+    @ManagedAttribute("The number of admission candidates admitted in the main space")
+    public long getAdmitted()
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            return _admitted;
+        }
+    }
+
+    /**
+     * @return the number of admission candidates that have been rejected because accessed less frequently than the victim
+     */
+    @ManagedAttribute("The number of admission candidates rejected by the frequency filter")
+    public long getRejected()
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            return _rejected;
+        }
+    }
+
+    /**
+     * @param key the key of an entry
+     * @return the estimated access frequency of the entry
+     */
+    public int getFrequency(String key)
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            return _sketch.frequency(key.hashCode());
+        }
+    }
+
+    @Override
+    public void onAdded(String key, long weight)
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            _sketch.increment(key.hashCode());
+            Node node = _nodes.get(key);
+            if (node != null)
+            {
+                node.weight = weight;
+                onHit(node);
+                return;
+            }
+
+            node = new Node(key, weight);
+            _nodes.put(key, node);
+            _window.addFirst(node);
+
+            // Entries overflowing the window become candidates for the main space.
+            int maxWindow = Math.max(1, _nodes.size() / 100);
+            while (_window.size > maxWindow)
+            {
+                Node overflow = _window.removeLast();
+                _probation.addFirst(overflow);
+                _candidate = overflow;
+            }
+        }
+    }
+
+    @Override
+    public void onAccessed(String key)
+    {
+        try (AutoLock l = _lock.tryLock())
+        {
+            if (!l.isHeldByCurrentThread())
+                return;
+            _sketch.increment(key.hashCode());
+            Node node = _nodes.get(key);
+            if (node != null)
+                onHit(node);
+        }
+    }
+
+    private void onHit(Node node)
+    {
+        assert _lock.isHeldByCurrentThread();
+        if (node.segment == _probation)
+        {
+            // Promote to the protected area.
+            if (node == _candidate)
+                _candidate = null;
+            _probation.remove(node);
+            _protected.addFirst(node);
+            int maxProtected = Math.max(1, (_nodes.size() - _window.size) * 4 / 5);
+            while (_protected.size > maxProtected)
+            {
+                _probation.addFirst(_protected.removeLast());
+            }
+        }
+        else
+        {
+            Segment segment = node.segment;
+            segment.remove(node);
+            segment.addFirst(node);
+        }
+    }
+
+    @Override
+    public void onRemoved(String key)
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            Node node = _nodes.remove(key);
+            if (node != null)
+                unlink(node);
+        }
+    }
+
+    @Override
+    public String evict()
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            Node victim = _probation.tail;
+            if (victim == null)
+                victim = _protected.tail;
+            if (victim == null)
+                victim = _window.tail;
+            if (victim == null)
+                return null;
+
+            Node evicted = victim;
+            Node candidate = _candidate;
+            if (candidate != null && candidate != victim)
+            {
+                // A candidate competes for admission only once.
+                _candidate = null;
+                if (admit(candidate, victim))
+                {
+                    ++_admitted;
+                }
+                else
+                {
+                    ++_rejected;
+                    evicted = candidate;
+                }
+            }
+
+            _nodes.remove(evicted.key);
+            unlink(evicted);
+            return evicted.key;
+        }
+    }
+
+    private boolean admit(Node candidate, Node victim)
+    {
+        int candidateFrequency = _sketch.frequency(candidate.hash);
+
+        // A candidate larger than the victim may need to evict more entries,
+        // so it must be accessed more frequently than all of them.
+        int victimsFrequency = 0;
+        long freed = 0;
+        Node node = victim;
+        for (int i = 0; i < MAX_VICTIMS && node != null && node != candidate; ++i)
+        {
+            victimsFrequency += _sketch.frequency(node.hash);
+            freed += node.weight;
+            if (freed >= candidate.weight)
+                break;
+            node = node.prev;
+        }
+        return candidateFrequency > victimsFrequency;
+    }
+
+    private void unlink(Node node)
+    {
+        if (node == _candidate)
+            _candidate = null;
+        node.segment.remove(node);
+    }
+
+    @Override
+    public void clear()
+    {
+        try (AutoLock ignored = _lock.lock())
+        {
+            _nodes.clear();
+            _window.clear();
+            _probation.clear();
+            _protected.clear();
+            _candidate = null;
+            _sketch.clear();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        try (AutoLock ignored = _lock.tryLock())
+        {
+            return String.format("%s@%x[window=%d,probation=%d,protected=%d,admitted=%d,rejected=%d]",
+                getClass().getSimpleName(),
+                hashCode(),
+                _window.size,
+                _probation.size,
+                _protected.size,
+                _admitted,
+                _rejected);
+        }
+    }
+
+    private static class Node
+    {
+        private final String key;
+        private final int hash;
+        private long weight;
+        private Segment segment;
+        private Node prev;
+        private Node next;
+
+        private Node(String key, long weight)
+        {
+            this.key = key;
+            this.hash = key.hashCode();
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * <p>A doubly linked list of {@link Node}s, most recently used first.</p>
+     */
+    private static class Segment
+    {
+        private Node head;
+        private Node tail;
+        private int size;
+
+        private void addFirst(Node node)
+        {
+            node.segment = this;
+            node.prev = null;
+            node.next = head;
+            if (head == null)
+                tail = node;
+            else
+                head.prev = node;
+            head = node;
+            ++size;
+        }
+
+        private Node removeLast()
+        {
+            Node node = tail;
+            if (node != null)
+                remove(node);
+            return node;
+        }
+
+        private void remove(Node node)
+        {
+            if (node.prev == null)
+                head = node.next;
+            else
+                node.prev.next = node.next;
+            if (node.next == null)
+                tail = node.prev;
+            else
+                node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            node.segment = null;
+            --size;
+        }
+
+        private void clear()
+        {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * <p>A count-min sketch with 4-bit counters that estimates access frequencies.</p>
+     * <p>Each {@code long} in the table holds 16 counters; an item is mapped to 4 counters
+     * in 4 different table slots, and its frequency is the minimum of the 4 counters.
+     * Counters are halved when the number of increments reaches a sample size proportional
+     * to the table length, so that the estimated frequencies age over time.</p>
+     */
+    private static class FrequencySketch
+    {
+        private static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long ONE_MASK = 0x1111111111111111L;
+
+        private final long[] _table;
+        private final int _sampleSize;
+        private int _size;
+
+        private FrequencySketch(int capacity)
+        {
+            int length = Integer.highestOneBit(Math.max(16, Math.min(capacity, 1 << 24)) - 1) << 1;
+            _table = new long[length];
+            _sampleSize = 10 * length;
+        }
+
+        private int frequency(int hashCode)
+        {
+            int hash = spread(hashCode);
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; ++i)
+            {
+                int index = indexOf(hash, i);
+                int count = (int)((_table[index] >>> ((start + i) << 2)) & 0xFL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        private void increment(int hashCode)
+        {
+            int hash = spread(hashCode);
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; ++i)
+            {
+                int index = indexOf(hash, i);
+                added |= incrementAt(index, start + i);
+            }
+            if (added && ++_size >= _sampleSize)
+                reset();
+        }
+
+        private boolean incrementAt(int index, int counter)
+        {
+            int offset = counter << 2;
+            long mask = 0xFL << offset;
+            if ((_table[index] & mask) != mask)
+            {
+                _table[index] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        private void reset()
+        {
+            int odd = 0;
+            for (int i = 0; i < _table.length; ++i)
+            {
+                odd += Long.bitCount(_table[i] & ONE_MASK);
+                _table[i] = (_table[i] >>> 1) & RESET_MASK;
+            }
+            _size = (_size >>> 1) - (odd >>> 2);
+        }
+
+        private void clear()
+        {
+            Arrays.fill(_table, 0L);
+            _size = 0;
+        }
+
+        private int indexOf(int hash, int i)
+        {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int)h & (_table.length - 1);
+        }
+
+        private static int spread(int x)
+        {
+            x = ((x >>> 16) ^ x) * 0x45D9F3B;
+            x = ((x >>> 16) ^ x) * 0x45D9F3B;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import org.eclipse.jetty.http.compression.AdaptiveIndexingStrategy;
+import org.eclipse.jetty.http.compression.IndexingStrategy.Indexing;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveIndexingStrategyTest
+{
+    @Test
+    public void testRepeatedFieldIsInserted()
+    {
+        AdaptiveIndexingStrategy strategy = new AdaptiveIndexingStrategy(128, 16, 0.125D, 64);
+        HttpField field = new HttpField("X-Constant", "value");
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(Indexing.INSERT, strategy.getIndexing(field));
+            strategy.onInserted(field);
+            for (int j = 0; j < 4; j++)
+            {
+                strategy.onReferenced(field);
+            }
+        }
+        assertTrue(strategy.getHitRatio("x-constant") > 1D);
+    }
+
+    @Test
+    public void testUnreferencedFieldIsNotInserted()
+    {
+        AdaptiveIndexingStrategy strategy = new AdaptiveIndexingStrategy(128, 16, 0.125D, 64);
+        for (int i = 0; i < 16; i++)
+        {
+            HttpField field = new HttpField("X-Request-Id", "id-" + i);
+            assertEquals(Indexing.INSERT, strategy.getIndexing(field));
+            strategy.onInserted(field);
+        }
+        assertEquals(0D, strategy.getHitRatio("X-Request-Id"));
+
+        // Only one field every 64 is inserted, to probe whether the values became repetitive.
+        int inserted = 0;
+        for (int i = 0; i < 128; i++)
+        {
+            if (strategy.getIndexing(new HttpField("x-request-id", "id-" + i)) == Indexing.INSERT)
+                ++inserted;
+        }
+        assertEquals(2, inserted);
+
+        // Other names are not affected.
+        assertEquals(Indexing.INSERT, strategy.getIndexing(new HttpField("x-other", "value")));
+    }
+
+    @Test
+    public void testReferencedFieldIsInsertedAgain()
+    {
+        AdaptiveIndexingStrategy strategy = new AdaptiveIndexingStrategy(128, 16, 0.125D, 64);
+        HttpField field = new HttpField("x-session", "value");
+        for (int i = 0; i < 16; i++)
+        {
+            strategy.onInserted(field);
+        }
+        assertEquals(Indexing.LITERAL, strategy.getIndexing(field));
+
+        strategy.onReferenced(field);
+        strategy.onReferenced(field);
+        assertEquals(Indexing.INSERT, strategy.getIndexing(field));
+    }
+
+    @Test
+    public void testMaxNames()
+    {
+        AdaptiveIndexingStrategy strategy = new AdaptiveIndexingStrategy(1, 16, 0.125D, 64);
+        strategy.onInserted(new HttpField("x-first", "value"));
+        strategy.onInserted(new HttpField("x-second", "value"));
+        assertEquals(0D, strategy.getHitRatio("x-first"));
+        assertTrue(Double.isNaN(strategy.getHitRatio("x-second")));
+    }
+}
@@ -106,6 +106,50 @@ public class HttpGeneratorServerTest
         assertThat(response, containsString("\r\n0123456789"));
     }
 
+    @Test
+    public void testPreEncodedHttpFields() throws Exception
+    {
+        PreEncodedHttpFields block = PreEncodedHttpFields.from(
+            new HttpField(HttpHeader.SERVER, "Jetty"),
+            new HttpField(HttpHeader.CACHE_CONTROL, "no-cache"),
+            new HttpField("X-Content-Type-Options", "nosniff"),
+            new HttpField(HttpHeader.CONTENT_TYPE, "text/plain"));
+
+        HttpFields.Mutable preEncoded = HttpFields.build()
+            .add("X-Before", "before")
+            .add(block)
+            .add("X-After", "after");
+        HttpFields.Mutable plain = HttpFields.build()
+            .add("X-Before", "before")
+            .add(new HttpField(HttpHeader.SERVER, "Jetty"))
+            .add(new HttpField(HttpHeader.CACHE_CONTROL, "no-cache"))
+            .add(new HttpField("X-Content-Type-Options", "nosniff"))
+            .add(new HttpField(HttpHeader.CONTENT_TYPE, "text/plain"))
+            .add("X-After", "after");
+        assertEquals(generateResponseHeader(plain), generateResponseHeader(preEncoded));
+        assertThat(generateResponseHeader(preEncoded), containsString("\r\nServer: Jetty\r\nCache-Control: no-cache\r\nX-Content-Type-Options: nosniff\r\nContent-Type: text/plain\r\nX-After: after\r\n"));
+
+        // Removing a field from the middle of the block splits the run.
+        preEncoded.remove("X-Content-Type-Options");
+        plain.remove("X-Content-Type-Options");
+        assertEquals(generateResponseHeader(plain), generateResponseHeader(preEncoded));
+
+        // Replacing a field of the block breaks the run.
+        preEncoded.put(HttpHeader.CACHE_CONTROL, "no-store");
+        plain.put(HttpHeader.CACHE_CONTROL, "no-store");
+        assertEquals(generateResponseHeader(plain), generateResponseHeader(preEncoded));
+    }
+
+    private static String generateResponseHeader(HttpFields fields) throws Exception
+    {
+        ByteBuffer header = BufferUtil.allocate(8096);
+        HttpGenerator gen = new HttpGenerator();
+        MetaData.Response info = new MetaData.Response(200, null, HttpVersion.HTTP_1_1, fields, 0);
+        HttpGenerator.Result result = gen.generateResponse(info, false, header, null, null, true);
+        assertEquals(HttpGenerator.Result.FLUSH, result);
+        return BufferUtil.toString(header);
+    }
+
     @Test
     public void testHeaderOverflow() throws Exception
     {
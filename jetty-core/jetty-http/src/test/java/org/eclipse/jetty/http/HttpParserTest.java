@@ -49,6 +49,7 @@ import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -2619,6 +2620,106 @@ public class HttpParserTest
         assertSame(field, _fields.get(0));
     }
 
+    @Test
+    @SuppressWarnings("ReferenceEquality")
+    public void testLearnedField()
+    {
+        HttpParser.RequestHandler handler = new Handler();
+        HttpParser parser = new HttpParser(handler);
+        parser.setHeaderCacheLearning(true);
+
+        HttpField[] forwardedFields = new HttpField[3];
+        for (int i = 0; i < forwardedFields.length; i++)
+        {
+            ByteBuffer buffer = BufferUtil.toBuffer(
+                "GET / HTTP/1.1\r\n" +
+                    "Host: localhost\r\n" +
+                    "X-Forwarded-For: 10.0.0.1\r\n" +
+                    "X-Request-Id: " + i + "\r\n" +
+                    "\r\n");
+            parseAll(parser, buffer);
+            assertEquals("X-Forwarded-For", _hdr[1]);
+            assertEquals("10.0.0.1", _val[1]);
+            assertEquals("X-Request-Id", _hdr[2]);
+            assertEquals(String.valueOf(i), _val[2]);
+            forwardedFields[i] = _fields.get(1);
+        }
+
+        // The field is learned the second time it is seen, and then shared.
+        assertNotSame(forwardedFields[0], forwardedFields[1]);
+        assertSame(forwardedFields[1], forwardedFields[2]);
+        assertSame(forwardedFields[2], parser.getFieldCache().get("X-Forwarded-For: 10.0.0.1"));
+        // Fields whose value changes are not learned.
+        assertNull(parser.getFieldCache().get("X-Request-Id: 2"));
+    }
+
+    @Test
+    @SuppressWarnings("ReferenceEquality")
+    public void testNoLearnedFieldByDefault()
+    {
+        HttpParser.RequestHandler handler = new Handler();
+        HttpParser parser = new HttpParser(handler);
+        assertFalse(parser.isHeaderCacheLearning());
+
+        HttpField[] forwardedFields = new HttpField[3];
+        for (int i = 0; i < forwardedFields.length; i++)
+        {
+            ByteBuffer buffer = BufferUtil.toBuffer(
+                "GET / HTTP/1.1\r\n" +
+                    "Host: localhost\r\n" +
+                    "X-Forwarded-For: 10.0.0.1\r\n" +
+                    "\r\n");
+            parseAll(parser, buffer);
+            forwardedFields[i] = _fields.get(1);
+        }
+
+        assertNotSame(forwardedFields[1], forwardedFields[2]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\r\n", "\n"})
+    public void testLongFieldValuesSplit(String eoln)
+    {
+        String request = "GET / HTTP/1.1" + eoln +
+            "Host: localhost" + eoln +
+            "User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0" + eoln +
+            "X-Tab: before\tafter-the-tab-character" + eoln +
+            "X-Trailing: value with trailing whitespace    " + eoln +
+            "X-Obs-Text: caf\u00e9 au lait, cr\u00e8me br\u00fbl\u00e9e" + eoln +
+            eoln;
+        byte[] bytes = request.getBytes(StandardCharsets.ISO_8859_1);
+
+        for (int split = 1; split < bytes.length; split++)
+        {
+            HttpParser.RequestHandler handler = new Handler();
+            HttpParser parser = new HttpParser(handler);
+            parser.parseNext(ByteBuffer.wrap(bytes, 0, split));
+            parser.parseNext(ByteBuffer.wrap(bytes, split, bytes.length - split));
+
+            assertTrue(_messageCompleted, "split=" + split);
+            assertEquals(4, _headers);
+            assertEquals("Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0", _val[1], "split=" + split);
+            assertEquals("before\tafter-the-tab-character", _val[2], "split=" + split);
+            assertEquals("value with trailing whitespace", _val[3], "split=" + split);
+            assertEquals("caf\u00e9 au lait, cr\u00e8me br\u00fbl\u00e9e", _val[4], "split=" + split);
+        }
+    }
+
+    @Test
+    public void testControlCharacterInLongFieldValue()
+    {
+        ByteBuffer buffer = BufferUtil.toBuffer(
+            "GET / HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "X-Control: a long value with a control\u0001character\r\n" +
+                "\r\n");
+
+        HttpParser.RequestHandler handler = new Handler();
+        HttpParser parser = new HttpParser(handler);
+        parseAll(parser, buffer);
+        assertThat(_bad, containsString("Illegal character"));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"\r\n", "\n"})
     public void testParseRequest(String eoln)
@@ -0,0 +1,101 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpPriorityTest
+{
+    @Test
+    public void testDefault()
+    {
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from((String)null));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from(""));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from(HttpFields.EMPTY));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from("u=3"));
+        assertEquals(HttpPriority.DEFAULT_URGENCY, HttpPriority.DEFAULT.urgency());
+        assertFalse(HttpPriority.DEFAULT.incremental());
+    }
+
+    @Test
+    public void testUrgencyAndIncremental()
+    {
+        assertEquals(new HttpPriority(0, false), HttpPriority.from("u=0"));
+        assertEquals(new HttpPriority(7, false), HttpPriority.from("u=7"));
+        assertEquals(new HttpPriority(3, true), HttpPriority.from("i"));
+        assertEquals(new HttpPriority(1, true), HttpPriority.from("u=1, i"));
+        assertEquals(new HttpPriority(1, true), HttpPriority.from("i,u=1"));
+        assertEquals(new HttpPriority(5, true), HttpPriority.from("u=5, i=?1"));
+        assertEquals(new HttpPriority(5, false), HttpPriority.from("u=5, i=?0"));
+    }
+
+    @Test
+    public void testFromFields()
+    {
+        HttpFields fields = HttpFields.build().put(HttpHeader.PRIORITY, "u=2, i");
+        assertEquals(new HttpPriority(2, true), HttpPriority.from(fields));
+    }
+
+    @Test
+    public void testInvalidValuesAreIgnored()
+    {
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from("u=8"));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from("u=-1"));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from("u=12"));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from("u=a"));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from("u"));
+        assertSame(HttpPriority.DEFAULT, HttpPriority.from("i=1"));
+        assertEquals(new HttpPriority(6, false), HttpPriority.from("u=9, u=6"));
+    }
+
+    @Test
+    public void testUnknownKeysAndParametersAreIgnored()
+    {
+        assertEquals(new HttpPriority(4, true), HttpPriority.from("foo=bar, u=4;x=1, i;y=\"z\", baz"));
+        assertEquals(new HttpPriority(1, false), HttpPriority.from("u=1;i"));
+    }
+
+    @Test
+    public void testFromBase()
+    {
+        HttpPriority base = new HttpPriority(1, true);
+        assertSame(base, HttpPriority.from(base, null));
+        assertEquals(new HttpPriority(5, true), HttpPriority.from(base, "u=5"));
+        assertEquals(new HttpPriority(1, false), HttpPriority.from(base, "i=?0"));
+        assertEquals(base, HttpPriority.from(base, "foo"));
+    }
+
+    @Test
+    public void testToHeaderValue()
+    {
+        assertEquals("u=3", HttpPriority.DEFAULT.toHeaderValue());
+        assertEquals("u=0, i", new HttpPriority(0, true).toHeaderValue());
+        HttpPriority priority = new HttpPriority(6, true);
+        assertEquals(priority, HttpPriority.from(priority.toHeaderValue()));
+    }
+
+    @Test
+    public void testInvalidUrgency()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new HttpPriority(-1, false));
+        assertThrows(IllegalArgumentException.class, () -> new HttpPriority(8, true));
+        assertTrue(new HttpPriority(HttpPriority.MAX_URGENCY, true).incremental());
+    }
+}
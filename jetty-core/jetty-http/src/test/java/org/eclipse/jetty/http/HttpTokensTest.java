@@ -0,0 +1,61 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HttpTokensTest
+{
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testCountSpaceOrVchar(boolean bigEndian)
+    {
+        byte[] bytes = new byte[21];
+        for (int b = 0; b < 256; b++)
+        {
+            boolean spaceOrVchar = b >= 0x20 && b <= 0x7E;
+            for (int index = 0; index < bytes.length; index++)
+            {
+                Arrays.fill(bytes, (byte)'a');
+                bytes[index] = (byte)b;
+                ByteBuffer buffer = ByteBuffer.wrap(bytes).order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                for (int position = 0; position <= index; position++)
+                {
+                    int expected = spaceOrVchar ? bytes.length - position : index - position;
+                    assertEquals(expected, HttpTokens.countSpaceOrVchar(buffer, position, bytes.length), "byte=" + b + " index=" + index + " position=" + position);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testCountSpaceOrVcharDirect(boolean bigEndian)
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(32).order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+        buffer.put("Mozilla/5.0 (X11; Linux)\r\nHost: ".getBytes());
+        buffer.flip();
+        assertEquals(24, HttpTokens.countSpaceOrVchar(buffer, 0, buffer.limit()));
+        assertEquals(0, HttpTokens.countSpaceOrVchar(buffer, 24, buffer.limit()));
+        assertEquals(6, HttpTokens.countSpaceOrVchar(buffer, 26, buffer.limit()));
+        assertEquals(3, HttpTokens.countSpaceOrVchar(buffer, 0, 3));
+    }
+}
@@ -0,0 +1,89 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PreEncodedHttpFieldsTest
+{
+    @Test
+    public void testEncodedBlockIsConcatenationOfFields()
+    {
+        PreEncodedHttpFields block = PreEncodedHttpFields.from(HttpFields.build()
+            .add(HttpHeader.SERVER, "Jetty")
+            .add("X-Frame-Options", "DENY")
+            .add(HttpHeader.VARY, "Accept-Encoding"));
+
+        assertEquals(3, block.size());
+        assertEquals("DENY", block.get("X-Frame-Options"));
+
+        ByteBuffer buffer = BufferUtil.allocate(1024);
+        BufferUtil.clearToFill(buffer);
+        block.putTo(buffer, HttpVersion.HTTP_1_1);
+        BufferUtil.flipToFlush(buffer, 0);
+        String all = "Server: Jetty\r\nX-Frame-Options: DENY\r\nVary: Accept-Encoding\r\n";
+        assertEquals(all, BufferUtil.toString(buffer));
+        assertEquals(all.length(), block.getEncodedLength(HttpVersion.HTTP_1_1));
+
+        BufferUtil.clearToFill(buffer);
+        block.putTo(buffer, HttpVersion.HTTP_1_1, 1, 3);
+        BufferUtil.flipToFlush(buffer, 0);
+        assertEquals("X-Frame-Options: DENY\r\nVary: Accept-Encoding\r\n", BufferUtil.toString(buffer));
+        assertEquals(buffer.remaining(), block.getEncodedLength(HttpVersion.HTTP_1_1, 1, 3));
+
+        for (int i = 0; i < block.size(); i++)
+        {
+            HttpField field = block.getField(i);
+            assertThat(field, instanceOf(PreEncodedHttpFields.Field.class));
+            PreEncodedHttpFields.Field blockField = (PreEncodedHttpFields.Field)field;
+            assertSame(block, blockField.getPreEncodedHttpFields());
+            assertEquals(i, blockField.getIndex());
+        }
+    }
+
+    @Test
+    public void testRunEnd()
+    {
+        PreEncodedHttpFields block = PreEncodedHttpFields.from(
+            new HttpField("A", "1"),
+            new HttpField("B", "2"),
+            new HttpField("C", "3"));
+
+        HttpFields.Mutable fields = HttpFields.build().add("X", "x").add(block);
+        assertEquals(3, block.getRunEnd(fields, 1));
+        assertEquals(3, block.getRunEnd(fields, 2));
+
+        fields.remove("B");
+        assertEquals(1, block.getRunEnd(fields, 1));
+        assertEquals(3, block.getRunEnd(fields, 2));
+    }
+
+    @Test
+    public void testExcludedFields()
+    {
+        assertThrows(IllegalArgumentException.class, () -> PreEncodedHttpFields.from(new HttpField(HttpHeader.CONTENT_LENGTH, "10")));
+        assertThrows(IllegalArgumentException.class, () -> PreEncodedHttpFields.from(new HttpField(HttpHeader.CONNECTION, "close")));
+        assertThrows(IllegalArgumentException.class, () -> PreEncodedHttpFields.from(new HttpField(HttpHeader.TRANSFER_ENCODING, "chunked")));
+        assertThrows(IllegalArgumentException.class, () -> PreEncodedHttpFields.from(new HttpField(HttpHeader.C_STATUS, "200")));
+    }
+}
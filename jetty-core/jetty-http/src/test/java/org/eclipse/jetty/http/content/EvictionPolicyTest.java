@@ -0,0 +1,164 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http.content;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EvictionPolicyTest
+{
+    @Test
+    public void testLeastRecentlyUsedEvictsInAccessOrder()
+    {
+        LeastRecentlyUsedEvictionPolicy policy = new LeastRecentlyUsedEvictionPolicy();
+        policy.onAdded("a", 1);
+        policy.onAdded("b", 1);
+        policy.onAdded("c", 1);
+        policy.onAccessed("a");
+
+        assertThat(policy.evict(), is("b"));
+        assertThat(policy.evict(), is("c"));
+        assertThat(policy.evict(), is("a"));
+        assertThat(policy.evict(), nullValue());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedRemoved()
+    {
+        LeastRecentlyUsedEvictionPolicy policy = new LeastRecentlyUsedEvictionPolicy();
+        policy.onAdded("a", 1);
+        policy.onAdded("b", 1);
+        policy.onRemoved("a");
+
+        assertThat(policy.evict(), is("b"));
+        assertThat(policy.evict(), nullValue());
+    }
+
+    @Test
+    public void testTinyLfuEmpty()
+    {
+        TinyLfuEvictionPolicy policy = new TinyLfuEvictionPolicy(16);
+        assertThat(policy.evict(), nullValue());
+        policy.onAdded("a", 1);
+        policy.onRemoved("a");
+        assertThat(policy.evict(), nullValue());
+    }
+
+    @Test
+    public void testTinyLfuFrequency()
+    {
+        TinyLfuEvictionPolicy policy = new TinyLfuEvictionPolicy(16);
+        policy.onAdded("a", 1);
+        for (int i = 0; i < 5; ++i)
+        {
+            policy.onAccessed("a");
+        }
+        assertThat(policy.getFrequency("a"), is(6));
+        assertThat(policy.getFrequency("b"), is(0));
+    }
+
+    @Test
+    public void testTinyLfuRejectsOneHitWonders()
+    {
+        int capacity = 100;
+        TinyLfuEvictionPolicy policy = new TinyLfuEvictionPolicy(capacity);
+
+        // Fill the cache with frequently accessed entries.
+        for (int i = 0; i < capacity; ++i)
+        {
+            policy.onAdded("hot" + i, 1);
+        }
+        for (int r = 0; r < 3; ++r)
+        {
+            for (int i = 0; i < capacity; ++i)
+            {
+                policy.onAccessed("hot" + i);
+            }
+        }
+
+        // Scan through entries accessed once, evicting one entry per addition.
+        int hotEvicted = 0;
+        for (int i = 0; i < 10 * capacity; ++i)
+        {
+            policy.onAdded("cold" + i, 1);
+            String evicted = policy.evict();
+            assertThat(evicted, not(nullValue()));
+            if (evicted.startsWith("hot"))
+                ++hotEvicted;
+        }
+
+        // Only the hot entry that was in the window when the scan started may be evicted.
+        assertThat(hotEvicted, lessThanOrEqualTo(1));
+        assertThat(policy.getRejected(), greaterThan(0L));
+    }
+
+    @Test
+    public void testTinyLfuAdmitsFrequentCandidate()
+    {
+        TinyLfuEvictionPolicy policy = new TinyLfuEvictionPolicy(16);
+        for (int i = 0; i < 10; ++i)
+        {
+            policy.onAdded("entry" + i, 1);
+        }
+
+        // Make the next candidate more frequent than any other entry.
+        for (int i = 0; i < 5; ++i)
+        {
+            policy.onAccessed("frequent");
+        }
+        policy.onAdded("frequent", 1);
+        policy.onAdded("other", 1);
+
+        // The window overflow "frequent" is admitted, evicting the probation victim.
+        String evicted = policy.evict();
+        assertThat(evicted, not(nullValue()));
+        assertThat(evicted.equals("frequent"), is(false));
+        assertThat(policy.getAdmitted(), is(1L));
+
+        // Once admitted, the candidate does not compete again.
+        evicted = policy.evict();
+        assertThat(evicted, not(nullValue()));
+        assertThat(policy.getAdmitted(), is(1L));
+        assertThat(policy.getRejected(), is(0L));
+    }
+
+    @Test
+    public void testTinyLfuSizeAware()
+    {
+        TinyLfuEvictionPolicy policy = new TinyLfuEvictionPolicy(16);
+        for (int i = 0; i < 10; ++i)
+        {
+            policy.onAdded("small" + i, 1);
+            policy.onAccessed("small" + i);
+        }
+
+        // The large candidate is more frequent than each small victim,
+        // but less frequent than all the victims it would displace.
+        for (int i = 0; i < 3; ++i)
+        {
+            policy.onAccessed("large");
+        }
+        policy.onAdded("large", 10);
+        policy.onAdded("next", 1);
+
+        assertThat(policy.evict(), is("large"));
+        assertThat(policy.getRejected(), is(1L));
+    }
+}
@@ -23,6 +23,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 import org.eclipse.jetty.alpn.client.ALPNClientConnectionFactory;
+import org.eclipse.jetty.http.compression.IndexingStrategy;
 import org.eclipse.jetty.http2.BufferingFlowControlStrategy;
 import org.eclipse.jetty.http2.FlowControlStrategy;
 import org.eclipse.jetty.http2.api.Session;
@@ -114,6 +115,7 @@ public class HTTP2Client extends ContainerLifeCycle implements AutoCloseable
     private int maxHeaderBlockFragment = 0;
     private int maxResponseHeadersSize = 8 * 1024;
     private FlowControlStrategy.Factory flowControlStrategyFactory = () -> new BufferingFlowControlStrategy(0.5F);
+    private IndexingStrategy.Factory indexingStrategyFactory = IndexingStrategy.Factory.INSERT;
     private long streamIdleTimeout;
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
@@ -175,6 +177,23 @@ public class HTTP2Client extends ContainerLifeCycle implements AutoCloseable
         this.flowControlStrategyFactory = flowControlStrategyFactory;
     }
 
+    public IndexingStrategy.Factory getIndexingStrategyFactory()
+    {
+        return indexingStrategyFactory;
+    }
+
+    /**
+     * <p>Sets the factory that creates a per-connection IndexingStrategy object,
+     * used by the HPACK encoder to decide whether to insert fields into the
+     * dynamic table.</p>
+     *
+     * @param indexingStrategyFactory the factory that creates IndexingStrategy objects
+     */
+    public void setIndexingStrategyFactory(IndexingStrategy.Factory indexingStrategyFactory)
+    {
+        this.indexingStrategyFactory = indexingStrategyFactory;
+    }
+
     @ManagedAttribute("The number of selectors")
     public int getSelectors()
     {
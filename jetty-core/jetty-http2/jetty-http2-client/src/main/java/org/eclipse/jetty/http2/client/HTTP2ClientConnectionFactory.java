@@ -54,6 +54,7 @@ public class HTTP2ClientConnectionFactory implements ClientConnectionFactory
         Promise<Session> sessionPromise = (Promise<Session>)context.get(SESSION_PROMISE_CONTEXT_KEY);
 
         Generator generator = new Generator(bufferPool, client.isUseOutputDirectByteBuffers(), client.getMaxHeaderBlockFragment());
+        generator.getHpackEncoder().setIndexingStrategy(client.getIndexingStrategyFactory().newIndexingStrategy());
         FlowControlStrategy flowControl = client.getFlowControlStrategyFactory().newFlowControlStrategy();
 
         Parser parser = new Parser(bufferPool, client.getMaxResponseHeadersSize());
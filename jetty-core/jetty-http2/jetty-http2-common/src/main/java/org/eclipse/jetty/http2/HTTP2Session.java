@@ -35,6 +35,7 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.eclipse.jetty.http.HttpPriority;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.api.Stream;
@@ -47,6 +48,7 @@ import org.eclipse.jetty.http2.frames.HeadersFrame;
 import org.eclipse.jetty.http2.frames.PingFrame;
 import org.eclipse.jetty.http2.frames.PrefaceFrame;
 import org.eclipse.jetty.http2.frames.PriorityFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http2.frames.PushPromiseFrame;
 import org.eclipse.jetty.http2.frames.ResetFrame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
@@ -220,6 +222,18 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements Session
         this.maxEncoderTableCapacity = maxEncoderTableCapacity;
     }
 
+    @ManagedAttribute(value = "The HPACK encoder ratio of encoded bytes over header bytes", readonly = true)
+    public double getEncoderCompressionRatio()
+    {
+        return generator.getHpackEncoder().getCompressionRatio();
+    }
+
+    @ManagedAttribute(value = "The HPACK decoder ratio of encoded bytes over header bytes", readonly = true)
+    public double getDecoderCompressionRatio()
+    {
+        return parser.getHpackDecoder().getCompressionRatio();
+    }
+
     public EndPoint getEndPoint()
     {
         return endPoint;
@@ -331,6 +345,18 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements Session
             LOG.debug("Received {} on {}", frame, this);
     }
 
+    @Override
+    public void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        HTTP2Stream stream = getStream(frame.getPrioritizedStreamId());
+        if (LOG.isDebugEnabled())
+            LOG.debug("Received {} for {} on {}", frame, stream, this);
+        // PRIORITY_UPDATE frames for streams not yet
+        // opened are not buffered, so they are ignored.
+        if (stream != null)
+            stream.setPriority(HttpPriority.from(frame.getPriority()));
+    }
+
     @Override
     public void onReset(ResetFrame frame)
     {
@@ -1253,6 +1279,11 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements Session
             return frame;
         }
 
+        public HTTP2Stream stream()
+        {
+            return stream;
+        }
+
         public abstract int getFrameBytesGenerated();
 
         public int getDataBytesRemaining()
@@ -1287,6 +1318,7 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements Session
             {
                 // Frames of this type should not be dropped.
                 case PRIORITY:
+                case PRIORITY_UPDATE:
                 case SETTINGS:
                 case PING:
                 case GO_AWAY:
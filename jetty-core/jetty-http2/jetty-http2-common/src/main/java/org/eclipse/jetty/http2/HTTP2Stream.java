@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpPriority;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.frames.DataFrame;
@@ -81,6 +82,7 @@ public class HTTP2Stream implements Stream, Attachable, Closeable, Callback, Dum
     private boolean committed;
     private long idleTimeout;
     private long expireNanoTime = Long.MAX_VALUE;
+    private volatile HttpPriority priority;
 
     public HTTP2Stream(HTTP2Session session, int streamId, MetaData.Request request, boolean local)
     {
@@ -90,6 +92,7 @@ public class HTTP2Stream implements Stream, Attachable, Closeable, Callback, Dum
         this.local = local;
         this.dataLength = -1;
         this.dataStalled = true;
+        this.priority = HttpPriority.from(request == null ? null : request.getHttpFields());
     }
 
     @Override
@@ -128,6 +131,25 @@ public class HTTP2Stream implements Stream, Attachable, Closeable, Callback, Dum
         return local;
     }
 
+    /**
+     * @return the RFC 9218 priority of this stream, used to schedule the frames sent on this stream
+     */
+    public HttpPriority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * <p>Sets the RFC 9218 priority of this stream, for example when
+     * a PRIORITY_UPDATE frame is received for this stream.</p>
+     *
+     * @param priority the priority of this stream
+     */
+    public void setPriority(HttpPriority priority)
+    {
+        this.priority = Objects.requireNonNull(priority);
+    }
+
     @Override
     public HTTP2Session getSession()
     {
@@ -28,11 +28,20 @@ public enum FrameType
     GO_AWAY(7),
     WINDOW_UPDATE(8),
     CONTINUATION(9),
+    PRIORITY_UPDATE(16),
     // Synthetic frames only needed by the implementation.
     PREFACE(10),
     DISCONNECT(11),
     FAILURE(12);
 
+    /**
+     * @return one more than the largest frame type value
+     */
+    public static int size()
+    {
+        return Types.size;
+    }
+
     public static FrameType from(int type)
     {
         return Types.types.get(type);
@@ -44,6 +53,7 @@ public enum FrameType
     {
         this.type = type;
         Types.types.put(type, this);
+        Types.size = Math.max(Types.size, type + 1);
     }
 
     public int getType()
@@ -54,5 +64,6 @@ public enum FrameType
     private static class Types
     {
         private static final Map<Integer, FrameType> types = new HashMap<>();
+        private static int size;
     }
 }
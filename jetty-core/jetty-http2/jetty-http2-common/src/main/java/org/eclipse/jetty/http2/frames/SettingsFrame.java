@@ -26,6 +26,7 @@ public class SettingsFrame extends Frame
     public static final int MAX_FRAME_SIZE = 5;
     public static final int MAX_HEADER_LIST_SIZE = 6;
     public static final int ENABLE_CONNECT_PROTOCOL = 8;
+    public static final int NO_RFC7540_PRIORITIES = 9;
 
     private final Map<Integer, Integer> settings;
     private final boolean reply;
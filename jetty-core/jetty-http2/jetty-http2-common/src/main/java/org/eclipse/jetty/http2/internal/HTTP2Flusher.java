@@ -19,10 +19,13 @@ import java.nio.channels.ClosedChannelException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
@@ -42,6 +45,18 @@ import org.eclipse.jetty.util.thread.Invocable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>Flushes the frames of an HTTP/2 session.</p>
+ * <p>Pending DATA frames are scheduled by the RFC 9218 urgency of their stream:
+ * the DATA frames of the most urgent streams are written first; DATA frames
+ * of streams with the same urgency are interleaved in the order they have been
+ * queued. Other frames, such as the HEADERS frames that open streams in stream
+ * id order, or control frames such as GOAWAY, are written in the order they
+ * have been queued, and DATA frames are never reordered across them.
+ * Once the write threshold has been reached, the frames of less urgent streams
+ * are deferred to the next write, so that they do not delay the frames of more
+ * urgent streams.</p>
+ */
 public class HTTP2Flusher extends IteratingCallback implements Dumpable
 {
     private static final Logger LOG = LoggerFactory.getLogger(HTTP2Flusher.class);
@@ -52,6 +67,9 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
     private final Deque<HTTP2Session.Entry> entries = new ArrayDeque<>();
     private final Queue<HTTP2Session.Entry> pendingEntries = new ArrayDeque<>();
     private final Collection<HTTP2Session.Entry> processedEntries = new ArrayList<>();
+    private final List<HTTP2Session.Entry> prioritizedEntries = new ArrayList<>();
+    private final Map<HTTP2Stream, Integer> urgencies = new HashMap<>();
+    private final Comparator<HTTP2Session.Entry> byUrgency = Comparator.comparingInt(this::urgencyOf);
     private final HTTP2Session session;
     private final ByteBufferPool.Accumulator accumulator;
     private InvocationType invocationType = InvocationType.NON_BLOCKING;
@@ -202,6 +220,10 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             return Action.IDLE;
         }
 
+        prioritize();
+
+        int writeThreshold = session.getWriteThreshold();
+        int urgencyGenerated = -1;
         while (true)
         {
             boolean progress = false;
@@ -227,6 +249,14 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                     continue;
                 }
 
+                int urgency = urgencyOf(entry);
+                if (urgency > urgencyGenerated && accumulator.getTotalLength() >= writeThreshold)
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Deferred less urgent {}", entry);
+                    break;
+                }
+
                 try
                 {
                     if (entry.generate(accumulator))
@@ -235,6 +265,7 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                             LOG.debug("Generated {} frame bytes for {}", entry.getFrameBytesGenerated(), entry);
 
                         progress = true;
+                        urgencyGenerated = Math.max(urgencyGenerated, urgency);
 
                         // We use ArrayList contains() + add() instead of HashSet add()
                         // because that is faster for collections of size up to 250 entries.
@@ -290,7 +321,6 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             if (stalledEntry != null)
                 break;
 
-            int writeThreshold = session.getWriteThreshold();
             if (accumulator.getTotalLength() >= writeThreshold)
             {
                 if (LOG.isDebugEnabled())
@@ -299,6 +329,8 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             }
         }
 
+        urgencies.clear();
+
         List<ByteBuffer> byteBuffers = accumulator.getByteBuffers();
         if (byteBuffers.isEmpty())
         {
@@ -319,6 +351,82 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
         return Action.SCHEDULED;
     }
 
+    private void prioritize()
+    {
+        urgencies.clear();
+        if (pendingEntries.size() < 2)
+            return;
+
+        // Only sort if necessary, as the entries are typically already in order.
+        boolean sorted = true;
+        int previous = -1;
+        for (HTTP2Session.Entry entry : pendingEntries)
+        {
+            if (!isData(entry))
+            {
+                previous = -1;
+                continue;
+            }
+            int urgency = urgencyOf(entry);
+            if (urgency < previous)
+            {
+                sorted = false;
+                break;
+            }
+            previous = urgency;
+        }
+        if (sorted)
+            return;
+
+        // Only the runs of consecutive DATA entries are sorted,
+        // the other entries retain their position in the queue.
+        int size = pendingEntries.size();
+        for (int i = 0; i < size; ++i)
+        {
+            HTTP2Session.Entry entry = pendingEntries.poll();
+            if (isData(entry))
+            {
+                prioritizedEntries.add(entry);
+            }
+            else
+            {
+                offerPrioritized();
+                pendingEntries.offer(entry);
+            }
+        }
+        offerPrioritized();
+    }
+
+    private void offerPrioritized()
+    {
+        // The sort is stable, so the entries of the same stream remain in order.
+        prioritizedEntries.sort(byUrgency);
+        pendingEntries.addAll(prioritizedEntries);
+        prioritizedEntries.clear();
+    }
+
+    private static boolean isData(HTTP2Session.Entry entry)
+    {
+        return entry.frame().getType() == FrameType.DATA;
+    }
+
+    private int urgencyOf(HTTP2Session.Entry entry)
+    {
+        HTTP2Stream stream = entry.stream();
+        if (stream == null)
+            return -1;
+        // The urgency is snapshot for the whole processing, so that
+        // the entries of a stream are ordered consistently even if
+        // the stream priority is concurrently updated.
+        Integer urgency = urgencies.get(stream);
+        if (urgency == null)
+        {
+            urgency = stream.getPriority().urgency();
+            urgencies.put(stream, urgency);
+        }
+        return urgency;
+    }
+
     @Override
     protected void onSuccess()
     {
@@ -402,6 +510,7 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
         processedEntries.clear();
         allEntries.addAll(pendingEntries);
         pendingEntries.clear();
+        urgencies.clear();
         allEntries.forEach(entry -> entry.failed(x));
         return closed;
     }
@@ -25,6 +25,7 @@ import org.eclipse.jetty.http2.frames.GoAwayFrame;
 import org.eclipse.jetty.http2.frames.HeadersFrame;
 import org.eclipse.jetty.http2.frames.PingFrame;
 import org.eclipse.jetty.http2.frames.PriorityFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http2.frames.PushPromiseFrame;
 import org.eclipse.jetty.http2.frames.ResetFrame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
@@ -67,7 +68,7 @@ public class Parser
         this.bufferPool = bufferPool;
         this.headerParser = new HeaderParser(rateControl == null ? RateControl.NO_RATE_CONTROL : rateControl);
         this.hpackDecoder = new HpackDecoder(maxHeaderSize, this::getBeginNanoTime);
-        this.bodyParsers = new BodyParser[FrameType.values().length];
+        this.bodyParsers = new BodyParser[FrameType.size()];
     }
 
     public void init(Listener listener)
@@ -88,6 +89,7 @@ public class Parser
         bodyParsers[FrameType.GO_AWAY.getType()] = new GoAwayBodyParser(headerParser, listener);
         bodyParsers[FrameType.WINDOW_UPDATE.getType()] = new WindowUpdateBodyParser(headerParser, listener);
         bodyParsers[FrameType.CONTINUATION.getType()] = new ContinuationBodyParser(headerParser, listener, headerBlockParser, headerBlockFragments);
+        bodyParsers[FrameType.PRIORITY_UPDATE.getType()] = new PriorityUpdateBodyParser(headerParser, listener);
     }
 
     protected Listener getListener()
@@ -208,7 +210,8 @@ public class Parser
     protected boolean parseBody(ByteBuffer buffer)
     {
         int type = getFrameType();
-        if (type < 0 || type >= bodyParsers.length)
+        BodyParser bodyParser = type < 0 || type >= bodyParsers.length ? null : bodyParsers[type];
+        if (bodyParser == null)
         {
             // Unknown frame types must be ignored.
             if (LOG.isDebugEnabled())
@@ -219,7 +222,6 @@ public class Parser
             return true;
         }
 
-        BodyParser bodyParser = bodyParsers[type];
         if (headerParser.getLength() == 0)
         {
             bodyParser.emptyBody(buffer);
@@ -296,6 +298,10 @@ public class Parser
         {
         }
 
+        public default void onPriorityUpdate(PriorityUpdateFrame frame)
+        {
+        }
+
         public default void onReset(ResetFrame frame)
         {
         }
@@ -360,6 +366,12 @@ public class Parser
                 listener.onPriority(frame);
             }
 
+            @Override
+            public void onPriorityUpdate(PriorityUpdateFrame frame)
+            {
+                listener.onPriorityUpdate(frame);
+            }
+
             @Override
             public void onReset(ResetFrame frame)
             {
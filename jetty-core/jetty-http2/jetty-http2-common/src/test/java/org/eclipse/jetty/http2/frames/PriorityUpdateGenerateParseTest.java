@@ -0,0 +1,138 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.frames;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.eclipse.jetty.http2.ErrorCode;
+import org.eclipse.jetty.http2.generator.HeaderGenerator;
+import org.eclipse.jetty.http2.generator.PriorityUpdateGenerator;
+import org.eclipse.jetty.http2.parser.Parser;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PriorityUpdateGenerateParseTest
+{
+    private final ByteBufferPool bufferPool = new ArrayByteBufferPool();
+
+    @Test
+    public void testGenerateParse()
+    {
+        testGenerateParse(Function.identity());
+    }
+
+    @Test
+    public void testGenerateParseOneByteAtATime()
+    {
+        testGenerateParse(buffer -> ByteBuffer.wrap(new byte[]{buffer.get()}));
+    }
+
+    private void testGenerateParse(Function<ByteBuffer, ByteBuffer> fn)
+    {
+        PriorityUpdateGenerator generator = new PriorityUpdateGenerator(new HeaderGenerator(bufferPool));
+
+        List<PriorityUpdateFrame> frames = new ArrayList<>();
+        Parser parser = new Parser(bufferPool, 8192);
+        parser.init(new Parser.Listener()
+        {
+            @Override
+            public void onPriorityUpdate(PriorityUpdateFrame frame)
+            {
+                frames.add(frame);
+            }
+        });
+
+        int prioritizedStreamId = 13;
+        String priority = "u=1, i";
+
+        // Iterate a few times to be sure generator and parser are properly reset.
+        for (int i = 0; i < 2; ++i)
+        {
+            ByteBufferPool.Accumulator accumulator = new ByteBufferPool.Accumulator();
+            generator.generatePriorityUpdate(accumulator, prioritizedStreamId, priority);
+
+            frames.clear();
+            for (ByteBuffer buffer : accumulator.getByteBuffers())
+            {
+                while (buffer.hasRemaining())
+                {
+                    parser.parse(fn.apply(buffer));
+                }
+            }
+
+            assertEquals(1, frames.size());
+            PriorityUpdateFrame frame = frames.get(0);
+            assertEquals(prioritizedStreamId, frame.getPrioritizedStreamId());
+            assertEquals(priority, frame.getPriority());
+        }
+    }
+
+    @Test
+    public void testParseEmptyPriority()
+    {
+        List<PriorityUpdateFrame> frames = new ArrayList<>();
+        Parser parser = new Parser(bufferPool, 8192);
+        parser.init(new Parser.Listener()
+        {
+            @Override
+            public void onPriorityUpdate(PriorityUpdateFrame frame)
+            {
+                frames.add(frame);
+            }
+        });
+
+        byte[] bytes = new byte[]{0, 0, 4, 0x10, 0, 0, 0, 0, 0, 0, 0, 0, 5};
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining())
+        {
+            parser.parse(buffer);
+        }
+
+        assertEquals(1, frames.size());
+        assertEquals(5, frames.get(0).getPrioritizedStreamId());
+        assertEquals("", frames.get(0).getPriority());
+    }
+
+    @Test
+    public void testParseInvalidStreamId()
+    {
+        AtomicInteger failure = new AtomicInteger();
+        Parser parser = new Parser(bufferPool, 8192);
+        parser.init(new Parser.Listener()
+        {
+            @Override
+            public void onConnectionFailure(int error, String reason)
+            {
+                failure.set(error);
+            }
+        });
+
+        // PRIORITY_UPDATE frames must be sent on stream 0.
+        byte[] bytes = new byte[]{0, 0, 4, 0x10, 0, 0, 0, 0, 1, 0, 0, 0, 5};
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining())
+        {
+            parser.parse(buffer);
+        }
+
+        assertEquals(ErrorCode.PROTOCOL_ERROR.code, failure.get());
+    }
+}
@@ -14,10 +14,10 @@
 package org.eclipse.jetty.http2.hpack;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.jetty.http.HttpField;
@@ -28,7 +28,6 @@ import org.eclipse.jetty.http.compression.HuffmanEncoder;
 import org.eclipse.jetty.http.compression.NBitIntegerEncoder;
 import org.eclipse.jetty.http2.hpack.internal.StaticTableHttpField;
 import org.eclipse.jetty.util.Index;
-import org.eclipse.jetty.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -110,7 +109,8 @@ public class HpackContext
             /* 61 */ {"www-authenticate", EMPTY}
         };
 
-    private static final Map<HttpField, Entry> __staticFieldMap = new HashMap<>();
+    private static final StaticEntry[][] __staticFieldsByHeader = new StaticEntry[HttpHeader.values().length][];
+    private static final StaticEntry[] __staticFieldsWithoutHeader;
     private static final Index<StaticEntry> __staticNameMap;
     private static final StaticEntry[] __staticTableByHeader = new StaticEntry[HttpHeader.values().length];
     private static final StaticEntry[] __staticTable = new StaticEntry[STATIC_TABLE.length];
@@ -121,6 +121,7 @@ public class HpackContext
     {
         Index.Builder<StaticEntry> staticNameMapBuilder = new Index.Builder<StaticEntry>().caseSensitive(false);
         Set<String> added = new HashSet<>();
+        List<StaticEntry> withoutHeader = new ArrayList<>();
         for (int i = 1; i < STATIC_TABLE.length; i++)
         {
             StaticEntry entry = null;
@@ -167,7 +168,20 @@ public class HpackContext
             __staticTable[i] = entry;
 
             if (entry._field.getValue() != null)
-                __staticFieldMap.put(entry._field, entry);
+            {
+                HttpHeader fieldHeader = entry._field.getHeader();
+                if (fieldHeader == null)
+                {
+                    withoutHeader.add(entry);
+                }
+                else
+                {
+                    StaticEntry[] entries = __staticFieldsByHeader[fieldHeader.ordinal()];
+                    entries = entries == null ? new StaticEntry[1] : Arrays.copyOf(entries, entries.length + 1);
+                    entries[entries.length - 1] = entry;
+                    __staticFieldsByHeader[fieldHeader.ordinal()] = entries;
+                }
+            }
 
             if (!added.contains(entry._field.getName()))
             {
@@ -176,6 +190,7 @@ public class HpackContext
             }
         }
         __staticNameMap = staticNameMapBuilder.build();
+        __staticFieldsWithoutHeader = withoutHeader.toArray(StaticEntry[]::new);
 
         for (HttpHeader h : HttpHeader.values())
         {
@@ -186,10 +201,9 @@ public class HpackContext
     }
 
     private final DynamicTable _dynamicTable;
-    private final Map<HttpField, Entry> _fieldMap = new HashMap<>();
-    private final Map<String, Entry> _nameMap = new HashMap<>();
     private int _maxTableSize;
     private int _tableSize;
+    private long _modifications;
 
     HpackContext(int maxTableSize)
     {
@@ -205,14 +219,15 @@ public class HpackContext
         if (LOG.isDebugEnabled())
             LOG.debug(String.format("HdrTbl[%x] resized max=%d->%d", hashCode(), _maxTableSize, newMaxDynamicTableSize));
         _maxTableSize = newMaxDynamicTableSize;
+        _modifications++;
         _dynamicTable.evict();
     }
 
     public Entry get(HttpField field)
     {
-        Entry entry = _fieldMap.get(field);
+        Entry entry = _dynamicTable.get(field);
         if (entry == null)
-            entry = __staticFieldMap.get(field);
+            entry = getStatic(field);
         return entry;
     }
 
@@ -221,7 +236,7 @@ public class HpackContext
         Entry entry = __staticNameMap.get(name);
         if (entry != null)
             return entry;
-        return _nameMap.get(StringUtil.asciiToLowerCase(name));
+        return _dynamicTable.get(name);
     }
 
     public Entry get(int index)
@@ -245,8 +260,43 @@ public class HpackContext
         return __staticTableByHeader[header.ordinal()];
     }
 
+    private static Entry getStatic(HttpField field)
+    {
+        HttpHeader header = field.getHeader();
+        StaticEntry[] entries = header == null ? __staticFieldsWithoutHeader : __staticFieldsByHeader[header.ordinal()];
+        if (entries != null)
+        {
+            for (StaticEntry entry : entries)
+            {
+                if (entry._field.equals(field))
+                    return entry;
+            }
+        }
+        return null;
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int nameHash(String name)
+    {
+        // Case insensitive hash, as names are compared ignoring case.
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++)
+        {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z')
+                c += 'a' - 'A';
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+
     public Entry add(HttpField field)
     {
+        _modifications++;
         Entry entry = new Entry(field);
         int size = entry.getSize();
         if (size > _maxTableSize)
@@ -258,8 +308,6 @@ public class HpackContext
         }
         _tableSize += size;
         _dynamicTable.add(entry);
-        _fieldMap.put(field, entry);
-        _nameMap.put(field.getLowerCaseName(), entry);
 
         if (LOG.isDebugEnabled())
             LOG.debug(String.format("HdrTbl[%x] added %s", hashCode(), entry));
@@ -267,6 +315,15 @@ public class HpackContext
         return entry;
     }
 
+    /**
+     * @return the number of modifications of the dynamic table, so that equal values
+     * mean that the dynamic table and therefore the indexes of its entries did not change
+     */
+    long getModifications()
+    {
+        return _modifications;
+    }
+
     /**
      * @return Current dynamic table size in entries
      */
@@ -317,17 +374,37 @@ public class HpackContext
         return String.format("HpackContext@%x{entries=%d,size=%d,max=%d}", hashCode(), _dynamicTable.size(), _tableSize, _maxTableSize);
     }
 
+    /**
+     * <p>The dynamic table, as a ring buffer of entries indexed by two open-addressed
+     * hash tables, one by field and one by name, whose cells hold the ring slot of
+     * the entry plus one (zero meaning an empty cell).</p>
+     * <p>The hash tables use linear probing with backward shift deletion, so that
+     * lookups, additions and evictions do not allocate.</p>
+     */
     private class DynamicTable
     {
         private Entry[] _entries;
         private final int _growby;
         private int _size;
         private int _offset;
+        private int[] _fieldIndex;
+        private int[] _nameIndex;
+        private int _mask;
 
         private DynamicTable(int initCapacity)
         {
             _entries = new Entry[initCapacity];
             _growby = initCapacity;
+            newIndexes();
+        }
+
+        private void newIndexes()
+        {
+            // At least twice the ring capacity, to keep the load factor below 0.5.
+            int length = Integer.highestOneBit(Math.max(1, _entries.length) * 2) << 1;
+            _fieldIndex = new int[length];
+            _nameIndex = new int[length];
+            _mask = length - 1;
         }
 
         public void add(Entry entry)
@@ -343,10 +420,76 @@ public class HpackContext
                 }
                 _entries = entries;
                 _offset = 0;
+
+                // The slots have changed, rebuild the indexes from the oldest entry.
+                newIndexes();
+                for (int i = 0; i < _size; i++)
+                {
+                    insert(_entries[i]);
+                }
             }
             int slot = (_size++ + _offset) % _entries.length;
             _entries[slot] = entry;
             entry._slot = slot;
+            insert(entry);
+        }
+
+        private void insert(Entry entry)
+        {
+            HttpField field = entry._field;
+            int i = spread(entry._fieldHash) & _mask;
+            while (true)
+            {
+                int cell = _fieldIndex[i];
+                // Insert, or replace an older duplicate so that the most recent entry is found.
+                if (cell == 0 || _entries[cell - 1]._fieldHash == entry._fieldHash && _entries[cell - 1]._field.equals(field))
+                {
+                    _fieldIndex[i] = entry._slot + 1;
+                    break;
+                }
+                i = (i + 1) & _mask;
+            }
+
+            String name = field.getName();
+            i = spread(entry._nameHash) & _mask;
+            while (true)
+            {
+                int cell = _nameIndex[i];
+                if (cell == 0 || _entries[cell - 1]._nameHash == entry._nameHash && _entries[cell - 1]._field.getName().equalsIgnoreCase(name))
+                {
+                    _nameIndex[i] = entry._slot + 1;
+                    break;
+                }
+                i = (i + 1) & _mask;
+            }
+        }
+
+        public Entry get(HttpField field)
+        {
+            int hash = field.hashCode();
+            for (int i = spread(hash) & _mask; ; i = (i + 1) & _mask)
+            {
+                int cell = _fieldIndex[i];
+                if (cell == 0)
+                    return null;
+                Entry entry = _entries[cell - 1];
+                if (entry._fieldHash == hash && entry._field.equals(field))
+                    return entry;
+            }
+        }
+
+        public Entry get(String name)
+        {
+            int hash = nameHash(name);
+            for (int i = spread(hash) & _mask; ; i = (i + 1) & _mask)
+            {
+                int cell = _nameIndex[i];
+                if (cell == 0)
+                    return null;
+                Entry entry = _entries[cell - 1];
+                if (entry._nameHash == hash && entry._field.getName().equalsIgnoreCase(name))
+                    return entry;
+            }
         }
 
         public int index(Entry entry)
@@ -373,6 +516,8 @@ public class HpackContext
             while (_tableSize > _maxTableSize)
             {
                 Entry entry = _entries[_offset];
+                remove(_fieldIndex, entry, true);
+                remove(_nameIndex, entry, false);
                 _entries[_offset] = null;
                 _offset = (_offset + 1) % _entries.length;
                 _size--;
@@ -380,27 +525,56 @@ public class HpackContext
                     LOG.debug(String.format("HdrTbl[%x] evict %s", HpackContext.this.hashCode(), entry));
                 _tableSize -= entry.getSize();
                 entry._slot = -1;
-                _fieldMap.remove(entry.getHttpField());
-                String lc = entry.getHttpField().getLowerCaseName();
-                if (entry == _nameMap.get(lc))
-                    _nameMap.remove(lc);
             }
             if (LOG.isDebugEnabled())
                 LOG.debug(String.format("HdrTbl[%x] entries=%d, size=%d, max=%d", HpackContext.this.hashCode(), _dynamicTable.size(), _tableSize, _maxTableSize));
         }
 
+        private void remove(int[] index, Entry entry, boolean byField)
+        {
+            // Find the cell of the entry, if it has not been replaced by a more recent duplicate.
+            int cell = entry._slot + 1;
+            int i = spread(byField ? entry._fieldHash : entry._nameHash) & _mask;
+            while (index[i] != cell)
+            {
+                if (index[i] == 0)
+                    return;
+                i = (i + 1) & _mask;
+            }
+
+            // Shift back the following cells of the cluster that can no longer be
+            // reached from their home cell once the cell at i is emptied.
+            int j = i;
+            while (true)
+            {
+                j = (j + 1) & _mask;
+                int next = index[j];
+                if (next == 0)
+                    break;
+                Entry e = _entries[next - 1];
+                int home = spread(byField ? e._fieldHash : e._nameHash) & _mask;
+                boolean reachable = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!reachable)
+                {
+                    index[i] = next;
+                    i = j;
+                }
+            }
+            index[i] = 0;
+        }
+
         private void evictAll()
         {
             if (LOG.isDebugEnabled())
                 LOG.debug(String.format("HdrTbl[%x] evictAll", HpackContext.this.hashCode()));
             if (size() > 0)
             {
-                _fieldMap.clear();
-                _nameMap.clear();
                 _offset = 0;
                 _size = 0;
                 _tableSize = 0;
                 Arrays.fill(_entries, null);
+                Arrays.fill(_fieldIndex, 0);
+                Arrays.fill(_nameIndex, 0);
             }
         }
     }
@@ -408,17 +582,23 @@ public class HpackContext
     public static class Entry
     {
         final HttpField _field;
+        final int _fieldHash;
+        final int _nameHash;
         int _slot; // The index within it's array
 
         Entry()
         {
             _slot = -1;
             _field = null;
+            _fieldHash = 0;
+            _nameHash = 0;
         }
 
         Entry(HttpField field)
         {
             _field = field;
+            _fieldHash = field.hashCode();
+            _nameHash = nameHash(field.getName());
         }
 
         public int getSize()
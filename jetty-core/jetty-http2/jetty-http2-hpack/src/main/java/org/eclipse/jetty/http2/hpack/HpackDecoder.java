@@ -14,6 +14,7 @@
 package org.eclipse.jetty.http2.hpack;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.LongSupplier;
 
 import org.eclipse.jetty.http.HttpField;
@@ -45,7 +46,10 @@ public class HpackDecoder
     private final HuffmanDecoder _huffmanDecoder;
     private final NBitIntegerDecoder _integerDecoder;
     private final LongSupplier _beginNanoTimeSupplier;
+    private final LongAdder _encodedBytes = new LongAdder();
+    private final LongAdder _headerBytes = new LongAdder();
     private int _maxTableCapacity;
+    private int _fieldBytes;
 
     /**
      * @param maxHeaderSize The maximum allowed size of a decoded headers block,
@@ -98,6 +102,32 @@ public class HpackDecoder
         _builder.setMaxSize(maxHeaderListSize);
     }
 
+    /**
+     * @return the total number of octets of the decoded header blocks
+     */
+    public long getEncodedBytes()
+    {
+        return _encodedBytes.sum();
+    }
+
+    /**
+     * @return the total number of octets of the names and values of the decoded fields
+     */
+    public long getHeaderBytes()
+    {
+        return _headerBytes.sum();
+    }
+
+    /**
+     * @return the ratio of the encoded octets over the name and value octets,
+     * or {@code NaN} if nothing has been decoded yet
+     */
+    public double getCompressionRatio()
+    {
+        long headerBytes = getHeaderBytes();
+        return headerBytes == 0 ? Double.NaN : (double)getEncodedBytes() / headerBytes;
+    }
+
     public MetaData decode(ByteBuffer buffer) throws HpackException.SessionException, HpackException.StreamException
     {
         if (LOG.isDebugEnabled())
@@ -108,6 +138,8 @@ public class HpackDecoder
         if (maxSize > 0 && buffer.remaining() > maxSize)
             throw new HpackException.SessionException("Header fields size too large");
 
+        int encodedBytes = buffer.remaining();
+        _fieldBytes = 0;
         boolean emitted = false;
         while (buffer.hasRemaining())
         {
@@ -129,7 +161,7 @@ public class HpackDecoder
                         LOG.debug("decode IdxStatic {}", entry);
                     // emit field
                     emitted = true;
-                    _builder.emit(entry.getHttpField());
+                    emit(entry.getHttpField());
 
                     // TODO copy and add to reference set if there is room
                     // _context.add(entry.getHttpField());
@@ -140,7 +172,7 @@ public class HpackDecoder
                         LOG.debug("decode Idx {}", entry);
                     // emit
                     emitted = true;
-                    _builder.emit(entry.getHttpField());
+                    emit(entry.getHttpField());
                 }
             }
             else
@@ -293,7 +325,7 @@ public class HpackDecoder
 
                 // emit the field
                 emitted = true;
-                _builder.emit(field);
+                emit(field);
 
                 // if indexed add to dynamic table
                 if (indexed)
@@ -301,10 +333,18 @@ public class HpackDecoder
             }
         }
 
+        _encodedBytes.add(encodedBytes);
+        _headerBytes.add(_fieldBytes);
         _builder.setBeginNanoTime(_beginNanoTimeSupplier.getAsLong());
         return _builder.build();
     }
 
+    private void emit(HttpField field) throws HpackException.SessionException
+    {
+        _fieldBytes += field.getName().length() + field.getValue().length();
+        _builder.emit(field);
+    }
+
     private int integerDecode(ByteBuffer buffer, int prefix) throws HpackException.CompressionException
     {
         try
@@ -18,6 +18,7 @@ import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
@@ -28,7 +29,9 @@ import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.PreEncodedHttpFields;
 import org.eclipse.jetty.http.compression.HuffmanEncoder;
+import org.eclipse.jetty.http.compression.IndexingStrategy;
 import org.eclipse.jetty.http.compression.NBitIntegerEncoder;
 import org.eclipse.jetty.http.compression.NBitStringEncoder;
 import org.eclipse.jetty.http2.hpack.HpackContext.Entry;
@@ -100,6 +103,11 @@ public class HpackEncoder
     private int _headerListSize;
     private boolean _validateEncoding = true;
     private boolean _maxDynamicTableSizeSent = false;
+    private EncodedRun _encodedRun;
+    private IndexingStrategy _indexingStrategy = IndexingStrategy.INSERT;
+    private int _fieldBytes;
+    private final LongAdder _encodedBytes = new LongAdder();
+    private final LongAdder _headerBytes = new LongAdder();
 
     public HpackEncoder()
     {
@@ -173,6 +181,50 @@ public class HpackEncoder
         _validateEncoding = validateEncoding;
     }
 
+    /**
+     * @return the strategy that decides whether fields are inserted into the dynamic table
+     */
+    public IndexingStrategy getIndexingStrategy()
+    {
+        return _indexingStrategy;
+    }
+
+    /**
+     * <p>Sets the strategy that decides whether fields are inserted into the dynamic table.</p>
+     *
+     * @param indexingStrategy the indexing strategy
+     */
+    public void setIndexingStrategy(IndexingStrategy indexingStrategy)
+    {
+        _indexingStrategy = indexingStrategy == null ? IndexingStrategy.INSERT : indexingStrategy;
+    }
+
+    /**
+     * @return the total number of octets of the encoded header blocks
+     */
+    public long getEncodedBytes()
+    {
+        return _encodedBytes.sum();
+    }
+
+    /**
+     * @return the total number of octets of the names and values of the encoded fields
+     */
+    public long getHeaderBytes()
+    {
+        return _headerBytes.sum();
+    }
+
+    /**
+     * @return the ratio of the encoded octets over the name and value octets,
+     * or {@code NaN} if nothing has been encoded yet
+     */
+    public double getCompressionRatio()
+    {
+        long headerBytes = getHeaderBytes();
+        return headerBytes == 0 ? Double.NaN : (double)getEncodedBytes() / headerBytes;
+    }
+
     public void encode(ByteBuffer buffer, MetaData metadata) throws HpackException
     {
         try
@@ -194,6 +246,7 @@ public class HpackEncoder
             }
 
             _headerListSize = 0;
+            _fieldBytes = 0;
             int pos = buffer.position();
 
             // If max table size changed, send the correspondent instruction.
@@ -249,8 +302,19 @@ public class HpackEncoder
                 }
 
                 boolean contentLengthEncoded = false;
-                for (HttpField field : fields)
+                for (int f = 0, n = fields.size(); f < n; f++)
                 {
+                    HttpField field = fields.getField(f);
+                    if (hopHeaders == null && field instanceof PreEncodedHttpFields.Field blockField)
+                    {
+                        PreEncodedHttpFields block = blockField.getPreEncodedHttpFields();
+                        int from = blockField.getIndex();
+                        int to = block.getRunEnd(fields, f);
+                        encode(buffer, block, from, to);
+                        f += to - from - 1;
+                        continue;
+                    }
+
                     HttpHeader header = field.getHeader();
                     if (header != null && IGNORED_HEADERS.contains(header))
                         continue;
@@ -282,6 +346,9 @@ public class HpackEncoder
             if (maxHeaderListSize > 0 && _headerListSize > maxHeaderListSize)
                 throw new HpackException.SessionException("Header size %d > %d", _headerListSize, maxHeaderListSize);
 
+            _encodedBytes.add(buffer.position() - pos);
+            _headerBytes.add(_fieldBytes);
+
             if (LOG.isDebugEnabled())
                 LOG.debug(String.format("CtxTbl[%x] encoded %d octets", _context.hashCode(), buffer.position() - pos));
         }
@@ -297,6 +364,51 @@ public class HpackEncoder
         }
     }
 
+    /**
+     * <p>Encodes a run of fields of a pre-encoded block.</p>
+     * <p>The HPACK encoding of a field depends on the dynamic table, so the pre-encoded
+     * bytes of the block cannot be copied as they are. Instead, the encoding of the run
+     * is remembered, and copied with a single bulk put the next time the same run is
+     * encoded, provided that the dynamic table has not been modified in the meantime;
+     * this is the common case once the block fields have been indexed.</p>
+     *
+     * @param buffer the buffer to encode into
+     * @param block the pre-encoded block
+     * @param from the index of the first field of the run
+     * @param to the index after the last field of the run
+     */
+    private void encode(ByteBuffer buffer, PreEncodedHttpFields block, int from, int to)
+    {
+        long modifications = _context.getModifications();
+        EncodedRun run = _encodedRun;
+        if (run != null && run.block() == block && run.from() == from && run.to() == to && run.modifications() == modifications)
+        {
+            buffer.put(run.encoded());
+            _headerListSize += run.headerListSize();
+            _fieldBytes += run.fieldBytes();
+            if (_debug && LOG.isDebugEnabled())
+                LOG.debug("encode PreEncodedRun {}[{},{}) to '{}'", block, from, to, StringUtil.toHexString(run.encoded()));
+            return;
+        }
+
+        int position = buffer.position();
+        int headerListSize = _headerListSize;
+        int fieldBytes = _fieldBytes;
+        for (int i = from; i < to; i++)
+        {
+            encode(buffer, block.getField(i));
+        }
+
+        // Remember the encoding only if it did not modify the dynamic table,
+        // otherwise encoding the same run again would produce different bytes.
+        if (_context.getModifications() == modifications)
+        {
+            byte[] encoded = new byte[buffer.position() - position];
+            buffer.get(position, encoded);
+            _encodedRun = new EncodedRun(block, from, to, modifications, encoded, _headerListSize - headerListSize, _fieldBytes - fieldBytes);
+        }
+    }
+
     public void encodeMaxDynamicTableSize(ByteBuffer buffer, int maxTableSize)
     {
         buffer.put((byte)0x20);
@@ -311,6 +423,7 @@ public class HpackEncoder
 
         int fieldSize = field.getName().length() + field.getValue().length();
         _headerListSize += fieldSize + 32;
+        _fieldBytes += fieldSize;
 
         String encoding = null;
 
@@ -331,8 +444,11 @@ public class HpackEncoder
                 buffer.put((byte)0x80);
                 NBitIntegerEncoder.encode(buffer, 7, index);
                 if (_debug)
-                    encoding = "IdxField" + (entry.isStatic() ? "S" : "") + NBitIntegerEncoder.octetsNeeded(7, index);
+                    encoding = "IdxField" + NBitIntegerEncoder.octetsNeeded(7, index);
             }
+            // Only references to the dynamic table are hits of previous insertions.
+            if (!entry.isStatic())
+                _indexingStrategy.onReferenced(field);
         }
         else
         {
@@ -361,12 +477,13 @@ public class HpackEncoder
                 {
                     // unknown name and value that will fit in dynamic table, so let's index
                     // this just in case it is the first time we have seen a custom name or a
-                    // custom field.  Unless the name is once only, this is worthwhile
-                    indexed = true;
-                    encodeName(buffer, (byte)0x40, 6, field.getName(), null);
+                    // custom field, unless the indexing strategy has found that it is not worthwhile.
+                    IndexingStrategy.Indexing indexing = _indexingStrategy.getIndexing(field);
+                    indexed = indexing == IndexingStrategy.Indexing.INSERT;
+                    encodeName(buffer, mask(indexing), indexed ? 6 : 4, field.getName(), null);
                     encodeValue(buffer, true, field.getValue());
                     if (_debug)
-                        encoding = "LitHuffNHuffVIdx";
+                        encoding = "LitHuffNHuffV" + suffix(indexing);
                 }
                 else
                 {
@@ -422,20 +539,22 @@ public class HpackEncoder
                 }
                 else
                 {
-                    // indexed
-                    indexed = true;
+                    // indexed, unless the indexing strategy has found that it is not worthwhile.
+                    IndexingStrategy.Indexing indexing = _indexingStrategy.getIndexing(field);
+                    indexed = indexing == IndexingStrategy.Indexing.INSERT;
+                    int bits = indexed ? 6 : 4;
                     boolean huffman = !DO_NOT_HUFFMAN.contains(header);
-                    encodeName(buffer, (byte)0x40, 6, header.asString(), name);
+                    encodeName(buffer, mask(indexing), bits, header.asString(), name);
                     encodeValue(buffer, huffman, field.getValue());
                     if (_debug)
-                        encoding = ((name == null) ? "LitHuffN" : ("LitIdxN" + (name.isStatic() ? "S" : "") + (1 + NBitIntegerEncoder.octetsNeeded(6, _context.index(name))))) +
-                            (huffman ? "HuffVIdx" : "LitVIdx");
+                        encoding = ((name == null) ? "LitHuffN" : ("LitIdxN" + (name.isStatic() ? "S" : "") + (1 + NBitIntegerEncoder.octetsNeeded(bits, _context.index(name))))) +
+                            (huffman ? "HuffV" : "LitV") + suffix(indexing);
                 }
             }
 
             // If we want the field referenced, then we add it to our table and reference set.
-            if (indexed)
-                _context.add(field);
+            if (indexed && _context.add(field) != null)
+                _indexingStrategy.onInserted(field);
         }
 
         if (_debug)
@@ -445,6 +564,26 @@ public class HpackEncoder
         }
     }
 
+    private static byte mask(IndexingStrategy.Indexing indexing)
+    {
+        return switch (indexing)
+        {
+            case INSERT -> (byte)0x40;
+            case LITERAL -> (byte)0x00;
+            case NEVER_INDEXED -> (byte)0x10;
+        };
+    }
+
+    private static String suffix(IndexingStrategy.Indexing indexing)
+    {
+        return switch (indexing)
+        {
+            case INSERT -> "Idx";
+            case LITERAL -> "!Idx";
+            case NEVER_INDEXED -> "!!Idx";
+        };
+    }
+
     private void encodeName(ByteBuffer buffer, byte mask, int bits, String name, Entry entry)
     {
         buffer.put(mask);
@@ -466,4 +605,8 @@ public class HpackEncoder
     {
         NBitStringEncoder.encode(buffer, 8, value, huffman);
     }
+
+    private record EncodedRun(PreEncodedHttpFields block, int from, int to, long modifications, byte[] encoded, int headerListSize, int fieldBytes)
+    {
+    }
 }
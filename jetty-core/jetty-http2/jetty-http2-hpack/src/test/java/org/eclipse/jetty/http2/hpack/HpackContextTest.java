@@ -14,6 +14,7 @@
 package org.eclipse.jetty.http2.hpack;
 
 import java.nio.ByteBuffer;
+import java.util.Random;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.compression.EncodingException;
@@ -22,12 +23,15 @@ import org.eclipse.jetty.http.compression.NBitIntegerDecoder;
 import org.eclipse.jetty.http2.hpack.HpackContext.Entry;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -474,4 +478,53 @@ public class HpackContextTest
         assertEquals("Wibble", ctx.get("wibble").getHttpField().getName());
         assertEquals("Wibble", ctx.get("Wibble").getHttpField().getName());
     }
+
+    @ParameterizedTest
+    @ValueSource(ints = {64 * 8, 4096})
+    public void testIndexesMatchDynamicTable(int maxTableSize)
+    {
+        // Fields colliding on names and values, so that additions, evictions
+        // and the growth of the dynamic table exercise the hash indexes.
+        HpackContext ctx = new HpackContext(maxTableSize);
+        Random random = new Random(1234);
+        for (int n = 0; n < 10_000; n++)
+        {
+            String name = "name" + random.nextInt(12);
+            HttpField field = new HttpField(random.nextBoolean() ? name : name.toUpperCase(), "v" + random.nextInt(4));
+            ctx.add(field);
+
+            // Every lookup must find the most recent matching entry of the dynamic table.
+            for (int i = 0; i < 12; i++)
+            {
+                String lookupName = "name" + i;
+                Entry expectedByName = null;
+                for (int index = HpackContext.STATIC_SIZE + 1; index <= HpackContext.STATIC_SIZE + ctx.size(); index++)
+                {
+                    Entry entry = ctx.get(index);
+                    if (entry.getHttpField().getName().equalsIgnoreCase(lookupName))
+                    {
+                        expectedByName = entry;
+                        break;
+                    }
+                }
+                assertSame(expectedByName, ctx.get(lookupName));
+
+                for (int v = 0; v < 4; v++)
+                {
+                    HttpField lookup = new HttpField(lookupName, "v" + v);
+                    Entry expected = null;
+                    for (int index = HpackContext.STATIC_SIZE + 1; index <= HpackContext.STATIC_SIZE + ctx.size(); index++)
+                    {
+                        Entry entry = ctx.get(index);
+                        if (entry.getHttpField().equals(lookup))
+                        {
+                            expected = entry;
+                            break;
+                        }
+                    }
+                    assertSame(expected, ctx.get(lookup));
+                }
+            }
+        }
+    }
 }
@@ -14,14 +14,21 @@
 package org.eclipse.jetty.http2.hpack;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.PreEncodedHttpFields;
+import org.eclipse.jetty.http.compression.AdaptiveIndexingStrategy;
+import org.eclipse.jetty.http.compression.IndexingStrategy;
 import org.eclipse.jetty.http.compression.NBitIntegerDecoder;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.NanoTime;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -31,6 +38,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HpackEncoderTest
 {
@@ -313,6 +321,119 @@ public class HpackEncoderTest
         assertThat(context.size(), Matchers.is(1));
     }
 
+    @Test
+    public void testPreEncodedHttpFields() throws Exception
+    {
+        PreEncodedHttpFields block = PreEncodedHttpFields.from(
+            new HttpField(HttpHeader.SERVER, "jetty"),
+            new HttpField(HttpHeader.CACHE_CONTROL, "no-cache"),
+            new HttpField("x-content-type-options", "nosniff"));
+        HttpFields blockFields = HttpFields.build().add("x-before", "before").add(block).add("x-after", "after");
+        HttpFields plainFields = HttpFields.build().add("x-before", "before")
+            .add(new PreEncodedHttpField(HttpHeader.SERVER, "jetty"))
+            .add(new PreEncodedHttpField(HttpHeader.CACHE_CONTROL, "no-cache"))
+            .add(new PreEncodedHttpField("x-content-type-options", "nosniff"))
+            .add("x-after", "after");
+
+        HpackEncoder blockEncoder = newHpackEncoder(4096);
+        HpackEncoder plainEncoder = newHpackEncoder(4096);
+        HpackDecoder decoder = new HpackDecoder(8192, NanoTime::now);
+        ByteBuffer previous = null;
+        for (int i = 0; i < 3; i++)
+        {
+            ByteBuffer blockBuffer = encode(blockEncoder, new MetaData.Response(200, null, HttpVersion.HTTP_2, blockFields));
+            ByteBuffer plainBuffer = encode(plainEncoder, new MetaData.Response(200, null, HttpVersion.HTTP_2, plainFields));
+
+            // The block encoding must be the same as that of the individual fields.
+            assertEquals(plainBuffer, blockBuffer);
+            // Once indexed, the encoding of the response does not change.
+            if (i > 1)
+                assertEquals(previous, blockBuffer);
+            previous = blockBuffer;
+
+            MetaData decoded = decoder.decode(blockBuffer.slice());
+            assertTrue(decoded.getHttpFields().isEqualTo(plainFields));
+        }
+        assertEquals(5, blockEncoder.getHpackContext().size());
+    }
+
+    @Test
+    public void testAdaptiveIndexingStrategy() throws Exception
+    {
+        HpackEncoder encoder = newHpackEncoder(4096);
+        encoder.setIndexingStrategy(new AdaptiveIndexingStrategy(128, 16, 0.125D, 64));
+        HpackDecoder decoder = new HpackDecoder(8192, NanoTime::now);
+
+        for (int i = 0; i < 64; i++)
+        {
+            HttpFields fields = HttpFields.build()
+                .add(HttpHeader.DATE, "Sun, 18 Oct 2026 10:%02d:00 GMT".formatted(i))
+                .add("x-constant", "value");
+            ByteBuffer buffer = encode(encoder, new MetaData.Response(200, null, HttpVersion.HTTP_2, fields));
+            MetaData decoded = decoder.decode(buffer);
+            assertTrue(decoded.getHttpFields().isEqualTo(fields));
+        }
+
+        // The constant field is indexed once, while the dates
+        // are not indexed anymore after the first 16 insertions.
+        assertEquals(17, encoder.getHpackContext().size());
+        assertEquals(17, decoder.getHpackContext().size());
+
+        assertThat(encoder.getHeaderBytes(), Matchers.greaterThan(encoder.getEncodedBytes()));
+        assertEquals(encoder.getEncodedBytes(), decoder.getEncodedBytes());
+        assertEquals(encoder.getHeaderBytes(), decoder.getHeaderBytes());
+        assertEquals(encoder.getCompressionRatio(), decoder.getCompressionRatio());
+    }
+
+    @Test
+    public void testIndexingStrategyNotifiedOfDynamicTableReferencesOnly() throws Exception
+    {
+        List<String> inserted = new ArrayList<>();
+        List<String> referenced = new ArrayList<>();
+        HpackEncoder encoder = newHpackEncoder(4096);
+        encoder.setIndexingStrategy(new IndexingStrategy()
+        {
+            @Override
+            public Indexing getIndexing(HttpField field)
+            {
+                return Indexing.INSERT;
+            }
+
+            @Override
+            public void onInserted(HttpField field)
+            {
+                inserted.add(field.getName());
+            }
+
+            @Override
+            public void onReferenced(HttpField field)
+            {
+                referenced.add(field.getName());
+            }
+        });
+
+        for (int i = 0; i < 3; i++)
+        {
+            // The status and the Accept-Encoding field are hits in the static table.
+            HttpFields fields = HttpFields.build()
+                .add(HttpHeader.ACCEPT_ENCODING, "gzip, deflate")
+                .add("x-custom", "value");
+            encode(encoder, new MetaData.Response(200, null, HttpVersion.HTTP_2, fields));
+        }
+
+        assertEquals(List.of("x-custom"), inserted);
+        assertEquals(List.of("x-custom", "x-custom"), referenced);
+    }
+
+    private static ByteBuffer encode(HpackEncoder encoder, MetaData metaData) throws HpackException
+    {
+        ByteBuffer buffer = BufferUtil.allocate(4096);
+        int pos = BufferUtil.flipToFill(buffer);
+        encoder.encode(buffer, metaData);
+        BufferUtil.flipToFlush(buffer, pos);
+        return buffer;
+    }
+
     private static HpackEncoder newHpackEncoder(int tableCapacity)
     {
         HpackEncoder encoder = new HpackEncoder();
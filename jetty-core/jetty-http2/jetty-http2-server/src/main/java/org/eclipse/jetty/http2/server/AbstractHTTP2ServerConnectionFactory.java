@@ -23,6 +23,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jetty.http.compression.IndexingStrategy;
 import org.eclipse.jetty.http2.BufferingFlowControlStrategy;
 import org.eclipse.jetty.http2.FlowControlStrategy;
 import org.eclipse.jetty.http2.HTTP2Connection;
@@ -75,6 +76,7 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
     private boolean connectProtocolEnabled = true;
     private RateControl.Factory rateControlFactory = new WindowRateControl.Factory(128);
     private FlowControlStrategy.Factory flowControlStrategyFactory = () -> new BufferingFlowControlStrategy(0.5F);
+    private IndexingStrategy.Factory indexingStrategyFactory = IndexingStrategy.Factory.INSERT;
     private long streamIdleTimeout;
     private boolean useInputDirectByteBuffers;
     private boolean useOutputDirectByteBuffers;
@@ -253,6 +255,26 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         this.rateControlFactory = Objects.requireNonNull(rateControlFactory);
     }
 
+    /**
+     * @return the factory that creates IndexingStrategy objects
+     */
+    public IndexingStrategy.Factory getIndexingStrategyFactory()
+    {
+        return indexingStrategyFactory;
+    }
+
+    /**
+     * <p>Sets the factory that creates a per-connection IndexingStrategy object,
+     * used by the HPACK encoder to decide whether to insert fields into the
+     * dynamic table.</p>
+     *
+     * @param indexingStrategyFactory the factory that creates IndexingStrategy objects
+     */
+    public void setIndexingStrategyFactory(IndexingStrategy.Factory indexingStrategyFactory)
+    {
+        this.indexingStrategyFactory = Objects.requireNonNull(indexingStrategyFactory);
+    }
+
     @ManagedAttribute("Whether to use direct ByteBuffers for reading")
     public boolean isUseInputDirectByteBuffers()
     {
@@ -294,6 +316,8 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         if (maxHeadersSize > 0)
             settings.put(SettingsFrame.MAX_HEADER_LIST_SIZE, maxHeadersSize);
         settings.put(SettingsFrame.ENABLE_CONNECT_PROTOCOL, isConnectProtocolEnabled() ? 1 : 0);
+        // RFC 7540 priorities are ignored, RFC 9218 priorities are used instead.
+        settings.put(SettingsFrame.NO_RFC7540_PRIORITIES, 1);
         return settings;
     }
 
@@ -303,6 +327,7 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         ServerSessionListener listener = newSessionListener(connector, endPoint);
 
         Generator generator = new Generator(connector.getByteBufferPool(), isUseOutputDirectByteBuffers(), getMaxHeaderBlockFragment());
+        generator.getHpackEncoder().setIndexingStrategy(getIndexingStrategyFactory().newIndexingStrategy());
         FlowControlStrategy flowControl = getFlowControlStrategyFactory().newFlowControlStrategy();
 
         ServerParser parser = newServerParser(connector, getRateControlFactory().newRateControl(endPoint));
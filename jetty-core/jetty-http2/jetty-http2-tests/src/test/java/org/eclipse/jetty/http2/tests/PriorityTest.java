@@ -13,22 +13,40 @@
 
 package org.eclipse.jetty.http2.tests;
 
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpPriority;
+import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.HTTP2Session;
+import org.eclipse.jetty.http2.HTTP2Stream;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.api.server.ServerSessionListener;
+import org.eclipse.jetty.http2.frames.DataFrame;
 import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.PingFrame;
 import org.eclipse.jetty.http2.frames.PriorityFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
+import org.eclipse.jetty.http2.frames.SettingsFrame;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.FuturePromise;
 import org.eclipse.jetty.util.Promise;
 import org.junit.jupiter.api.Test;
 
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -179,4 +197,227 @@ public class PriorityTest extends AbstractTest
 
         assertTrue(latch.await(5, TimeUnit.SECONDS));
     }
+
+    @Test
+    public void testPriorityHeader() throws Exception
+    {
+        BlockingQueue<HTTP2Stream> serverStreams = new LinkedBlockingQueue<>();
+        start(new ServerSessionListener()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                serverStreams.offer((HTTP2Stream)stream);
+                MetaData.Response metaData = new MetaData.Response(200, null, HttpVersion.HTTP_2, HttpFields.EMPTY);
+                stream.headers(new HeadersFrame(stream.getId(), metaData, null, true), Callback.NOOP);
+                return null;
+            }
+        });
+
+        Session session = newClientSession(new Session.Listener() {});
+
+        session.newStream(new HeadersFrame(newRequest("GET", HttpFields.EMPTY), null, true), new Promise.Adapter<>(), null);
+        HTTP2Stream serverStream1 = serverStreams.poll(5, TimeUnit.SECONDS);
+        assertNotNull(serverStream1);
+        assertEquals(HttpPriority.DEFAULT, serverStream1.getPriority());
+
+        HttpFields fields = HttpFields.build().put(HttpHeader.PRIORITY, "u=1, i");
+        session.newStream(new HeadersFrame(newRequest("GET", fields), null, true), new Promise.Adapter<>(), null);
+        HTTP2Stream serverStream2 = serverStreams.poll(5, TimeUnit.SECONDS);
+        assertNotNull(serverStream2);
+        assertEquals(new HttpPriority(1, true), serverStream2.getPriority());
+    }
+
+    @Test
+    public void testPriorityUpdate() throws Exception
+    {
+        BlockingQueue<HTTP2Stream> serverStreams = new LinkedBlockingQueue<>();
+        start(new ServerSessionListener()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                serverStreams.offer((HTTP2Stream)stream);
+                return null;
+            }
+        });
+
+        Session session = newClientSession(new Session.Listener() {});
+        FuturePromise<Stream> promise = new FuturePromise<>();
+        session.newStream(new HeadersFrame(newRequest("GET", HttpFields.EMPTY), null, true), promise, null);
+        Stream stream = promise.get(5, TimeUnit.SECONDS);
+        HTTP2Stream serverStream = serverStreams.poll(5, TimeUnit.SECONDS);
+        assertNotNull(serverStream);
+        assertEquals(HttpPriority.DEFAULT, serverStream.getPriority());
+
+        Callback.Completable completable = new Callback.Completable();
+        ((HTTP2Session)session).frames(null, List.of(new PriorityUpdateFrame(stream.getId(), "u=6")), completable);
+        completable.get(5, TimeUnit.SECONDS);
+
+        await().atMost(5, TimeUnit.SECONDS).until(serverStream::getPriority, is(new HttpPriority(6, false)));
+    }
+
+    @Test
+    public void testUrgentStreamDataIsSentFirst() throws Exception
+    {
+        BlockingQueue<Stream> serverStreams = new LinkedBlockingQueue<>();
+        start(new ServerSessionListener()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                serverStreams.offer(stream);
+                return null;
+            }
+        });
+
+        // Use a large stream flow control window, so that streams only stall
+        // on the session flow control window, and a large max frame size, so
+        // that a single DATA frame may exhaust the session flow control window.
+        Session session = newClientSession(new Session.Listener()
+        {
+            @Override
+            public Map<Integer, Integer> onPreface(Session session)
+            {
+                return Map.of(
+                    SettingsFrame.INITIAL_WINDOW_SIZE, 1024 * 1024,
+                    SettingsFrame.MAX_FRAME_SIZE, 1024 * 1024
+                );
+            }
+        });
+
+        List<Integer> dataStreamIds = new CopyOnWriteArrayList<>();
+        AtomicBoolean lowReading = new AtomicBoolean();
+        CountDownLatch lowDataLatch = new CountDownLatch(1);
+        HttpFields lowFields = HttpFields.build().put(HttpHeader.PRIORITY, "u=7");
+        FuturePromise<Stream> lowPromise = new FuturePromise<>();
+        session.newStream(new HeadersFrame(newRequest("GET", "/low", lowFields), null, true), lowPromise, new Stream.Listener()
+        {
+            @Override
+            public void onDataAvailable(Stream stream)
+            {
+                // Do not read the data, so that the flow control window is not enlarged.
+                if (lowReading.get())
+                    readData(stream, dataStreamIds);
+                else
+                    lowDataLatch.countDown();
+            }
+        });
+        Stream lowStream = lowPromise.get(5, TimeUnit.SECONDS);
+        Stream lowServerStream = serverStreams.poll(5, TimeUnit.SECONDS);
+        assertNotNull(lowServerStream);
+
+        HttpFields highFields = HttpFields.build().put(HttpHeader.PRIORITY, "u=0");
+        FuturePromise<Stream> highPromise = new FuturePromise<>();
+        session.newStream(new HeadersFrame(newRequest("GET", "/high", highFields), null, true), highPromise, new Stream.Listener()
+        {
+            @Override
+            public void onDataAvailable(Stream stream)
+            {
+                readData(stream, dataStreamIds);
+            }
+        });
+        Stream highStream = highPromise.get(5, TimeUnit.SECONDS);
+        Stream highServerStream = serverStreams.poll(5, TimeUnit.SECONDS);
+        assertNotNull(highServerStream);
+
+        // The low urgency response exhausts the flow control window and stalls.
+        HTTP2Session serverSession = (HTTP2Session)lowServerStream.getSession();
+        int window = serverSession.updateSendWindow(0);
+        MetaData.Response response = new MetaData.Response(HttpStatus.OK_200, null, HttpVersion.HTTP_2, HttpFields.EMPTY);
+        lowServerStream.headers(new HeadersFrame(lowServerStream.getId(), response, null, false), Callback.NOOP);
+        lowServerStream.data(new DataFrame(lowServerStream.getId(), ByteBuffer.allocate(2 * window), true), Callback.NOOP);
+        assertTrue(lowDataLatch.await(5, TimeUnit.SECONDS));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> serverSession.updateSendWindow(0), is(0));
+
+        // The high urgency response is queued behind the stalled low urgency response.
+        highServerStream.headers(new HeadersFrame(highServerStream.getId(), response, null, false), Callback.NOOP);
+        highServerStream.data(new DataFrame(highServerStream.getId(), ByteBuffer.allocate(1024), true), Callback.NOOP);
+        // Give time to the high urgency data to be queued.
+        Thread.sleep(500);
+
+        // Reading the low urgency data enlarges the flow control
+        // window, and the high urgency data must be sent first.
+        int read = 0;
+        while (read < window)
+        {
+            Stream.Data data = lowStream.readData();
+            if (data == null)
+                break;
+            read += data.frame().remaining();
+            data.release();
+        }
+        assertEquals(window, read);
+        lowReading.set(true);
+        lowStream.demand();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> dataStreamIds.contains(lowStream.getId()), is(true));
+        int firstStreamId = dataStreamIds.get(0);
+        assertEquals(highStream.getId(), firstStreamId);
+    }
+
+    @Test
+    public void testConcurrentNewStreamsWithDifferentUrgencies() throws Exception
+    {
+        List<Integer> serverStreamIds = new CopyOnWriteArrayList<>();
+        start(new ServerSessionListener()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                serverStreamIds.add(stream.getId());
+                MetaData.Response metaData = new MetaData.Response(HttpStatus.OK_200, null, HttpVersion.HTTP_2, HttpFields.EMPTY);
+                stream.headers(new HeadersFrame(stream.getId(), metaData, null, true), Callback.NOOP);
+                return null;
+            }
+        });
+
+        Session session = newClientSession(new Session.Listener() {});
+
+        int count = 4;
+        CountDownLatch responseLatch = new CountDownLatch(count);
+        // Open the streams from the PING callback, so that their
+        // HEADERS frames are queued and flushed together.
+        session.ping(new PingFrame(false), Callback.from(() ->
+        {
+            for (int i = 0; i < count; ++i)
+            {
+                // Less urgent streams are opened first.
+                HttpFields fields = HttpFields.build().put(HttpHeader.PRIORITY, "u=" + (count - i));
+                session.newStream(new HeadersFrame(newRequest("GET", fields), null, true), new Promise.Adapter<>(), new Stream.Listener()
+                {
+                    @Override
+                    public void onHeaders(Stream stream, HeadersFrame frame)
+                    {
+                        if (frame.isEndStream())
+                            responseLatch.countDown();
+                    }
+                });
+            }
+        }));
+
+        // The HEADERS frames must be sent in stream id order,
+        // otherwise the server fails the connection.
+        assertTrue(responseLatch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 3, 5, 7), serverStreamIds);
+    }
+
+    private static void readData(Stream stream, List<Integer> dataStreamIds)
+    {
+        while (true)
+        {
+            Stream.Data data = stream.readData();
+            if (data == null)
+            {
+                stream.demand();
+                return;
+            }
+            DataFrame frame = data.frame();
+            if (frame.remaining() > 0)
+                dataStreamIds.add(frame.getStreamId());
+            data.release();
+            if (frame.isEndStream())
+                return;
+        }
+    }
 }
@@ -38,10 +38,13 @@ import org.eclipse.jetty.quic.common.QuicStreamEndPoint;
 import org.eclipse.jetty.quic.common.StreamType;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.Promise;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.thread.Invocable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+@ManagedObject
 public class ClientHTTP3Session extends ClientProtocolSession
 {
     private static final Logger LOG = LoggerFactory.getLogger(ClientHTTP3Session.class);
@@ -69,6 +72,7 @@ public class ClientHTTP3Session extends ClientProtocolSession
         InstructionFlusher encoderInstructionFlusher = new InstructionFlusher(quicSession, encoderEndPoint, EncoderStreamConnection.STREAM_TYPE);
         encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher));
         encoder.setMaxHeadersSize(configuration.getMaxRequestHeadersSize());
+        encoder.setIndexingStrategy(configuration.getIndexingStrategyFactory().newIndexingStrategy());
         installBean(encoder);
         if (LOG.isDebugEnabled())
             LOG.debug("created encoder stream #{} on {}", encoderStreamId, encoderEndPoint);
@@ -102,6 +106,18 @@ public class ClientHTTP3Session extends ClientProtocolSession
         return encoder;
     }
 
+    @ManagedAttribute(value = "The QPACK encoder ratio of encoded bytes over header bytes", readonly = true)
+    public double getEncoderCompressionRatio()
+    {
+        return encoder.getCompressionRatio();
+    }
+
+    @ManagedAttribute(value = "The QPACK decoder ratio of encoded bytes over header bytes", readonly = true)
+    public double getDecoderCompressionRatio()
+    {
+        return decoder.getCompressionRatio();
+    }
+
     public HTTP3SessionClient getSessionClient()
     {
         return session;
@@ -13,6 +13,9 @@
 
 package org.eclipse.jetty.http3;
 
+import java.util.Objects;
+
+import org.eclipse.jetty.http.compression.IndexingStrategy;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 
@@ -32,6 +35,7 @@ public class HTTP3Configuration
     private int maxEncoderTableCapacity = 64 * 1024;
     private int maxRequestHeadersSize = 8 * 1024;
     private int maxResponseHeadersSize = 8 * 1024;
+    private IndexingStrategy.Factory indexingStrategyFactory = IndexingStrategy.Factory.INSERT;
 
     @ManagedAttribute("The stream idle timeout in milliseconds")
     public long getStreamIdleTimeout()
@@ -221,4 +225,24 @@ public class HTTP3Configuration
     {
         this.maxResponseHeadersSize = maxResponseHeadersSize;
     }
+
+    /**
+     * @return the factory that creates IndexingStrategy objects
+     */
+    public IndexingStrategy.Factory getIndexingStrategyFactory()
+    {
+        return indexingStrategyFactory;
+    }
+
+    /**
+     * <p>Sets the factory that creates a per-session IndexingStrategy object,
+     * used by the QPACK encoder to decide whether to insert fields into the
+     * dynamic table.</p>
+     *
+     * @param indexingStrategyFactory the factory that creates IndexingStrategy objects
+     */
+    public void setIndexingStrategyFactory(IndexingStrategy.Factory indexingStrategyFactory)
+    {
+        this.indexingStrategyFactory = Objects.requireNonNull(indexingStrategyFactory);
+    }
 }
@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.LongSupplier;
 
 import org.eclipse.jetty.http.HttpField;
@@ -30,6 +31,7 @@ import org.eclipse.jetty.http3.qpack.internal.QpackContext;
 import org.eclipse.jetty.http3.qpack.internal.instruction.InsertCountIncrementInstruction;
 import org.eclipse.jetty.http3.qpack.internal.instruction.SectionAcknowledgmentInstruction;
 import org.eclipse.jetty.http3.qpack.internal.instruction.StreamCancellationInstruction;
+import org.eclipse.jetty.http3.qpack.internal.metadata.Http3Fields;
 import org.eclipse.jetty.http3.qpack.internal.parser.DecoderInstructionParser;
 import org.eclipse.jetty.http3.qpack.internal.parser.EncodedFieldSection;
 import org.eclipse.jetty.http3.qpack.internal.table.DynamicTable;
@@ -57,6 +59,8 @@ public class QpackDecoder implements Dumpable
     private final NBitIntegerDecoder _integerDecoder = new NBitIntegerDecoder();
     private final InstructionHandler _instructionHandler = new InstructionHandler();
     private final Map<Long, AtomicInteger> _blockedStreams = new HashMap<>();
+    private final LongAdder _encodedBytes = new LongAdder();
+    private final LongAdder _headerBytes = new LongAdder();
     private int _maxHeadersSize;
     private int _maxBlockedStreams;
     private int _maxTableCapacity;
@@ -93,6 +97,32 @@ public class QpackDecoder implements Dumpable
         return _context;
     }
 
+    /**
+     * @return the total number of octets of the field sections received
+     */
+    public long getEncodedBytes()
+    {
+        return _encodedBytes.sum();
+    }
+
+    /**
+     * @return the total number of octets of the names and values of the decoded fields
+     */
+    public long getHeaderBytes()
+    {
+        return _headerBytes.sum();
+    }
+
+    /**
+     * @return the ratio of the encoded octets over the name and value octets,
+     * or {@code NaN} if nothing has been decoded yet
+     */
+    public double getCompressionRatio()
+    {
+        long headerBytes = getHeaderBytes();
+        return headerBytes == 0 ? Double.NaN : (double)getEncodedBytes() / headerBytes;
+    }
+
     public int getMaxHeadersSize()
     {
         return _maxHeadersSize;
@@ -158,6 +188,7 @@ public class QpackDecoder implements Dumpable
         int maxHeaderSize = getMaxHeadersSize();
         if (maxHeaderSize > 0 && buffer.remaining() > maxHeaderSize)
             throw new QpackException.SessionException(QPACK_DECOMPRESSION_FAILED, "header_too_large");
+        _encodedBytes.add(buffer.remaining());
 
         _integerDecoder.setPrefix(8);
         int encodedInsertCount = _integerDecoder.decodeInt(buffer);
@@ -186,6 +217,7 @@ public class QpackDecoder implements Dumpable
             if (requiredInsertCount <= insertCount)
             {
                 MetaData metaData = encodedFieldSection.decode(_context, maxHeaderSize);
+                onDecoded(metaData);
                 if (LOG.isDebugEnabled())
                     LOG.debug("Decoded: streamId={}, metadata={}", streamId, metaData);
                 _metaDataNotifications.add(new MetaDataNotification(streamId, metaData, handler));
@@ -263,6 +295,17 @@ public class QpackDecoder implements Dumpable
         notifyInstructionHandler();
     }
 
+    private void onDecoded(MetaData metaData)
+    {
+        int headerBytes = 0;
+        for (HttpField field : new Http3Fields(metaData))
+        {
+            String value = field.getValue();
+            headerBytes += field.getName().length() + (value == null ? 0 : value.length());
+        }
+        _headerBytes.add(headerBytes);
+    }
+
     private void checkEncodedFieldSections() throws QpackException
     {
         int insertCount = _context.getDynamicTable().getInsertCount();
@@ -276,6 +319,7 @@ public class QpackDecoder implements Dumpable
                 iterator.remove();
                 long streamId = encodedFieldSection.getStreamId();
                 MetaData metaData = encodedFieldSection.decode(_context, getMaxHeadersSize());
+                onDecoded(metaData);
                 if (_blockedStreams.get(streamId).decrementAndGet() <= 0)
                     _blockedStreams.remove(streamId);
                 if (LOG.isDebugEnabled())
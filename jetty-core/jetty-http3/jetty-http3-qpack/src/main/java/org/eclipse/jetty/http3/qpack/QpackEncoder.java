@@ -21,11 +21,13 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.compression.IndexingStrategy;
 import org.eclipse.jetty.http.compression.NBitIntegerEncoder;
 import org.eclipse.jetty.http3.qpack.internal.EncodableEntry;
 import org.eclipse.jetty.http3.qpack.internal.QpackContext;
@@ -99,6 +101,9 @@ public class QpackEncoder implements Dumpable
     private int _blockedStreams;
     private int _maxHeadersSize;
     private int _maxTableCapacity;
+    private IndexingStrategy _indexingStrategy = IndexingStrategy.INSERT;
+    private final LongAdder _encodedBytes = new LongAdder();
+    private final LongAdder _headerBytes = new LongAdder();
 
     public QpackEncoder(Instruction.Handler handler)
     {
@@ -172,6 +177,53 @@ public class QpackEncoder implements Dumpable
         }
     }
 
+    /**
+     * @return the strategy that decides whether fields are inserted into the dynamic table
+     */
+    public IndexingStrategy getIndexingStrategy()
+    {
+        return _indexingStrategy;
+    }
+
+    /**
+     * <p>Sets the strategy that decides whether fields are inserted into the dynamic table.</p>
+     * <p>Since the "never indexed" representations are not used by this encoder,
+     * {@link IndexingStrategy.Indexing#NEVER_INDEXED} is treated as
+     * {@link IndexingStrategy.Indexing#LITERAL}.</p>
+     *
+     * @param indexingStrategy the indexing strategy
+     */
+    public void setIndexingStrategy(IndexingStrategy indexingStrategy)
+    {
+        _indexingStrategy = indexingStrategy == null ? IndexingStrategy.INSERT : indexingStrategy;
+    }
+
+    /**
+     * @return the total number of octets of the encoded field sections
+     */
+    public long getEncodedBytes()
+    {
+        return _encodedBytes.sum();
+    }
+
+    /**
+     * @return the total number of octets of the names and values of the encoded fields
+     */
+    public long getHeaderBytes()
+    {
+        return _headerBytes.sum();
+    }
+
+    /**
+     * @return the ratio of the encoded octets over the name and value octets,
+     * or {@code NaN} if nothing has been encoded yet
+     */
+    public double getCompressionRatio()
+    {
+        long headerBytes = getHeaderBytes();
+        return headerBytes == 0 ? Double.NaN : (double)getEncodedBytes() / headerBytes;
+    }
+
     /**
      * <p>Encodes a {@link MetaData} object into the supplied {@link ByteBuffer} for a specific HTTP/s stream.</p>
      * <p>This method may generate instructions to be sent back over the Encoder stream to the remote Decoder.</p>
@@ -224,8 +276,16 @@ public class QpackEncoder implements Dumpable
             try
             {
                 int requiredInsertCount = 0;
+                int headerBytes = 0;
                 for (HttpField field : new Http3Fields(metadata))
                 {
+                    String value = field.getValue();
+                    headerBytes += field.getName().length() + (value == null ? 0 : value.length());
+
+                    // Consecutive fields of a pre-encoded block are encoded together.
+                    if (!encodableEntries.isEmpty() && encodableEntries.get(encodableEntries.size() - 1).append(field))
+                        continue;
+
                     EncodableEntry entry = encode(streamInfo, field);
                     encodableEntries.add(entry);
 
@@ -250,6 +310,7 @@ public class QpackEncoder implements Dumpable
                 int deltaBase = signBit ? requiredInsertCount - base - 1 : base - requiredInsertCount;
 
                 // Encode the Field Section Prefix into the ByteBuffer.
+                int position = buffer.position();
                 NBitIntegerEncoder.encode(buffer, 8, encodedInsertCount);
                 buffer.put(signBit ? (byte)0x80 : (byte)0x00);
                 NBitIntegerEncoder.encode(buffer, 7, deltaBase);
@@ -259,6 +320,8 @@ public class QpackEncoder implements Dumpable
                 {
                     entry.encode(buffer, base);
                 }
+                _encodedBytes.add(buffer.position() - position);
+                _headerBytes.add(headerBytes);
 
                 notifyInstructionHandler();
             }
@@ -394,27 +457,29 @@ public class QpackEncoder implements Dumpable
         if (field instanceof PreEncodedHttpField)
             return EncodableEntry.getPreEncodedEntry((PreEncodedHttpField)field);
 
-        boolean canCreateEntry = shouldIndex(field) && dynamicTable.canInsert(field);
-
         Entry entry = _context.get(field);
         if (referenceEntry(entry, streamInfo))
         {
+            if (!entry.isStatic())
+                _indexingStrategy.onReferenced(field);
             return EncodableEntry.getReferencedEntry(entry);
         }
-        else
-        {
-            // Should we duplicate this entry.
-            if (entry != null && canCreateEntry)
-            {
-                int index = _context.indexOf(entry);
-                Entry newEntry = new Entry(field);
-                dynamicTable.add(newEntry);
-                _instructions.add(new DuplicateInstruction(index));
 
-                // Should we reference this entry and risk blocking.
-                if (referenceEntry(newEntry, streamInfo))
-                    return EncodableEntry.getReferencedEntry(newEntry);
-            }
+        boolean canCreateEntry = shouldIndex(field) && dynamicTable.canInsert(field) &&
+            _indexingStrategy.getIndexing(field) == IndexingStrategy.Indexing.INSERT;
+
+        // Should we duplicate this entry.
+        if (entry != null && canCreateEntry)
+        {
+            int index = _context.indexOf(entry);
+            Entry newEntry = new Entry(field);
+            dynamicTable.add(newEntry);
+            _instructions.add(new DuplicateInstruction(index));
+            _indexingStrategy.onInserted(field);
+
+            // Should we reference this entry and risk blocking.
+            if (referenceEntry(newEntry, streamInfo))
+                return EncodableEntry.getReferencedEntry(newEntry);
         }
 
         boolean huffman = shouldHuffmanEncode(field);
@@ -428,6 +493,7 @@ public class QpackEncoder implements Dumpable
                 Entry newEntry = new Entry(field);
                 dynamicTable.add(newEntry);
                 _instructions.add(new IndexedNameEntryInstruction(!nameEntry.isStatic(), index, huffman, field.getValue()));
+                _indexingStrategy.onInserted(field);
 
                 // Should we reference this entry and risk blocking.
                 if (referenceEntry(newEntry, streamInfo))
@@ -443,6 +509,7 @@ public class QpackEncoder implements Dumpable
                 Entry newEntry = new Entry(field);
                 dynamicTable.add(newEntry);
                 _instructions.add(new LiteralNameEntryInstruction(field, huffman));
+                _indexingStrategy.onInserted(field);
 
                 // Should we reference this entry and risk blocking.
                 if (referenceEntry(newEntry, streamInfo))
@@ -19,6 +19,7 @@ import java.util.Objects;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.PreEncodedHttpFields;
 import org.eclipse.jetty.http.compression.NBitIntegerEncoder;
 import org.eclipse.jetty.http.compression.NBitStringEncoder;
 import org.eclipse.jetty.http3.qpack.internal.table.Entry;
@@ -42,9 +43,22 @@ public abstract class EncodableEntry
 
     public static EncodableEntry getPreEncodedEntry(PreEncodedHttpField httpField)
     {
+        if (httpField instanceof PreEncodedHttpFields.Field blockField)
+            return new PreEncodedBlockEntry(blockField);
         return new PreEncodedEntry(httpField);
     }
 
+    /**
+     * <p>Appends the given field to this entry, so that they are encoded together.</p>
+     *
+     * @param field the field that follows this entry
+     * @return whether the field was appended to this entry
+     */
+    public boolean append(HttpField field)
+    {
+        return false;
+    }
+
     public abstract void encode(ByteBuffer buffer, int base);
 
     public abstract int getRequiredSize(int base);
@@ -277,4 +291,52 @@ public abstract class EncodableEntry
             return 0;
         }
     }
+
+    /**
+     * <p>A run of fields of a {@link PreEncodedHttpFields} block.</p>
+     * <p>The QPACK pre-encoded fields only reference the static table, so their encoding
+     * does not depend on the base and the whole run is copied with a single bulk put.</p>
+     */
+    private static class PreEncodedBlockEntry extends EncodableEntry
+    {
+        private final PreEncodedHttpFields _block;
+        private final int _from;
+        private int _to;
+
+        public PreEncodedBlockEntry(PreEncodedHttpFields.Field field)
+        {
+            _block = field.getPreEncodedHttpFields();
+            _from = field.getIndex();
+            _to = _from + 1;
+        }
+
+        @Override
+        public boolean append(HttpField field)
+        {
+            if (_to < _block.size() && _block.getField(_to) == field)
+            {
+                _to++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void encode(ByteBuffer buffer, int base)
+        {
+            _block.putTo(buffer, HttpVersion.HTTP_3, _from, _to);
+        }
+
+        @Override
+        public int getRequiredSize(int base)
+        {
+            return _block.getEncodedLength(HttpVersion.HTTP_3, _from, _to);
+        }
+
+        @Override
+        public int getRequiredInsertCount()
+        {
+            return 0;
+        }
+    }
 }
@@ -20,6 +20,7 @@ import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.compression.AdaptiveIndexingStrategy;
 import org.eclipse.jetty.http3.qpack.internal.instruction.IndexedNameEntryInstruction;
 import org.eclipse.jetty.http3.qpack.internal.instruction.InsertCountIncrementInstruction;
 import org.eclipse.jetty.http3.qpack.internal.instruction.LiteralNameEntryInstruction;
@@ -34,6 +35,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -155,4 +157,25 @@ public class EncodeDecodeTest
         assertThat(QpackTestUtil.toHexString(instruction), QpackTestUtil.equalsHex("4a63 7573 746f 6d2d 6b65 790c 6375 7374 6f6d 2d76 616c 7565"));
         _encoder.getInstructionHandler().onInsertCountIncrement(1);
     }
+
+    @Test
+    public void testAdaptiveIndexingStrategy() throws Exception
+    {
+        _encoder.setMaxTableCapacity(4096);
+        _encoder.setTableCapacity(4096);
+        _encoder.setIndexingStrategy(new AdaptiveIndexingStrategy(128, 16, 0.125D, 64));
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (int i = 0; i < 32; i++)
+        {
+            HttpFields httpFields = HttpFields.build().add("x-request-id", "0123456789abcdef-" + i);
+            buffer.clear();
+            _encoder.encode(buffer, 4 * i, new MetaData(HttpVersion.HTTP_3, httpFields));
+        }
+
+        // The request ids are not inserted anymore after the first 16 insertions.
+        assertThat(_encoder.getQpackContext().getDynamicTable().getInsertCount(), is(16));
+        assertThat(_encoder.getEncodedBytes(), greaterThan(0L));
+        assertThat(_encoder.getHeaderBytes(), is(32L * ("x-request-id".length() + "0123456789abcdef-".length()) + 10 + 22 * 2));
+    }
 }
@@ -16,12 +16,19 @@ package org.eclipse.jetty.http3.qpack;
 import java.nio.ByteBuffer;
 
 import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.PreEncodedHttpFields;
 import org.eclipse.jetty.http3.qpack.internal.EncodableEntry;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.NanoTime;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public class PreEncodedFieldTest
 {
     @Test
@@ -44,6 +51,39 @@ public class PreEncodedFieldTest
         assertEqual(buffer, encodedEntry);
     }
 
+    @Test
+    public void testPreEncodedHttpFields() throws Exception
+    {
+        PreEncodedHttpFields block = PreEncodedHttpFields.from(
+            new HttpField(HttpHeader.SERVER, "jetty"),
+            new HttpField(HttpHeader.CACHE_CONTROL, "no-cache"),
+            new HttpField("x-content-type-options", "nosniff"));
+        HttpFields blockFields = HttpFields.build().add("x-before", "before").add(block).add("x-after", "after");
+        HttpFields plainFields = HttpFields.build().add("x-before", "before")
+            .add(new PreEncodedHttpField(HttpHeader.SERVER, "jetty"))
+            .add(new PreEncodedHttpField(HttpHeader.CACHE_CONTROL, "no-cache"))
+            .add(new PreEncodedHttpField("x-content-type-options", "nosniff"))
+            .add("x-after", "after");
+
+        ByteBuffer blockBuffer = BufferUtil.allocate(1024);
+        BufferUtil.clearToFill(blockBuffer);
+        new QpackEncoder(new TestEncoderHandler()).encode(blockBuffer, 0, new MetaData.Response(200, null, HttpVersion.HTTP_3, blockFields));
+        BufferUtil.flipToFlush(blockBuffer, 0);
+
+        ByteBuffer plainBuffer = BufferUtil.allocate(1024);
+        BufferUtil.clearToFill(plainBuffer);
+        new QpackEncoder(new TestEncoderHandler()).encode(plainBuffer, 0, new MetaData.Response(200, null, HttpVersion.HTTP_3, plainFields));
+        BufferUtil.flipToFlush(plainBuffer, 0);
+
+        assertEqual(blockBuffer.slice(), plainBuffer);
+
+        TestDecoderHandler decoderHandler = new TestDecoderHandler();
+        QpackDecoder decoder = new QpackDecoder(decoderHandler);
+        decoder.setBeginNanoTimeSupplier(NanoTime::now);
+        decoder.decode(0, blockBuffer, decoderHandler);
+        assertTrue(decoderHandler.getMetaData().getHttpFields().isEqualTo(plainFields));
+    }
+
     public void assertEqual(ByteBuffer b1, ByteBuffer b2)
     {
         if (b1 == null || b2 == null)
@@ -13,10 +13,13 @@
 
 package org.eclipse.jetty.http3.server.internal;
 
+import java.io.IOException;
 import java.util.EnumSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
+import org.eclipse.jetty.http.HttpPriority;
+import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.http3.HTTP3Session;
 import org.eclipse.jetty.http3.HTTP3Stream;
 import org.eclipse.jetty.http3.MessageFlusher;
@@ -45,6 +48,7 @@ public class HTTP3StreamServer extends HTTP3Stream implements Stream.Server
         if (validateAndUpdate(EnumSet.of(FrameState.INITIAL), FrameState.HEADER))
         {
             onHeaders(frame);
+            updatePriority(frame.getMetaData());
             Listener listener = this.listener = notifyRequest(frame);
             if (listener == null)
                 getSession().writeMessageFrame(getId(), new MessageFlusher.FlushFrame(), Callback.NOOP);
@@ -52,6 +56,22 @@ public class HTTP3StreamServer extends HTTP3Stream implements Stream.Server
         }
     }
 
+    private void updatePriority(MetaData metaData)
+    {
+        // Always set the priority, as the quiche default
+        // urgency differs from the RFC 9218 default urgency.
+        HttpPriority priority = HttpPriority.from(metaData.getHttpFields());
+        try
+        {
+            getEndPoint().getQuicSession().setStreamPriority(getId(), priority.urgency(), priority.incremental());
+        }
+        catch (IOException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("could not set {} on {}", priority, this, x);
+        }
+    }
+
     private Listener notifyRequest(HeadersFrame frame)
     {
         Session.Server.Listener listener = (Session.Server.Listener)getSession().getListener();
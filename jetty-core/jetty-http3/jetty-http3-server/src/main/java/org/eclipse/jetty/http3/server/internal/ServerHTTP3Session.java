@@ -37,10 +37,13 @@ import org.eclipse.jetty.quic.common.StreamType;
 import org.eclipse.jetty.quic.server.ServerProtocolSession;
 import org.eclipse.jetty.quic.server.ServerQuicSession;
 import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.thread.Invocable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+@ManagedObject
 public class ServerHTTP3Session extends ServerProtocolSession
 {
     private static final Logger LOG = LoggerFactory.getLogger(ServerHTTP3Session.class);
@@ -68,6 +71,7 @@ public class ServerHTTP3Session extends ServerProtocolSession
         InstructionFlusher encoderInstructionFlusher = new InstructionFlusher(quicSession, encoderEndPoint, EncoderStreamConnection.STREAM_TYPE);
         encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher));
         encoder.setMaxHeadersSize(configuration.getMaxResponseHeadersSize());
+        encoder.setIndexingStrategy(configuration.getIndexingStrategyFactory().newIndexingStrategy());
         addBean(encoder);
         if (LOG.isDebugEnabled())
             LOG.debug("created encoder stream #{} on {}", encoderStreamId, encoderEndPoint);
@@ -101,6 +105,18 @@ public class ServerHTTP3Session extends ServerProtocolSession
         return encoder;
     }
 
+    @ManagedAttribute(value = "The QPACK encoder ratio of encoded bytes over header bytes", readonly = true)
+    public double getEncoderCompressionRatio()
+    {
+        return encoder.getCompressionRatio();
+    }
+
+    @ManagedAttribute(value = "The QPACK decoder ratio of encoded bytes over header bytes", readonly = true)
+    public double getDecoderCompressionRatio()
+    {
+        return decoder.getCompressionRatio();
+    }
+
     public HTTP3SessionServer getSessionServer()
     {
         return session;
@@ -26,6 +26,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
@@ -34,7 +35,9 @@ import org.eclipse.jetty.io.internal.CompoundPool;
 import org.eclipse.jetty.io.internal.QueuedPool;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.ConcurrentPool;
+import org.eclipse.jetty.util.NanoTime;
 import org.eclipse.jetty.util.Pool;
+import org.eclipse.jetty.util.ProcessorUtils;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.annotation.ManagedOperation;
@@ -51,12 +54,22 @@ import org.slf4j.LoggerFactory;
  * 2048, and so on with capacities 3072, 4096, 5120, etc.</p>
  * <p>The {@code maxHeapMemory} and {@code maxDirectMemory} default heuristic is to use {@link Runtime#maxMemory()}
  * divided by 8.</p>
+ * <p>Optionally, each bucket may have a {@code magazineSize}, so that released buffers are cached in small
+ * magazines in front of the bucket {@link Pool}. Threads are mapped to magazines by their thread id, and
+ * acquire from and release to their own magazine without contending with other threads on the bucket
+ * {@link Pool} entries, which is beneficial on machines with many cores where many threads acquire and
+ * release buffers of the same capacity. Buffers are transferred to the bucket {@link Pool} only when a
+ * magazine is full, and acquired from the bucket {@link Pool} only when a magazine is empty.</p>
+ * <p>The {@link Quadratic} variant uses buckets of capacities that are powers of 2, while the {@link Adaptive}
+ * variant adapts the bucket sizes and the memory budgets to the observed demand.</p>
  */
 @ManagedObject
 public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
 {
     static final int DEFAULT_FACTOR = 4096;
     static final int DEFAULT_MAX_CAPACITY_BY_FACTOR = 16;
+    // The number of references in 64 bytes, to avoid false sharing between magazines.
+    private static final int MAGAZINE_STRIDE = 16;
 
     private final RetainedBucket[] _direct;
     private final RetainedBucket[] _indirect;
@@ -65,6 +78,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     private final long _maxHeapMemory;
     private final long _maxDirectMemory;
     private final IntUnaryOperator _bucketIndexFor;
+    private final int _magazineSize;
     private final AtomicBoolean _evictor = new AtomicBoolean(false);
     private boolean _statisticsEnabled;
 
@@ -116,7 +130,24 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
      */
     public ArrayByteBufferPool(int minCapacity, int factor, int maxCapacity, int maxBucketSize, long maxHeapMemory, long maxDirectMemory)
     {
-        this(minCapacity, factor, maxCapacity, maxBucketSize, maxHeapMemory, maxDirectMemory, null, null);
+        this(minCapacity, factor, maxCapacity, maxBucketSize, maxHeapMemory, maxDirectMemory, 0);
+    }
+
+    /**
+     * Creates a new ArrayByteBufferPool with the given configuration.
+     *
+     * @param minCapacity the minimum ByteBuffer capacity
+     * @param factor the capacity factor
+     * @param maxCapacity the maximum ByteBuffer capacity
+     * @param maxBucketSize the maximum number of ByteBuffers for each bucket
+     * @param maxHeapMemory the max heap memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     * @param maxDirectMemory the max direct memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     * @param magazineSize the maximum number of ByteBuffers cached in each per-thread magazine of each bucket,
+     * or 0 to not use magazines
+     */
+    public ArrayByteBufferPool(int minCapacity, int factor, int maxCapacity, int maxBucketSize, long maxHeapMemory, long maxDirectMemory, int magazineSize)
+    {
+        this(minCapacity, factor, maxCapacity, maxBucketSize, maxHeapMemory, maxDirectMemory, null, null, magazineSize);
     }
 
     /**
@@ -132,6 +163,25 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
      * @param bucketCapacity a {@link IntUnaryOperator} that takes a bucket index and returns a capacity
      */
     protected ArrayByteBufferPool(int minCapacity, int factor, int maxCapacity, int maxBucketSize, long maxHeapMemory, long maxDirectMemory, IntUnaryOperator bucketIndexFor, IntUnaryOperator bucketCapacity)
+    {
+        this(minCapacity, factor, maxCapacity, maxBucketSize, maxHeapMemory, maxDirectMemory, bucketIndexFor, bucketCapacity, 0);
+    }
+
+    /**
+     * Creates a new ArrayByteBufferPool with the given configuration.
+     *
+     * @param minCapacity the minimum ByteBuffer capacity
+     * @param factor the capacity factor
+     * @param maxCapacity the maximum ByteBuffer capacity
+     * @param maxBucketSize the maximum number of ByteBuffers for each bucket
+     * @param maxHeapMemory the max heap memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     * @param maxDirectMemory the max direct memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     * @param bucketIndexFor a {@link IntUnaryOperator} that takes a capacity and returns a bucket index
+     * @param bucketCapacity a {@link IntUnaryOperator} that takes a bucket index and returns a capacity
+     * @param magazineSize the maximum number of ByteBuffers cached in each per-thread magazine of each bucket,
+     * or 0 to not use magazines
+     */
+    protected ArrayByteBufferPool(int minCapacity, int factor, int maxCapacity, int maxBucketSize, long maxHeapMemory, long maxDirectMemory, IntUnaryOperator bucketIndexFor, IntUnaryOperator bucketCapacity, int magazineSize)
     {
         if (minCapacity <= 0)
             minCapacity = 0;
@@ -140,6 +190,8 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             maxCapacity = DEFAULT_MAX_CAPACITY_BY_FACTOR * factor;
         if ((maxCapacity % factor) != 0 || factor >= maxCapacity)
             throw new IllegalArgumentException(String.format("The capacity factor(%d) must be a divisor of maxCapacity(%d)", factor, maxCapacity));
+        if (magazineSize < 0 || magazineSize > MAGAZINE_STRIDE)
+            throw new IllegalArgumentException(String.format("The magazine size(%d) must be between 0 and %d", magazineSize, MAGAZINE_STRIDE));
 
         int f = factor;
         if (bucketIndexFor == null)
@@ -150,11 +202,12 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         int length = bucketIndexFor.applyAsInt(maxCapacity) + 1;
         RetainedBucket[] directArray = new RetainedBucket[length];
         RetainedBucket[] indirectArray = new RetainedBucket[length];
+        int magazines = magazineSize == 0 ? 0 : Integer.highestOneBit(2 * ProcessorUtils.availableProcessors() - 1) << 1;
         for (int i = 0; i < directArray.length; i++)
         {
             int capacity = Math.min(bucketCapacity.applyAsInt(i), maxCapacity);
-            directArray[i] = new RetainedBucket(capacity, maxBucketSize);
-            indirectArray[i] = new RetainedBucket(capacity, maxBucketSize);
+            directArray[i] = new RetainedBucket(capacity, maxBucketSize, magazines, magazineSize);
+            indirectArray[i] = new RetainedBucket(capacity, maxBucketSize, magazines, magazineSize);
         }
 
         _minCapacity = minCapacity;
@@ -164,6 +217,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         _maxHeapMemory = maxMemory(maxHeapMemory);
         _maxDirectMemory = maxMemory(maxDirectMemory);
         _bucketIndexFor = bucketIndexFor;
+        _magazineSize = magazineSize;
     }
 
     private long maxMemory(long maxMemory)
@@ -198,6 +252,12 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         return _maxCapacity;
     }
 
+    @ManagedAttribute("The maximum number of buffers cached in each per-thread magazine")
+    public int getMagazineSize()
+    {
+        return _magazineSize;
+    }
+
     @Override
     public RetainableByteBuffer acquire(int size, boolean direct)
     {
@@ -209,6 +269,15 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
 
         bucket.recordAcquire();
 
+        // Try to acquire a buffer from the magazine of this thread.
+        Buffer cached = bucket.take();
+        if (cached != null)
+        {
+            bucket.recordPooled();
+            cached.acquire();
+            return cached;
+        }
+
         // Try to acquire a pooled entry.
         Pool.Entry<RetainableByteBuffer> entry = bucket.getPool().acquire();
         if (entry == null)
@@ -251,6 +320,18 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     {
         bucket.recordRelease();
 
+        // Do not grow the bucket over its current limit.
+        int maxSize = bucket.getMaxSize();
+        if (maxSize < Integer.MAX_VALUE && bucket.getPool().size() >= maxSize)
+        {
+            bucket.recordNonPooled();
+            // Give a chance to revise the limit, 1% of the times,
+            // as scanning all the buckets is too costly for every release.
+            if (ThreadLocalRandom.current().nextInt(100) == 0)
+                checkMaxMemory(bucket, byteBuffer.isDirect());
+            return;
+        }
+
         // Try to reserve an entry to put the buffer into the pool.
         Pool.Entry<RetainableByteBuffer> entry = bucket.getPool().reserve();
         if (entry == null)
@@ -280,6 +361,10 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         RetainableByteBuffer buffer = entry.getPooled();
         BufferUtil.reset(buffer.getByteBuffer());
 
+        // Keep the entry acquired and cache the buffer in the magazine of this thread, if there is room.
+        if (bucket.offer((Buffer)buffer))
+            return;
+
         // Release the buffer and check the memory 1% of the times.
         int used = ((Buffer)buffer).use();
         if (entry.release())
@@ -303,11 +388,12 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
 
     private void checkMaxMemory(RetainedBucket bucket, boolean direct)
     {
-        long max = direct ? _maxDirectMemory : _maxHeapMemory;
-        if (max <= 0 || !_evictor.compareAndSet(false, true))
+        if (getMaxMemory(direct) <= 0 || !_evictor.compareAndSet(false, true))
             return;
         try
         {
+            rebalance();
+            long max = getMaxMemory(direct);
             long memory = getMemory(direct);
             long excess = memory - max;
             if (excess > 0)
@@ -322,7 +408,23 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         }
     }
 
-    private void evict(long excessMemory, boolean direct)
+    /**
+     * @param direct whether to return the max direct memory or the max heap memory
+     * @return the max memory retained by idle buffers, or -1 for unlimited memory
+     */
+    long getMaxMemory(boolean direct)
+    {
+        return direct ? _maxDirectMemory : _maxHeapMemory;
+    }
+
+    /**
+     * <p>Called, with the eviction lock held, when the retained memory is checked.</p>
+     */
+    void rebalance()
+    {
+    }
+
+    void evict(long excessMemory, boolean direct)
     {
         RetainedBucket[] buckets = direct ? _direct : _indirect;
         int length = buckets.length;
@@ -346,6 +448,11 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         return bucket == null ? null : bucket.getPool();
     }
 
+    RetainedBucket[] getBuckets(boolean direct)
+    {
+        return direct ? _direct : _indirect;
+    }
+
     private RetainedBucket bucketFor(int capacity, boolean direct)
     {
         if (capacity < getMinCapacity())
@@ -390,7 +497,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     private long getAvailableByteBufferCount(boolean direct)
     {
         RetainedBucket[] buckets = direct ? _direct : _indirect;
-        return Arrays.stream(buckets).mapToLong(bucket -> bucket.getPool().getIdleCount()).sum();
+        return Arrays.stream(buckets).mapToLong(bucket -> bucket.getPool().getIdleCount() + bucket.getCachedCount()).sum();
     }
 
     @ManagedAttribute("The bytes retained by direct ByteBuffers")
@@ -409,7 +516,7 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     {
         long size = 0;
         for (RetainedBucket bucket : direct ? _direct : _indirect)
-            size += (long)bucket.getPool().getIdleCount() * bucket.getCapacity();
+            size += (long)(bucket.getPool().getIdleCount() + bucket.getCachedCount()) * bucket.getCapacity();
         return size;
     }
 
@@ -452,12 +559,13 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
     @Override
     public String toString()
     {
-        return String.format("%s{min=%d,max=%d,buckets=%d,heap=%d/%d,direct=%d/%d}",
+        return String.format("%s{min=%d,max=%d,buckets=%d,magazine=%d,heap=%d/%d,direct=%d/%d}",
             super.toString(),
             _minCapacity, _maxCapacity,
             _direct.length,
-            getHeapMemory(), _maxHeapMemory,
-            getDirectMemory(), _maxDirectMemory);
+            _magazineSize,
+            getHeapMemory(), getMaxMemory(false),
+            getDirectMemory(), getMaxMemory(true));
     }
 
     private class RetainedBucket
@@ -470,8 +578,12 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         private final LongAdder _releases = new LongAdder();
         private final Pool<RetainableByteBuffer> _pool;
         private final int _capacity;
+        private final AtomicReferenceArray<Buffer> _magazines;
+        private final int _magazineMask;
+        private final int _magazineSize;
+        private volatile int _maxSize = Integer.MAX_VALUE;
 
-        private RetainedBucket(int capacity, int poolSize)
+        private RetainedBucket(int capacity, int poolSize, int magazines, int magazineSize)
         {
             if (poolSize <= ConcurrentPool.OPTIMAL_MAX_SIZE)
                 _pool = new ConcurrentPool<>(ConcurrentPool.StrategyType.THREAD_ID, poolSize, e -> 1);
@@ -481,6 +593,81 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
                     new QueuedPool<>(poolSize - ConcurrentPool.OPTIMAL_MAX_SIZE)
                 );
             _capacity = capacity;
+            _magazines = magazines == 0 ? null : new AtomicReferenceArray<>(magazines * MAGAZINE_STRIDE);
+            _magazineMask = magazines - 1;
+            _magazineSize = magazineSize;
+        }
+
+        /**
+         * @return the buffer taken from the magazine of the current thread, or null if the magazine is empty
+         */
+        private Buffer take()
+        {
+            if (_magazines == null)
+                return null;
+            int base = magazineIndex();
+            for (int i = base + _magazineSize - 1; i >= base; --i)
+            {
+                if (_magazines.get(i) == null)
+                    continue;
+                Buffer buffer = _magazines.getAndSet(i, null);
+                if (buffer == null)
+                    continue;
+                // The entry may have been removed while the buffer was in the magazine.
+                if (!buffer.isTerminated())
+                    return buffer;
+            }
+            return null;
+        }
+
+        /**
+         * @param buffer the released buffer, whose pool entry is still acquired
+         * @return whether the buffer was cached in the magazine of the current thread
+         */
+        private boolean offer(Buffer buffer)
+        {
+            if (_magazines == null || buffer.isTerminated())
+                return false;
+            int base = magazineIndex();
+            for (int i = base; i < base + _magazineSize; ++i)
+            {
+                if (_magazines.get(i) == null && _magazines.compareAndSet(i, null, buffer))
+                    return true;
+            }
+            return false;
+        }
+
+        private int magazineIndex()
+        {
+            return ((int)Thread.currentThread().getId() & _magazineMask) * MAGAZINE_STRIDE;
+        }
+
+        private int getCachedCount()
+        {
+            if (_magazines == null)
+                return 0;
+            int count = 0;
+            for (int i = 0; i < _magazines.length(); ++i)
+            {
+                if (_magazines.get(i) != null)
+                    ++count;
+            }
+            return count;
+        }
+
+        private Buffer takeAny()
+        {
+            if (_magazines == null)
+                return null;
+            for (int i = 0; i < _magazines.length(); ++i)
+            {
+                if (_magazines.get(i) == null)
+                    continue;
+                Buffer buffer = _magazines.getAndSet(i, null);
+                if (buffer != null)
+                    return buffer;
+            }
+            return null;
         }
 
         public void recordAcquire()
@@ -524,6 +711,19 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             return _capacity;
         }
 
+        /**
+         * @return the current limit of the number of entries of this bucket, that may be lower than the pool max size
+         */
+        private int getMaxSize()
+        {
+            return _maxSize;
+        }
+
+        private void setMaxSize(int maxSize)
+        {
+            _maxSize = maxSize;
+        }
+
         private Pool<RetainableByteBuffer> getPool()
         {
             return _pool;
@@ -538,7 +738,13 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
                 entry = _pool.acquire();
 
             if (entry == null)
-                return 0;
+            {
+                // Evict buffers cached in the magazines only when the pool has no idle entries.
+                Buffer buffer = takeAny();
+                if (buffer == null)
+                    return 0;
+                entry = buffer._entry;
+            }
 
             recordRemove();
             entry.remove();
@@ -554,6 +760,10 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             _evicts.reset();
             _removes.reset();
             _releases.reset();
+            while (takeAny() != null)
+            {
+                // Empty the magazines, the entries are removed below.
+            }
             getPool().stream().forEach(Pool.Entry::remove);
         }
 
@@ -572,11 +782,15 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             long pooled = _pooled.longValue();
             long acquires = _acquires.longValue();
             float hitRatio = acquires == 0 ? Float.NaN : pooled * 100F / acquires;
-            return String.format("%s{capacity=%d,in-use=%d/%d,pooled/acquires=%d/%d(%.3f%%),non-pooled/evicts/removes/releases=%d/%d/%d/%d}",
+            int cached = getCachedCount();
+            int maxSize = getMaxSize();
+            return String.format("%s{capacity=%d,in-use=%d/%d,max=%s,cached=%d,pooled/acquires=%d/%d(%.3f%%),non-pooled/evicts/removes/releases=%d/%d/%d/%d}",
                 super.toString(),
                 getCapacity(),
-                inUse,
+                inUse - cached,
                 entries,
+                maxSize == Integer.MAX_VALUE ? "-" : maxSize,
+                cached,
                 pooled,
                 acquires,
                 hitRatio,
@@ -659,6 +873,11 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
             return ArrayByteBufferPool.this.remove(_bucket, _entry);
         }
 
+        private boolean isTerminated()
+        {
+            return _entry.isTerminated();
+        }
+
         private int use()
         {
             if (++_usages < 0)
@@ -685,6 +904,11 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
         }
 
         public Quadratic(int minCapacity, int maxCapacity, int maxBucketSize, long maxHeapMemory, long maxDirectMemory)
+        {
+            this(minCapacity, maxCapacity, maxBucketSize, maxHeapMemory, maxDirectMemory, 0);
+        }
+
+        public Quadratic(int minCapacity, int maxCapacity, int maxBucketSize, long maxHeapMemory, long maxDirectMemory, int magazineSize)
         {
             super(minCapacity,
                 -1,
@@ -693,11 +917,237 @@ public class ArrayByteBufferPool implements ByteBufferPool, Dumpable
                 maxHeapMemory,
                 maxDirectMemory,
                 c -> 32 - Integer.numberOfLeadingZeros(c - 1),
-                i -> 1 << i
+                i -> 1 << i,
+                magazineSize
             );
         }
     }
 
+    /**
+     * <p>A variant of {@link ArrayByteBufferPool} that adapts, at runtime, the
+     * size of its buckets and its memory budgets to the observed demand.</p>
+     * <p>The bucket statistics are always recorded, and periodically used to estimate
+     * the share of the demand, in bytes, of each bucket. When buffers could not be pooled
+     * or had to be evicted since the previous period, each bucket is limited to its share
+     * of the memory budget, so that buckets with little demand do not retain memory that
+     * is needed by buckets with high demand, and evictions are performed first on buckets
+     * that are over their limit.</p>
+     * <p>When both the max heap memory and the max direct memory are limited, their sum is
+     * the total memory budget, that is split between heap and direct buffers according to
+     * their share of the demand; each of them is guaranteed at least a quarter of its
+     * configured max memory.</p>
+     */
+    @ManagedObject
+    public static class Adaptive extends ArrayByteBufferPool
+    {
+        private static final Logger LOG = LoggerFactory.getLogger(Adaptive.class);
+        private static final long DEFAULT_REBALANCE_PERIOD = 1000;
+        // The weight of the last period in the demand moving average.
+        private static final double ALPHA = 0.5;
+
+        private final long _rebalancePeriod;
+        private final double[] _directShares;
+        private final double[] _indirectShares;
+        private final long[] _directCounters;
+        private final long[] _indirectCounters;
+        private final long _configuredMaxHeapMemory;
+        private final long _configuredMaxDirectMemory;
+        private volatile long _heapBudget;
+        private volatile long _directBudget;
+        private double _directShare = -1;
+        private long _lastRebalance = NanoTime.now();
+
+        public Adaptive()
+        {
+            this(0, -1, -1, 0L, 0L);
+        }
+
+        public Adaptive(int minCapacity, int factor, int maxCapacity, long maxHeapMemory, long maxDirectMemory)
+        {
+            this(minCapacity, factor, maxCapacity, maxHeapMemory, maxDirectMemory, 0, DEFAULT_REBALANCE_PERIOD);
+        }
+
+        /**
+         * Creates a new Adaptive ArrayByteBufferPool with the given configuration.
+         *
+         * @param minCapacity the minimum ByteBuffer capacity
+         * @param factor the capacity factor
+         * @param maxCapacity the maximum ByteBuffer capacity
+         * @param maxHeapMemory the max heap memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+         * @param maxDirectMemory the max direct memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+         * @param magazineSize the maximum number of ByteBuffers cached in each per-thread magazine of each bucket,
+         * or 0 to not use magazines
+         * @param rebalancePeriod the minimum period in milliseconds between two adaptations
+         */
+        public Adaptive(int minCapacity, int factor, int maxCapacity, long maxHeapMemory, long maxDirectMemory, int magazineSize, long rebalancePeriod)
+        {
+            super(minCapacity, factor, maxCapacity, Integer.MAX_VALUE, maxHeapMemory, maxDirectMemory, null, null, magazineSize);
+            _rebalancePeriod = rebalancePeriod;
+            _configuredMaxHeapMemory = super.getMaxMemory(false);
+            _configuredMaxDirectMemory = super.getMaxMemory(true);
+            _heapBudget = _configuredMaxHeapMemory;
+            _directBudget = _configuredMaxDirectMemory;
+            int buckets = getBuckets(true).length;
+            _directShares = new double[buckets];
+            _indirectShares = new double[buckets];
+            _directCounters = new long[3 * buckets];
+            _indirectCounters = new long[3 * buckets];
+        }
+
+        /**
+         * <p>The statistics are always enabled, as they are used to adapt this pool.</p>
+         *
+         * @return true
+         */
+        @Override
+        public boolean isStatisticsEnabled()
+        {
+            return true;
+        }
+
+        @ManagedAttribute("The minimum period in milliseconds between two adaptations")
+        public long getRebalancePeriod()
+        {
+            return _rebalancePeriod;
+        }
+
+        @ManagedAttribute("The current max heap memory, as adapted to the demand")
+        public long getMaxHeapMemory()
+        {
+            return _heapBudget;
+        }
+
+        @ManagedAttribute("The current max direct memory, as adapted to the demand")
+        public long getMaxDirectMemory()
+        {
+            return _directBudget;
+        }
+
+        @Override
+        long getMaxMemory(boolean direct)
+        {
+            return direct ? _directBudget : _heapBudget;
+        }
+
+        @Override
+        void rebalance()
+        {
+            long now = NanoTime.now();
+            if (NanoTime.millisElapsed(_lastRebalance, now) < _rebalancePeriod)
+                return;
+            _lastRebalance = now;
+
+            long heapDemand = updateShares(getBuckets(false), _indirectShares, _indirectCounters);
+            long directDemand = updateShares(getBuckets(true), _directShares, _directCounters);
+            if (heapDemand + directDemand > 0)
+            {
+                double share = (double)directDemand / (heapDemand + directDemand);
+                _directShare = _directShare < 0 ? share : _directShare * (1 - ALPHA) + share * ALPHA;
+            }
+
+            // Without pressure there is no need to limit the buckets.
+            long pressure = updatePressure(getBuckets(false), _indirectCounters) + updatePressure(getBuckets(true), _directCounters);
+            if (pressure == 0)
+                return;
+
+            // Split the total memory budget between heap and direct memory.
+            if (_configuredMaxHeapMemory > 0 && _configuredMaxDirectMemory > 0 && _directShare >= 0)
+            {
+                long total = _configuredMaxHeapMemory + _configuredMaxDirectMemory;
+                long minHeap = _configuredMaxHeapMemory / 4;
+                long minDirect = _configuredMaxDirectMemory / 4;
+                _directBudget = minDirect + (long)((total - minHeap - minDirect) * _directShare);
+                _heapBudget = total - _directBudget;
+            }
+
+            updateMaxSizes(getBuckets(false), _indirectShares, _heapBudget);
+            updateMaxSizes(getBuckets(true), _directShares, _directBudget);
+
+            if (LOG.isDebugEnabled())
+                LOG.debug("Rebalanced {}", this);
+        }
+
+        /**
+         * @return the demand in bytes since the last period
+         */
+        private long updateShares(RetainedBucket[] buckets, double[] shares, long[] counters)
+        {
+            long[] demands = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; ++i)
+            {
+                RetainedBucket bucket = buckets[i];
+                long acquires = bucket._acquires.longValue();
+                // The counters may have been reset by clear().
+                demands[i] = Math.max(0, acquires - counters[3 * i]) * bucket.getCapacity();
+                total += demands[i];
+                counters[3 * i] = acquires;
+            }
+
+            if (total > 0)
+            {
+                // The first demand is not averaged with the initial zero shares.
+                double alpha = Arrays.stream(shares).sum() == 0 ? 1 : ALPHA;
+                for (int i = 0; i < buckets.length; ++i)
+                {
+                    shares[i] = shares[i] * (1 - alpha) + alpha * demands[i] / total;
+                }
+            }
+            return total;
+        }
+
+        /**
+         * @return the number of buffers that could not be pooled or that were evicted since the last period
+         */
+        private long updatePressure(RetainedBucket[] buckets, long[] counters)
+        {
+            long pressure = 0;
+            for (int i = 0; i < buckets.length; ++i)
+            {
+                RetainedBucket bucket = buckets[i];
+                long nonPooled = bucket._nonPooled.longValue();
+                long evicts = bucket._evicts.longValue();
+                pressure += Math.max(0, nonPooled - counters[3 * i + 1]) + Math.max(0, evicts - counters[3 * i + 2]);
+                counters[3 * i + 1] = nonPooled;
+                counters[3 * i + 2] = evicts;
+            }
+            return pressure;
+        }
+
+        private void updateMaxSizes(RetainedBucket[] buckets, double[] shares, long maxMemory)
+        {
+            // Do not limit the buckets before any demand has been observed, or if the memory is not limited.
+            if (maxMemory <= 0 || Arrays.stream(shares).sum() == 0)
+                return;
+            for (int i = 0; i < buckets.length; ++i)
+            {
+                RetainedBucket bucket = buckets[i];
+                double maxSize = Math.ceil(shares[i] * maxMemory / bucket.getCapacity());
+                bucket.setMaxSize((int)Math.max(1, Math.min(Integer.MAX_VALUE - 1, maxSize)));
+            }
+        }
+
+        @Override
+        void evict(long excessMemory, boolean direct)
+        {
+            // First evict from the buckets that are over their limit.
+            for (RetainedBucket bucket : getBuckets(direct))
+            {
+                int excessEntries = bucket.getPool().size() - bucket.getMaxSize();
+                while (excessEntries-- > 0 && excessMemory > 0)
+                {
+                    int evicted = bucket.evict();
+                    if (evicted == 0)
+                        break;
+                    excessMemory -= evicted;
+                }
+                if (excessMemory <= 0)
+                    return;
+            }
+            super.evict(excessMemory, direct);
+        }
+    }
+
     /**
      * <p>A variant of {@link ArrayByteBufferPool} that tracks buffer
      * acquires/releases, useful to identify buffer leaks.</p>
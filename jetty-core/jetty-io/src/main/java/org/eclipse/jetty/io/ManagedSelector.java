@@ -28,7 +28,6 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -38,6 +37,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
@@ -88,6 +88,9 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
     private Deque<SelectorUpdate> _updates = new ArrayDeque<>();
     private Deque<SelectorUpdate> _updateable = new ArrayDeque<>();
     private final SampleStatistic _keyStats = new SampleStatistic();
+    // Only accessed by the selecting thread.
+    private final List<SelectionKey> _selectedKeys = new ArrayList<>();
+    private final Consumer<SelectionKey> _onSelected = _selectedKeys::add;
 
     public ManagedSelector(SelectorManager selectorManager, int id)
     {
@@ -176,9 +179,19 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
         _keyStats.reset();
     }
 
+    /**
+     * <p>Selects the ready keys, collecting them into a reusable list rather than
+     * into the {@link Selector#selectedKeys() selected-key set} of the selector,
+     * which avoids hashing every selected key and allocating an iterator on every select.</p>
+     *
+     * @param selector the selector
+     * @param now whether to select without blocking
+     * @return the number of selected keys
+     * @throws IOException if the selection fails
+     */
     protected int nioSelect(Selector selector, boolean now) throws IOException
     {
-        return now ? selector.selectNow() : selector.select();
+        return now ? selector.selectNow(_onSelected) : selector.select(_onSelected);
     }
 
     protected int select(Selector selector) throws IOException
@@ -216,6 +229,8 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
         if (LOG.isDebugEnabled())
             LOG.debug("", failure);
 
+        // The keys selected so far belong to the failed selector.
+        _selectedKeys.clear();
         Selector newSelector = _selectorManager.newSelector();
         for (SelectionKey oldKey : selector.keys())
         {
@@ -488,7 +503,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
             super.toString(),
             _id,
             selector != null && selector.isOpen() ? selector.keys().size() : -1,
-            selector != null && selector.isOpen() ? selector.selectedKeys().size() : -1,
+            selector != null && selector.isOpen() ? _selectedKeys.size() : -1,
             getActionSize(),
             getSelectCount(),
             getAverageSelectedKeys(),
@@ -527,8 +542,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
 
     private class SelectorProducer implements ExecutionStrategy.Producer
     {
-        private Set<SelectionKey> _keys = Collections.emptySet();
-        private Iterator<SelectionKey> _cursor = Collections.emptyIterator();
+        private int _cursor;
 
         @Override
         public Runnable produce()
@@ -615,7 +629,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
                     if (selector != null)
                     {
                         if (LOG.isDebugEnabled())
-                            LOG.debug("Selector {} woken up from select, {}/{}/{} selected", selector, selected, selector.selectedKeys().size(), selector.keys().size());
+                            LOG.debug("Selector {} woken up from select, {}/{}/{} selected", selector, selected, _selectedKeys.size(), selector.keys().size());
 
                         int updates;
                         try (AutoLock l = _lock.lock())
@@ -625,11 +639,17 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
                             updates = _updates.size();
                         }
 
-                        _keys = selector.selectedKeys();
-                        int selectedKeys = _keys.size();
+                        // Subclasses may select into the selected-key set.
+                        Set<SelectionKey> keys = selector.selectedKeys();
+                        if (!keys.isEmpty())
+                        {
+                            _selectedKeys.addAll(keys);
+                            keys.clear();
+                        }
+                        int selectedKeys = _selectedKeys.size();
                         if (selectedKeys > 0)
                             _keyStats.record(selectedKeys);
-                        _cursor = selectedKeys > 0 ? _keys.iterator() : Collections.emptyIterator();
+                        _cursor = 0;
                         if (LOG.isDebugEnabled())
                             LOG.debug("Selector {} processing {} keys, {} updates", selector, selectedKeys, updates);
 
@@ -660,9 +680,9 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
 
         private Runnable processSelected()
         {
-            while (_cursor.hasNext())
+            while (_cursor < _selectedKeys.size())
             {
-                SelectionKey key = _cursor.next();
+                SelectionKey key = _selectedKeys.get(_cursor++);
                 Object attachment = key.attachment();
                 SelectableChannel channel = key.channel();
                 if (key.isValid())
@@ -714,13 +734,14 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
             // Do update keys for only previously selected keys.
             // This will update only those keys whose selection did not cause an
             // updateKeys update to be submitted.
-            for (SelectionKey key : _keys)
+            for (int i = 0; i < _selectedKeys.size(); ++i)
             {
-                Object attachment = key.attachment();
+                Object attachment = _selectedKeys.get(i).attachment();
                 if (attachment instanceof Selectable)
                     ((Selectable)attachment).updateKey();
             }
-            _keys.clear();
+            _selectedKeys.clear();
+            _cursor = 0;
         }
 
         @Override
@@ -820,7 +841,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
                     channel = _selectorManager.doAccept(_channel);
                     if (channel == null)
                         break;
-                    _selectorManager.accepted(channel);
+                    _selectorManager.accepted(ManagedSelector.this, channel);
                 }
             }
             catch (Throwable x)
@@ -208,7 +208,19 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
      */
     public void accept(SelectableChannel channel, Object attachment)
     {
-        ManagedSelector selector = chooseSelector();
+        accept(chooseSelector(), channel, attachment);
+    }
+
+    /**
+     * <p>Registers a channel to perform non-blocking read/write operations on the given selector.</p>
+     *
+     * @param selector the selector to register the channel with
+     * @param channel the channel to register
+     * @param attachment the attachment object
+     * @see #accept(SelectableChannel, Object)
+     */
+    protected void accept(ManagedSelector selector, SelectableChannel channel, Object attachment)
+    {
         selector.submit(selector.new Accept(channel, attachment));
     }
 
@@ -223,7 +235,28 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
      */
     public Closeable acceptor(SelectableChannel server)
     {
-        ManagedSelector selector = chooseSelector();
+        return acceptor(chooseSelector(), server);
+    }
+
+    /**
+     * <p>Registers a server channel for accept operations on the selector with the given index.</p>
+     * <p>Binding each of several server channels (for example opened with {@code SO_REUSEPORT})
+     * to its own selector allows accepts to proceed in parallel on all the selectors.</p>
+     *
+     * @param server the server channel to register
+     * @param selectorIndex the index of the selector, between 0 and {@link #getSelectorCount()} excluded
+     * @return A Closable that allows the acceptor to be cancelled
+     * @see #acceptor(SelectableChannel)
+     */
+    public Closeable acceptor(SelectableChannel server, int selectorIndex)
+    {
+        if (selectorIndex < 0 || selectorIndex >= _selectors.length)
+            throw new IllegalArgumentException("Invalid selector index " + selectorIndex);
+        return acceptor(_selectors[selectorIndex], server);
+    }
+
+    private Closeable acceptor(ManagedSelector selector, SelectableChannel server)
+    {
         ManagedSelector.Acceptor acceptor = selector.new Acceptor(server);
         selector.submit(acceptor);
         return acceptor;
@@ -243,6 +276,21 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * <p>Callback method when a channel is accepted from a server channel
+     * registered with the given selector.</p>
+     * <p>The default implementation calls {@link #accepted(SelectableChannel)}.</p>
+     *
+     * @param selector the selector the server channel is registered with
+     * @param channel the accepted channel
+     * @throws IOException if unable to accept channel
+     * @see #accept(ManagedSelector, SelectableChannel, Object)
+     */
+    protected void accepted(ManagedSelector selector, SelectableChannel channel) throws IOException
+    {
+        accepted(channel);
+    }
+
     @Override
     protected void doStart() throws Exception
     {
@@ -0,0 +1,66 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io.ssl;
+
+import java.io.IOException;
+import javax.net.ssl.SSLEngine;
+
+import org.eclipse.jetty.io.EndPoint;
+
+/**
+ * <p>Offloads the TLS record protection of a connection to the operating system
+ * kernel, for example Linux kernel TLS (kTLS).</p>
+ * <p>Once the TLS handshake performed by the {@link SSLEngine} has completed, and
+ * there are no buffered encrypted bytes, {@link SslConnection} calls
+ * {@link #offload(SSLEngine, EndPoint)} once.
+ * If the offload succeeds, the negotiated traffic keys have been installed into
+ * the kernel (for example via {@code setsockopt(SOL_TLS, TLS_TX/TLS_RX)}) and
+ * {@link SslConnection} stops encrypting and decrypting: application bytes are
+ * read from and written to the network {@link EndPoint} as they are, so that
+ * the kernel encrypts and decrypts them.</p>
+ * <p>The standard {@link SSLEngine} API does not expose the traffic keys nor the
+ * record sequence numbers, so implementations depend on a specific TLS provider
+ * and on native access to the socket; they must return {@code false} when they
+ * cannot offload a connection, in which case {@link SslConnection} continues to
+ * use the {@link SSLEngine}.</p>
+ * <p>After the offload, TLS control messages such as TLS 1.3 {@code KeyUpdate} or
+ * {@code NewSessionTicket} are not processed by the {@link SSLEngine} anymore,
+ * and must be handled by the implementation.</p>
+ */
+public interface KernelTlsOffload
+{
+    /**
+     * <p>Installs the traffic keys negotiated by the given {@link SSLEngine}
+     * into the kernel for the socket of the given {@link EndPoint}.</p>
+     *
+     * @param sslEngine the {@link SSLEngine} that completed the TLS handshake
+     * @param endPoint the network {@link EndPoint}
+     * @return whether the connection has been offloaded
+     * @throws IOException if the offload failed after the socket has been modified,
+     * in which case the connection is closed
+     */
+    boolean offload(SSLEngine sslEngine, EndPoint endPoint) throws IOException;
+
+    /**
+     * <p>Shuts down the output of an offloaded connection.</p>
+     * <p>Implementations should send the TLS {@code close_notify} alert
+     * before shutting down the output of the given {@link EndPoint}.</p>
+     *
+     * @param endPoint the network {@link EndPoint}
+     */
+    default void shutdownOutput(EndPoint endPoint)
+    {
+        endPoint.shutdownOutput();
+    }
+}
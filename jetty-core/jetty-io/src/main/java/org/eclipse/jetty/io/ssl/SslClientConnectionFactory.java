@@ -46,6 +46,9 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
     private boolean _directBuffersForEncryption = true;
     private boolean _directBuffersForDecryption = true;
     private boolean _requireCloseMessage;
+    private int _maxOutputRecords = 2;
+    private KernelTlsOffload _kernelTlsOffload;
+    private SslHandshakeExecutor _handshakeExecutor;
 
     public SslClientConnectionFactory(SslContextFactory.Client sslContextFactory, ByteBufferPool byteBufferPool, Executor executor, ClientConnectionFactory connectionFactory)
     {
@@ -113,6 +116,60 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
         _requireCloseMessage = requireCloseMessage;
     }
 
+    /**
+     * @return the max number of TLS records that are wrapped before writing them to the network
+     * @see SslConnection#getMaxOutputRecords()
+     */
+    public int getMaxOutputRecords()
+    {
+        return _maxOutputRecords;
+    }
+
+    /**
+     * @param maxOutputRecords the max number of TLS records that are wrapped before writing them to the network
+     * @see SslConnection#setMaxOutputRecords(int)
+     */
+    public void setMaxOutputRecords(int maxOutputRecords)
+    {
+        _maxOutputRecords = maxOutputRecords;
+    }
+
+    /**
+     * @return the {@link SslHandshakeExecutor} set on the TLS connections, or {@code null}
+     * @see SslConnection#getHandshakeExecutor()
+     */
+    public SslHandshakeExecutor getHandshakeExecutor()
+    {
+        return _handshakeExecutor;
+    }
+
+    /**
+     * @param handshakeExecutor the {@link SslHandshakeExecutor} to set on the TLS connections, or {@code null}
+     * @see SslConnection#setHandshakeExecutor(SslHandshakeExecutor)
+     */
+    public void setHandshakeExecutor(SslHandshakeExecutor handshakeExecutor)
+    {
+        _handshakeExecutor = handshakeExecutor;
+    }
+
+    /**
+     * @return the {@link KernelTlsOffload} set on the TLS connections, or {@code null}
+     * @see SslConnection#getKernelTlsOffload()
+     */
+    public KernelTlsOffload getKernelTlsOffload()
+    {
+        return _kernelTlsOffload;
+    }
+
+    /**
+     * @param kernelTlsOffload the {@link KernelTlsOffload} to set on the TLS connections, or {@code null}
+     * @see SslConnection#setKernelTlsOffload(KernelTlsOffload)
+     */
+    public void setKernelTlsOffload(KernelTlsOffload kernelTlsOffload)
+    {
+        _kernelTlsOffload = kernelTlsOffload;
+    }
+
     @Override
     public org.eclipse.jetty.io.Connection newConnection(EndPoint endPoint, Map<String, Object> context) throws IOException
     {
@@ -159,6 +216,9 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
             sslConnection.setRenegotiationAllowed(_sslContextFactory.isRenegotiationAllowed());
             sslConnection.setRenegotiationLimit(_sslContextFactory.getRenegotiationLimit());
             sslConnection.setRequireCloseMessage(isRequireCloseMessage());
+            sslConnection.setMaxOutputRecords(getMaxOutputRecords());
+            sslConnection.setKernelTlsOffload(getKernelTlsOffload());
+            sslConnection.setHandshakeExecutor(getHandshakeExecutor());
             ContainerLifeCycle client = (ContainerLifeCycle)context.get(ClientConnectionFactory.CLIENT_CONTEXT_KEY);
             if (client != null)
                 client.getBeans(SslHandshakeListener.class).forEach(sslConnection::addHandshakeListener);
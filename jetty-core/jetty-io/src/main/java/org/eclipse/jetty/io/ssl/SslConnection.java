@@ -20,6 +20,7 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -43,6 +44,7 @@ import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.ExceptionUtil;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.NanoTime;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.AutoLock;
@@ -125,6 +127,13 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private int _renegotiationLimit = -1;
     private boolean _closedOutbound;
     private boolean _requireCloseMessage;
+    private int _maxOutputRecords = 2;
+    private KernelTlsOffload _kernelTlsOffload;
+    private boolean _offloadAttempted;
+    private boolean _offloaded;
+    private ByteBuffer[] _offloadedOutput;
+    private SslHandshakeExecutor _handshakeExecutor;
+    private final long _createdNanoTime = NanoTime.now();
     private FlushState _flushState = FlushState.IDLE;
     private FillState _fillState = FillState.IDLE;
     private boolean _underflown;
@@ -142,6 +151,20 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             return _sslEndPoint.getFillInterest().getCallbackInvocationType();
         }
     };
+    private final Runnable _runHandshakeFillable = new RunnableTask("runHandshakeFillable")
+    {
+        @Override
+        public void run()
+        {
+            fillable();
+        }
+
+        @Override
+        public InvocationType getInvocationType()
+        {
+            return InvocationType.BLOCKING;
+        }
+    };
     private final Callback _sslReadCallback = new Callback()
     {
         @Override
@@ -288,6 +311,85 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
         _requireCloseMessage = requireCloseMessage;
     }
 
+    /**
+     * @return the max number of TLS records that are wrapped before writing them to the network
+     */
+    public int getMaxOutputRecords()
+    {
+        return _maxOutputRecords;
+    }
+
+    /**
+     * <p>Sets the max number of TLS records that are wrapped before writing them to the network.</p>
+     * <p>When the application writes more bytes than fit in a single TLS record, the records
+     * are wrapped one after the other into the same encrypted output buffer, and written to
+     * the network with a single write, rather than with one write per record.
+     * The encrypted output buffer is acquired from the {@link ByteBufferPool} with a capacity
+     * of {@code maxOutputRecords} times the TLS packet size, so large values may exceed the
+     * max capacity of the pool.</p>
+     *
+     * @param maxOutputRecords the max number of TLS records that are wrapped before writing them to the network
+     */
+    public void setMaxOutputRecords(int maxOutputRecords)
+    {
+        if (maxOutputRecords < 1)
+            throw new IllegalArgumentException("Invalid max output records " + maxOutputRecords);
+        _maxOutputRecords = maxOutputRecords;
+    }
+
+    /**
+     * @return the {@link SslHandshakeExecutor} that processes the TLS handshake, or {@code null}
+     */
+    public SslHandshakeExecutor getHandshakeExecutor()
+    {
+        return _handshakeExecutor;
+    }
+
+    /**
+     * <p>Sets the {@link SslHandshakeExecutor} that processes the network reads
+     * of this connection until the TLS handshake is complete, bounding the
+     * number of TLS handshakes that are processed concurrently.</p>
+     *
+     * @param handshakeExecutor the {@link SslHandshakeExecutor}, or {@code null}
+     * to process the TLS handshake like the rest of the connection
+     */
+    public void setHandshakeExecutor(SslHandshakeExecutor handshakeExecutor)
+    {
+        _handshakeExecutor = handshakeExecutor;
+    }
+
+    /**
+     * @return the {@link KernelTlsOffload} used to offload the TLS record protection
+     * to the kernel once the TLS handshake is complete, or {@code null}
+     */
+    public KernelTlsOffload getKernelTlsOffload()
+    {
+        return _kernelTlsOffload;
+    }
+
+    /**
+     * <p>Sets the {@link KernelTlsOffload} used to offload the TLS record protection
+     * to the kernel once the TLS handshake is complete.</p>
+     *
+     * @param kernelTlsOffload the {@link KernelTlsOffload}, or {@code null} to always use the {@link SSLEngine}
+     */
+    public void setKernelTlsOffload(KernelTlsOffload kernelTlsOffload)
+    {
+        _kernelTlsOffload = kernelTlsOffload;
+    }
+
+    /**
+     * @return whether the TLS record protection has been offloaded to the kernel
+     * @see #setKernelTlsOffload(KernelTlsOffload)
+     */
+    public boolean isOffloaded()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _offloaded;
+        }
+    }
+
     private boolean isHandshakeInitial()
     {
         return _handshake.get() == HandshakeState.INITIAL;
@@ -335,7 +437,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     {
         // TODO: before the output was done with the BBP only.
         if (_encryptedOutput == null)
-            _encryptedOutput = _bufferPool.acquire(getPacketBufferSize(), _encryptedDirectBuffers);
+            _encryptedOutput = _bufferPool.acquire(getPacketBufferSize() * _maxOutputRecords, _encryptedDirectBuffers);
     }
 
     @Override
@@ -373,6 +475,20 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
 
     @Override
     public void onFillable()
+    {
+        SslHandshakeExecutor handshakeExecutor = _handshakeExecutor;
+        if (handshakeExecutor != null && !isHandshakeComplete())
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("c.onFillable dispatch handshake to {} {}", handshakeExecutor, SslConnection.this);
+            if (!handshakeExecutor.offer(_runHandshakeFillable))
+                getEndPoint().close(new RejectedExecutionException("TLS handshake rejected by " + handshakeExecutor));
+            return;
+        }
+        fillable();
+    }
+
+    private void fillable()
     {
         // onFillable means that there are encrypted bytes ready to be filled.
         // however we do not fill them here on this callback, but instead wakeup
@@ -657,6 +773,9 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                         if (_decryptedInput != null && _decryptedInput.hasRemaining())
                             return filled = BufferUtil.append(buffer, _decryptedInput.getByteBuffer());
 
+                        if (_offloaded)
+                            return filled = offloadedFill(buffer);
+
                         // loop filling and unwrapping until we have something
                         while (true)
                         {
@@ -666,7 +785,11 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                             switch (status)
                             {
                                 case NEED_UNWRAP:
+                                    break;
+
                                 case NOT_HANDSHAKING:
+                                    if (offload())
+                                        return filled = offloadedFill(buffer);
                                     break;
 
                                 case NEED_TASK:
@@ -962,6 +1085,10 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                     LOG.debug("handshake succeeded {} {} {}/{}", SslConnection.this,
                         _sslEngine.getUseClientMode() ? "client" : "resumed server",
                         _sslEngine.getSession().getProtocol(), _sslEngine.getSession().getCipherSuite());
+                if (_sslContextFactory != null)
+                    _sslContextFactory.onHandshakeSucceeded(_sslEngine.getSession(), getCreatedTimeStamp());
+                if (_handshakeExecutor != null)
+                    _handshakeExecutor.onHandshakeComplete(NanoTime.since(_createdNanoTime), true);
                 notifyHandshakeSucceeded(_sslEngine);
             }
             else if (isHandshakeSucceeded())
@@ -971,6 +1098,53 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             }
         }
 
+        private boolean offload() throws IOException
+        {
+            KernelTlsOffload kernelTlsOffload = _kernelTlsOffload;
+            if (kernelTlsOffload == null || _offloadAttempted || !isHandshakeSucceeded())
+                return false;
+
+            // Encrypted bytes that have already been read or produced
+            // must be processed by the SSLEngine before offloading.
+            if (_encryptedInput != null && _encryptedInput.hasRemaining())
+                return false;
+            if (_encryptedOutput != null && _encryptedOutput.hasRemaining())
+                return false;
+            if (isInboundDone() || isOutboundDone())
+                return false;
+
+            _offloadAttempted = true;
+            _offloaded = kernelTlsOffload.offload(_sslEngine, getEndPoint());
+            if (LOG.isDebugEnabled())
+                LOG.debug("offload {} {} {}", _offloaded, kernelTlsOffload, SslConnection.this);
+            if (_offloaded)
+            {
+                releaseEmptyEncryptedInputBuffer();
+                releaseEmptyEncryptedOutputBuffer();
+            }
+            return _offloaded;
+        }
+
+        private int offloadedFill(ByteBuffer buffer) throws IOException
+        {
+            int filled = getEndPoint().fill(buffer);
+            if (filled > 0)
+                _bytesIn.addAndGet(filled);
+            return filled;
+        }
+
+        private boolean offloadedFlush(ByteBuffer[] appOuts) throws IOException
+        {
+            long remaining = BufferUtil.remaining(appOuts);
+            boolean flushed = getEndPoint().flush(appOuts);
+            long written = remaining - BufferUtil.remaining(appOuts);
+            if (written > 0)
+                _bytesOut.addAndGet(written);
+            // Remember the application bytes to write them from onIncompleteFlush().
+            _offloadedOutput = flushed ? null : appOuts;
+            return flushed;
+        }
+
         private Throwable handshakeFailed(Throwable failure)
         {
             if (_handshake.compareAndSet(HandshakeState.HANDSHAKE, HandshakeState.FAILED))
@@ -979,6 +1153,8 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                     LOG.debug("handshake failed {} {}", SslConnection.this, failure);
                 if (!(failure instanceof SSLHandshakeException))
                     failure = new SSLHandshakeException(failure.getMessage()).initCause(failure);
+                if (_handshakeExecutor != null)
+                    _handshakeExecutor.onHandshakeComplete(NanoTime.since(_createdNanoTime), false);
                 notifyHandshakeFailed(_sslEngine, failure);
             }
             return failure;
@@ -1058,6 +1234,9 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                         if (_flushState != FlushState.IDLE)
                             return result = false;
 
+                        if (_offloaded)
+                            return result = offloadedFlush(appOuts);
+
                         // Keep going while we can make progress or until we are done
                         while (true)
                         {
@@ -1067,7 +1246,11 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                             switch (status)
                             {
                                 case NEED_WRAP:
+                                    break;
+
                                 case NOT_HANDSHAKING:
+                                    if (offload())
+                                        return result = offloadedFlush(appOuts);
                                     break;
 
                                 case NEED_TASK:
@@ -1125,6 +1308,15 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                             // Was all the data consumed?
                             isEmpty = BufferUtil.isEmpty(appOuts);
 
+                            // If there is more application data and room for another
+                            // record, wrap it so that the records are written together.
+                            if (!isEmpty &&
+                                wrapResult.getStatus() == Status.OK &&
+                                wrapResult.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING &&
+                                wrapResult.bytesConsumed() > 0 &&
+                                encryptedOutputBuffer.capacity() - encryptedOutputBuffer.limit() >= packetBufferSize)
+                                continue;
+
                             // if we have net bytes, let's try to flush them
                             boolean flushed = true;
                             int remaining = encryptedOutputBuffer.remaining();
@@ -1230,6 +1422,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             {
                 boolean fillInterest = false;
                 ByteBuffer write = null;
+                ByteBuffer[] offloadedOutput = null;
                 try (AutoLock l = _lock.lock())
                 {
                     if (LOG.isDebugEnabled())
@@ -1238,71 +1431,85 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                     if (_flushState != FlushState.IDLE)
                         return;
 
-                    while (true)
+                    if (_offloaded)
                     {
-                        HandshakeStatus status = _sslEngine.getHandshakeStatus();
-                        switch (status)
+                        // Write the application bytes that could not be flushed.
+                        offloadedOutput = _offloadedOutput;
+                        _offloadedOutput = null;
+                        if (offloadedOutput == null)
+                            write = BufferUtil.EMPTY_BUFFER;
+                        _flushState = FlushState.WRITING;
+                    }
+                    else
+                    {
+                        while (true)
                         {
-                            case NEED_TASK:
-                            case NEED_WRAP:
-                            case NOT_HANDSHAKING:
-                                // write what we have or an empty buffer to reschedule a call to flush
-                                write = (_encryptedOutput != null && _encryptedOutput.hasRemaining()) ? _encryptedOutput.getByteBuffer() : BufferUtil.EMPTY_BUFFER;
-                                _flushState = FlushState.WRITING;
-                                break;
-
-                            case NEED_UNWRAP:
-                                // If we have something to write, then write it and ignore the needed unwrap for now.
-                                if (_encryptedOutput != null && _encryptedOutput.hasRemaining())
-                                {
-                                    write = _encryptedOutput.getByteBuffer();
+                            HandshakeStatus status = _sslEngine.getHandshakeStatus();
+                            switch (status)
+                            {
+                                case NEED_TASK:
+                                case NEED_WRAP:
+                                case NOT_HANDSHAKING:
+                                    // write what we have or an empty buffer to reschedule a call to flush
+                                    write = (_encryptedOutput != null && _encryptedOutput.hasRemaining()) ? _encryptedOutput.getByteBuffer() : BufferUtil.EMPTY_BUFFER;
                                     _flushState = FlushState.WRITING;
                                     break;
-                                }
 
-                                if (_fillState != FillState.IDLE)
-                                {
-                                    // Wait for a fill that is happening anyway
-                                    _flushState = FlushState.WAIT_FOR_FILL;
-                                    break;
-                                }
+                                case NEED_UNWRAP:
+                                    // If we have something to write, then write it and ignore the needed unwrap for now.
+                                    if (_encryptedOutput != null && _encryptedOutput.hasRemaining())
+                                    {
+                                        write = _encryptedOutput.getByteBuffer();
+                                        _flushState = FlushState.WRITING;
+                                        break;
+                                    }
 
-                                // Try filling ourselves
-                                try
-                                {
-                                    int filled = fill(BufferUtil.EMPTY_BUFFER);
-                                    // If this changed the status, let's try again
-                                    if (_sslEngine.getHandshakeStatus() != status)
-                                        continue;
-                                    if (filled < 0)
-                                        throw new IOException("Broken pipe");
-                                }
-                                catch (IOException e)
-                                {
-                                    LOG.debug("Incomplete flush?", e);
-                                    close(e);
-                                    write = BufferUtil.EMPTY_BUFFER;
-                                    _flushState = FlushState.WRITING;
-                                    break;
-                                }
+                                    if (_fillState != FillState.IDLE)
+                                    {
+                                        // Wait for a fill that is happening anyway
+                                        _flushState = FlushState.WAIT_FOR_FILL;
+                                        break;
+                                    }
 
-                                // Make sure we are fill interested.
-                                fillInterest = true;
-                                _fillState = FillState.INTERESTED;
-                                _flushState = FlushState.WAIT_FOR_FILL;
-                                break;
+                                    // Try filling ourselves
+                                    try
+                                    {
+                                        int filled = fill(BufferUtil.EMPTY_BUFFER);
+                                        // If this changed the status, let's try again
+                                        if (_sslEngine.getHandshakeStatus() != status)
+                                            continue;
+                                        if (filled < 0)
+                                            throw new IOException("Broken pipe");
+                                    }
+                                    catch (IOException e)
+                                    {
+                                        LOG.debug("Incomplete flush?", e);
+                                        close(e);
+                                        write = BufferUtil.EMPTY_BUFFER;
+                                        _flushState = FlushState.WRITING;
+                                        break;
+                                    }
 
-                            default:
-                                throw new IllegalStateException("Unexpected HandshakeStatus " + status);
+                                    // Make sure we are fill interested.
+                                    fillInterest = true;
+                                    _fillState = FillState.INTERESTED;
+                                    _flushState = FlushState.WAIT_FOR_FILL;
+                                    break;
+
+                                default:
+                                    throw new IllegalStateException("Unexpected HandshakeStatus " + status);
+                            }
+                            break;
                         }
-                        break;
                     }
 
                     if (LOG.isDebugEnabled())
                         LOG.debug("<onIncompleteFlush s={}/{} fi={} w={}", _flushState, _fillState, fillInterest, BufferUtil.toDetailString(write));
                 }
 
-                if (write != null)
+                if (offloadedOutput != null)
+                    getEndPoint().write(_incompleteWriteCallback, offloadedOutput);
+                else if (write != null)
                     getEndPoint().write(_incompleteWriteCallback, write);
                 else if (fillInterest)
                     ensureFillInterested();
@@ -1328,6 +1535,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             try
             {
                 boolean flush = false;
+                boolean offloaded;
                 try (AutoLock l = _lock.lock())
                 {
                     boolean ishut = endPoint.isInputShutdown();
@@ -1335,7 +1543,9 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                     if (LOG.isDebugEnabled())
                         LOG.debug("shutdownOutput: {} oshut={}, ishut={}", SslConnection.this, oshut, ishut);
 
-                    closeOutbound();
+                    offloaded = _offloaded;
+                    if (!offloaded)
+                        closeOutbound();
 
                     if (!_closedOutbound)
                     {
@@ -1348,7 +1558,13 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                         close = ishut;
                 }
 
-                if (flush)
+                if (offloaded)
+                {
+                    // The kernel sends the TLS Close Alert.
+                    if (flush)
+                        _kernelTlsOffload.shutdownOutput(endPoint);
+                }
+                else if (flush)
                 {
                     if (!flush(BufferUtil.EMPTY_BUFFER) && !close)
                     {
@@ -0,0 +1,354 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io.ssl;
+
+import java.util.ArrayDeque;
+import java.util.EventListener;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.statistic.CounterStatistic;
+import org.eclipse.jetty.util.statistic.SampleStatistic;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Executes the TLS handshake work of {@link SslConnection}s with bounded concurrency.</p>
+ * <p>The TLS handshake is CPU intensive (certificate signatures, key exchange), so a burst
+ * of new TLS connections may occupy all the threads of the thread pool, starving the
+ * requests of the established connections.
+ * When a {@link SslConnection} is configured with a {@link SslHandshakeExecutor}, it
+ * dispatches the processing of the network reads to this executor until the TLS handshake
+ * is complete, so that at most {@link #getMaxConcurrency() maxConcurrency} TLS handshakes
+ * are processed concurrently, while other TLS handshakes wait in a queue.</p>
+ * <p>When the queue is full, new TLS handshakes are rejected and their connections closed,
+ * and the {@link Listener}s are notified, so that for example the server may stop accepting
+ * connections until the queue drains to half of its capacity.</p>
+ */
+@ManagedObject("Executes TLS handshakes with bounded concurrency")
+public class SslHandshakeExecutor implements Executor
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SslHandshakeExecutor.class);
+
+    private final AutoLock _lock = new AutoLock();
+    private final Queue<Runnable> _queue = new ArrayDeque<>();
+    private final List<Listener> _listeners = new CopyOnWriteArrayList<>();
+    private final CounterStatistic _queueSize = new CounterStatistic();
+    private final SampleStatistic _latency = new SampleStatistic();
+    private final LongAdder _rejected = new LongAdder();
+    private final LongAdder _failed = new LongAdder();
+    private final Executor _executor;
+    private final int _maxConcurrency;
+    private final int _maxQueueSize;
+    private int _active;
+    private boolean _full;
+
+    /**
+     * @param executor the executor that runs the TLS handshake work, typically the thread pool
+     * @param maxConcurrency the max number of TLS handshakes processed concurrently
+     * @param maxQueueSize the max number of TLS handshakes waiting to be processed
+     */
+    public SslHandshakeExecutor(Executor executor, int maxConcurrency, int maxQueueSize)
+    {
+        if (maxConcurrency <= 0)
+            throw new IllegalArgumentException("Invalid max concurrency " + maxConcurrency);
+        if (maxQueueSize < 0)
+            throw new IllegalArgumentException("Invalid max queue size " + maxQueueSize);
+        _executor = executor;
+        _maxConcurrency = maxConcurrency;
+        _maxQueueSize = maxQueueSize;
+    }
+
+    public Executor getExecutor()
+    {
+        return _executor;
+    }
+
+    @ManagedAttribute("The max number of TLS handshakes processed concurrently")
+    public int getMaxConcurrency()
+    {
+        return _maxConcurrency;
+    }
+
+    @ManagedAttribute("The max number of TLS handshakes waiting to be processed")
+    public int getMaxQueueSize()
+    {
+        return _maxQueueSize;
+    }
+
+    @ManagedAttribute("The number of TLS handshakes being processed")
+    public int getActive()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _active;
+        }
+    }
+
+    @ManagedAttribute("The number of TLS handshakes waiting to be processed")
+    public long getQueueSize()
+    {
+        return _queueSize.getCurrent();
+    }
+
+    @ManagedAttribute("The max number of TLS handshakes that waited to be processed")
+    public long getQueueSizeMax()
+    {
+        return _queueSize.getMax();
+    }
+
+    @ManagedAttribute("The number of TLS handshakes rejected because the queue was full")
+    public long getRejected()
+    {
+        return _rejected.sum();
+    }
+
+    @ManagedAttribute("The number of completed TLS handshakes")
+    public long getHandshakes()
+    {
+        return _latency.getCount();
+    }
+
+    @ManagedAttribute("The number of failed TLS handshakes")
+    public long getFailedHandshakes()
+    {
+        return _failed.sum();
+    }
+
+    @ManagedAttribute("The mean TLS handshake latency, in milliseconds")
+    public double getHandshakeLatencyMean()
+    {
+        return _latency.getMean() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @ManagedAttribute("The max TLS handshake latency, in milliseconds")
+    public long getHandshakeLatencyMax()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(_latency.getMax());
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _queueSize.reset(getQueueSize());
+        _latency.reset();
+        _rejected.reset();
+        _failed.reset();
+    }
+
+    /**
+     * @param listener the listener to add, unless an equal listener is already present
+     * @return whether the listener was added
+     */
+    public boolean addListener(Listener listener)
+    {
+        return ((CopyOnWriteArrayList<Listener>)_listeners).addIfAbsent(listener);
+    }
+
+    public boolean removeListener(Listener listener)
+    {
+        return _listeners.remove(listener);
+    }
+
+    /**
+     * <p>Executes the given TLS handshake work, or queues it if
+     * {@link #getMaxConcurrency() maxConcurrency} handshakes are already being processed.</p>
+     *
+     * @param task the TLS handshake work
+     * @throws RejectedExecutionException if the queue is full
+     */
+    @Override
+    public void execute(Runnable task)
+    {
+        if (!offer(task))
+            throw new RejectedExecutionException("TLS handshake queue full " + this);
+    }
+
+    /**
+     * <p>Executes the given TLS handshake work, or queues it if
+     * {@link #getMaxConcurrency() maxConcurrency} handshakes are already being processed.</p>
+     *
+     * @param task the TLS handshake work
+     * @return false if the queue is full and the task has been rejected
+     */
+    public boolean offer(Runnable task)
+    {
+        boolean dispatch = false;
+        boolean notify = false;
+        try (AutoLock l = _lock.lock())
+        {
+            if (_active < _maxConcurrency)
+            {
+                ++_active;
+                dispatch = true;
+            }
+            else if (_queue.size() < _maxQueueSize)
+            {
+                _queue.offer(task);
+                _queueSize.increment();
+                return true;
+            }
+            else
+            {
+                _rejected.increment();
+                notify = !_full;
+                _full = true;
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Rejected {} in {}", task, this);
+            }
+        }
+
+        if (!dispatch)
+        {
+            if (notify)
+                notifyQueueFull();
+            return false;
+        }
+
+        try
+        {
+            _executor.execute(() -> run(task));
+            return true;
+        }
+        catch (Throwable x)
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                --_active;
+            }
+            _rejected.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not execute {} in {}", task, this, x);
+            return false;
+        }
+    }
+
+    private void run(Runnable task)
+    {
+        while (task != null)
+        {
+            try
+            {
+                task.run();
+            }
+            catch (Throwable x)
+            {
+                LOG.warn("Failed TLS handshake task {}", task, x);
+            }
+
+            boolean available = false;
+            try (AutoLock l = _lock.lock())
+            {
+                task = _queue.poll();
+                if (task == null)
+                    --_active;
+                else
+                    _queueSize.decrement();
+                if (_full && _queue.size() <= _maxQueueSize / 2)
+                {
+                    _full = false;
+                    available = true;
+                }
+            }
+            if (available)
+                notifyQueueAvailable();
+        }
+    }
+
+    /**
+     * <p>Records the completion of a TLS handshake.</p>
+     *
+     * @param latency the TLS handshake latency, in nanoseconds
+     * @param succeeded whether the TLS handshake succeeded
+     */
+    void onHandshakeComplete(long latency, boolean succeeded)
+    {
+        if (succeeded)
+            _latency.record(latency);
+        else
+            _failed.increment();
+    }
+
+    private void notifyQueueFull()
+    {
+        for (Listener listener : _listeners)
+        {
+            try
+            {
+                listener.onQueueFull(this);
+            }
+            catch (Throwable x)
+            {
+                LOG.info("Failure while notifying listener {}", listener, x);
+            }
+        }
+    }
+
+    private void notifyQueueAvailable()
+    {
+        for (Listener listener : _listeners)
+        {
+            try
+            {
+                listener.onQueueAvailable(this);
+            }
+            catch (Throwable x)
+            {
+                LOG.info("Failure while notifying listener {}", listener, x);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return String.format("%s@%x[active=%d/%d,queued=%d/%d]", getClass().getSimpleName(), hashCode(), _active, _maxConcurrency, _queue.size(), _maxQueueSize);
+        }
+    }
+
+    /**
+     * <p>A listener for the queue of {@link SslHandshakeExecutor}.</p>
+     */
+    public interface Listener extends EventListener
+    {
+        /**
+         * <p>Invoked when a TLS handshake is rejected because the queue is full.</p>
+         *
+         * @param executor the {@link SslHandshakeExecutor}
+         */
+        default void onQueueFull(SslHandshakeExecutor executor)
+        {
+        }
+
+        /**
+         * <p>Invoked when the queue, after being full, drained to half of its capacity.</p>
+         *
+         * @param executor the {@link SslHandshakeExecutor}
+         */
+        default void onQueueAvailable(SslHandshakeExecutor executor)
+        {
+        }
+    }
+}
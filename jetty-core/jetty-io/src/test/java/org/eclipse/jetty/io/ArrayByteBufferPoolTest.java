@@ -26,8 +26,10 @@ import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
@@ -484,4 +486,155 @@ public class ArrayByteBufferPoolTest
         assertTrue(retained0.release());
         assertThat(pool.getHeapByteBufferCount(), is(3L));
     }
+
+    @Test
+    public void testMagazineCachesReleasedBuffers()
+    {
+        ArrayByteBufferPool pool = new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE, -1, -1, 2);
+        assertThat(pool.getMagazineSize(), is(2));
+
+        // The first buffers are reserved, and enter the bucket pool when released.
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            buffers.add(pool.acquire(10, true));
+        buffers.forEach(RetainableByteBuffer::release);
+        assertThat(pool.getDirectByteBufferCount(), is(4L));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(4L));
+        assertThat(pool.getDirectMemory(), is(40L));
+
+        // Released pooled buffers are cached in the magazine of this thread,
+        // and acquired again from the magazine.
+        RetainableByteBuffer buffer1 = pool.acquire(10, true);
+        RetainableByteBuffer buffer2 = pool.acquire(10, true);
+        buffer1.release();
+        buffer2.release();
+        assertThat(pool.getDirectByteBufferCount(), is(4L));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(4L));
+        assertThat(pool.getDirectMemory(), is(40L));
+        assertThat(pool.acquire(10, true), sameInstance(buffer2));
+        assertThat(pool.acquire(10, true), sameInstance(buffer1));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(2L));
+
+        // When the magazine is full, the buffers are released to the bucket pool.
+        buffers.clear();
+        for (int i = 0; i < 2; i++)
+            buffers.add(pool.acquire(10, true));
+        buffers.forEach(RetainableByteBuffer::release);
+        buffer1.release();
+        buffer2.release();
+        assertThat(pool.getDirectByteBufferCount(), is(4L));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(4L));
+
+        pool.clear();
+        assertThat(pool.getDirectByteBufferCount(), is(0L));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(0L));
+        assertThat(pool.getDirectMemory(), is(0L));
+        assertThat(pool.acquire(10, true), not(sameInstance(buffer1)));
+    }
+
+    @Test
+    public void testMagazineMaxMemoryEviction()
+    {
+        ArrayByteBufferPool pool = new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE, 40, 40, 4);
+
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+            buffers.add(pool.acquire(10, true));
+        buffers.forEach(RetainableByteBuffer::release);
+        assertThat(pool.getDirectMemory(), lessThan(60L));
+
+        // Cycle the buffers through the magazine, the memory must stay bounded.
+        for (int c = 0; c < 10; c++)
+        {
+            buffers.clear();
+            for (int i = 0; i < 10; i++)
+                buffers.add(pool.acquire(10, true));
+            buffers.forEach(RetainableByteBuffer::release);
+            assertThat(pool.getDirectMemory(), lessThan(60L));
+        }
+    }
+
+    @Test
+    public void testMagazineRemoveAndRelease()
+    {
+        ArrayByteBufferPool pool = new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE, -1, -1, 2);
+
+        pool.acquire(10, false).release();
+        RetainableByteBuffer buffer = pool.acquire(10, false);
+        buffer.release();
+        assertThat(pool.getHeapByteBufferCount(), is(1L));
+
+        buffer = pool.acquire(10, false);
+        assertTrue(pool.removeAndRelease(buffer));
+        assertThat(pool.getHeapByteBufferCount(), is(0L));
+        assertThat(pool.getAvailableHeapByteBufferCount(), is(0L));
+        assertThat(pool.acquire(10, false), not(sameInstance(buffer)));
+    }
+
+    @Test
+    public void testInvalidMagazineSize()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE, -1, -1, -1));
+        assertThrows(IllegalArgumentException.class, () -> new ArrayByteBufferPool(0, 10, 20, Integer.MAX_VALUE, -1, -1, 17));
+    }
+
+    @Test
+    public void testAdaptiveMovesMemoryToDemandedBuckets()
+    {
+        ArrayByteBufferPool.Adaptive pool = new ArrayByteBufferPool.Adaptive(0, 10, 40, -1, 200, 0, 0);
+
+        for (int i = 0; i < 5; i++)
+            acquireAndRelease(pool, 10, 30, true);
+        assertThat(pool.getDirectMemory(), is(200L));
+        assertThat(pool.poolFor(10, true).size(), is(20));
+
+        // The demand moves to another bucket, which must get the memory;
+        // the memory is checked only for a sample of the releases.
+        for (int i = 0; i < 500; i++)
+            acquireAndRelease(pool, 40, 10, true);
+        assertThat(pool.getDirectMemory(), lessThanOrEqualTo(200L));
+        assertThat(pool.poolFor(10, true).size(), lessThanOrEqualTo(1));
+        assertThat(pool.poolFor(40, true).size(), is(5));
+    }
+
+    @Test
+    public void testAdaptiveMovesMemoryBudgetToDemandedKind()
+    {
+        ArrayByteBufferPool.Adaptive pool = new ArrayByteBufferPool.Adaptive(0, 10, 40, 200, 200, 0, 0);
+        assertThat(pool.getMaxHeapMemory(), is(200L));
+        assertThat(pool.getMaxDirectMemory(), is(200L));
+
+        for (int i = 0; i < 10; i++)
+            acquireAndRelease(pool, 40, 20, true);
+
+        // The total budget is preserved, but the heap keeps at least a quarter of its budget.
+        assertThat(pool.getMaxDirectMemory(), greaterThan(300L));
+        assertThat(pool.getMaxHeapMemory(), greaterThanOrEqualTo(50L));
+        assertThat(pool.getMaxHeapMemory() + pool.getMaxDirectMemory(), is(400L));
+        assertThat(pool.getDirectMemory(), greaterThan(200L));
+        assertThat(pool.getDirectMemory(), lessThanOrEqualTo(pool.getMaxDirectMemory()));
+    }
+
+    @Test
+    public void testAdaptiveWithoutPressureDoesNotLimitBuckets()
+    {
+        ArrayByteBufferPool.Adaptive pool = new ArrayByteBufferPool.Adaptive(0, 10, 40, 1000, 1000, 0, 0);
+
+        for (int i = 0; i < 5; i++)
+        {
+            acquireAndRelease(pool, 10, 10, false);
+            acquireAndRelease(pool, 40, 10, false);
+        }
+        assertThat(pool.poolFor(10, false).size(), is(10));
+        assertThat(pool.poolFor(40, false).size(), is(10));
+        assertThat(pool.getMaxHeapMemory(), is(1000L));
+    }
+
+    private static void acquireAndRelease(ArrayByteBufferPool pool, int capacity, int count, boolean direct)
+    {
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            buffers.add(pool.acquire(capacity, direct));
+        buffers.forEach(RetainableByteBuffer::release);
+    }
 }
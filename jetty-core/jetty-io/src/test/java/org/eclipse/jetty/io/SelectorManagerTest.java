@@ -18,6 +18,7 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.concurrent.CountDownLatch;
@@ -152,4 +153,71 @@ public class SelectorManagerTest
             selectorManager.stop();
         }
     }
+
+    @Test
+    public void testSelectIntoSelectedKeySet() throws Exception
+    {
+        try (ServerSocketChannel server = ServerSocketChannel.open())
+        {
+            server.bind(new InetSocketAddress("localhost", 0));
+            SocketAddress address = server.getLocalAddress();
+
+            SelectorManager selectorManager = new SelectorManager(executor, scheduler, 1)
+            {
+                @Override
+                protected ManagedSelector newSelector(int id)
+                {
+                    return new ManagedSelector(this, id)
+                    {
+                        @Override
+                        protected int nioSelect(Selector selector, boolean now) throws IOException
+                        {
+                            // Select using the selected-key set rather than the consumer of selected keys.
+                            return now ? selector.selectNow() : selector.select();
+                        }
+                    };
+                }
+
+                @Override
+                protected EndPoint newEndPoint(SelectableChannel channel, ManagedSelector selector, SelectionKey key)
+                {
+                    return new SocketChannelEndPoint((SocketChannel)channel, selector, key, getScheduler());
+                }
+
+                @Override
+                public Connection newConnection(SelectableChannel channel, EndPoint endpoint, Object attachment)
+                {
+                    ((Callback)attachment).succeeded();
+                    return new AbstractConnection(endpoint, executor)
+                    {
+                        @Override
+                        public void onFillable()
+                        {
+                        }
+                    };
+                }
+            };
+            selectorManager.start();
+
+            try (SocketChannel client = SocketChannel.open())
+            {
+                client.configureBlocking(false);
+                client.connect(address);
+                CountDownLatch connectLatch = new CountDownLatch(1);
+                selectorManager.connect(client, new Callback()
+                {
+                    @Override
+                    public void succeeded()
+                    {
+                        connectLatch.countDown();
+                    }
+                });
+                assertTrue(connectLatch.await(5, TimeUnit.SECONDS));
+            }
+            finally
+            {
+                selectorManager.stop();
+            }
+        }
+    }
 }
@@ -33,7 +33,9 @@ import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLSocket;
 
+import org.eclipse.jetty.io.ssl.KernelTlsOffload;
 import org.eclipse.jetty.io.ssl.SslConnection;
+import org.eclipse.jetty.io.ssl.SslHandshakeExecutor;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.FutureCallback;
@@ -44,12 +46,16 @@ import org.eclipse.jetty.util.thread.TimerScheduler;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -66,6 +72,9 @@ public class SslConnectionTest
     protected volatile EndPoint _lastEndp;
     private volatile boolean _testFill = true;
     private volatile boolean _onXWriteThenShutdown = false;
+    private volatile KernelTlsOffload _kernelTlsOffload;
+    private volatile int _maxOutputRecords = 2;
+    private volatile SslHandshakeExecutor _handshakeExecutor;
 
     private volatile FutureCallback _writeCallback;
     protected ServerSocketChannel _connector;
@@ -90,6 +99,9 @@ public class SslConnectionTest
             SslConnection sslConnection = new SslConnection(_bufferPool, getExecutor(), _sslCtxFactory, endpoint, engine);
             sslConnection.setRenegotiationAllowed(_sslCtxFactory.isRenegotiationAllowed());
             sslConnection.setRenegotiationLimit(_sslCtxFactory.getRenegotiationLimit());
+            sslConnection.setKernelTlsOffload(_kernelTlsOffload);
+            sslConnection.setMaxOutputRecords(_maxOutputRecords);
+            sslConnection.setHandshakeExecutor(_handshakeExecutor);
             SslConnection.SslEndPoint sslEndPoint = sslConnection.getSslEndPoint();
             Connection appConnection = new TestConnection(sslEndPoint);
             sslEndPoint.setConnection(appConnection);
@@ -109,6 +121,7 @@ public class SslConnectionTest
     static final AtomicInteger __startBlocking = new AtomicInteger();
     static final AtomicInteger __blockFor = new AtomicInteger();
     static final AtomicBoolean __onIncompleteFlush = new AtomicBoolean();
+    static final AtomicInteger __flushes = new AtomicInteger();
 
     private static class TestEP extends SocketChannelEndPoint
     {
@@ -127,6 +140,7 @@ public class SslConnectionTest
         public boolean flush(ByteBuffer... buffers) throws IOException
         {
             __onIncompleteFlush.set(false);
+            __flushes.incrementAndGet();
             if (__startBlocking.get() == 0 || __startBlocking.decrementAndGet() == 0)
             {
                 if (__blockFor.get() > 0 && __blockFor.getAndDecrement() > 0)
@@ -402,6 +416,191 @@ public class SslConnectionTest
         }
     }
 
+    @Test
+    public void testHandshakeExecutor() throws Exception
+    {
+        _handshakeExecutor = new SslHandshakeExecutor(_threadPool, 1, 16);
+        startSSL();
+        for (int i = 0; i < 2; i++)
+        {
+            try (SSLSocket client = newClient())
+            {
+                client.setSoTimeout(5000);
+                try (SocketChannel server = _connector.accept())
+                {
+                    server.configureBlocking(false);
+                    _manager.accept(server);
+
+                    client.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                    byte[] buffer = new byte[1024];
+                    int len = client.getInputStream().read(buffer);
+                    assertEquals(5, len);
+                    assertEquals("Hello", new String(buffer, 0, len, StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        assertEquals(2, _handshakeExecutor.getHandshakes());
+        assertEquals(0, _handshakeExecutor.getFailedHandshakes());
+        assertEquals(0, _handshakeExecutor.getRejected());
+        assertTrue(_handshakeExecutor.getHandshakeLatencyMean() > 0);
+    }
+
+    @Test
+    public void testSessionResumptionStatistics() throws Exception
+    {
+        startSSL();
+        for (int i = 0; i < 3; i++)
+        {
+            // The client reuses the TLS session of the first connection.
+            try (SSLSocket client = newClient())
+            {
+                client.setSoTimeout(5000);
+                try (SocketChannel server = _connector.accept())
+                {
+                    server.configureBlocking(false);
+                    _manager.accept(server);
+
+                    client.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                    byte[] buffer = new byte[1024];
+                    int len = client.getInputStream().read(buffer);
+                    assertEquals(5, len);
+                }
+            }
+        }
+
+        assertEquals(1, _sslCtxFactory.getFullHandshakes());
+        assertEquals(2, _sslCtxFactory.getSessionResumptions());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4})
+    public void testMaxOutputRecords(int maxOutputRecords) throws Exception
+    {
+        _maxOutputRecords = maxOutputRecords;
+        startSSL();
+        try (SSLSocket client = newClient())
+        {
+            client.setSoTimeout(5000);
+            try (SocketChannel server = _connector.accept())
+            {
+                server.configureBlocking(false);
+                _manager.accept(server);
+
+                client.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                byte[] buffer = new byte[1024];
+                int len = client.getInputStream().read(buffer);
+                assertEquals(5, len);
+
+                // Write content that needs 3 TLS records.
+                int records = 3;
+                byte[] content = new byte[records * 16000];
+                __flushes.set(0);
+                SslConnection sslConnection = (SslConnection)_lastEndp.getConnection();
+                assertTrue(sslConnection.getSslEndPoint().flush(ByteBuffer.wrap(content)));
+
+                int expected = (records + maxOutputRecords - 1) / maxOutputRecords;
+                assertEquals(expected, __flushes.get());
+
+                int total = 0;
+                while (total < content.length)
+                {
+                    len = client.getInputStream().read(buffer);
+                    assertTrue(len > 0);
+                    total += len;
+                }
+                assertEquals(content.length, total);
+            }
+        }
+    }
+
+    @Test
+    public void testKernelTlsOffload() throws Exception
+    {
+        // Simulate the kernel with an offload that does nothing,
+        // so that after the handshake the bytes are sent in clear text.
+        AtomicInteger offloads = new AtomicInteger();
+        _kernelTlsOffload = (sslEngine, endPoint) ->
+        {
+            offloads.incrementAndGet();
+            return true;
+        };
+        // TLS 1.3 sends post-handshake messages that a no-op offload cannot handle.
+        _sslCtxFactory.setIncludeProtocols("TLSv1.2");
+        startSSL();
+        try (Socket socket = new Socket())
+        {
+            socket.connect(_connector.socket().getLocalSocketAddress());
+            socket.setSoTimeout(5000);
+            try (SocketChannel server = _connector.accept())
+            {
+                server.configureBlocking(false);
+                _manager.accept(server);
+
+                SSLSocket client = (SSLSocket)_sslCtxFactory.getSslContext().getSocketFactory()
+                    .createSocket(socket, "localhost", socket.getPort(), false);
+                client.setUseClientMode(true);
+                client.startHandshake();
+
+                // The TLS handshake is complete, use the plain socket.
+                socket.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                byte[] buffer = new byte[1024];
+                int len = socket.getInputStream().read(buffer);
+                assertEquals(5, len);
+                assertEquals("Hello", new String(buffer, 0, len, StandardCharsets.UTF_8));
+
+                SslConnection sslConnection = (SslConnection)_lastEndp.getConnection();
+                assertTrue(sslConnection.isOffloaded());
+                long bytesIn = sslConnection.getBytesIn();
+                long bytesOut = sslConnection.getBytesOut();
+
+                socket.getOutputStream().write("World".getBytes(StandardCharsets.UTF_8));
+                len = socket.getInputStream().read(buffer);
+                assertEquals(5, len);
+                assertEquals("World", new String(buffer, 0, len, StandardCharsets.UTF_8));
+
+                assertEquals(bytesIn + 5, sslConnection.getBytesIn());
+                // The write is counted after the echo may have been read.
+                await().atMost(5, TimeUnit.SECONDS).until(sslConnection::getBytesOut, is(bytesOut + 5));
+                assertEquals(1, offloads.get());
+            }
+        }
+    }
+
+    @Test
+    public void testKernelTlsOffloadDeclined() throws Exception
+    {
+        AtomicInteger offloads = new AtomicInteger();
+        _kernelTlsOffload = (sslEngine, endPoint) ->
+        {
+            offloads.incrementAndGet();
+            return false;
+        };
+        startSSL();
+        try (SSLSocket client = newClient())
+        {
+            client.setSoTimeout(5000);
+            try (SocketChannel server = _connector.accept())
+            {
+                server.configureBlocking(false);
+                _manager.accept(server);
+
+                for (String message : new String[]{"Hello", "World"})
+                {
+                    client.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+                    byte[] buffer = new byte[1024];
+                    int len = client.getInputStream().read(buffer);
+                    assertEquals(5, len);
+                    assertEquals(message, new String(buffer, 0, len, StandardCharsets.UTF_8));
+                }
+
+                // The connection continues to use the SSLEngine.
+                assertFalse(((SslConnection)_lastEndp.getConnection()).isOffloaded());
+                assertEquals(1, offloads.get());
+            }
+        }
+    }
+
     @Test
     public void testWriteOnConnect() throws Exception
     {
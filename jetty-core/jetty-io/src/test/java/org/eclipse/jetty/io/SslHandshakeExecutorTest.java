@@ -0,0 +1,139 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.io.ssl.SslHandshakeExecutor;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SslHandshakeExecutorTest
+{
+    private QueuedThreadPool _threadPool;
+
+    @BeforeEach
+    public void prepare() throws Exception
+    {
+        _threadPool = new QueuedThreadPool();
+        _threadPool.start();
+    }
+
+    @AfterEach
+    public void dispose() throws Exception
+    {
+        _threadPool.stop();
+    }
+
+    @Test
+    public void testMaxConcurrencyAndQueue() throws Exception
+    {
+        SslHandshakeExecutor executor = new SslHandshakeExecutor(_threadPool, 2, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(4);
+        Runnable task = () ->
+        {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try
+            {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            catch (InterruptedException x)
+            {
+                throw new RuntimeException(x);
+            }
+            running.decrementAndGet();
+            completed.countDown();
+        };
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertTrue(executor.offer(task));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(running::get, is(2));
+        assertEquals(2, executor.getActive());
+        assertEquals(2, executor.getQueueSize());
+
+        // The queue is full.
+        assertFalse(executor.offer(task));
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(task));
+        assertEquals(2, executor.getRejected());
+
+        release.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        await().atMost(5, TimeUnit.SECONDS).until(executor::getActive, is(0));
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, executor.getQueueSize());
+        assertEquals(2, executor.getQueueSizeMax());
+    }
+
+    @Test
+    public void testListenerNotifiedWhenQueueFullAndAvailable() throws Exception
+    {
+        SslHandshakeExecutor executor = new SslHandshakeExecutor(_threadPool, 1, 2);
+        CountDownLatch full = new CountDownLatch(1);
+        CountDownLatch available = new CountDownLatch(1);
+        executor.addListener(new SslHandshakeExecutor.Listener()
+        {
+            @Override
+            public void onQueueFull(SslHandshakeExecutor executor)
+            {
+                full.countDown();
+            }
+
+            @Override
+            public void onQueueAvailable(SslHandshakeExecutor executor)
+            {
+                available.countDown();
+            }
+        });
+
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable task = () ->
+        {
+            try
+            {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            catch (InterruptedException x)
+            {
+                throw new RuntimeException(x);
+            }
+        };
+        for (int i = 0; i < 3; i++)
+        {
+            assertTrue(executor.offer(task));
+        }
+        assertFalse(executor.offer(task));
+        assertTrue(full.await(5, TimeUnit.SECONDS));
+        assertEquals(1, available.getCount());
+
+        release.countDown();
+        assertTrue(available.await(5, TimeUnit.SECONDS));
+    }
+}
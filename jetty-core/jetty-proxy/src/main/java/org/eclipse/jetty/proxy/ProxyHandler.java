@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.proxy;
 
+import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
@@ -72,6 +73,22 @@ import org.slf4j.LoggerFactory;
 public abstract class ProxyHandler extends Handler.Abstract
 {
     private static final Logger LOG = LoggerFactory.getLogger(ProxyHandler.class);
+    private static final ClassValue<Boolean> OVERRIDES_ON_CONTENT = new ClassValue<>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                Method method = type.getMethod("onContent", org.eclipse.jetty.client.Response.class, Content.Chunk.class, Runnable.class);
+                return method.getDeclaringClass() != ProxyResponseListener.class;
+            }
+            catch (NoSuchMethodException x)
+            {
+                return false;
+            }
+        }
+    };
     private static final String CLIENT_TO_PROXY_REQUEST_ATTRIBUTE = ProxyHandler.class.getName() + ".clientToProxyRequest";
     private static final String PROXY_TO_CLIENT_RESPONSE_ATTRIBUTE = ProxyHandler.class.getName() + ".proxyToClientResponse";
     private static final String PROXY_TO_SERVER_CONTINUE_ATTRIBUTE = ProxyHandler.class.getName() + ".proxyToServerContinue";
@@ -657,6 +674,108 @@ public abstract class ProxyHandler extends Handler.Abstract
             }
         }
 
+        /**
+         * <p>Forwards the server-to-proxy response content to the client.</p>
+         * <p>Each chunk read from the server-to-proxy content source is written
+         * to the proxy-to-client response as-is, without copying its bytes;
+         * the ownership of the chunk is handed over to the write, so that the
+         * chunk is released only when the write completes.
+         * More content is demanded from the server only after the write
+         * completes, so that a slow client applies backpressure to the server.</p>
+         * <p>If {@link #onContent(org.eclipse.jetty.client.Response, Content.Chunk, Runnable)}
+         * is overridden, the content is instead delivered to it chunk by chunk,
+         * with the semantic of {@link org.eclipse.jetty.client.Response.AsyncContentListener}.</p>
+         *
+         * @param serverToProxyResponse the server-to-proxy response
+         * @param serverToProxyContent the server-to-proxy response content source
+         */
+        @Override
+        public void onContentSource(org.eclipse.jetty.client.Response serverToProxyResponse, Content.Source serverToProxyContent)
+        {
+            if (OVERRIDES_ON_CONTENT.get(getClass()))
+            {
+                org.eclipse.jetty.client.Response.Listener.super.onContentSource(serverToProxyResponse, serverToProxyContent);
+                return;
+            }
+
+            while (true)
+            {
+                Content.Chunk serverToProxyChunk = serverToProxyContent.read();
+                if (serverToProxyChunk == null)
+                {
+                    serverToProxyContent.demand(() -> onContentSource(serverToProxyResponse, serverToProxyContent));
+                    return;
+                }
+
+                if (Content.Chunk.isFailure(serverToProxyChunk))
+                {
+                    Throwable failure = serverToProxyChunk.getFailure();
+                    serverToProxyResponse.abort(failure);
+                    if (!serverToProxyChunk.isLast())
+                        serverToProxyContent.fail(failure);
+                    return;
+                }
+
+                if (!serverToProxyChunk.hasRemaining())
+                {
+                    serverToProxyChunk.release();
+                    // The last write is performed by onSuccess().
+                    if (serverToProxyChunk.isLast())
+                        return;
+                    continue;
+                }
+
+                ByteBuffer serverToProxyBuffer = serverToProxyChunk.getByteBuffer();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("{} S2P received content {}", requestId(clientToProxyRequest), BufferUtil.toDetailString(serverToProxyBuffer));
+
+                Callback callback = new Callback()
+                {
+                    @Override
+                    public void succeeded()
+                    {
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("{} P2C succeeded to write content {}", requestId(clientToProxyRequest), BufferUtil.toDetailString(serverToProxyBuffer));
+                        serverToProxyChunk.release();
+                        if (!serverToProxyChunk.isLast())
+                            serverToProxyContent.demand(() -> onContentSource(serverToProxyResponse, serverToProxyContent));
+                    }
+
+                    @Override
+                    public void failed(Throwable failure)
+                    {
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("{} P2C failed to write content {}", requestId(clientToProxyRequest), BufferUtil.toDetailString(serverToProxyBuffer), failure);
+                        serverToProxyChunk.release();
+                        // Cannot write towards the client, abort towards the server.
+                        serverToProxyResponse.abort(failure);
+                        serverToProxyContent.fail(failure);
+                    }
+
+                    @Override
+                    public InvocationType getInvocationType()
+                    {
+                        return InvocationType.NON_BLOCKING;
+                    }
+                };
+
+                proxyToClientResponse.write(false, serverToProxyBuffer, callback);
+                return;
+            }
+        }
+
+        /**
+         * <p>Forwards a chunk of the server-to-proxy response content to the client.</p>
+         * <p>This method is only invoked when it is overridden, typically to
+         * transform the response content; otherwise the content is forwarded
+         * by {@link #onContentSource(org.eclipse.jetty.client.Response, Content.Source)}
+         * without retaining and releasing each chunk.</p>
+         *
+         * @param serverToProxyResponse the server-to-proxy response
+         * @param serverToProxyChunk the server-to-proxy response content chunk,
+         * released when this method returns unless retained
+         * @param serverToProxyDemander the runnable to run to demand more content
+         */
         @Override
         public void onContent(org.eclipse.jetty.client.Response serverToProxyResponse, Content.Chunk serverToProxyChunk, Runnable serverToProxyDemander)
         {
@@ -13,8 +13,13 @@
 
 package org.eclipse.jetty.proxy;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.jetty.client.BytesRequestContent;
 import org.eclipse.jetty.client.ContentResponse;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.StringRequestContent;
@@ -24,16 +29,20 @@ import org.eclipse.jetty.http.HttpURI;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http2.client.HTTP2Client;
 import org.eclipse.jetty.http2.client.transport.ClientConnectionFactoryOverHTTP2;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
 import org.eclipse.jetty.io.ClientConnector;
 import org.eclipse.jetty.io.Content;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class ReverseProxyTest extends AbstractProxyTest
@@ -138,4 +147,130 @@ public class ReverseProxyTest extends AbstractProxyTest
         assertEquals(200, response.getStatus());
         assertEquals("", response.getHeaders().get(emptyHeaderName));
     }
+
+    @ParameterizedTest
+    @MethodSource("httpVersions")
+    public void testLargeContentIsForwardedWithoutLeaks(HttpVersion httpVersion) throws Exception
+    {
+        startServer(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                // Echo the request content.
+                Content.copy(request, response, callback);
+                return true;
+            }
+        });
+
+        ArrayByteBufferPool.Tracking proxyClientBufferPool = new ArrayByteBufferPool.Tracking();
+        startProxy(new ProxyHandler.Reverse(clientToProxyRequest ->
+            HttpURI.build(clientToProxyRequest.getHttpURI()).port(serverConnector.getLocalPort()))
+        {
+            @Override
+            protected HttpClient newHttpClient()
+            {
+                ClientConnector proxyClientConnector = new ClientConnector();
+                proxyClientConnector.setByteBufferPool(proxyClientBufferPool);
+                QueuedThreadPool proxyClientThreads = new QueuedThreadPool();
+                proxyClientThreads.setName("proxy-client");
+                proxyClientConnector.setExecutor(proxyClientThreads);
+                HTTP2Client proxyHTTP2Client = new HTTP2Client(proxyClientConnector);
+                return new HttpClient(new HttpClientTransportDynamic(proxyClientConnector, HttpClientConnectionFactory.HTTP11, new ClientConnectionFactoryOverHTTP2.HTTP2(proxyHTTP2Client)));
+            }
+
+            @Override
+            protected org.eclipse.jetty.client.Request newProxyToServerRequest(Request clientToProxyRequest, HttpURI newHttpURI)
+            {
+                // Use the client to proxy protocol also from the proxy to server.
+                return super.newProxyToServerRequest(clientToProxyRequest, newHttpURI)
+                    .version(httpVersion);
+            }
+        });
+
+        startClient();
+
+        byte[] clientContent = new byte[1024 * 1024];
+        new Random().nextBytes(clientContent);
+        for (int i = 0; i < 2; ++i)
+        {
+            ContentResponse response = client.newRequest("localhost", proxyConnector.getLocalPort())
+                .version(httpVersion)
+                .body(new BytesRequestContent(clientContent))
+                .timeout(15, TimeUnit.SECONDS)
+                .send();
+            assertEquals(200, response.getStatus());
+            assertArrayEquals(clientContent, response.getContent());
+        }
+
+        // All the chunks handed over from the server-to-proxy
+        // response to the proxy-to-client response are released.
+        LifeCycle.stop(proxy);
+        assertEquals(0, proxyClientBufferPool.getLeaks().size(), proxyClientBufferPool.dumpLeaks());
+    }
+
+    @ParameterizedTest
+    @MethodSource("httpVersions")
+    public void testOverriddenOnContentTransformsContent(HttpVersion httpVersion) throws Exception
+    {
+        String serverContent = "hello world";
+        startServer(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                Content.Sink.write(response, true, serverContent, callback);
+                return true;
+            }
+        });
+
+        startProxy(new ProxyHandler.Reverse(clientToProxyRequest ->
+            HttpURI.build(clientToProxyRequest.getHttpURI()).port(serverConnector.getLocalPort()))
+        {
+            @Override
+            protected HttpClient newHttpClient()
+            {
+                ClientConnector proxyClientConnector = new ClientConnector();
+                QueuedThreadPool proxyClientThreads = new QueuedThreadPool();
+                proxyClientThreads.setName("proxy-client");
+                proxyClientConnector.setExecutor(proxyClientThreads);
+                HTTP2Client proxyHTTP2Client = new HTTP2Client(proxyClientConnector);
+                return new HttpClient(new HttpClientTransportDynamic(proxyClientConnector, HttpClientConnectionFactory.HTTP11, new ClientConnectionFactoryOverHTTP2.HTTP2(proxyHTTP2Client)));
+            }
+
+            @Override
+            protected org.eclipse.jetty.client.Request newProxyToServerRequest(Request clientToProxyRequest, HttpURI newHttpURI)
+            {
+                // Use the client to proxy protocol also from the proxy to server.
+                return super.newProxyToServerRequest(clientToProxyRequest, newHttpURI)
+                    .version(httpVersion);
+            }
+
+            @Override
+            protected org.eclipse.jetty.client.Response.CompleteListener newServerToProxyResponseListener(Request clientToProxyRequest, org.eclipse.jetty.client.Request proxyToServerRequest, Response proxyToClientResponse, Callback proxyToClientCallback)
+            {
+                return new ProxyResponseListener(clientToProxyRequest, proxyToServerRequest, proxyToClientResponse, proxyToClientCallback)
+                {
+                    @Override
+                    public void onContent(org.eclipse.jetty.client.Response serverToProxyResponse, Content.Chunk serverToProxyChunk, Runnable serverToProxyDemander)
+                    {
+                        String content = BufferUtil.toString(serverToProxyChunk.getByteBuffer(), StandardCharsets.UTF_8);
+                        ByteBuffer upperCase = BufferUtil.toBuffer(content.toUpperCase(Locale.ENGLISH), StandardCharsets.UTF_8);
+                        Content.Chunk transformed = Content.Chunk.from(upperCase, serverToProxyChunk.isLast());
+                        super.onContent(serverToProxyResponse, transformed, serverToProxyDemander);
+                        transformed.release();
+                    }
+                };
+            }
+        });
+
+        startClient();
+
+        ContentResponse response = client.newRequest("localhost", proxyConnector.getLocalPort())
+            .version(httpVersion)
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+        assertEquals(200, response.getStatus());
+        assertEquals(serverContent.toUpperCase(Locale.ENGLISH), response.getContentAsString());
+    }
 }
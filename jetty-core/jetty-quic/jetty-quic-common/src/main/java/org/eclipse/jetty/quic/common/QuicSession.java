@@ -265,6 +265,20 @@ public abstract class QuicSession extends ContainerLifeCycle
         flush();
     }
 
+    /**
+     * <p>Sets the priority used to schedule the data of the given stream
+     * with respect to the data of the other streams of this session.</p>
+     *
+     * @param streamId the stream id
+     * @param urgency the urgency, lower values being more urgent
+     * @param incremental whether the stream data may be interleaved with the data of other streams of the same urgency
+     * @throws IOException if the priority cannot be set
+     */
+    public void setStreamPriority(long streamId, int urgency, boolean incremental) throws IOException
+    {
+        quicheConnection.streamPriority(streamId, urgency, incremental);
+    }
+
     public void remove(QuicStreamEndPoint endPoint, Throwable failure)
     {
         boolean removed = endPoints.remove(endPoint.getStreamId()) != null;
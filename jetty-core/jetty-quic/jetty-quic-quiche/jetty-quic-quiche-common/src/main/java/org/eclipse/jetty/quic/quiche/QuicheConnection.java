@@ -132,6 +132,16 @@ public abstract class QuicheConnection
 
     public abstract void shutdownStream(long streamId, boolean writeSide, long error) throws IOException;
 
+    /**
+     * <p>Sets the priority used by quiche to schedule the data of the given stream.</p>
+     *
+     * @param streamId the stream id
+     * @param urgency the urgency, lower values being more urgent
+     * @param incremental whether the stream data may be interleaved with the data of other streams of the same urgency
+     * @throws IOException if the priority cannot be set
+     */
+    public abstract void streamPriority(long streamId, int urgency, boolean incremental) throws IOException;
+
     public final void feedFinForStream(long streamId) throws IOException
     {
         feedClearBytesForStream(streamId, BufferUtil.EMPTY_BUFFER, true);
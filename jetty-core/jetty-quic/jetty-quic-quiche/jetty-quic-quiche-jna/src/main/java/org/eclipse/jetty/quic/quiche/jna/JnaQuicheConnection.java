@@ -686,6 +686,20 @@ public class JnaQuicheConnection extends QuicheConnection
         }
     }
 
+    @Override
+    public void streamPriority(long streamId, int urgency, boolean incremental) throws IOException
+    {
+        try (AutoLock ignore = lock.lock())
+        {
+            if (quicheConn == null)
+                throw new IOException("connection was released");
+            int rc = LibQuiche.INSTANCE.quiche_conn_stream_priority(quicheConn, new uint64_t(streamId), new uint8_t((byte)urgency), incremental);
+            if (rc == 0 || rc == quiche_error.QUICHE_ERR_DONE)
+                return;
+            throw new IOException("failed to set priority of stream " + streamId + ": " + quiche_error.errToString(rc));
+        }
+    }
+
     @Override
     public int feedClearBytesForStream(long streamId, ByteBuffer buffer, boolean last) throws IOException
     {
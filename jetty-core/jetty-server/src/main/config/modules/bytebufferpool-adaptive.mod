@@ -0,0 +1,40 @@
+# DO NOT EDIT THIS FILE - See: https://jetty.org/docs/
+
+[description]
+Configures the ByteBufferPool used by ServerConnectors.
+The bucket sizes and the heap/direct memory budgets adapt to the observed demand.
+
+[tags]
+bytebufferpool
+
+[provides]
+bytebufferpool
+
+[xml]
+etc/jetty-bytebufferpool-adaptive.xml
+
+[ini-template]
+### Server ByteBufferPool Configuration
+## Minimum capacity to pool ByteBuffers
+#jetty.byteBufferPool.minCapacity=0
+
+## Bucket capacity factor.
+## ByteBuffers are allocated out of buckets that have
+## a capacity that is multiple of this factor.
+#jetty.byteBufferPool.factor=4096
+
+## Maximum capacity to pool ByteBuffers
+#jetty.byteBufferPool.maxCapacity=65536
+
+## Maximum heap memory held idle by the pool (0 for heuristic, -1 for unlimited).
+#jetty.byteBufferPool.maxHeapMemory=0
+
+## Maximum direct memory held idle by the pool (0 for heuristic, -1 for unlimited).
+#jetty.byteBufferPool.maxDirectMemory=0
+
+## Maximum number of ByteBuffers cached in each per-thread magazine
+## in front of each bucket (0 to not use magazines, at most 16).
+#jetty.byteBufferPool.magazineSize=0
+
+## Minimum period in milliseconds between two adaptations of the pool.
+#jetty.byteBufferPool.rebalancePeriod=1000
@@ -29,3 +29,7 @@ etc/jetty-bytebufferpool-quadratic.xml
 
 ## Maximum direct memory held idle by the pool (0 for heuristic, -1 for unlimited).
 #jetty.byteBufferPool.maxDirectMemory=0
+
+## Maximum number of ByteBuffers cached in each per-thread magazine
+## in front of each bucket (0 to not use magazines, at most 16).
+#jetty.byteBufferPool.magazineSize=0
@@ -2,6 +2,7 @@
 Configures the ByteBufferPool used by ServerConnectors.
 The bucket sizes increase linearly.
 Use module "bytebufferpool-quadratic" for a pool that holds more coarse sized buffers.
+Use module "bytebufferpool-adaptive" for a pool that adapts to the observed demand.
 
 [depends]
 logging
@@ -32,5 +33,9 @@ etc/jetty-bytebufferpool.xml
 ## Maximum direct memory held idle by the pool (0 for heuristic, -1 for unlimited).
 #jetty.byteBufferPool.maxDirectMemory=0
 
+## Maximum number of ByteBuffers cached in each per-thread magazine
+## in front of each bucket (0 to not use magazines, at most 16).
+#jetty.byteBufferPool.magazineSize=0
+
 ## Whether statistics are enabled.
 #jetty.byteBufferPool.statisticsEnabled=false
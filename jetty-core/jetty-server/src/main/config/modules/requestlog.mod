@@ -41,4 +41,13 @@ jetty.requestlog.dir?=logs
 
 ## Timezone of the log file rollover
 # jetty.requestlog.timezone=GMT
+
+## The maximum number of log entries queued for writing (rounded up to a power of 2)
+# jetty.requestlog.queueCapacity=1024
+
+## What to do with new log entries when the queue is full: DROP, BLOCK or SAMPLE
+# jetty.requestlog.backpressure=DROP
+
+## With the SAMPLE backpressure, one log entry every sampleRate is queued once the queue is half full
+# jetty.requestlog.sampleRate=10
 # end::documentation[]
@@ -56,6 +56,9 @@ etc/jetty.xml
 ## Max per-connection header cache size (in nodes)
 # jetty.httpConfig.headerCacheSize=1024
 
+## Whether the per-connection header cache learns fields repeated with the same value
+# jetty.httpConfig.headerCacheLearning=false
+
 ## Whether, for requests with content, delay dispatch until some content has arrived
 # jetty.httpConfig.delayDispatchUntilContent=true
 
@@ -14,39 +14,169 @@
 package org.eclipse.jetty.server;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
-import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * An asynchronously writing RequestLogWriter
+ * <p>An asynchronously writing RequestLogWriter.</p>
+ * <p>Log entries are queued in a bounded, lock-free, multi-producer single-consumer
+ * ring buffer, so that logging threads do not contend on a lock.
+ * A single writer thread drains the queued entries in batches, and writes each
+ * batch to the underlying file with a single flush.</p>
+ * <p>When the ring buffer is full, or close to full, the {@link Backpressure}
+ * policy decides what happens to new log entries.</p>
  */
+@ManagedObject("Asynchronous Request Log writer")
 public class AsyncRequestLogWriter extends RequestLogWriter
 {
     private static final Logger LOG = LoggerFactory.getLogger(AsyncRequestLogWriter.class);
-    private final BlockingQueue<String> _queue;
-    private transient AsyncRequestLogWriter.WriterThread _thread;
-    private boolean _warnedFull;
+    private static final int MAX_BATCH_SIZE = 256;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * The policy applied to new log entries when the queue is full.
+     */
+    public enum Backpressure
+    {
+        /**
+         * New entries are dropped while the queue is full.
+         */
+        DROP,
+        /**
+         * Logging threads wait until there is space in the queue.
+         */
+        BLOCK,
+        /**
+         * Once the queue is half full, only one entry every
+         * {@link #getSampleRate() sampleRate} entries is queued,
+         * and the others are dropped; entries are dropped while the queue is full.
+         */
+        SAMPLE
+    }
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private final RingBuffer _queue;
+    private final LongAdder _queued = new LongAdder();
+    private final LongAdder _dropped = new LongAdder();
+    private final AtomicLong _sampled = new AtomicLong();
+    private Backpressure _backpressure = Backpressure.DROP;
+    private int _sampleRate = 10;
+    private transient volatile AsyncRequestLogWriter.WriterThread _thread;
+    private volatile boolean _waiting;
+    private volatile boolean _warnedFull;
 
     public AsyncRequestLogWriter()
     {
-        this(null, null);
+        this(null, DEFAULT_CAPACITY);
     }
 
     public AsyncRequestLogWriter(String filename)
     {
-        this(filename, null);
+        this(filename, DEFAULT_CAPACITY);
     }
 
+    /**
+     * @param filename the file name of the request log
+     * @param queue only used to size the queue of log entries; unbounded queues
+     * use the default capacity, and large capacities are capped
+     * @deprecated use {@link #AsyncRequestLogWriter(String, int)} instead
+     */
+    @Deprecated(since = "12.0.13", forRemoval = true)
     public AsyncRequestLogWriter(String filename, BlockingQueue<String> queue)
+    {
+        this(filename, capacityOf(queue));
+    }
+
+    /**
+     * @param filename the file name of the request log
+     * @param capacity the maximum number of queued log entries, rounded up to a power of 2,
+     * between 1 and 1048576
+     */
+    public AsyncRequestLogWriter(String filename, int capacity)
     {
         super(filename);
+        if (capacity < 1 || capacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        _queue = new RingBuffer(capacity);
+    }
+
+    private static int capacityOf(BlockingQueue<String> queue)
+    {
         if (queue == null)
-            queue = new BlockingArrayQueue<>(1024);
-        _queue = queue;
+            return DEFAULT_CAPACITY;
+        int capacity = queue.remainingCapacity();
+        // Unbounded queues report Integer.MAX_VALUE.
+        if (capacity < 1 || capacity == Integer.MAX_VALUE)
+            return DEFAULT_CAPACITY;
+        return Math.min(capacity, MAX_CAPACITY);
+    }
+
+    /**
+     * @param backpressure the policy applied to new log entries when the queue is full
+     */
+    public void setBackpressure(Backpressure backpressure)
+    {
+        _backpressure = Objects.requireNonNull(backpressure);
+    }
+
+    @ManagedAttribute("The policy applied to new log entries when the queue is full")
+    public Backpressure getBackpressure()
+    {
+        return _backpressure;
+    }
+
+    /**
+     * @param sampleRate the rate at which entries are queued with the {@link Backpressure#SAMPLE} policy,
+     * once the queue is half full
+     */
+    public void setSampleRate(int sampleRate)
+    {
+        if (sampleRate < 1)
+            throw new IllegalArgumentException("Invalid sample rate: " + sampleRate);
+        _sampleRate = sampleRate;
+    }
+
+    @ManagedAttribute("One entry every sampleRate entries is queued when the queue is half full, with the SAMPLE policy")
+    public int getSampleRate()
+    {
+        return _sampleRate;
+    }
+
+    @ManagedAttribute("The maximum number of queued entries")
+    public int getQueueCapacity()
+    {
+        return _queue.capacity();
+    }
+
+    @ManagedAttribute("The number of entries currently queued")
+    public int getQueueSize()
+    {
+        return _queue.size();
+    }
+
+    @ManagedAttribute("The total number of entries queued")
+    public long getQueuedEntries()
+    {
+        return _queued.sum();
+    }
+
+    @ManagedAttribute("The total number of entries dropped")
+    public long getDroppedEntries()
+    {
+        return _dropped.sum();
     }
 
     private class WriterThread extends Thread
@@ -59,30 +189,63 @@ public class AsyncRequestLogWriter extends RequestLogWriter
         @Override
         public void run()
         {
+            String[] batch = new String[Math.min(_queue.capacity(), MAX_BATCH_SIZE)];
             while (isRunning())
             {
                 try
                 {
-                    String log = _queue.poll(10, TimeUnit.SECONDS);
-                    if (log != null)
-                        AsyncRequestLogWriter.super.write(log);
-
-                    while (!_queue.isEmpty())
-                    {
-                        log = _queue.poll();
-                        if (log != null)
-                            AsyncRequestLogWriter.super.write(log);
-                    }
-                }
-                catch (InterruptedException e)
-                {
-                    LOG.trace("IGNORED", e);
+                    if (!drain(batch))
+                        await();
                 }
                 catch (Throwable t)
                 {
                     LOG.warn("Failed to write log", t);
                 }
             }
+
+            // Write the entries queued before stopping.
+            try
+            {
+                while (drain(batch))
+                {
+                    Thread.onSpinWait();
+                }
+            }
+            catch (Throwable t)
+            {
+                LOG.warn("Failed to write log", t);
+            }
+        }
+
+        private boolean drain(String[] batch) throws IOException
+        {
+            int length = _queue.drain(batch);
+            if (length == 0)
+                return _queue.size() > 0;
+            try
+            {
+                AsyncRequestLogWriter.super.write(batch, length);
+            }
+            finally
+            {
+                Arrays.fill(batch, 0, length, null);
+            }
+            return true;
+        }
+
+        private void await()
+        {
+            _waiting = true;
+            try
+            {
+                // Check again after publishing the waiting flag, to avoid missing a wakeup.
+                if (_queue.size() == 0 && isRunning())
+                    LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(10));
+            }
+            finally
+            {
+                _waiting = false;
+            }
         }
     }
 
@@ -106,11 +269,145 @@ public class AsyncRequestLogWriter extends RequestLogWriter
     @Override
     public void write(String log) throws IOException
     {
-        if (!_queue.offer(log))
+        switch (_backpressure)
+        {
+            case BLOCK ->
+            {
+                while (!_queue.offer(log))
+                {
+                    if (!isRunning())
+                    {
+                        dropped();
+                        return;
+                    }
+                    wakeup();
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+            case SAMPLE ->
+            {
+                if (_queue.size() >= _queue.capacity() / 2 && _sampled.incrementAndGet() % _sampleRate != 0)
+                {
+                    dropped();
+                    return;
+                }
+                if (!_queue.offer(log))
+                {
+                    dropped();
+                    return;
+                }
+            }
+            default ->
+            {
+                if (!_queue.offer(log))
+                {
+                    dropped();
+                    return;
+                }
+            }
+        }
+        _queued.increment();
+        if (_waiting)
+            wakeup();
+    }
+
+    private void wakeup()
+    {
+        Thread thread = _thread;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    private void dropped()
+    {
+        _dropped.increment();
+        if (!_warnedFull)
         {
-            if (_warnedFull)
-                LOG.warn("Log Queue overflow");
             _warnedFull = true;
+            LOG.warn("Log Queue overflow, dropping entries with {} policy", _backpressure);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[file=%s,backpressure=%s,queued=%d/%d,dropped=%d]",
+            getClass().getSimpleName(), hashCode(), getFileName(), _backpressure, getQueueSize(), getQueueCapacity(), getDroppedEntries());
+    }
+
+    /**
+     * <p>A bounded multi-producer single-consumer ring buffer.</p>
+     * <p>Producers claim a slot by incrementing the tail, then publish the entry
+     * in the slot; the consumer takes published entries from the head, and clears
+     * their slots before moving the head forward, so that the slots can be reused.</p>
+     */
+    private static class RingBuffer
+    {
+        private final AtomicReferenceArray<String> _slots;
+        private final int _mask;
+        private final AtomicLong _head = new AtomicLong();
+        private final AtomicLong _tail = new AtomicLong();
+
+        private RingBuffer(int capacity)
+        {
+            int size = Integer.highestOneBit(capacity);
+            if (size < capacity)
+                size <<= 1;
+            _slots = new AtomicReferenceArray<>(size);
+            _mask = size - 1;
+        }
+
+        private int capacity()
+        {
+            return _slots.length();
+        }
+
+        private int size()
+        {
+            long size = _tail.get() - _head.get();
+            return (int)Math.max(0, Math.min(size, capacity()));
+        }
+
+        private boolean offer(String entry)
+        {
+            while (true)
+            {
+                long tail = _tail.get();
+                if (tail - _head.get() >= capacity())
+                    return false;
+                if (_tail.compareAndSet(tail, tail + 1))
+                {
+                    _slots.set((int)(tail & _mask), entry);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * <p>Takes the entries that have been published, up to the length of the given array.</p>
+         * <p>Only called by the consumer thread.</p>
+         *
+         * @param entries the array to take the entries into
+         * @return the number of entries taken
+         */
+        private int drain(String[] entries)
+        {
+            long head = _head.get();
+            int length = 0;
+            while (length < entries.length)
+            {
+                int index = (int)(head & _mask);
+                String entry = _slots.get(index);
+                // The slot may be claimed but not published yet.
+                if (entry == null)
+                    break;
+                _slots.lazySet(index, null);
+                entries[length++] = entry;
+                ++head;
+            }
+            if (length > 0)
+                _head.lazySet(head);
+            return length;
         }
     }
 }
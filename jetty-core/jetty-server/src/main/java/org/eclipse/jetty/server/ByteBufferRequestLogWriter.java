@@ -0,0 +1,420 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link RequestLog.BufferWriter} that collects encoded log entries in batches
+ * and writes each batch to a {@link FileChannel} with a single gathering write.</p>
+ * <p>A batch is written when it holds {@link #getBatchSize() batchSize} entries,
+ * or at the latest after {@link #getFlushInterval() flushInterval} milliseconds.
+ * Entries are queued while a previous batch is being written, so that logging
+ * threads only block on the file when a full batch is waiting to be written.</p>
+ * <p>The buffers of the entries are released once they have been written.</p>
+ * <p>Unlike {@link RequestLogWriter}, this writer does not roll over the log file.</p>
+ */
+@ManagedObject("Request Log writer which writes batches of encoded entries to file")
+public class ByteBufferRequestLogWriter extends AbstractLifeCycle implements RequestLog.BufferWriter
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ByteBufferRequestLogWriter.class);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final AutoLock _lock = new AutoLock();
+    private final AutoLock _writeLock = new AutoLock();
+    private String _filename;
+    private boolean _append = true;
+    private int _batchSize = 64;
+    private long _flushInterval = 1000;
+    private Batch _pending;
+    private Batch _spare;
+    private WritableByteChannel _channel;
+    private boolean _closeChannel;
+    private ScheduledExecutorScheduler _scheduler;
+    private long _entries;
+    private long _batches;
+    private long _bytes;
+
+    public ByteBufferRequestLogWriter()
+    {
+        this(null);
+    }
+
+    public ByteBufferRequestLogWriter(String filename)
+    {
+        setFilename(filename);
+    }
+
+    /**
+     * @param filename the file to write the log entries to, or {@code null} to write to {@code System.err}
+     */
+    public void setFilename(String filename)
+    {
+        if (filename != null)
+        {
+            filename = filename.trim();
+            if (filename.length() == 0)
+                filename = null;
+        }
+        _filename = filename;
+    }
+
+    @ManagedAttribute("filename")
+    public String getFileName()
+    {
+        return _filename;
+    }
+
+    /**
+     * @param append true to append to an existing log file, false to truncate it when started
+     */
+    public void setAppend(boolean append)
+    {
+        _append = append;
+    }
+
+    @ManagedAttribute("if request log file will be appended after restart")
+    public boolean isAppend()
+    {
+        return _append;
+    }
+
+    /**
+     * @param batchSize the number of entries that are written with a single gathering write
+     */
+    public void setBatchSize(int batchSize)
+    {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        if (isRunning())
+            throw new IllegalStateException(getState());
+        _batchSize = batchSize;
+    }
+
+    @ManagedAttribute("The number of entries written with a single gathering write")
+    public int getBatchSize()
+    {
+        return _batchSize;
+    }
+
+    /**
+     * @param flushInterval the maximum time in milliseconds an entry waits before being written,
+     * or a value less than or equal to zero to write every entry immediately
+     */
+    public void setFlushInterval(long flushInterval)
+    {
+        if (isRunning())
+            throw new IllegalStateException(getState());
+        _flushInterval = flushInterval;
+    }
+
+    @ManagedAttribute("The maximum time in milliseconds an entry waits before being written")
+    public long getFlushInterval()
+    {
+        return _flushInterval;
+    }
+
+    @ManagedAttribute("The number of entries written")
+    public long getEntriesWritten()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _entries;
+        }
+    }
+
+    @ManagedAttribute("The number of batches written")
+    public long getBatchesWritten()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _batches;
+        }
+    }
+
+    @ManagedAttribute("The number of bytes written")
+    public long getBytesWritten()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _bytes;
+        }
+    }
+
+    @Override
+    public void write(String requestEntry) throws IOException
+    {
+        byte[] bytes = requestEntry.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + LINE_SEPARATOR.length);
+        buffer.put(bytes).put(LINE_SEPARATOR).flip();
+        write(RetainableByteBuffer.wrap(buffer));
+    }
+
+    @Override
+    public void write(RetainableByteBuffer requestEntry) throws IOException
+    {
+        boolean flush;
+        try (AutoLock l = _lock.lock())
+        {
+            if (_pending == null)
+            {
+                requestEntry.release();
+                return;
+            }
+            _pending.add(requestEntry);
+            flush = _flushInterval <= 0 || _pending.size() >= _batchSize;
+        }
+        if (flush)
+            flush();
+    }
+
+    /**
+     * <p>Writes the entries collected so far.</p>
+     *
+     * @throws IOException if the entries cannot be written
+     */
+    @ManagedOperation(value = "Writes the entries collected so far", impact = "ACTION")
+    public void flush() throws IOException
+    {
+        try (AutoLock w = _writeLock.lock())
+        {
+            Batch batch;
+            WritableByteChannel channel;
+            try (AutoLock l = _lock.lock())
+            {
+                batch = _pending;
+                if (batch == null || batch.size() == 0)
+                    return;
+                _pending = _spare;
+                _spare = null;
+                channel = _channel;
+            }
+
+            int entries = batch.size();
+            long bytes = -1;
+            try
+            {
+                bytes = batch.writeTo(channel);
+            }
+            finally
+            {
+                batch.clear();
+                try (AutoLock l = _lock.lock())
+                {
+                    _spare = batch;
+                    if (bytes >= 0)
+                    {
+                        _entries += entries;
+                        _batches++;
+                        _bytes += bytes;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        if (_filename != null)
+        {
+            if (_append)
+                _channel = FileChannel.open(Path.of(_filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            else
+                _channel = FileChannel.open(Path.of(_filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            _closeChannel = true;
+            LOG.info("Opened {}", _filename);
+        }
+        else
+        {
+            _channel = Channels.newChannel(System.err);
+            _closeChannel = false;
+        }
+
+        try (AutoLock l = _lock.lock())
+        {
+            _pending = new Batch(_batchSize);
+            _spare = new Batch(_batchSize);
+        }
+
+        if (_flushInterval > 0)
+        {
+            _scheduler = new ScheduledExecutorScheduler(String.format("ByteBufferRequestLogWriter@%x", hashCode()), true);
+            _scheduler.start();
+            _scheduler.schedule(this::onFlushInterval, _flushInterval, TimeUnit.MILLISECONDS);
+        }
+
+        super.doStart();
+    }
+
+    private void onFlushInterval()
+    {
+        Scheduler scheduler = _scheduler;
+        if (scheduler == null || !isRunning())
+            return;
+        try
+        {
+            flush();
+        }
+        catch (Throwable x)
+        {
+            LOG.warn("Failed to write log", x);
+        }
+        scheduler.schedule(this::onFlushInterval, _flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        super.doStop();
+
+        ScheduledExecutorScheduler scheduler = _scheduler;
+        _scheduler = null;
+        if (scheduler != null)
+            scheduler.stop();
+
+        try
+        {
+            flush();
+        }
+        catch (IOException e)
+        {
+            LOG.trace("IGNORED", e);
+        }
+
+        try (AutoLock w = _writeLock.lock())
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                // Release the entries that raced with the last flush.
+                if (_pending != null)
+                    _pending.clear();
+                _pending = null;
+                _spare = null;
+            }
+
+            if (_channel != null && _closeChannel)
+            {
+                try
+                {
+                    _channel.close();
+                }
+                catch (IOException e)
+                {
+                    LOG.trace("IGNORED", e);
+                }
+            }
+            _channel = null;
+            _closeChannel = false;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[file=%s,batchSize=%d,flushInterval=%d]", getClass().getSimpleName(), hashCode(), _filename, _batchSize, _flushInterval);
+    }
+
+    private static class Batch
+    {
+        private RetainableByteBuffer[] _entries;
+        private ByteBuffer[] _buffers;
+        private int _size;
+
+        private Batch(int capacity)
+        {
+            _entries = new RetainableByteBuffer[capacity];
+            _buffers = new ByteBuffer[capacity];
+        }
+
+        private int size()
+        {
+            return _size;
+        }
+
+        private void add(RetainableByteBuffer entry)
+        {
+            if (_size == _entries.length)
+            {
+                // Entries added while the previous batch was being written.
+                _entries = Arrays.copyOf(_entries, _size * 2);
+                _buffers = Arrays.copyOf(_buffers, _size * 2);
+            }
+            _entries[_size] = entry;
+            _buffers[_size] = entry.getByteBuffer();
+            _size++;
+        }
+
+        private long writeTo(WritableByteChannel channel) throws IOException
+        {
+            long written = 0;
+            if (channel instanceof GatheringByteChannel gathering)
+            {
+                int offset = 0;
+                while (offset < _size)
+                {
+                    written += gathering.write(_buffers, offset, _size - offset);
+                    while (offset < _size && !_buffers[offset].hasRemaining())
+                    {
+                        offset++;
+                    }
+                }
+            }
+            else
+            {
+                for (int i = 0; i < _size; ++i)
+                {
+                    ByteBuffer buffer = _buffers[i];
+                    while (buffer.hasRemaining())
+                    {
+                        written += channel.write(buffer);
+                    }
+                }
+            }
+            return written;
+        }
+
+        private void clear()
+        {
+            for (int i = 0; i < _size; ++i)
+            {
+                _entries[i].release();
+                _entries[i] = null;
+                _buffers[i] = null;
+            }
+            _size = 0;
+        }
+    }
+}
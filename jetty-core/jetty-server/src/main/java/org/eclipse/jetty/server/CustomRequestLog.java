@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.server;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
@@ -55,6 +56,9 @@ import static java.lang.invoke.MethodType.methodType;
  * which can be logged. Server and client refer to the logical addresses which can be modified in the request
  * headers. Where local and remote refer to the physical addresses which may be a proxy between the
  * end-user and the server.</p>
+ * <p>If the {@link RequestLog.Writer} is a {@link RequestLog.BufferWriter}, such as
+ * {@link ByteBufferRequestLogWriter}, log entries are encoded directly into buffers
+ * acquired from the server {@link org.eclipse.jetty.io.ByteBufferPool}, rather than into Strings.</p>
  *
  * <!-- tag::documentation[] -->
  * <p>Format codes are specified with the syntax <code>%MODIFIERS{PARAM}CODE</code> as follows:</p>
@@ -309,6 +313,7 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
     public static final String LOG_DETAIL = CustomRequestLog.class.getName() + ".logDetail";
     private static final Logger LOG = LoggerFactory.getLogger(CustomRequestLog.class);
     private static final ThreadLocal<StringBuilder> _buffers = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private static final ThreadLocal<RequestLogBuffer> _byteBuffers = ThreadLocal.withInitial(RequestLogBuffer::new);
 
     private final RequestLog.Writer _requestLogWriter;
     private final MethodHandle _logHandle;
@@ -380,8 +385,10 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
 
             _logHandle.invoke(sb, request, response);
 
-            String log = sb.toString();
-            _requestLogWriter.write(log);
+            if (_requestLogWriter instanceof RequestLog.BufferWriter bufferWriter)
+                write(bufferWriter, sb, request);
+            else
+                _requestLogWriter.write(sb.toString());
         }
         catch (Throwable e)
         {
@@ -389,6 +396,24 @@ public class CustomRequestLog extends ContainerLifeCycle implements RequestLog
         }
     }
 
+    private static void write(RequestLog.BufferWriter bufferWriter, StringBuilder sb, Request request) throws IOException
+    {
+        // Encode the entry directly into a pooled buffer, rather than into a String.
+        RequestLogBuffer buffer = _byteBuffers.get();
+        try
+        {
+            buffer.begin(request.getComponents().getByteBufferPool(), true, sb.length() + 16);
+            buffer.putUtf8(sb);
+            buffer.putUtf8(System.lineSeparator());
+        }
+        catch (Throwable x)
+        {
+            buffer.abort();
+            throw x;
+        }
+        bufferWriter.write(buffer.complete());
+    }
+
     /**
      * Set request paths that will not be logged.
      *
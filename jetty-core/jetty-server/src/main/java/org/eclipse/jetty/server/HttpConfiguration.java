@@ -64,6 +64,7 @@ public class HttpConfiguration implements Dumpable
     private int _responseHeaderSize = 8 * 1024;
     private int _headerCacheSize = 1024;
     private boolean _headerCacheCaseSensitive = false;
+    private boolean _headerCacheLearning = false;
     private int _securePort;
     private long _idleTimeout = -1;
     private String _secureScheme = HttpScheme.HTTPS.asString();
@@ -139,6 +140,7 @@ public class HttpConfiguration implements Dumpable
         _responseHeaderSize = config._responseHeaderSize;
         _headerCacheSize = config._headerCacheSize;
         _headerCacheCaseSensitive = config._headerCacheCaseSensitive;
+        _headerCacheLearning = config._headerCacheLearning;
         _secureScheme = config._secureScheme;
         _securePort = config._securePort;
         _idleTimeout = config._idleTimeout;
@@ -235,6 +237,12 @@ public class HttpConfiguration implements Dumpable
         return _headerCacheCaseSensitive;
     }
 
+    @ManagedAttribute("True if the header field cache learns fields repeated on a connection")
+    public boolean isHeaderCacheLearning()
+    {
+        return _headerCacheLearning;
+    }
+
     @ManagedAttribute("The port to which Integral or Confidential security constraints are redirected")
     public int getSecurePort()
     {
@@ -463,6 +471,20 @@ public class HttpConfiguration implements Dumpable
         this._headerCacheCaseSensitive = headerCacheCaseSensitive;
     }
 
+    /**
+     * <p>Sets whether the header field cache of each connection learns the
+     * fields that are repeated with the same value in subsequent requests,
+     * for example the forwarding or tracing headers added by a proxy.</p>
+     * <p>Learned fields are parsed into shared {@link org.eclipse.jetty.http.HttpField}
+     * instances, within the limit of the {@link #setHeaderCacheSize(int) header cache size}.</p>
+     *
+     * @param headerCacheLearning whether the header field cache learns repeated fields
+     */
+    public void setHeaderCacheLearning(boolean headerCacheLearning)
+    {
+        _headerCacheLearning = headerCacheLearning;
+    }
+
     /**
      * <p>Sets the TCP/IP port used for CONFIDENTIAL and INTEGRAL redirections.</p>
      *
@@ -841,6 +863,7 @@ public class HttpConfiguration implements Dumpable
             "responseHeaderSize=" + _responseHeaderSize,
             "headerCacheSize=" + _headerCacheSize,
             "headerCacheCaseSensitive=" + _headerCacheCaseSensitive,
+            "headerCacheLearning=" + _headerCacheLearning,
             "secureScheme=" + _secureScheme,
             "securePort=" + _securePort,
             "idleTimeout=" + _idleTimeout,
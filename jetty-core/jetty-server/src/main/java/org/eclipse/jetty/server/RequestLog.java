@@ -15,6 +15,8 @@ package org.eclipse.jetty.server;
 
 import java.io.IOException;
 
+import org.eclipse.jetty.io.RetainableByteBuffer;
+
 /**
  * TODO
  * @see Server#setRequestLog(RequestLog)
@@ -35,6 +37,25 @@ public interface RequestLog
         void write(String requestEntry) throws IOException;
     }
 
+    /**
+     * <p>A {@link Writer} that also accepts log entries already encoded into bytes,
+     * so that request logs can avoid creating a {@code String} for each request.</p>
+     * <p>Encoded entries are written as they are: text entries must include their
+     * own line terminator.</p>
+     */
+    interface BufferWriter extends Writer
+    {
+        /**
+         * <p>Writes an encoded log entry.</p>
+         * <p>The ownership of the buffer is passed to the writer, which must
+         * release it once the entry has been written or discarded.</p>
+         *
+         * @param requestEntry the encoded log entry, in flush mode
+         * @throws IOException if the entry cannot be written
+         */
+        void write(RetainableByteBuffer requestEntry) throws IOException;
+    }
+
     class Collection implements RequestLog
     {
         private final RequestLog[] _logs;
@@ -0,0 +1,256 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.eclipse.jetty.util.BufferUtil;
+
+/**
+ * <p>A reusable encoder of request log entries into {@link RetainableByteBuffer}s
+ * acquired from a {@link ByteBufferPool}.</p>
+ * <p>Text is encoded as UTF-8 character by character and numbers are encoded
+ * digit by digit, so that no intermediate {@code String} or {@code byte[]} is
+ * created; the buffer is replaced by a larger pooled buffer if an entry does not fit.</p>
+ * <p>Instances are not thread safe and are meant to be held in a {@link ThreadLocal}.</p>
+ */
+class RequestLogBuffer
+{
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    private ByteBufferPool _pool;
+    private boolean _direct;
+    private RetainableByteBuffer _buffer;
+    private ByteBuffer _byteBuffer;
+
+    /**
+     * <p>Starts a new entry.</p>
+     *
+     * @param pool the pool to acquire the buffer from
+     * @param direct whether to acquire a direct buffer
+     * @param size the initial capacity of the buffer
+     */
+    void begin(ByteBufferPool pool, boolean direct, int size)
+    {
+        if (_buffer != null)
+            abort();
+        _pool = pool;
+        _direct = direct;
+        _buffer = pool.acquire(size, direct);
+        _byteBuffer = _buffer.getByteBuffer();
+        BufferUtil.flipToFill(_byteBuffer);
+    }
+
+    /**
+     * @return the buffer holding the encoded entry in flush mode; the caller owns the buffer
+     */
+    RetainableByteBuffer complete()
+    {
+        RetainableByteBuffer buffer = _buffer;
+        BufferUtil.flipToFlush(_byteBuffer, 0);
+        _buffer = null;
+        _byteBuffer = null;
+        _pool = null;
+        return buffer;
+    }
+
+    /**
+     * <p>Releases the buffer of the current entry, if any.</p>
+     */
+    void abort()
+    {
+        RetainableByteBuffer buffer = _buffer;
+        _buffer = null;
+        _byteBuffer = null;
+        _pool = null;
+        if (buffer != null)
+            buffer.release();
+    }
+
+    int position()
+    {
+        return _byteBuffer.position();
+    }
+
+    void put(byte b)
+    {
+        ensure(1);
+        _byteBuffer.put(b);
+    }
+
+    void putInt(int value)
+    {
+        ensure(4);
+        _byteBuffer.putInt(value);
+    }
+
+    void putInt(int index, int value)
+    {
+        _byteBuffer.putInt(index, value);
+    }
+
+    void putLong(long value)
+    {
+        ensure(8);
+        _byteBuffer.putLong(value);
+    }
+
+    /**
+     * <p>Encodes the given number as decimal ASCII digits.</p>
+     *
+     * @param value the number to encode
+     */
+    void putDecimal(long value)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            putUtf8("-9223372036854775808");
+            return;
+        }
+        if (value < 0)
+        {
+            put((byte)'-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10)
+        {
+            ++digits;
+        }
+        ensure(digits);
+        int position = _byteBuffer.position();
+        for (int i = position + digits - 1; i >= position; --i)
+        {
+            _byteBuffer.put(i, (byte)('0' + value % 10));
+            value /= 10;
+        }
+        _byteBuffer.position(position + digits);
+    }
+
+    /**
+     * <p>Encodes the given characters as UTF-8.</p>
+     *
+     * @param chars the characters to encode
+     */
+    void putUtf8(CharSequence chars)
+    {
+        for (int i = 0; i < chars.length(); ++i)
+        {
+            char c = chars.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < chars.length() && Character.isLowSurrogate(chars.charAt(i + 1)))
+                putCodePoint(Character.toCodePoint(c, chars.charAt(++i)));
+            else
+                putCodePoint(c);
+        }
+    }
+
+    /**
+     * <p>Encodes the given characters as a JSON string, including the quotes.</p>
+     *
+     * @param chars the characters to encode, or {@code null} to encode the JSON {@code null} literal
+     */
+    void putJsonString(CharSequence chars)
+    {
+        if (chars == null)
+        {
+            putUtf8("null");
+            return;
+        }
+        put((byte)'"');
+        for (int i = 0; i < chars.length(); ++i)
+        {
+            char c = chars.charAt(i);
+            switch (c)
+            {
+                case '"', '\\' ->
+                {
+                    put((byte)'\\');
+                    put((byte)c);
+                }
+                case '\n' -> putUtf8("\\n");
+                case '\r' -> putUtf8("\\r");
+                case '\t' -> putUtf8("\\t");
+                default ->
+                {
+                    if (c < 0x20)
+                    {
+                        putUtf8("\\u00");
+                        put(HEX[c >> 4]);
+                        put(HEX[c & 0xF]);
+                    }
+                    else if (Character.isHighSurrogate(c) && i + 1 < chars.length() && Character.isLowSurrogate(chars.charAt(i + 1)))
+                    {
+                        putCodePoint(Character.toCodePoint(c, chars.charAt(++i)));
+                    }
+                    else
+                    {
+                        putCodePoint(c);
+                    }
+                }
+            }
+        }
+        put((byte)'"');
+    }
+
+    private void putCodePoint(int c)
+    {
+        if (c < 0x80)
+        {
+            put((byte)c);
+        }
+        else if (c < 0x800)
+        {
+            ensure(2);
+            _byteBuffer.put((byte)(0xC0 | (c >> 6)));
+            _byteBuffer.put((byte)(0x80 | (c & 0x3F)));
+        }
+        else if (Character.isSurrogate((char)c))
+        {
+            // Unpaired surrogate.
+            put((byte)'?');
+        }
+        else if (c < 0x10000)
+        {
+            ensure(3);
+            _byteBuffer.put((byte)(0xE0 | (c >> 12)));
+            _byteBuffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+            _byteBuffer.put((byte)(0x80 | (c & 0x3F)));
+        }
+        else
+        {
+            ensure(4);
+            _byteBuffer.put((byte)(0xF0 | (c >> 18)));
+            _byteBuffer.put((byte)(0x80 | ((c >> 12) & 0x3F)));
+            _byteBuffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+            _byteBuffer.put((byte)(0x80 | (c & 0x3F)));
+        }
+    }
+
+    private void ensure(int needed)
+    {
+        if (_byteBuffer.remaining() >= needed)
+            return;
+        int capacity = Math.max(_byteBuffer.capacity() * 2, _byteBuffer.position() + needed);
+        RetainableByteBuffer buffer = _pool.acquire(capacity, _direct);
+        ByteBuffer byteBuffer = buffer.getByteBuffer();
+        BufferUtil.flipToFill(byteBuffer);
+        _byteBuffer.flip();
+        byteBuffer.put(_byteBuffer);
+        _buffer.release();
+        _buffer = buffer;
+        _byteBuffer = byteBuffer;
+    }
+}
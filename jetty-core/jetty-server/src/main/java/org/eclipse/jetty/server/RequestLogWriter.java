@@ -182,6 +182,28 @@ public class RequestLogWriter extends AbstractLifeCycle implements RequestLog.Wr
         }
     }
 
+    /**
+     * <p>Writes several log entries, flushing the output only once.</p>
+     *
+     * @param requestEntries the log entries
+     * @param length the number of log entries to write from the start of the array
+     * @throws IOException if the entries cannot be written
+     */
+    protected void write(String[] requestEntries, int length) throws IOException
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (_writer == null)
+                return;
+            for (int i = 0; i < length; ++i)
+            {
+                _writer.write(requestEntries[i]);
+                _writer.write(System.lineSeparator());
+            }
+            _writer.flush();
+        }
+    }
+
     @Override
     protected void doStart() throws Exception
     {
@@ -98,7 +98,7 @@ public class ResourceService
                         if (contentFormat == null)
                             continue;
 
-                        HttpContent preCompressedContent = _contentFactory.getContent(path + contentFormat.getExtension());
+                        HttpContent preCompressedContent = _contentFactory.getCompressedContent(path, contentFormat);
                         if (preCompressedContent == null)
                             continue;
 
@@ -68,6 +68,15 @@ import org.eclipse.jetty.util.thread.Scheduler;
  * which should allow optimal performance even if all the connections used are performing
  * significant non-blocking work in the callback tasks.
  * </p>
+ * <h2>Sharded Accept</h2>
+ * <p>
+ * By default a single listening socket is used, and accepted connections are distributed
+ * in round-robin across the selectors.  If {@link #setShardedAccept(boolean) sharded accept}
+ * is enabled (which requires 0 acceptors), then one listening socket per selector is
+ * bound to the same address with {@code SO_REUSEPORT}, each registered with its own selector
+ * that also handles the connections accepted from it, so that the kernel spreads the
+ * incoming connections across the selectors and accepts are not serialized on a single socket.
+ * </p>
  */
 @ManagedObject("HTTP connector using NIO ByteChannels and Selectors")
 public class ServerConnector extends AbstractNetworkConnector
@@ -75,11 +84,13 @@ public class ServerConnector extends AbstractNetworkConnector
     private final SelectorManager _manager;
     private final AtomicReference<Closeable> _acceptor = new AtomicReference<>();
     private volatile ServerSocketChannel _acceptChannel;
+    private volatile ServerSocketChannel[] _acceptChannels = new ServerSocketChannel[0];
     private volatile boolean _inheritChannel = false;
     private volatile int _localPort = -1;
     private volatile int _acceptQueueSize = 0;
     private volatile boolean _reuseAddress = true;
     private volatile boolean _reusePort = false;
+    private volatile boolean _shardedAccept = false;
     private volatile boolean _acceptedTcpNoDelay = true;
     private volatile int _acceptedReceiveBufferSize = -1;
     private volatile int _acceptedSendBufferSize = -1;
@@ -223,7 +234,10 @@ public class ServerConnector extends AbstractNetworkConnector
     @Override
     protected void doStart() throws Exception
     {
-        addBean(_acceptChannel);
+        for (ServerSocketChannel channel : _acceptChannels)
+        {
+            addBean(channel);
+        }
 
         for (EventListener l : getBeans(SelectorManager.SelectorManagerListener.class))
             _manager.addEventListener(l);
@@ -232,8 +246,11 @@ public class ServerConnector extends AbstractNetworkConnector
 
         if (getAcceptors() == 0)
         {
-            _acceptChannel.configureBlocking(false);
-            _acceptor.set(_manager.acceptor(_acceptChannel));
+            for (ServerSocketChannel channel : _acceptChannels)
+            {
+                channel.configureBlocking(false);
+            }
+            _acceptor.set(newAcceptor());
         }
     }
 
@@ -244,8 +261,12 @@ public class ServerConnector extends AbstractNetworkConnector
 
         super.doStop();
 
-        removeBean(_acceptChannel);
+        for (ServerSocketChannel channel : _acceptChannels)
+        {
+            removeBean(channel);
+        }
         _acceptChannel = null;
+        _acceptChannels = new ServerSocketChannel[0];
 
         for (EventListener l : getBeans(EventListener.class))
         {
@@ -299,6 +320,7 @@ public class ServerConnector extends AbstractNetworkConnector
         if (isStarted())
             throw new IllegalStateException(getState());
         _acceptChannel = acceptChannel;
+        _acceptChannels = new ServerSocketChannel[]{acceptChannel};
         _acceptChannel.configureBlocking(true);
         _localPort = _acceptChannel.socket().getLocalPort();
         if (_localPort <= 0)
@@ -310,11 +332,46 @@ public class ServerConnector extends AbstractNetworkConnector
     {
         if (_acceptChannel == null)
         {
+            if (isShardedAccept() && getAcceptors() > 0)
+                throw new IllegalStateException("Sharded accept requires 0 acceptors: " + this);
             open(openAcceptChannel());
+            if (isShardedAccept())
+                openShardedAcceptChannels();
             super.open();
         }
     }
 
+    private void openShardedAcceptChannels() throws IOException
+    {
+        ServerSocketChannel acceptChannel = _acceptChannel;
+        if (!Boolean.TRUE.equals(getSocketOption(acceptChannel, StandardSocketOptions.SO_REUSEPORT)))
+        {
+            LOG.warn("SO_REUSEPORT not enabled on {}, not sharding accept for {}", acceptChannel, this);
+            return;
+        }
+
+        int shards = _manager.getSelectorCount();
+        ServerSocketChannel[] channels = new ServerSocketChannel[shards];
+        channels[0] = acceptChannel;
+        try
+        {
+            for (int i = 1; i < shards; ++i)
+            {
+                channels[i] = bindAcceptChannel(_localPort, true);
+                channels[i].configureBlocking(true);
+            }
+        }
+        catch (Throwable x)
+        {
+            for (int i = 1; i < shards; ++i)
+            {
+                IO.close(channels[i]);
+            }
+            throw x;
+        }
+        _acceptChannels = channels;
+    }
+
     /**
      * Called by {@link #open()} to obtain the accepting channel.
      *
@@ -334,22 +391,26 @@ public class ServerConnector extends AbstractNetworkConnector
         }
 
         if (serverChannel == null)
+            serverChannel = bindAcceptChannel(getPort(), isReusePort() || isShardedAccept());
+
+        return serverChannel;
+    }
+
+    private ServerSocketChannel bindAcceptChannel(int port, boolean reusePort) throws IOException
+    {
+        InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(port) : new InetSocketAddress(getHost(), port);
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEADDR, getReuseAddress());
+        setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEPORT, reusePort);
+        try
         {
-            InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(getPort()) : new InetSocketAddress(getHost(), getPort());
-            serverChannel = ServerSocketChannel.open();
-            setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEADDR, getReuseAddress());
-            setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEPORT, isReusePort());
-            try
-            {
-                serverChannel.bind(bindAddress, getAcceptQueueSize());
-            }
-            catch (Throwable e)
-            {
-                IO.close(serverChannel);
-                throw new IOException("Failed to bind to " + bindAddress, e);
-            }
+            serverChannel.bind(bindAddress, getAcceptQueueSize());
+        }
+        catch (Throwable e)
+        {
+            IO.close(serverChannel);
+            throw new IOException("Failed to bind to " + bindAddress, e);
         }
-
         return serverChannel;
     }
 
@@ -366,12 +427,26 @@ public class ServerConnector extends AbstractNetworkConnector
         }
     }
 
+    private <T> T getSocketOption(ServerSocketChannel channel, SocketOption<T> option)
+    {
+        try
+        {
+            return channel.getOption(option);
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not get {} on {}", option, channel, x);
+            return null;
+        }
+    }
+
     @Override
     public void close()
     {
         super.close();
 
-        // When acceptors == 0, we want the ServerSocketChannel
+        // When acceptors == 0, we want the ServerSocketChannel(s)
         // to be closed by the SelectorManager when the
         // SelectorManager is stopped (as a bean) in doStop().
         if (getAcceptors() > 0)
@@ -392,11 +467,36 @@ public class ServerConnector extends AbstractNetworkConnector
     }
 
     private void accepted(SocketChannel channel) throws IOException
+    {
+        configureAccepted(channel);
+        _manager.accept(channel);
+    }
+
+    private void configureAccepted(SocketChannel channel) throws IOException
     {
         channel.configureBlocking(false);
         Socket socket = channel.socket();
         configure(socket);
-        _manager.accept(channel);
+    }
+
+    private Closeable newAcceptor()
+    {
+        ServerSocketChannel[] channels = _acceptChannels;
+        if (channels.length == 1)
+            return _manager.acceptor(channels[0]);
+
+        Closeable[] acceptors = new Closeable[channels.length];
+        for (int i = 0; i < channels.length; ++i)
+        {
+            acceptors[i] = _manager.acceptor(channels[i], i);
+        }
+        return () ->
+        {
+            for (Closeable acceptor : acceptors)
+            {
+                acceptor.close();
+            }
+        };
     }
 
     protected void configure(Socket socket)
@@ -496,6 +596,40 @@ public class ServerConnector extends AbstractNetworkConnector
         _reusePort = reusePort;
     }
 
+    /**
+     * @return whether one listening socket per selector is opened with {@code SO_REUSEPORT}
+     */
+    @ManagedAttribute("Whether one SO_REUSEPORT socket per selector is used to accept connections")
+    public boolean isShardedAccept()
+    {
+        return _shardedAccept;
+    }
+
+    /**
+     * <p>Sets whether one listening socket per selector is bound with {@code SO_REUSEPORT},
+     * each accepting connections on, and handing them to, its own selector.</p>
+     * <p>Sharded accept requires the connector to be configured with 0 acceptors.
+     * If {@code SO_REUSEPORT} is not available, or the channel is inherited or
+     * {@link #open(ServerSocketChannel) passed in}, a single listening socket is used.</p>
+     *
+     * @param shardedAccept whether one listening socket per selector is used
+     */
+    public void setShardedAccept(boolean shardedAccept)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _shardedAccept = shardedAccept;
+    }
+
+    /**
+     * @return the number of listening sockets this connector accepts connections from
+     */
+    @ManagedAttribute("The number of listening sockets")
+    public int getAcceptChannelCount()
+    {
+        return _acceptChannels.length;
+    }
+
     /**
      * @return whether the accepted socket gets {@link java.net.SocketOptions#TCP_NODELAY TCP_NODELAY} enabled.
      * @see Socket#getTcpNoDelay()
@@ -570,7 +704,7 @@ public class ServerConnector extends AbstractNetworkConnector
             {
                 if (_acceptor.get() == null)
                 {
-                    Closeable acceptor = _manager.acceptor(_acceptChannel);
+                    Closeable acceptor = newAcceptor();
                     if (!_acceptor.compareAndSet(null, acceptor))
                         acceptor.close();
                 }
@@ -601,6 +735,21 @@ public class ServerConnector extends AbstractNetworkConnector
             ServerConnector.this.accepted((SocketChannel)channel);
         }
 
+        @Override
+        protected void accepted(ManagedSelector selector, SelectableChannel channel) throws IOException
+        {
+            // A sharded listening socket keeps its connections on its own selector.
+            if (getAcceptChannelCount() > 1)
+            {
+                configureAccepted((SocketChannel)channel);
+                accept(selector, channel, null);
+            }
+            else
+            {
+                super.accepted(selector, channel);
+            }
+        }
+
         @Override
         protected SocketChannelEndPoint newEndPoint(SelectableChannel channel, ManagedSelector selector, SelectionKey selectionKey) throws IOException
         {
@@ -23,7 +23,9 @@ import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.io.AbstractConnection;
 import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ssl.KernelTlsOffload;
 import org.eclipse.jetty.io.ssl.SslConnection;
+import org.eclipse.jetty.io.ssl.SslHandshakeExecutor;
 import org.eclipse.jetty.io.ssl.SslHandshakeListener;
 import org.eclipse.jetty.util.annotation.Name;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
@@ -40,6 +42,9 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
     private boolean _directBuffersForEncryption = false;
     private boolean _directBuffersForDecryption = false;
     private boolean _ensureSecureRequestCustomizer = true;
+    private int _maxOutputRecords = 2;
+    private KernelTlsOffload _kernelTlsOffload;
+    private SslHandshakeExecutor _handshakeExecutor;
 
     public SslConnectionFactory()
     {
@@ -84,6 +89,63 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         return _directBuffersForEncryption;
     }
 
+    /**
+     * @return the max number of TLS records that are wrapped before writing them to the network
+     * @see SslConnection#getMaxOutputRecords()
+     */
+    public int getMaxOutputRecords()
+    {
+        return _maxOutputRecords;
+    }
+
+    /**
+     * @param maxOutputRecords the max number of TLS records that are wrapped before writing them to the network
+     * @see SslConnection#setMaxOutputRecords(int)
+     */
+    public void setMaxOutputRecords(int maxOutputRecords)
+    {
+        if (maxOutputRecords < 1)
+            throw new IllegalArgumentException("Invalid max output records " + maxOutputRecords);
+        _maxOutputRecords = maxOutputRecords;
+    }
+
+    /**
+     * @return the {@link SslHandshakeExecutor} set on the TLS connections, or {@code null}
+     * @see SslConnection#getHandshakeExecutor()
+     */
+    public SslHandshakeExecutor getHandshakeExecutor()
+    {
+        return _handshakeExecutor;
+    }
+
+    /**
+     * @param handshakeExecutor the {@link SslHandshakeExecutor} to set on the TLS connections, or {@code null}
+     * @see SslConnection#setHandshakeExecutor(SslHandshakeExecutor)
+     */
+    public void setHandshakeExecutor(SslHandshakeExecutor handshakeExecutor)
+    {
+        updateBean(_handshakeExecutor, handshakeExecutor);
+        _handshakeExecutor = handshakeExecutor;
+    }
+
+    /**
+     * @return the {@link KernelTlsOffload} set on the TLS connections, or {@code null}
+     * @see SslConnection#getKernelTlsOffload()
+     */
+    public KernelTlsOffload getKernelTlsOffload()
+    {
+        return _kernelTlsOffload;
+    }
+
+    /**
+     * @param kernelTlsOffload the {@link KernelTlsOffload} to set on the TLS connections, or {@code null}
+     * @see SslConnection#setKernelTlsOffload(KernelTlsOffload)
+     */
+    public void setKernelTlsOffload(KernelTlsOffload kernelTlsOffload)
+    {
+        _kernelTlsOffload = kernelTlsOffload;
+    }
+
     public String getNextProtocol()
     {
         return _nextProtocol;
@@ -120,6 +182,13 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
     @Override
     public void configure(Connector connector)
     {
+        SslHandshakeExecutor handshakeExecutor = getHandshakeExecutor();
+        if (handshakeExecutor != null && connector instanceof AbstractConnector abstractConnector)
+        {
+            // Like ConnectionLimit and AcceptRateLimit, stop accepting
+            // connections while the TLS handshake queue is full.
+            handshakeExecutor.addListener(new HandshakeQueueAcceptLimit(abstractConnector));
+        }
         if (isEnsureSecureRequestCustomizer())
         {
             connector.getContainedBeans(HttpConfiguration.class).forEach(configuration ->
@@ -153,6 +222,9 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         SslConnection sslConnection = newSslConnection(connector, endPoint, engine);
         sslConnection.setRenegotiationAllowed(_sslContextFactory.isRenegotiationAllowed());
         sslConnection.setRenegotiationLimit(_sslContextFactory.getRenegotiationLimit());
+        sslConnection.setMaxOutputRecords(getMaxOutputRecords());
+        sslConnection.setKernelTlsOffload(getKernelTlsOffload());
+        sslConnection.setHandshakeExecutor(getHandshakeExecutor());
         configure(sslConnection, connector, endPoint);
 
         ConnectionFactory next = connector.getConnectionFactory(_nextProtocol);
@@ -185,4 +257,19 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
     {
         return String.format("%s@%x{%s->%s}", this.getClass().getSimpleName(), hashCode(), getProtocol(), _nextProtocol);
     }
+
+    private record HandshakeQueueAcceptLimit(AbstractConnector connector) implements SslHandshakeExecutor.Listener
+    {
+        @Override
+        public void onQueueFull(SslHandshakeExecutor executor)
+        {
+            connector.setAccepting(false);
+        }
+
+        @Override
+        public void onQueueAvailable(SslHandshakeExecutor executor)
+        {
+            connector.setAccepting(true);
+        }
+    }
 }
@@ -0,0 +1,345 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A RequestLog that encodes a fixed set of {@link Field fields} of each request
+ * directly into a buffer acquired from the server {@link ByteBufferPool}, and passes
+ * the buffer to a {@link RequestLog.BufferWriter}, such as {@link ByteBufferRequestLogWriter}.</p>
+ * <p>No {@code String} is created to hold the log entry, which is encoded in one of
+ * the following {@link Layout layouts}:</p>
+ * <dl>
+ * <dt>{@link Layout#JSON}</dt>
+ * <dd>One JSON object per line, with the {@link Field#getName() field names} as keys,
+ * numeric fields as JSON numbers and missing values as {@code null}.</dd>
+ * <dt>{@link Layout#BINARY}</dt>
+ * <dd>Length-prefixed records: a 4 bytes big endian length of the rest of the record,
+ * followed by each field as 1 byte {@link Field#ordinal() field id} and then either
+ * an 8 bytes big endian value for numeric fields or, for text fields, a 4 bytes big endian
+ * length ({@code -1} for missing values) followed by the UTF-8 bytes of the value.</dd>
+ * </dl>
+ * <p>For the format syntax of {@link CustomRequestLog}, use a {@link CustomRequestLog}
+ * with a {@link RequestLog.BufferWriter}.</p>
+ */
+@ManagedObject("Structured Request Log")
+public class StructuredRequestLog extends ContainerLifeCycle implements RequestLog
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StructuredRequestLog.class);
+    private static final ThreadLocal<RequestLogBuffer> _buffers = ThreadLocal.withInitial(RequestLogBuffer::new);
+
+    /**
+     * The encoding of log entries.
+     */
+    public enum Layout
+    {
+        JSON, BINARY
+    }
+
+    /**
+     * The request and response characteristics that can be logged.
+     */
+    public enum Field
+    {
+        /**
+         * The request timestamp, in milliseconds since the epoch.
+         */
+        TIMESTAMP("timestamp", true),
+        /**
+         * The remote address of the client.
+         */
+        REMOTE_ADDRESS("remoteAddress", false),
+        /**
+         * The remote port of the client.
+         */
+        REMOTE_PORT("remotePort", true),
+        /**
+         * The server name of the request.
+         */
+        SERVER_NAME("serverName", false),
+        /**
+         * The request method.
+         */
+        METHOD("method", false),
+        /**
+         * The request path and query.
+         */
+        URI("uri", false),
+        /**
+         * The request protocol.
+         */
+        PROTOCOL("protocol", false),
+        /**
+         * The response status code.
+         */
+        STATUS("status", true),
+        /**
+         * The number of request content bytes received.
+         */
+        BYTES_RECEIVED("bytesReceived", true),
+        /**
+         * The number of response content bytes sent.
+         */
+        BYTES_SENT("bytesSent", true),
+        /**
+         * The time taken to handle the request, in microseconds.
+         */
+        LATENCY("latency", true),
+        /**
+         * The {@code Referer} request header.
+         */
+        REFERER("referer", false),
+        /**
+         * The {@code User-Agent} request header.
+         */
+        USER_AGENT("userAgent", false);
+
+        private final String _name;
+        private final boolean _numeric;
+
+        Field(String name, boolean numeric)
+        {
+            _name = name;
+            _numeric = numeric;
+        }
+
+        /**
+         * @return the name of the field in the JSON layout
+         */
+        public String getName()
+        {
+            return _name;
+        }
+
+        /**
+         * @return whether the field value is a number
+         */
+        public boolean isNumeric()
+        {
+            return _numeric;
+        }
+    }
+
+    private final RequestLog.BufferWriter _requestLogWriter;
+    private Layout _layout = Layout.JSON;
+    private Field[] _fields = Field.values();
+    private int _bufferSize = 512;
+    private boolean _useDirectByteBuffers = true;
+    private BiPredicate<Request, Response> _filter;
+
+    public StructuredRequestLog(String file)
+    {
+        this(new ByteBufferRequestLogWriter(file));
+    }
+
+    public StructuredRequestLog(RequestLog.BufferWriter writer)
+    {
+        _requestLogWriter = Objects.requireNonNull(writer);
+        installBean(_requestLogWriter);
+    }
+
+    @ManagedAttribute("The RequestLogWriter")
+    public RequestLog.BufferWriter getWriter()
+    {
+        return _requestLogWriter;
+    }
+
+    /**
+     * @param layout the encoding of log entries
+     */
+    public void setLayout(Layout layout)
+    {
+        _layout = Objects.requireNonNull(layout);
+    }
+
+    @ManagedAttribute("The encoding of log entries")
+    public Layout getLayout()
+    {
+        return _layout;
+    }
+
+    /**
+     * @param fields the fields to log, in order
+     */
+    public void setFields(List<Field> fields)
+    {
+        if (fields.isEmpty())
+            throw new IllegalArgumentException("No fields");
+        _fields = fields.toArray(Field[]::new);
+    }
+
+    @ManagedAttribute("The fields logged")
+    public List<Field> getFields()
+    {
+        return List.of(_fields);
+    }
+
+    /**
+     * @param bufferSize the initial size of the buffer an entry is encoded into
+     */
+    public void setBufferSize(int bufferSize)
+    {
+        _bufferSize = bufferSize;
+    }
+
+    @ManagedAttribute("The initial size of the buffer an entry is encoded into")
+    public int getBufferSize()
+    {
+        return _bufferSize;
+    }
+
+    /**
+     * @param useDirectByteBuffers whether entries are encoded into direct buffers
+     */
+    public void setUseDirectByteBuffers(boolean useDirectByteBuffers)
+    {
+        _useDirectByteBuffers = useDirectByteBuffers;
+    }
+
+    @ManagedAttribute("Whether entries are encoded into direct buffers")
+    public boolean isUseDirectByteBuffers()
+    {
+        return _useDirectByteBuffers;
+    }
+
+    /**
+     * @param filter a BiPredicate which returns true if this request should be logged
+     */
+    public void setFilter(BiPredicate<Request, Response> filter)
+    {
+        _filter = filter;
+    }
+
+    @Override
+    public void log(Request request, Response response)
+    {
+        if (_filter != null && !_filter.test(request, response))
+            return;
+
+        RequestLogBuffer buffer = _buffers.get();
+        try
+        {
+            buffer.begin(request.getComponents().getByteBufferPool(), _useDirectByteBuffers, _bufferSize);
+            if (_layout == Layout.BINARY)
+                encodeBinary(buffer, request, response);
+            else
+                encodeJson(buffer, request, response);
+            _requestLogWriter.write(buffer.complete());
+        }
+        catch (Throwable x)
+        {
+            buffer.abort();
+            LOG.warn("Unable to log request", x);
+        }
+    }
+
+    private void encodeJson(RequestLogBuffer buffer, Request request, Response response)
+    {
+        buffer.put((byte)'{');
+        for (int i = 0; i < _fields.length; ++i)
+        {
+            Field field = _fields[i];
+            if (i > 0)
+                buffer.put((byte)',');
+            buffer.put((byte)'"');
+            buffer.putUtf8(field.getName());
+            buffer.put((byte)'"');
+            buffer.put((byte)':');
+            if (field.isNumeric())
+                buffer.putDecimal(getNumber(field, request, response));
+            else
+                buffer.putJsonString(getText(field, request, response));
+        }
+        buffer.put((byte)'}');
+        buffer.put((byte)'\n');
+    }
+
+    private void encodeBinary(RequestLogBuffer buffer, Request request, Response response)
+    {
+        int start = buffer.position();
+        buffer.putInt(0);
+        for (Field field : _fields)
+        {
+            buffer.put((byte)field.ordinal());
+            if (field.isNumeric())
+            {
+                buffer.putLong(getNumber(field, request, response));
+            }
+            else
+            {
+                String text = getText(field, request, response);
+                if (text == null)
+                {
+                    buffer.putInt(-1);
+                }
+                else
+                {
+                    int index = buffer.position();
+                    buffer.putInt(0);
+                    buffer.putUtf8(text);
+                    buffer.putInt(index, buffer.position() - index - 4);
+                }
+            }
+        }
+        buffer.putInt(start, buffer.position() - start - 4);
+    }
+
+    private static long getNumber(Field field, Request request, Response response)
+    {
+        return switch (field)
+        {
+            case TIMESTAMP -> Request.getTimeStamp(request);
+            case REMOTE_PORT -> Request.getRemotePort(request);
+            case STATUS -> response.getStatus();
+            case BYTES_RECEIVED -> Request.getContentBytesRead(request);
+            case BYTES_SENT -> Response.getContentBytesWritten(response);
+            case LATENCY -> TimeUnit.NANOSECONDS.toMicros(NanoTime.since(request.getBeginNanoTime()));
+            default -> throw new IllegalArgumentException(field.name());
+        };
+    }
+
+    private static String getText(Field field, Request request, Response response)
+    {
+        return switch (field)
+        {
+            case REMOTE_ADDRESS -> Request.getRemoteAddr(request);
+            case SERVER_NAME -> Request.getServerName(request);
+            case METHOD -> request.getMethod();
+            case URI -> request.getHttpURI().getPathQuery();
+            case PROTOCOL -> request.getConnectionMetaData().getProtocol();
+            case REFERER -> request.getHeaders().get(HttpHeader.REFERER);
+            case USER_AGENT -> request.getHeaders().get(HttpHeader.USER_AGENT);
+            default -> throw new IllegalArgumentException(field.name());
+        };
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[layout=%s,fields=%d]", getClass().getSimpleName(), hashCode(), _layout, _fields.length);
+    }
+}
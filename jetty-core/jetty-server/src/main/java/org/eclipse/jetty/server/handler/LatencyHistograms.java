@@ -0,0 +1,173 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.handler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.annotation.Name;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.statistic.HistogramStatistic;
+
+/**
+ * <p>Histograms of request latencies, for all requests and for each response status class
+ * ({@code 1xx} to {@code 5xx}), from which latency percentiles can be reported.</p>
+ * <p>Instances are used by {@link StatisticsHandler} and {@link LatencyRecordingHandler.Histograms},
+ * and are exposed via JMX and dumps.</p>
+ *
+ * @see HistogramStatistic
+ */
+@ManagedObject("Request latency histograms")
+public class LatencyHistograms implements Dumpable
+{
+    private final HistogramStatistic _all;
+    private final HistogramStatistic[] _statusClasses = new HistogramStatistic[5];
+
+    /**
+     * <p>Creates histograms for latencies up to one hour, with a relative error of about 3%.</p>
+     */
+    public LatencyHistograms()
+    {
+        this(HistogramStatistic::new);
+    }
+
+    /**
+     * @param highestTrackableLatency the highest latency in nanoseconds that is tracked precisely
+     * @param precision the number of bits of precision of the histograms
+     */
+    public LatencyHistograms(long highestTrackableLatency, int precision)
+    {
+        this(() -> new HistogramStatistic(highestTrackableLatency, precision));
+    }
+
+    private LatencyHistograms(Supplier<HistogramStatistic> factory)
+    {
+        _all = factory.get();
+        for (int i = 0; i < _statusClasses.length; ++i)
+        {
+            _statusClasses[i] = factory.get();
+        }
+    }
+
+    /**
+     * Records the latency of a completed request.
+     *
+     * @param status the response status code
+     * @param latencyInNs the request latency in nanoseconds
+     */
+    public void record(int status, long latencyInNs)
+    {
+        _all.record(latencyInNs);
+        int statusClass = status / 100;
+        if (statusClass >= 1 && statusClass <= 5)
+            _statusClasses[statusClass - 1].record(latencyInNs);
+    }
+
+    /**
+     * @return the histogram of the latencies of all requests
+     */
+    public HistogramStatistic getHistogram()
+    {
+        return _all;
+    }
+
+    /**
+     * @param statusClass the response status class, from 1 for {@code 1xx} to 5 for {@code 5xx}
+     * @return the histogram of the latencies of the requests with the given status class
+     */
+    public HistogramStatistic getHistogram(int statusClass)
+    {
+        if (statusClass < 1 || statusClass > 5)
+            throw new IllegalArgumentException("Invalid status class: " + statusClass);
+        return _statusClasses[statusClass - 1];
+    }
+
+    @ManagedOperation(value = "resets the histograms", impact = "ACTION")
+    public void reset()
+    {
+        _all.reset();
+        for (HistogramStatistic histogram : _statusClasses)
+        {
+            histogram.reset();
+        }
+    }
+
+    @ManagedAttribute("number of requests recorded")
+    public long getCount()
+    {
+        return _all.snapshot().getCount();
+    }
+
+    @ManagedAttribute("50th percentile of the request latency (in ns)")
+    public long getLatencyP50()
+    {
+        return _all.snapshot().getValueAtPercentile(50);
+    }
+
+    @ManagedAttribute("90th percentile of the request latency (in ns)")
+    public long getLatencyP90()
+    {
+        return _all.snapshot().getValueAtPercentile(90);
+    }
+
+    @ManagedAttribute("99th percentile of the request latency (in ns)")
+    public long getLatencyP99()
+    {
+        return _all.snapshot().getValueAtPercentile(99);
+    }
+
+    @ManagedAttribute("99.9th percentile of the request latency (in ns)")
+    public long getLatencyP999()
+    {
+        return _all.snapshot().getValueAtPercentile(99.9);
+    }
+
+    @ManagedAttribute("maximum request latency (in ns)")
+    public long getLatencyMax()
+    {
+        return _all.snapshot().getMax();
+    }
+
+    @ManagedOperation(value = "the request latency (in ns) at the given percentile, for the given status class (0 for all)", impact = "INFO")
+    public long getLatencyAtPercentile(@Name("statusClass") int statusClass, @Name("percentile") double percentile)
+    {
+        HistogramStatistic histogram = statusClass == 0 ? _all : getHistogram(statusClass);
+        return histogram.snapshot().getValueAtPercentile(percentile);
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        List<Object> items = new ArrayList<>();
+        items.add(Dumpable.named("all", _all.snapshot()));
+        for (int i = 0; i < _statusClasses.length; ++i)
+        {
+            HistogramStatistic.Snapshot snapshot = _statusClasses[i].snapshot();
+            if (snapshot.getCount() > 0)
+                items.add(Dumpable.named((i + 1) + "xx", snapshot));
+        }
+        Dumpable.dumpObjects(out, indent, this, items.toArray());
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x", getClass().getSimpleName(), hashCode());
+    }
+}
@@ -13,10 +13,14 @@
 
 package org.eclipse.jetty.server.handler;
 
+import java.util.Objects;
+
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 
 /**
  * <p>A <code>Handler</code> that helps recording the total latency of the requests executed by the wrapped handler.</p>
@@ -38,7 +42,20 @@ public abstract class LatencyRecordingHandler extends EventsHandler
     @Override
     protected final void onComplete(Request request, int status, HttpFields headers, Throwable failure)
     {
-        onRequestComplete(request.getId(), NanoTime.since(request.getBeginNanoTime()));
+        onRequestComplete(request, status, NanoTime.since(request.getBeginNanoTime()));
+    }
+
+    /**
+     * <p>Called back for each completed request with its response status and its execution's latency.</p>
+     * <p>This implementation calls {@link #onRequestComplete(String, long)}.</p>
+     *
+     * @param request the completed request
+     * @param status the response status code
+     * @param durationInNs the duration in nanoseconds of the completed request
+     */
+    protected void onRequestComplete(Request request, int status, long durationInNs)
+    {
+        onRequestComplete(request.getId(), durationInNs);
     }
 
     /**
@@ -48,4 +65,48 @@ public abstract class LatencyRecordingHandler extends EventsHandler
      * @param durationInNs the duration in nanoseconds of the completed request
      */
     protected abstract void onRequestComplete(String requestId, long durationInNs);
+
+    /**
+     * <p>A {@code LatencyRecordingHandler} that records the latencies in {@link LatencyHistograms},
+     * per response status class, so that latency percentiles can be reported.</p>
+     */
+    @ManagedObject("Records request latency histograms")
+    public static class Histograms extends LatencyRecordingHandler
+    {
+        private final LatencyHistograms _latencyHistograms;
+
+        public Histograms()
+        {
+            this(null);
+        }
+
+        public Histograms(Handler handler)
+        {
+            this(handler, new LatencyHistograms());
+        }
+
+        public Histograms(Handler handler, LatencyHistograms latencyHistograms)
+        {
+            super(handler);
+            _latencyHistograms = Objects.requireNonNull(latencyHistograms);
+            installBean(_latencyHistograms);
+        }
+
+        @ManagedAttribute("The request latency histograms")
+        public LatencyHistograms getLatencyHistograms()
+        {
+            return _latencyHistograms;
+        }
+
+        @Override
+        protected void onRequestComplete(Request request, int status, long durationInNs)
+        {
+            _latencyHistograms.record(status, durationInNs);
+        }
+
+        @Override
+        protected void onRequestComplete(String requestId, long durationInNs)
+        {
+        }
+    }
 }
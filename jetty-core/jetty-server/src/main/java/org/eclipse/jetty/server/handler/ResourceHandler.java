@@ -20,6 +20,7 @@ import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpURI;
 import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.http.content.CachingHttpContentFactory;
 import org.eclipse.jetty.http.content.FileMappingHttpContentFactory;
 import org.eclipse.jetty.http.content.HttpContent;
 import org.eclipse.jetty.http.content.PreCompressedHttpContentFactory;
@@ -33,6 +34,7 @@ import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.ResourceService;
 import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.jetty.util.resource.Resource;
@@ -62,6 +64,7 @@ public class ResourceHandler extends Handler.Wrapper
     private MimeTypes _mimeTypes;
     private List<String> _welcomes = List.of("index.html");
     private boolean _useFileMapping = true;
+    private boolean _cacheCompressedContent;
 
     public ResourceHandler()
     {
@@ -101,7 +104,10 @@ public class ResourceHandler extends Handler.Wrapper
 
         _byteBufferPool = getByteBufferPool(context);
         ResourceService resourceService = getResourceService();
-        resourceService.setHttpContentFactory(newHttpContentFactory());
+        HttpContent.Factory contentFactory = newHttpContentFactory();
+        // Expose the content factory, for example to report the cache statistics via JMX.
+        updateBean(resourceService.getHttpContentFactory(), contentFactory);
+        resourceService.setHttpContentFactory(contentFactory);
         resourceService.setWelcomeFactory(setupWelcomeFactory());
         if (getStyleSheet() == null)
             setStyleSheet(getServer().getDefaultStyleSheet());
@@ -131,8 +137,30 @@ public class ResourceHandler extends Handler.Wrapper
             contentFactory = new FileMappingHttpContentFactory(contentFactory);
         contentFactory = new VirtualHttpContentFactory(contentFactory, getStyleSheet(), "text/css");
         contentFactory = new PreCompressedHttpContentFactory(contentFactory, getPrecompressedFormats());
-        contentFactory = new ValidatingCachingHttpContentFactory(contentFactory, Duration.ofSeconds(1).toMillis(), getByteBufferPool());
-        return contentFactory;
+        GzipHandler gzipHandler = isCacheCompressedContent() ? Handler.AbstractContainer.findContainerOf(getServer(), GzipHandler.class, this) : null;
+        if (gzipHandler == null)
+            return new ValidatingCachingHttpContentFactory(contentFactory, Duration.ofSeconds(1).toMillis(), getByteBufferPool());
+
+        // Compress cacheable content with the same codecs and rules used by the GzipHandler.
+        CachingHttpContentFactory cachingContentFactory = new ValidatingCachingHttpContentFactory(contentFactory, Duration.ofSeconds(1).toMillis(), getByteBufferPool())
+        {
+            @Override
+            protected boolean isCompressible(String path, HttpContent httpContent)
+            {
+                if (httpContent.getContentEncoding() != null || httpContent.getContentLengthValue() < getMinCompressSize())
+                    return false;
+                List<String> gzipEquivalentFileExtensions = getGzipEquivalentFileExtensions();
+                if (gzipEquivalentFileExtensions != null && gzipEquivalentFileExtensions.stream().anyMatch(path::endsWith))
+                    return false;
+                String contentType = httpContent.getContentTypeValue();
+                if (contentType == null)
+                    return false;
+                return gzipHandler.isMimeTypeDeflatable(MimeTypes.getContentTypeWithoutCharset(contentType)) && gzipHandler.isPathDeflatable(path);
+            }
+        };
+        cachingContentFactory.setCompressionCodecs(gzipHandler.getCompressionCodecs());
+        cachingContentFactory.setMinCompressSize(gzipHandler.getMinGzipSize());
+        return cachingContentFactory;
     }
 
     protected ResourceService.WelcomeFactory setupWelcomeFactory()
@@ -251,6 +279,15 @@ public class ResourceHandler extends Handler.Wrapper
         return _useFileMapping;
     }
 
+    /**
+     * @return whether the compressed variants of the cached content are also cached
+     * @see #setCacheCompressedContent(boolean)
+     */
+    public boolean isCacheCompressedContent()
+    {
+        return _cacheCompressedContent;
+    }
+
     /**
      * @return Precompressed resources formats that can be used to serve compressed variant of resources.
      */
@@ -368,6 +405,23 @@ public class ResourceHandler extends Handler.Wrapper
         _useFileMapping = useFileMapping;
     }
 
+    /**
+     * <p>Sets whether the compressed variants of the cached content are also cached.</p>
+     * <p>When enabled and this handler is wrapped by a {@link GzipHandler}, the content
+     * that the {@link GzipHandler} would compress is compressed once with each of its
+     * {@link GzipHandler#getCompressionCodecs() codecs}, and the compressed variants are
+     * cached and served as precompressed content, rather than being compressed again
+     * for every request.</p>
+     *
+     * @param cacheCompressedContent whether the compressed variants of the cached content are also cached
+     */
+    public void setCacheCompressedContent(boolean cacheCompressedContent)
+    {
+        if (isRunning())
+            throw new IllegalStateException("Unable to set cacheCompressedContent on started " + this);
+        _cacheCompressedContent = cacheCompressedContent;
+    }
+
     public void setWelcomeMode(ResourceService.WelcomeMode welcomeMode)
     {
         _resourceService.setWelcomeMode(welcomeMode);
@@ -48,6 +48,7 @@ public class StatisticsHandler extends EventsHandler
     private final LongAdder _responses5xx = new LongAdder();
     private final LongAdder _bytesRead = new LongAdder();
     private final LongAdder _bytesWritten = new LongAdder();
+    private volatile LatencyHistograms _latencyHistograms;
     private long _startTime = NanoTime.now();
 
     public StatisticsHandler()
@@ -102,7 +103,11 @@ public class StatisticsHandler extends EventsHandler
     {
         if (failure != null)
             _failures.increment();
-        _requestTimeStats.record(NanoTime.since(request.getBeginNanoTime()));
+        long requestTime = NanoTime.since(request.getBeginNanoTime());
+        _requestTimeStats.record(requestTime);
+        LatencyHistograms latencyHistograms = _latencyHistograms;
+        if (latencyHistograms != null)
+            latencyHistograms.record(status, requestTime);
         _requestStats.decrement();
         switch (status / 100)
         {
@@ -151,6 +156,28 @@ public class StatisticsHandler extends EventsHandler
         _responses5xx.reset();
         _bytesRead.reset();
         _bytesWritten.reset();
+        LatencyHistograms latencyHistograms = _latencyHistograms;
+        if (latencyHistograms != null)
+            latencyHistograms.reset();
+    }
+
+    /**
+     * <p>Sets the histograms that record the request execution times per response status class,
+     * from which request time percentiles are reported.</p>
+     * <p>Histograms are not recorded by default, as they retain more memory than the other statistics.</p>
+     *
+     * @param latencyHistograms the request time histograms, or null to not record histograms
+     */
+    public void setLatencyHistograms(LatencyHistograms latencyHistograms)
+    {
+        updateBean(_latencyHistograms, latencyHistograms);
+        _latencyHistograms = latencyHistograms;
+    }
+
+    @ManagedAttribute("request execution time histograms, or null if not recorded")
+    public LatencyHistograms getLatencyHistograms()
+    {
+        return _latencyHistograms;
     }
 
     /**
@@ -205,6 +232,32 @@ public class StatisticsHandler extends EventsHandler
         return _requestTimeStats.getStdDev();
     }
 
+    @ManagedAttribute("50th percentile of request execution time (in ns), or -1 if histograms are not recorded")
+    public long getRequestTimeP50()
+    {
+        return getRequestTimeAtPercentile(50);
+    }
+
+    @ManagedAttribute("99th percentile of request execution time (in ns), or -1 if histograms are not recorded")
+    public long getRequestTimeP99()
+    {
+        return getRequestTimeAtPercentile(99);
+    }
+
+    @ManagedAttribute("99.9th percentile of request execution time (in ns), or -1 if histograms are not recorded")
+    public long getRequestTimeP999()
+    {
+        return getRequestTimeAtPercentile(99.9);
+    }
+
+    private long getRequestTimeAtPercentile(double percentile)
+    {
+        LatencyHistograms latencyHistograms = _latencyHistograms;
+        if (latencyHistograms == null)
+            return -1;
+        return latencyHistograms.getHistogram().snapshot().getValueAtPercentile(percentile);
+    }
+
     @ManagedAttribute("total number of calls to handle()")
     public int getHandleTotal()
     {
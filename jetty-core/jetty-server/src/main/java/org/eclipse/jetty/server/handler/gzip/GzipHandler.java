@@ -13,10 +13,17 @@
 
 package org.eclipse.jetty.server.handler.gzip;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.zip.Deflater;
 
+import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.EtagUtils;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
@@ -24,6 +31,8 @@ import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.QuotedCSV;
+import org.eclipse.jetty.http.QuotedQualityCSV;
 import org.eclipse.jetty.http.pathmap.PathSpecSet;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Request;
@@ -33,7 +42,10 @@ import org.eclipse.jetty.util.AsciiLowerCaseSet;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IncludeExclude;
 import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.TypeUtil;
+import org.eclipse.jetty.util.compression.CompressionCodec;
 import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.GzipCompressionCodec;
 import org.eclipse.jetty.util.compression.InflaterPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +61,10 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
 
     private InflaterPool _inflaterPool;
     private DeflaterPool _deflaterPool;
+    private final List<CompressionCodec> _compressionCodecs = new CopyOnWriteArrayList<>();
+    private List<CompressionCodec> _codecs = List.of();
+    private List<String> _encodings = List.of();
+    private Map<String, CompressedContentFormat> _formats = Map.of();
     private int _minGzipSize = DEFAULT_MIN_GZIP_SIZE;
     private boolean _syncFlush = false;
     private int _inflateBufferSize = -1;
@@ -90,6 +106,7 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         _mimeTypes.exclude("application/gzip");
         _mimeTypes.exclude("application/x-bzip2");
         _mimeTypes.exclude("application/brotli");
+        _mimeTypes.exclude("application/zstd");
         _mimeTypes.exclude("application/x-xz");
         _mimeTypes.exclude("application/x-rar-compressed");
 
@@ -115,6 +132,27 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
             addBean(_deflaterPool);
         }
 
+        // The explicitly added codecs are preferred, then gzip, then the discovered ones.
+        List<CompressionCodec> codecs = new ArrayList<>(_compressionCodecs);
+        codecs.add(new GzipCompressionCodec(_deflaterPool));
+        TypeUtil.serviceStream(ServiceLoader.load(CompressionCodec.class)).forEach(codecs::add);
+        List<CompressionCodec> negotiable = new ArrayList<>();
+        Map<String, CompressedContentFormat> formats = new HashMap<>();
+        for (CompressionCodec codec : codecs)
+        {
+            String encoding = StringUtil.asciiToLowerCase(codec.getEncoding());
+            if (formats.containsKey(encoding))
+                continue;
+            formats.put(encoding, newCompressedContentFormat(encoding, codec));
+            negotiable.add(codec);
+            addBean(codec);
+        }
+        _codecs = List.copyOf(negotiable);
+        _encodings = _codecs.stream().map(c -> StringUtil.asciiToLowerCase(c.getEncoding())).toList();
+        _formats = Map.copyOf(formats);
+        if (LOG.isDebugEnabled())
+            LOG.debug("{} compression codecs {}", this, _codecs);
+
         super.doStart();
     }
 
@@ -123,6 +161,11 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
     {
         super.doStop();
 
+        _codecs.forEach(this::removeBean);
+        _codecs = List.of();
+        _encodings = List.of();
+        _formats = Map.of();
+
         removeBean(_inflaterPool);
         _inflaterPool = null;
 
@@ -130,6 +173,67 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         _deflaterPool = null;
     }
 
+    /**
+     * <p>Adds a {@link CompressionCodec} that may be negotiated via the {@code Accept-Encoding}
+     * request header, for example a Brotli or Zstandard codec.</p>
+     * <p>Codecs added with this method are preferred, in the order they are added, over the
+     * built-in {@code gzip} codec, when the client accepts them with the same quality.
+     * Codecs discovered via {@link ServiceLoader} are only negotiated when the client prefers
+     * them, as the built-in {@code gzip} codec is preferred over them.</p>
+     *
+     * @param codec the codec to add
+     */
+    public void addCompressionCodec(CompressionCodec codec)
+    {
+        if (isRunning())
+            throw new IllegalStateException(getState());
+        _compressionCodecs.add(codec);
+    }
+
+    /**
+     * @return the {@link CompressionCodec}s that may be negotiated, in order of preference
+     */
+    public List<CompressionCodec> getCompressionCodecs()
+    {
+        return _codecs;
+    }
+
+    /**
+     * @param encoding the content-coding
+     * @return the {@link CompressionCodec} for the content-coding, or null if the content-coding is not supported
+     */
+    public CompressionCodec getCompressionCodec(String encoding)
+    {
+        String lowerCase = StringUtil.asciiToLowerCase(encoding);
+        for (CompressionCodec codec : _codecs)
+        {
+            if (lowerCase.equals(StringUtil.asciiToLowerCase(codec.getEncoding())))
+                return codec;
+        }
+        return null;
+    }
+
+    /**
+     * @param codec a negotiable {@link CompressionCodec}
+     * @return the {@link CompressedContentFormat} of the codec, used for the {@code Content-Encoding} and {@code ETag} headers
+     */
+    public CompressedContentFormat getCompressedContentFormat(CompressionCodec codec)
+    {
+        String encoding = StringUtil.asciiToLowerCase(codec.getEncoding());
+        CompressedContentFormat format = _formats.get(encoding);
+        return format == null ? newCompressedContentFormat(encoding, codec) : format;
+    }
+
+    private static CompressedContentFormat newCompressedContentFormat(String encoding, CompressionCodec codec)
+    {
+        return switch (encoding)
+        {
+            case GZIP -> CompressedContentFormat.GZIP;
+            case "br" -> CompressedContentFormat.BR;
+            default -> new CompressedContentFormat(encoding, codec.getExtension());
+        };
+    }
+
     /**
      * @return The VARY field to use.
      */
@@ -386,7 +490,8 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         }
 
         // check the accept encoding header
-        if (!request.getHeaders().contains(HttpHeader.ACCEPT_ENCODING, "gzip"))
+        HttpFields headers = request.getHeaders();
+        if (!headers.contains(HttpHeader.ACCEPT_ENCODING, GZIP) && !headers.contains(HttpHeader.ACCEPT_ENCODING, "*"))
         {
             if (LOG.isDebugEnabled())
                 LOG.debug("{} excluded not gzip accept {}", this, request);
@@ -396,6 +501,73 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         return _deflaterPool.acquire();
     }
 
+    /**
+     * <p>Acquires an encoder to compress a response.</p>
+     * <p>The {@code gzip} encoders use the deflater provided by
+     * {@link #getDeflaterEntry(Request, long)}, so that subclasses
+     * overriding that method keep controlling the {@code gzip} compression.</p>
+     *
+     * @param codec the negotiated codec
+     * @param request the request
+     * @param contentLength the response content length, or -1 if unknown
+     * @return the encoder, or null if the response should not be compressed
+     */
+    public CompressionCodec.Encoder getEncoder(CompressionCodec codec, Request request, long contentLength)
+    {
+        if (contentLength >= 0 && contentLength < _minGzipSize)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("{} excluded minGzipSize {}", this, request);
+            return null;
+        }
+        if (codec instanceof GzipCompressionCodec gzip)
+        {
+            DeflaterPool.Entry deflaterEntry = getDeflaterEntry(request, contentLength);
+            return deflaterEntry == null ? null : gzip.newEncoder(deflaterEntry, isSyncFlush());
+        }
+        return codec.newEncoder(isSyncFlush());
+    }
+
+    /**
+     * <p>Negotiates the {@link CompressionCodec} to use for a response, from the
+     * {@code Accept-Encoding} request header values.</p>
+     * <p>Content-codings are considered in the order of their quality values;
+     * content-codings with the same quality are considered in the order of
+     * {@link #getCompressionCodecs()}.
+     * The wildcard {@code *} selects the preferred codec not otherwise mentioned
+     * in the {@code Accept-Encoding} header.</p>
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} values, ordered by quality
+     * @param fields the request headers
+     * @return the negotiated codec, or null if no supported content-coding is acceptable
+     */
+    protected CompressionCodec negotiateCompressionCodec(QuotedQualityCSV acceptEncoding, HttpFields fields)
+    {
+        for (String encoding : acceptEncoding)
+        {
+            if ("*".equals(encoding))
+            {
+                // Codings mentioned explicitly, possibly with q=0, are not matched by the wildcard.
+                QuotedCSV mentioned = new QuotedCSV(false);
+                for (HttpField field : fields.getFields(HttpHeader.ACCEPT_ENCODING))
+                {
+                    mentioned.addValue(field.getValue());
+                }
+                for (CompressionCodec codec : _codecs)
+                {
+                    if (mentioned.getValues().stream().noneMatch(v -> codec.getEncoding().equalsIgnoreCase(HttpField.getValueParameters(v, null))))
+                        return codec;
+                }
+                return null;
+            }
+
+            CompressionCodec codec = getCompressionCodec(encoding);
+            if (codec != null)
+                return codec;
+        }
+        return null;
+    }
+
     /**
      * Get the current filter list of excluded HTTP methods
      *
@@ -551,7 +723,7 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         // Look for inflate and deflate headers
         HttpFields fields = request.getHeaders();
         boolean inflatable = false;
-        boolean deflatable = false;
+        QuotedQualityCSV acceptEncoding = null;
         boolean etagMatches = false;
         boolean seenContentEncoding = false;
         for (ListIterator<HttpField> i = fields.listIterator(fields.size()); i.hasPrevious();)
@@ -567,7 +739,12 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
                     inflatable |= !seenContentEncoding && field.containsLast("gzip");
                     seenContentEncoding = true;
                 }
-                case ACCEPT_ENCODING -> deflatable = field.contains("gzip");
+                case ACCEPT_ENCODING ->
+                {
+                    if (acceptEncoding == null)
+                        acceptEncoding = new QuotedQualityCSV(_encodings);
+                    acceptEncoding.addValue(field.getValue());
+                }
                 case IF_MATCH, IF_NONE_MATCH -> etagMatches |= field.getValue().contains(EtagUtils.ETAG_SEPARATOR);
             }
         }
@@ -576,7 +753,7 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         if (inflatable && tryInflate || etagMatches)
         {
             // Wrap the request to update the fields and do any inflation
-            request = new GzipRequest(request, inflatable && tryInflate ? getInflateBufferSize() : -1);
+            request = new GzipRequest(request, inflatable && tryInflate ? getInflateBufferSize() : -1, _formats.values());
         }
 
         if (tryDeflate && _vary != null)
@@ -586,9 +763,10 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
         }
 
         // Wrap the response and callback IFF we can be deflated and will try to deflate
-        if (deflatable && tryDeflate)
+        CompressionCodec codec = tryDeflate && acceptEncoding != null ? negotiateCompressionCodec(acceptEncoding, fields) : null;
+        if (codec != null)
         {
-            GzipResponseAndCallback gzipResponseAndCallback = new GzipResponseAndCallback(this, request, response, callback);
+            GzipResponseAndCallback gzipResponseAndCallback = new GzipResponseAndCallback(this, codec, request, response, callback);
             response = gzipResponseAndCallback;
             callback = gzipResponseAndCallback;
         }
@@ -633,7 +811,7 @@ public class GzipHandler extends Handler.Wrapper implements GzipFactory
      * @param requestURI the request uri
      * @return whether compressing is allowed for the given the path
      */
-    protected boolean isPathDeflatable(String requestURI)
+    public boolean isPathDeflatable(String requestURI)
     {
         if (requestURI == null)
             return true;
@@ -14,6 +14,8 @@
 package org.eclipse.jetty.server.handler.gzip;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
 import java.util.ListIterator;
 
 import org.eclipse.jetty.http.CompressedContentFormat;
@@ -42,9 +44,19 @@ public class GzipRequest extends Request.Wrapper
     private GzipTransformer _gzipTransformer;
 
     public GzipRequest(Request request, int inflateBufferSize)
+    {
+        this(request, inflateBufferSize, List.of(CompressedContentFormat.GZIP));
+    }
+
+    /**
+     * @param request the request to wrap
+     * @param inflateBufferSize the size of the buffer to inflate gzip request content, or -1 to not inflate
+     * @param formats the compressed formats whose ETag suffixes are stripped from conditional request headers
+     */
+    public GzipRequest(Request request, int inflateBufferSize, Collection<CompressedContentFormat> formats)
     {
         super(request);
-        _fields = updateRequestFields(request, inflateBufferSize > 0);
+        _fields = updateRequestFields(request, inflateBufferSize > 0, formats);
 
         if (inflateBufferSize > 0)
         {
@@ -54,7 +66,7 @@ public class GzipRequest extends Request.Wrapper
         }
     }
 
-    private HttpFields updateRequestFields(Request request, boolean inflatable)
+    private HttpFields updateRequestFields(Request request, boolean inflatable, Collection<CompressedContentFormat> formats)
     {
         HttpFields fields = request.getHeaders();
         HttpFields.Mutable newFields = HttpFields.build(fields);
@@ -93,7 +105,11 @@ public class GzipRequest extends Request.Wrapper
                 case IF_MATCH, IF_NONE_MATCH ->
                 {
                     String etags = field.getValue();
-                    String etagsNoSuffix = CompressedContentFormat.GZIP.stripSuffixes(etags);
+                    String etagsNoSuffix = etags;
+                    for (CompressedContentFormat format : formats)
+                    {
+                        etagsNoSuffix = format.stripSuffixes(etagsNoSuffix);
+                    }
                     if (!etagsNoSuffix.equals(etags))
                     {
                         i.set(new HttpField(field.getHeader(), etagsNoSuffix));
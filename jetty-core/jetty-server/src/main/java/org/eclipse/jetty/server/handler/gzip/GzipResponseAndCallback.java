@@ -14,12 +14,10 @@
 package org.eclipse.jetty.server.handler.gzip;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.channels.WritePendingException;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.zip.CRC32;
-import java.util.zip.Deflater;
 
+import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
@@ -30,25 +28,16 @@ import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingNestedCallback;
-import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.CompressionCodec;
+import org.eclipse.jetty.util.compression.GzipCompressionCodec;
 import org.eclipse.jetty.util.thread.Invocable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static org.eclipse.jetty.http.CompressedContentFormat.GZIP;
-
 public class GzipResponseAndCallback extends Response.Wrapper implements Callback, Invocable
 {
     private static final Logger LOG = LoggerFactory.getLogger(GzipResponseAndCallback.class);
 
-    // Per RFC-1952 this is the "unknown" OS value byte.
-    private static final byte OS_UNKNOWN = (byte)0xFF;
-    private static final byte[] GZIP_HEADER = new byte[]{
-        (byte)0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, OS_UNKNOWN
-    };
-    // Per RFC-1952, the GZIP trailer is 8 bytes
-    private static final int GZIP_TRAILER_SIZE = 8;
-
     private enum GZState
     {
         // first state, indicating that content might be compressed, pending the state of the response
@@ -59,29 +48,50 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         COMMITTING,
         // The response is compressing its body content
         COMPRESSING,
-        // The last content has is being compressed and deflater is being flushed
+        // The last content has is being compressed and encoder is being flushed
         FINISHING,
         // The content has finished compressing and trailers have been sent (this is a final state)
         FINISHED
     }
 
     private final AtomicReference<GZState> _state = new AtomicReference<>(GZState.MIGHT_COMPRESS);
-    private final CRC32 _crc = new CRC32();
     private final Callback _callback;
-    private final GzipFactory _factory;
+    private final GzipHandler _handler;
+    private final CompressionCodec _codec;
+    private final CompressedContentFormat _format;
     private final int _bufferSize;
-    private final boolean _syncFlush;
-    private DeflaterPool.Entry _deflaterEntry;
+    private CompressionCodec.Encoder _encoder;
     private RetainableByteBuffer _buffer;
     private boolean _last;
 
     public GzipResponseAndCallback(GzipHandler handler, Request request, Response response, Callback callback)
+    {
+        this(handler, gzipCompressionCodec(handler), request, response, callback);
+    }
+
+    private static CompressionCodec gzipCompressionCodec(GzipHandler handler)
+    {
+        // The handler has no codecs until it is started; the gzip encoder
+        // is anyway obtained from the handler deflater entry.
+        CompressionCodec codec = handler.getCompressionCodec(GzipHandler.GZIP);
+        return codec == null ? new GzipCompressionCodec(handler.getDeflaterPool()) : codec;
+    }
+
+    /**
+     * @param handler the {@link GzipHandler}
+     * @param codec the {@link CompressionCodec} negotiated for the response
+     * @param request the request
+     * @param response the response to wrap
+     * @param callback the callback to wrap
+     */
+    public GzipResponseAndCallback(GzipHandler handler, CompressionCodec codec, Request request, Response response, Callback callback)
     {
         super(request, response);
         _callback = callback;
-        _factory = handler;
-        _bufferSize = Math.max(GZIP_HEADER.length + GZIP_TRAILER_SIZE, request.getConnectionMetaData().getHttpConfiguration().getOutputBufferSize());
-        _syncFlush = handler.isSyncFlush();
+        _handler = handler;
+        _codec = codec;
+        _format = handler.getCompressedContentFormat(codec);
+        _bufferSize = Math.max(GzipCompressionCodec.MIN_OUTPUT_SIZE, request.getConnectionMetaData().getHttpConfiguration().getOutputBufferSize());
     }
 
     @Override
@@ -143,14 +153,6 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         }
     }
 
-    private void addTrailer(ByteBuffer outputBuffer)
-    {
-        if (LOG.isDebugEnabled())
-            LOG.debug("addTrailer: _crc={}, _totalIn={})", _crc.getValue(), _deflaterEntry.get().getTotalIn());
-        outputBuffer.putInt((int)_crc.getValue());
-        outputBuffer.putInt(_deflaterEntry.get().getTotalIn());
-    }
-
     private void gzip(boolean complete, final Callback callback, ByteBuffer content)
     {
         if (content != null || complete)
@@ -182,9 +184,9 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
                 String responseEtag = fields.get(HttpHeader.ETAG);
                 if (requestEtags != null && responseEtag != null)
                 {
-                    String responseEtagGzip = etagGzip(responseEtag);
-                    if (requestEtags.contains(responseEtagGzip))
-                        fields.put(HttpHeader.ETAG, responseEtagGzip);
+                    String responseEtagCompressed = _format.etag(responseEtag);
+                    if (requestEtags.contains(responseEtagCompressed))
+                        fields.put(HttpHeader.ETAG, responseEtagCompressed);
                 }
             }
 
@@ -197,7 +199,7 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         if (ct != null)
         {
             String baseType = HttpField.getValueParameters(ct, null);
-            if (!_factory.isMimeTypeDeflatable(baseType))
+            if (!_handler.isMimeTypeDeflatable(baseType))
             {
                 if (LOG.isDebugEnabled())
                     LOG.debug("{} exclude by mimeType {}", this, ct);
@@ -235,27 +237,26 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
             if (contentLength < 0 && last)
                 contentLength = BufferUtil.length(content);
 
-            _deflaterEntry = _factory.getDeflaterEntry(request, contentLength);
-            if (_deflaterEntry == null)
+            _encoder = _handler.getEncoder(_codec, request, contentLength);
+            if (_encoder == null)
             {
                 if (LOG.isDebugEnabled())
-                    LOG.debug("{} exclude no deflater", this);
+                    LOG.debug("{} exclude no encoder", this);
                 _state.set(GZState.NOT_COMPRESSING);
                 super.write(last, content, callback);
                 return;
             }
 
-            fields.put(GZIP.getContentEncoding());
-            _crc.reset();
+            fields.put(_format.getContentEncoding());
 
             // Adjust headers
             fields.remove(HttpHeader.CONTENT_LENGTH);
             String etag = fields.get(HttpHeader.ETAG);
             if (etag != null)
-                fields.put(HttpHeader.ETAG, etagGzip(etag));
+                fields.put(HttpHeader.ETAG, _format.etag(etag));
 
             if (LOG.isDebugEnabled())
-                LOG.debug("{} compressing {}", this, _deflaterEntry);
+                LOG.debug("{} compressing {}", this, _encoder);
             _state.set(GZState.COMPRESSING);
 
             if (BufferUtil.isEmpty(content))
@@ -274,11 +275,6 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         }
     }
 
-    private String etagGzip(String etag)
-    {
-        return GZIP.etag(etag);
-    }
-
     public void noCompression()
     {
         while (true)
@@ -311,11 +307,7 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
             _last = complete;
 
             if (_content != null)
-            {
-                _crc.update(_content.slice());
-                Deflater deflater = _deflaterEntry.get();
-                deflater.setInput(_content);
-            }
+                _encoder.setInput(_content);
 
             if (LOG.isDebugEnabled())
                 LOG.debug("GzipBufferCB(complete={}, callback={}, content={})", complete, callback, BufferUtil.toDetailString(content));
@@ -348,38 +340,25 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
 
             // If we have no buffer
             if (_buffer == null)
-            {
                 _buffer = getRequest().getComponents().getByteBufferPool().acquire(_bufferSize, false);
-                ByteBuffer byteBuffer = _buffer.getByteBuffer();
-                // Per RFC-1952, GZIP is LITTLE_ENDIAN
-                byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-                BufferUtil.flipToFill(byteBuffer);
-                // Add GZIP Header
-                byteBuffer.put(GZIP_HEADER, 0, GZIP_HEADER.length);
-            }
-            else
-            {
-                // otherwise clear the buffer as previous writes will always fully consume.
-                BufferUtil.clearToFill(_buffer.getByteBuffer());
-            }
-
-            Deflater deflater = _deflaterEntry.get();
+            // Clear the buffer as previous writes will always fully consume.
+            BufferUtil.clearToFill(_buffer.getByteBuffer());
 
             return switch (gzstate)
             {
-                case COMPRESSING -> compressing(deflater, _buffer.getByteBuffer());
-                case FINISHING -> finishing(deflater, _buffer.getByteBuffer());
+                case COMPRESSING -> compressing(_encoder, _buffer.getByteBuffer());
+                case FINISHING -> finishing(_encoder, _buffer.getByteBuffer());
                 default -> throw new IllegalStateException("Unexpected state [" + _state.get() + "]");
             };
         }
 
         private void cleanup()
         {
-            if (_deflaterEntry != null)
+            if (_encoder != null)
             {
                 _state.set(GZState.FINISHED);
-                _deflaterEntry.release();
-                _deflaterEntry = null;
+                _encoder.release();
+                _encoder = null;
             }
 
             if (_buffer != null)
@@ -389,39 +368,33 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
             }
         }
 
-        private int getFlushMode()
-        {
-            return _syncFlush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH;
-        }
-
         /**
          * This method is called directly from {@link #process()} to perform the compressing of
          * the content this {@link GzipBufferCB} represents.
          */
-        private Action compressing(Deflater deflater, ByteBuffer outputBuffer)
+        private Action compressing(CompressionCodec.Encoder encoder, ByteBuffer outputBuffer)
         {
             if (LOG.isDebugEnabled())
-                LOG.debug("compressing() deflater={}, outputBuffer={}", deflater, BufferUtil.toDetailString(outputBuffer));
+                LOG.debug("compressing() encoder={}, outputBuffer={}", encoder, BufferUtil.toDetailString(outputBuffer));
 
-            if (!deflater.finished())
+            if (!encoder.needsInput())
             {
-                if (!deflater.needsInput())
+                int len = encoder.encode(outputBuffer);
+                // For the last content, keep filling the buffer to try to
+                // preserve a single write (header + compressed content + trailer).
+                if (len > 0 && (!_last || !outputBuffer.hasRemaining()))
                 {
-                    int len = deflater.deflate(outputBuffer, getFlushMode());
-                    if (len > 0)
-                    {
-                        BufferUtil.flipToFlush(outputBuffer, 0);
-                        write(false, outputBuffer);
-                        return Action.SCHEDULED;
-                    }
+                    BufferUtil.flipToFlush(outputBuffer, 0);
+                    write(false, outputBuffer);
+                    return Action.SCHEDULED;
                 }
             }
 
             if (_last)
             {
                 _state.set(GZState.FINISHING);
-                deflater.finish();
-                return finishing(deflater, outputBuffer);
+                encoder.finish();
+                return finishing(encoder, outputBuffer);
             }
 
             BufferUtil.flipToFlush(outputBuffer, 0);
@@ -431,30 +404,29 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
                 return Action.SCHEDULED;
             }
 
-            // the content held by GzipBufferCB is fully consumed as input to the Deflater instance, we are done
+            // the content held by GzipBufferCB is fully consumed as input to the encoder, we are done
             if (BufferUtil.isEmpty(_content))
                 return Action.SUCCEEDED;
 
-            // No progress made on deflate, but the _content wasn't consumed, we shouldn't be able to reach this.
-            throw new AssertionError("No progress on deflate made for " + this);
+            // No progress made on encode, but the _content wasn't consumed, we shouldn't be able to reach this.
+            throw new AssertionError("No progress on encode made for " + this);
         }
 
         /**
-         * This method is called by {@link #compressing(Deflater, ByteBuffer)}, once the last chunk is compressed;
+         * This method is called by {@link #compressing(CompressionCodec.Encoder, ByteBuffer)}, once the last chunk is compressed;
          * or directly from {@link #process()} if an earlier call to this method was unable to complete.
          */
-        private Action finishing(Deflater deflater, ByteBuffer outputBuffer)
+        private Action finishing(CompressionCodec.Encoder encoder, ByteBuffer outputBuffer)
         {
             if (LOG.isDebugEnabled())
-                LOG.debug("finishing() deflater={}, outputBuffer={}", deflater, BufferUtil.toDetailString(outputBuffer));
-            if (!deflater.finished())
+                LOG.debug("finishing() encoder={}, outputBuffer={}", encoder, BufferUtil.toDetailString(outputBuffer));
+            if (!encoder.isFinished())
             {
-                int len = deflater.deflate(outputBuffer, getFlushMode());
+                int len = encoder.encode(outputBuffer);
                 // try to preserve single write if possible (header + compressed content + trailer)
-                if (deflater.finished() && outputBuffer.remaining() >= GZIP_TRAILER_SIZE)
+                if (encoder.isFinished())
                 {
                     _state.set(GZState.FINISHED);
-                    addTrailer(outputBuffer);
                     BufferUtil.flipToFlush(outputBuffer, 0);
                     write(true, outputBuffer);
                     return Action.SCHEDULED;
@@ -467,13 +439,12 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
                     return Action.SCHEDULED;
                 }
 
-                // No progress made on deflate, deflater not finished, we shouldn't be able to reach this.
-                throw new AssertionError("No progress on deflate made for " + this);
+                // No progress made on encode, encoder not finished, we shouldn't be able to reach this.
+                throw new AssertionError("No progress on encode made for " + this);
             }
             else
             {
                 _state.set(GZState.FINISHED);
-                addTrailer(outputBuffer);
                 BufferUtil.flipToFlush(outputBuffer, 0);
                 write(true, outputBuffer);
                 return Action.SCHEDULED;
@@ -490,12 +461,12 @@ public class GzipResponseAndCallback extends Response.Wrapper implements Callbac
         @Override
         public String toString()
         {
-            return String.format("%s[content=%s last=%b buffer=%s deflate=%s %s]",
+            return String.format("%s[content=%s last=%b buffer=%s encoder=%s %s]",
                 super.toString(),
                 BufferUtil.toDetailString(_content),
                 _last,
                 _buffer,
-                _deflaterEntry,
+                _encoder,
                 _state.get());
         }
     }
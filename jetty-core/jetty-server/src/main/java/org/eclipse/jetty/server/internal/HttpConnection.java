@@ -178,6 +178,7 @@ public class HttpConnection extends AbstractMetaDataConnection implements Runnab
         HttpParser parser = new HttpParser(_requestHandler, getHttpConfiguration().getRequestHeaderSize(), compliance);
         parser.setHeaderCacheSize(getHttpConfiguration().getHeaderCacheSize());
         parser.setHeaderCacheCaseSensitive(getHttpConfiguration().isHeaderCacheCaseSensitive());
+        parser.setHeaderCacheLearning(getHttpConfiguration().isHeaderCacheLearning());
         return parser;
     }
 
@@ -0,0 +1,160 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(WorkDirExtension.class)
+public class AsyncRequestLogWriterTest
+{
+    @Test
+    public void testCapacityRoundedToPowerOfTwo()
+    {
+        assertEquals(1024, new AsyncRequestLogWriter().getQueueCapacity());
+        assertEquals(128, new AsyncRequestLogWriter(null, 100).getQueueCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new AsyncRequestLogWriter(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncRequestLogWriter(null, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @SuppressWarnings("removal")
+    public void testCapacityFromBlockingQueue()
+    {
+        assertEquals(1024, new AsyncRequestLogWriter(null, (BlockingQueue<String>)null).getQueueCapacity());
+        assertEquals(1024, new AsyncRequestLogWriter(null, new LinkedBlockingQueue<>()).getQueueCapacity());
+        assertEquals(64, new AsyncRequestLogWriter(null, new ArrayBlockingQueue<>(64)).getQueueCapacity());
+        assertEquals(1 << 20, new AsyncRequestLogWriter(null, new LinkedBlockingQueue<>(Integer.MAX_VALUE - 1)).getQueueCapacity());
+    }
+
+    @Test
+    public void testDropBackpressure() throws Exception
+    {
+        // Not started, so nothing drains the queue.
+        AsyncRequestLogWriter writer = new AsyncRequestLogWriter(null, 4);
+        for (int i = 0; i < 6; ++i)
+        {
+            writer.write("entry" + i);
+        }
+        assertEquals(4, writer.getQueueSize());
+        assertEquals(4, writer.getQueuedEntries());
+        assertEquals(2, writer.getDroppedEntries());
+    }
+
+    @Test
+    public void testSampleBackpressure() throws Exception
+    {
+        AsyncRequestLogWriter writer = new AsyncRequestLogWriter(null, 8);
+        writer.setBackpressure(AsyncRequestLogWriter.Backpressure.SAMPLE);
+        writer.setSampleRate(2);
+        for (int i = 0; i < 10; ++i)
+        {
+            writer.write("entry" + i);
+        }
+        // The first 4 entries fill half the queue, then one entry every 2 is queued.
+        assertEquals(7, writer.getQueuedEntries());
+        assertEquals(3, writer.getDroppedEntries());
+    }
+
+    @Test
+    public void testBlockBackpressureDropsWhenNotRunning() throws Exception
+    {
+        AsyncRequestLogWriter writer = new AsyncRequestLogWriter(null, 2);
+        writer.setBackpressure(AsyncRequestLogWriter.Backpressure.BLOCK);
+        for (int i = 0; i < 3; ++i)
+        {
+            writer.write("entry" + i);
+        }
+        assertEquals(2, writer.getQueuedEntries());
+        assertEquals(1, writer.getDroppedEntries());
+    }
+
+    @Test
+    public void testQueuedBeforeStartAreWritten(WorkDir workDir) throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("request.log");
+        AsyncRequestLogWriter writer = new AsyncRequestLogWriter(file.toString(), 16);
+        for (int i = 0; i < 3; ++i)
+        {
+            writer.write("entry" + i);
+        }
+        writer.start();
+        await().atMost(5, TimeUnit.SECONDS).until(writer::getQueueSize, is(0));
+        writer.stop();
+
+        assertEquals(List.of("entry0", "entry1", "entry2"), Files.readAllLines(file));
+    }
+
+    @Test
+    public void testBlockBackpressureConcurrentWriters(WorkDir workDir) throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("request.log");
+        AsyncRequestLogWriter writer = new AsyncRequestLogWriter(file.toString(), 8);
+        writer.setBackpressure(AsyncRequestLogWriter.Backpressure.BLOCK);
+        writer.start();
+
+        int threads = 4;
+        int entries = 1000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; ++t)
+        {
+            int producer = t;
+            Thread thread = new Thread(() ->
+            {
+                try
+                {
+                    for (int i = 0; i < entries; ++i)
+                    {
+                        writer.write(producer + ":" + i);
+                    }
+                }
+                catch (Throwable x)
+                {
+                    throw new RuntimeException(x);
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producers)
+        {
+            thread.join();
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(writer::getQueueSize, is(0));
+        writer.stop();
+
+        assertEquals(0, writer.getDroppedEntries());
+        assertEquals(threads * entries, writer.getQueuedEntries());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(threads * entries, lines.size());
+        assertEquals(threads * entries, new HashSet<>(lines).size());
+    }
+}
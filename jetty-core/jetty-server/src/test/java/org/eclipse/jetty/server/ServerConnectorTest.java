@@ -268,6 +268,63 @@ public class ServerConnectorTest
         }
     }
 
+    @Test
+    @DisabledOnOs(value = OS.WINDOWS, disabledReason = "SO_REUSEPORT not available on windows")
+    public void testShardedAccept() throws Exception
+    {
+        Server server = new Server();
+        try
+        {
+            ServerConnector connector = new ServerConnector(server, 0, 4);
+            connector.setShardedAccept(true);
+            server.addConnector(connector);
+            server.setHandler(new Handler.Abstract.NonBlocking()
+            {
+                @Override
+                public boolean handle(Request request, Response response, Callback callback)
+                {
+                    callback.succeeded();
+                    return true;
+                }
+            });
+
+            server.start();
+
+            assertEquals(4, connector.getAcceptChannelCount());
+            assertThat(connector.getLocalPort(), greaterThan(0));
+
+            for (int i = 0; i < 20; ++i)
+            {
+                try (SocketChannel client = SocketChannel.open(new InetSocketAddress("localhost", connector.getLocalPort())))
+                {
+                    HttpTester.Request request = HttpTester.newRequest();
+                    request.put(HttpHeader.HOST, "localhost");
+                    client.write(request.generate());
+                    HttpTester.Response response = HttpTester.parseResponse(HttpTester.from(client));
+                    assertNotNull(response);
+                    assertEquals(HttpStatus.OK_200, response.getStatus());
+                }
+            }
+
+            server.stop();
+            assertEquals(0, connector.getAcceptChannelCount());
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testShardedAcceptRequiresNoAcceptors()
+    {
+        Server server = new Server();
+        ServerConnector connector = new ServerConnector(server, 1, 2);
+        connector.setShardedAccept(true);
+        assertThrows(IllegalStateException.class, connector::open);
+        assertEquals(0, connector.getAcceptChannelCount());
+    }
+
     @Test
     public void testAddFirstConnectionFactory()
     {
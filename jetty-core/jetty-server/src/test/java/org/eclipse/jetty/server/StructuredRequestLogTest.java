@@ -0,0 +1,207 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@ExtendWith(WorkDirExtension.class)
+public class StructuredRequestLogTest
+{
+    private final BlockingQueue<byte[]> _entries = new BlockingArrayQueue<>();
+    private final RequestLog.BufferWriter _writer = new RequestLog.BufferWriter()
+    {
+        @Override
+        public void write(RetainableByteBuffer requestEntry)
+        {
+            ByteBuffer byteBuffer = requestEntry.getByteBuffer();
+            byte[] bytes = new byte[byteBuffer.remaining()];
+            byteBuffer.get(bytes);
+            requestEntry.release();
+            _entries.add(bytes);
+        }
+
+        @Override
+        public void write(String requestEntry)
+        {
+            _entries.add(requestEntry.getBytes(StandardCharsets.UTF_8));
+        }
+    };
+    private Server _server;
+    private LocalConnector _connector;
+
+    private void start(RequestLog requestLog) throws Exception
+    {
+        _server = new Server();
+        _connector = new LocalConnector(_server);
+        _server.addConnector(_connector);
+        _server.setRequestLog(requestLog);
+        _server.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                callback.succeeded();
+                return true;
+            }
+        });
+        _server.start();
+    }
+
+    @AfterEach
+    public void after() throws Exception
+    {
+        LifeCycle.stop(_server);
+    }
+
+    private void request(String uri, String userAgent) throws Exception
+    {
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse("""
+            GET %s HTTP/1.1\r
+            Host: localhost\r
+            User-Agent: %s\r
+            \r
+            """.formatted(uri, userAgent)));
+        assertNotNull(response);
+        assertEquals(200, response.getStatus());
+    }
+
+    private byte[] poll() throws InterruptedException
+    {
+        byte[] entry = _entries.poll(5, TimeUnit.SECONDS);
+        assertNotNull(entry);
+        return entry;
+    }
+
+    @Test
+    public void testJsonLayout() throws Exception
+    {
+        StructuredRequestLog requestLog = new StructuredRequestLog(_writer);
+        requestLog.setFields(List.of(StructuredRequestLog.Field.METHOD, StructuredRequestLog.Field.URI, StructuredRequestLog.Field.STATUS,
+            StructuredRequestLog.Field.REFERER, StructuredRequestLog.Field.USER_AGENT));
+        start(requestLog);
+
+        request("/path?q=%C3%A9", "Agent \"007\"/é");
+
+        String entry = new String(poll(), StandardCharsets.UTF_8);
+        assertThat(entry, is("{\"method\":\"GET\",\"uri\":\"/path?q=%C3%A9\",\"status\":200,\"referer\":null,\"userAgent\":\"Agent \\\"007\\\"/é\"}\n"));
+    }
+
+    @Test
+    public void testBinaryLayout() throws Exception
+    {
+        StructuredRequestLog requestLog = new StructuredRequestLog(_writer);
+        requestLog.setLayout(StructuredRequestLog.Layout.BINARY);
+        requestLog.setFields(List.of(StructuredRequestLog.Field.METHOD, StructuredRequestLog.Field.STATUS, StructuredRequestLog.Field.REFERER));
+        // Force the entry to grow beyond the initial buffer.
+        requestLog.setBufferSize(4);
+        start(requestLog);
+
+        request("/path", "test");
+
+        ByteBuffer entry = ByteBuffer.wrap(poll());
+        assertEquals(entry.remaining() - 4, entry.getInt());
+        assertEquals(StructuredRequestLog.Field.METHOD.ordinal(), entry.get());
+        byte[] method = new byte[entry.getInt()];
+        entry.get(method);
+        assertEquals("GET", new String(method, StandardCharsets.UTF_8));
+        assertEquals(StructuredRequestLog.Field.STATUS.ordinal(), entry.get());
+        assertEquals(200L, entry.getLong());
+        assertEquals(StructuredRequestLog.Field.REFERER.ordinal(), entry.get());
+        assertEquals(-1, entry.getInt());
+        assertEquals(0, entry.remaining());
+    }
+
+    @Test
+    public void testCustomRequestLogWithBufferWriter() throws Exception
+    {
+        start(new CustomRequestLog(_writer, "%m %U %s %{User-Agent}i"));
+
+        request("/path", "é");
+
+        String entry = new String(poll(), StandardCharsets.UTF_8);
+        assertThat(entry, is("GET /path 200 é" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testByteBufferRequestLogWriterBatches(WorkDir workDir) throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("request.log");
+        ByteBufferRequestLogWriter writer = new ByteBufferRequestLogWriter(file.toString());
+        writer.setBatchSize(2);
+        writer.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+        writer.start();
+        try
+        {
+            for (int i = 0; i < 5; ++i)
+            {
+                writer.write("entry" + i);
+            }
+            assertEquals(4, writer.getEntriesWritten());
+            assertEquals(2, writer.getBatchesWritten());
+        }
+        finally
+        {
+            writer.stop();
+        }
+
+        assertEquals(5, writer.getEntriesWritten());
+        assertEquals(3, writer.getBatchesWritten());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(List.of("entry0", "entry1", "entry2", "entry3", "entry4"), lines);
+    }
+
+    @Test
+    public void testStructuredRequestLogToFile(WorkDir workDir) throws Exception
+    {
+        Path file = workDir.getEmptyPathDir().resolve("request.log");
+        ByteBufferRequestLogWriter writer = new ByteBufferRequestLogWriter(file.toString());
+        writer.setFlushInterval(0);
+        start(new StructuredRequestLog(writer));
+
+        request("/one", "test");
+        await().atMost(5, TimeUnit.SECONDS).until(writer::getEntriesWritten, is(1L));
+        request("/two", "test");
+        await().atMost(5, TimeUnit.SECONDS).until(writer::getEntriesWritten, is(2L));
+        _server.stop();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertThat(lines.get(0), containsString("\"uri\":\"/one\""));
+        assertThat(lines.get(1), containsString("\"uri\":\"/two\""));
+    }
+}
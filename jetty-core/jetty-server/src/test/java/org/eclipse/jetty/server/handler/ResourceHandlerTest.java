@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.server.handler;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -30,6 +31,7 @@ import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -57,6 +59,7 @@ import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.ResourceService;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.TrailingSlashAliasChecker;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.toolchain.test.FS;
 import org.eclipse.jetty.toolchain.test.MavenPaths;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
@@ -94,7 +97,9 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
@@ -1217,6 +1222,71 @@ public class ResourceHandlerTest
         assertThat(contentFactory.getCachedSize(), is(0L));
     }
 
+    @Test
+    public void testCachingCompressedContent() throws Exception
+    {
+        copySimpleTestResource(docRoot);
+        byte[] expected = Files.readAllBytes(docRoot.resolve("big.txt"));
+
+        _server.stop();
+        ResourceHandler resourceHandler = new ResourceHandler();
+        resourceHandler.setCacheCompressedContent(true);
+        resourceHandler.setEtags(true);
+        _contextHandler.setHandler(new GzipHandler(resourceHandler));
+        _server.start();
+        CachingHttpContentFactory contentFactory = (CachingHttpContentFactory)resourceHandler.getHttpContentFactory();
+
+        for (int i = 0; i < 10; i++)
+        {
+            HttpTester.Response response = HttpTester.parseResponse(
+                    _local.getResponse("""
+                    GET /context/big.txt HTTP/1.1\r
+                    Host: local\r
+                    Connection: close\r
+                    Accept-Encoding: gzip\r
+                    \r
+                    """));
+            assertThat(response.getStatus(), is(HttpStatus.OK_200));
+            assertThat(response.get(CONTENT_ENCODING), is("gzip"));
+            assertThat(response.get(ETAG), endsWith(CompressedContentFormat.GZIP.getEtagSuffix() + "\""));
+            assertThat(response.getLongField(CONTENT_LENGTH), is((long)response.getContentBytes().length));
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentBytes())))
+            {
+                assertThat(IO.readBytes(in), is(expected));
+            }
+        }
+
+        // The content and its compressed variant are both cached.
+        assertThat(contentFactory.getCachedSize(), greaterThan((long)expected.length));
+        assertThat(contentFactory.getCachedSize(), lessThan(2L * expected.length));
+
+        // The compressed variant is not served for the path followed by the codec extension.
+        HttpTester.Response variantResponse = HttpTester.parseResponse(
+                _local.getResponse("""
+                GET /context/big.txt.gz HTTP/1.1\r
+                Host: local\r
+                Connection: close\r
+                Accept-Encoding: gzip\r
+                \r
+                """));
+        assertThat(variantResponse.getStatus(), is(HttpStatus.NOT_FOUND_404));
+
+        HttpTester.Response response = HttpTester.parseResponse(
+                _local.getResponse("""
+                GET /context/big.txt HTTP/1.1\r
+                Host: local\r
+                Connection: close\r
+                \r
+                """));
+        assertThat(response.getStatus(), is(HttpStatus.OK_200));
+        assertThat(response.get(CONTENT_ENCODING), is(nullValue()));
+        assertThat(response.getContentBytes(), is(expected));
+
+        contentFactory.flushCache();
+        assertThat(contentFactory.getCachedFiles(), is(0));
+        assertThat(contentFactory.getCachedSize(), is(0L));
+    }
+
     @Test
     public void testCachingMaxCacheSizeRespected() throws Exception
     {
@@ -828,6 +828,70 @@ public class StatisticsHandlerTest
         assertThat(_statsHandler.getStatisticsDuration().toMillis(), lessThan(500L));
     }
 
+    @Test
+    public void testLatencyHistograms() throws Exception
+    {
+        assertThat(_statsHandler.getRequestTimeP99(), is(-1L));
+        _statsHandler.setLatencyHistograms(new LatencyHistograms());
+        _statsHandler.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                if (request.getHttpURI().getPath().equals("/missing"))
+                    response.setStatus(404);
+                callback.succeeded();
+                return true;
+            }
+        });
+        _server.start();
+
+        for (String path : new String[]{"/one", "/two", "/missing"})
+        {
+            String response = _connector.getResponse("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            assertThat(response, containsString("HTTP/1.1 "));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(_statsHandler::getRequestsActive, is(0));
+
+        LatencyHistograms histograms = _statsHandler.getLatencyHistograms();
+        assertEquals(3, histograms.getCount());
+        assertEquals(2, histograms.getHistogram(2).snapshot().getCount());
+        assertEquals(1, histograms.getHistogram(4).snapshot().getCount());
+        assertEquals(0, histograms.getHistogram(5).snapshot().getCount());
+        assertThat(_statsHandler.getRequestTimeP50(), greaterThan(0L));
+        assertThat(_statsHandler.getRequestTimeP999(), lessThan(_statsHandler.getRequestTimeMax() * 2));
+        assertThat(_statsHandler.dump(), allOf(containsString("2xx"), containsString("4xx")));
+
+        _statsHandler.reset();
+        assertEquals(0, histograms.getCount());
+    }
+
+    @Test
+    public void testLatencyRecordingHandlerHistograms() throws Exception
+    {
+        LatencyRecordingHandler.Histograms latencyHandler = new LatencyRecordingHandler.Histograms();
+        latencyHandler.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                response.setStatus(503);
+                callback.succeeded();
+                return true;
+            }
+        });
+        _latchHandler.setHandler(latencyHandler);
+        _server.start();
+
+        String response = _connector.getResponse("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        assertThat(response, containsString("HTTP/1.1 503 "));
+
+        LatencyHistograms histograms = latencyHandler.getLatencyHistograms();
+        await().atMost(5, TimeUnit.SECONDS).until(histograms::getCount, is(1L));
+        assertEquals(1, histograms.getHistogram(5).snapshot().getCount());
+        assertThat(histograms.getLatencyAtPercentile(5, 99), greaterThan(0L));
+    }
+
     // This handler is external to the statistics handler and it is used to ensure that statistics handler's
     // handle() is fully executed before asserting its values in the tests, to avoid race conditions with the
     // tests' code where the test executes but the statistics handler has not finished yet.
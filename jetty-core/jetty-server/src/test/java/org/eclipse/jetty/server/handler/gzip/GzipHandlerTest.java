@@ -73,6 +73,8 @@ import org.eclipse.jetty.util.Fields;
 import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.component.LifeCycle;
+import org.eclipse.jetty.util.compression.CompressionCodec;
+import org.eclipse.jetty.util.compression.DeflaterPool;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
@@ -533,6 +535,169 @@ public class GzipHandlerTest
         assertThat(response.get("ETag"), is(CONTENT_ETAG_GZIP));
     }
 
+    public static Stream<Arguments> compressionCodecNegotiationSource()
+    {
+        return Stream.of(
+            Arguments.of("gzip", "gzip"),
+            Arguments.of("x-copy", "x-copy"),
+            Arguments.of("gzip, x-copy", "x-copy"),
+            Arguments.of("x-copy;q=0.5, gzip", "gzip"),
+            Arguments.of("x-copy;q=0, gzip;q=0.1", "gzip"),
+            Arguments.of("gzip;q=0, x-copy;q=0", null),
+            Arguments.of("*", "x-copy"),
+            Arguments.of("x-copy;q=0, *", "gzip"),
+            Arguments.of("identity", null)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("compressionCodecNegotiationSource")
+    public void testCompressionCodecNegotiation(String acceptEncoding, String expectedEncoding) throws Exception
+    {
+        _gzipHandler.addCompressionCodec(new CopyCompressionCodec());
+        _contextHandler.setHandler(new TestHandler());
+        _server.start();
+
+        HttpTester.Request request = HttpTester.newRequest();
+        request.setMethod("GET");
+        request.setURI("/ctx/content");
+        request.setVersion("HTTP/1.0");
+        request.setHeader("Host", "tester");
+        request.setHeader("Accept-Encoding", acceptEncoding);
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get("Content-Encoding"), is(expectedEncoding));
+        if (expectedEncoding == null)
+        {
+            assertThat(response.get("ETag"), is(CONTENT_ETAG));
+            assertThat(response.getContent(), is(CONTENT));
+        }
+        else if (expectedEncoding.equals("x-copy"))
+        {
+            assertThat(response.get("ETag"), is(new CompressedContentFormat("x-copy", ".copy").etag(CONTENT_ETAG)));
+            assertThat(response.getContent(), is(CONTENT));
+        }
+        else
+        {
+            assertThat(response.get("ETag"), is(CONTENT_ETAG_GZIP));
+            InputStream testIn = new GZIPInputStream(new ByteArrayInputStream(response.getContentBytes()));
+            assertThat(new String(IO.readBytes(testIn), UTF_8), is(CONTENT));
+        }
+    }
+
+    @Test
+    public void testETagCompressionCodecHandler() throws Exception
+    {
+        _gzipHandler.addCompressionCodec(new CopyCompressionCodec());
+        _contextHandler.setHandler(new TestHandler());
+        _server.start();
+
+        String etag = new CompressedContentFormat("x-copy", ".copy").etag(CONTENT_ETAG);
+        HttpTester.Request request = HttpTester.newRequest();
+        request.setMethod("GET");
+        request.setURI("/ctx/content");
+        request.setVersion("HTTP/1.0");
+        request.setHeader("Host", "tester");
+        request.setHeader("If-None-Match", etag);
+        request.setHeader("accept-encoding", "x-copy");
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+
+        assertThat(response.getStatus(), is(304));
+        assertThat(response.get("Content-Encoding"), nullValue());
+        assertThat(response.get("ETag"), is(etag));
+    }
+
+    @Test
+    public void testGzipPreferredOverUnconfiguredCodecs() throws Exception
+    {
+        _contextHandler.setHandler(new TestHandler());
+        _server.start();
+
+        assertThat(_gzipHandler.getCompressionCodecs().get(0).getEncoding(), is("gzip"));
+
+        _server.stop();
+        _gzipHandler.addCompressionCodec(new CopyCompressionCodec());
+        _server.start();
+
+        List<String> encodings = _gzipHandler.getCompressionCodecs().stream().map(CompressionCodec::getEncoding).toList();
+        assertThat(encodings.subList(0, 2), contains("x-copy", "gzip"));
+    }
+
+    @Test
+    public void testGetDeflaterEntryOverride() throws Exception
+    {
+        AtomicInteger deflaterEntries = new AtomicInteger();
+        GzipHandler gzipHandler = new GzipHandler()
+        {
+            @Override
+            public DeflaterPool.Entry getDeflaterEntry(Request request, long contentLength)
+            {
+                deflaterEntries.incrementAndGet();
+                if (request.getHeaders().contains("X-No-Deflater"))
+                    return null;
+                return super.getDeflaterEntry(request, contentLength);
+            }
+        };
+        gzipHandler.setMinGzipSize(16);
+        ((Handler.Wrapper)_server.getHandler()).setHandler(gzipHandler);
+        gzipHandler.setHandler(_contextHandler);
+        _contextHandler.setHandler(new TestHandler());
+        _server.start();
+
+        HttpTester.Request request = HttpTester.newRequest();
+        request.setMethod("GET");
+        request.setURI("/ctx/content");
+        request.setVersion("HTTP/1.0");
+        request.setHeader("Host", "tester");
+        request.setHeader("Accept-Encoding", "gzip");
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get("Content-Encoding"), is("gzip"));
+        InputStream testIn = new GZIPInputStream(new ByteArrayInputStream(response.getContentBytes()));
+        assertThat(new String(IO.readBytes(testIn), UTF_8), is(CONTENT));
+
+        request.setHeader("X-No-Deflater", "true");
+        response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get("Content-Encoding"), nullValue());
+        assertThat(response.getContent(), is(CONTENT));
+        assertThat(deflaterEntries.get(), is(2));
+    }
+
+    @Test
+    public void testGzipResponseAndCallbackWithStoppedHandler() throws Exception
+    {
+        _contextHandler.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                // The handler is not started, so it has no compression codecs yet.
+                new GzipResponseAndCallback(new GzipHandler(), request, response, callback);
+                Content.Sink.write(response, true, CONTENT, callback);
+                return true;
+            }
+        });
+        _server.start();
+
+        HttpTester.Request request = HttpTester.newRequest();
+        request.setMethod("GET");
+        request.setURI("/ctx/content");
+        request.setVersion("HTTP/1.0");
+        request.setHeader("Host", "tester");
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.getContent(), is(CONTENT));
+    }
+
     @Test
     public void testETagNotGzipHandler() throws Exception
     {
@@ -2101,6 +2266,69 @@ public class GzipHandlerTest
         public int uncompressedSize;
     }
 
+    /**
+     * A codec that does not compress, to test the negotiation of codecs other than gzip.
+     */
+    public static class CopyCompressionCodec implements CompressionCodec
+    {
+        @Override
+        public String getEncoding()
+        {
+            return "x-copy";
+        }
+
+        @Override
+        public String getExtension()
+        {
+            return ".copy";
+        }
+
+        @Override
+        public Encoder newEncoder(boolean syncFlush)
+        {
+            return new Encoder()
+            {
+                private ByteBuffer _input;
+                private boolean _finish;
+
+                @Override
+                public void setInput(ByteBuffer input)
+                {
+                    _input = input;
+                }
+
+                @Override
+                public boolean needsInput()
+                {
+                    return BufferUtil.isEmpty(_input);
+                }
+
+                @Override
+                public int encode(ByteBuffer output)
+                {
+                    return _input == null ? 0 : BufferUtil.put(_input, output);
+                }
+
+                @Override
+                public void finish()
+                {
+                    _finish = true;
+                }
+
+                @Override
+                public boolean isFinished()
+                {
+                    return _finish && needsInput();
+                }
+
+                @Override
+                public void release()
+                {
+                }
+            };
+        }
+    }
+
     public static class CheckHandler extends Handler.Wrapper
     {
         @Override
@@ -258,7 +258,17 @@ public class ConcurrentPool<P> implements Pool<P>, Dumpable
         return null;
     }
 
-    private int startIndex(int size)
+    /**
+     * <p>Returns the index of the entry from which {@link #acquire()}
+     * starts scanning for an entry that can be acquired.</p>
+     * <p>The default implementation derives the index from the {@link StrategyType};
+     * subclasses may override this method to implement selection strategies that
+     * inspect the candidate entries via {@link #entryAt(int)}.</p>
+     *
+     * @param size the current number of entries, always greater than zero
+     * @return the start index, between {@code 0} (inclusive) and {@code size} (exclusive)
+     */
+    protected int startIndex(int size)
     {
         return switch (strategyType)
         {
@@ -269,6 +279,27 @@ public class ConcurrentPool<P> implements Pool<P>, Dumpable
         };
     }
 
+    /**
+     * <p>Returns the entry at the given index, without acquiring it.</p>
+     *
+     * @param index the index of the entry
+     * @return the entry at the given index, or {@code null} if there is no such entry
+     * @see #startIndex(int)
+     */
+    protected Entry<P> entryAt(int index)
+    {
+        try
+        {
+            Holder<P> holder = entries.get(index);
+            return holder == null ? null : holder.getEntry();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            LOG.trace("IGNORED", e);
+            return null;
+        }
+    }
+
     private boolean release(Entry<P> entry)
     {
         boolean released = ((ConcurrentEntry<P>)entry).tryRelease();
@@ -18,14 +18,21 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -193,4 +200,352 @@ public interface SocketAddressResolver
             });
         }
     }
+
+    /**
+     * <p>A {@link SocketAddressResolver} that caches the results of another resolver.</p>
+     * <p>Successful resolutions are cached for {@link #getTimeToLive() the time to live},
+     * while resolutions failed with {@link UnknownHostException} are cached for
+     * {@link #getNegativeTimeToLive() the negative time to live}, so that repeated
+     * lookups of hosts that do not exist do not hit the DNS every time.</p>
+     * <p>When a cached entry is requested after the {@link #getRefreshRatio() refresh ratio}
+     * of its time to live has elapsed, the cached addresses are returned and a resolution is
+     * performed in the background to refresh the entry, so that frequently used hosts never
+     * pay the cost of a DNS lookup on the request path.
+     * If the background refresh fails, the entry keeps being used until it expires.</p>
+     * <p>Concurrent resolutions of the same host are coalesced into a single resolution
+     * performed by the delegate resolver.</p>
+     * <p>Note that the JDK does not expose the TTL of DNS records, so the time to live
+     * is configured on this resolver rather than derived from the DNS responses.</p>
+     */
+    @ManagedObject("The caching address resolver")
+    public static class Caching implements SocketAddressResolver
+    {
+        private static final Logger LOG = LoggerFactory.getLogger(SocketAddressResolver.class);
+
+        private final AutoLock lock = new AutoLock();
+        private final Map<String, List<Waiter>> pending = new HashMap<>();
+        private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75F, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                return size() > getMaxEntries();
+            }
+        };
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder negativeHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder refreshes = new LongAdder();
+        private final SocketAddressResolver resolver;
+        private long timeToLive = TimeUnit.SECONDS.toMillis(30);
+        private long negativeTimeToLive = TimeUnit.SECONDS.toMillis(10);
+        private double refreshRatio = 0.8;
+        private int maxEntries = 1024;
+
+        /**
+         * @param resolver the resolver that performs the actual resolutions
+         */
+        public Caching(SocketAddressResolver resolver)
+        {
+            this.resolver = Objects.requireNonNull(resolver);
+        }
+
+        /**
+         * @return the resolver that performs the actual resolutions
+         */
+        public SocketAddressResolver getSocketAddressResolver()
+        {
+            return resolver;
+        }
+
+        /**
+         * @return the time, in milliseconds, successful resolutions are cached
+         */
+        @ManagedAttribute("The time, in milliseconds, successful resolutions are cached")
+        public long getTimeToLive()
+        {
+            return timeToLive;
+        }
+
+        /**
+         * @param timeToLive the time, in milliseconds, successful resolutions are cached
+         */
+        public void setTimeToLive(long timeToLive)
+        {
+            this.timeToLive = timeToLive;
+        }
+
+        /**
+         * @return the time, in milliseconds, failed resolutions are cached, or zero to not cache failed resolutions
+         */
+        @ManagedAttribute("The time, in milliseconds, failed resolutions are cached")
+        public long getNegativeTimeToLive()
+        {
+            return negativeTimeToLive;
+        }
+
+        /**
+         * @param negativeTimeToLive the time, in milliseconds, failed resolutions are cached,
+         * or zero to not cache failed resolutions
+         */
+        public void setNegativeTimeToLive(long negativeTimeToLive)
+        {
+            this.negativeTimeToLive = negativeTimeToLive;
+        }
+
+        /**
+         * @return the fraction of the time to live after which a cached entry is refreshed in the background
+         */
+        @ManagedAttribute("The fraction of the time to live after which entries are refreshed in the background")
+        public double getRefreshRatio()
+        {
+            return refreshRatio;
+        }
+
+        /**
+         * <p>Sets the fraction of the time to live after which a cached entry that
+         * is requested is refreshed in the background.</p>
+         * <p>A value of {@code 1} or more disables background refreshes.</p>
+         *
+         * @param refreshRatio the fraction of the time to live after which a cached entry is refreshed in the background
+         */
+        public void setRefreshRatio(double refreshRatio)
+        {
+            if (refreshRatio <= 0)
+                throw new IllegalArgumentException("Invalid refresh ratio: " + refreshRatio);
+            this.refreshRatio = refreshRatio;
+        }
+
+        /**
+         * @return the max number of hosts that are cached
+         */
+        @ManagedAttribute("The max number of hosts that are cached")
+        public int getMaxEntries()
+        {
+            return maxEntries;
+        }
+
+        /**
+         * @param maxEntries the max number of hosts that are cached
+         */
+        public void setMaxEntries(int maxEntries)
+        {
+            this.maxEntries = maxEntries;
+        }
+
+        @ManagedAttribute("The number of cached hosts")
+        public int getSize()
+        {
+            try (AutoLock ignored = lock.lock())
+            {
+                return entries.size();
+            }
+        }
+
+        @ManagedAttribute("The number of resolutions served by cached addresses")
+        public long getHits()
+        {
+            return hits.longValue();
+        }
+
+        @ManagedAttribute("The number of resolutions served by cached failures")
+        public long getNegativeHits()
+        {
+            return negativeHits.longValue();
+        }
+
+        @ManagedAttribute("The number of resolutions not served by the cache")
+        public long getMisses()
+        {
+            return misses.longValue();
+        }
+
+        @ManagedAttribute("The number of background refreshes")
+        public long getRefreshes()
+        {
+            return refreshes.longValue();
+        }
+
+        @ManagedOperation(value = "Clears the cache", impact = "ACTION")
+        public void clear()
+        {
+            try (AutoLock ignored = lock.lock())
+            {
+                entries.clear();
+            }
+        }
+
+        @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+        public void resetStats()
+        {
+            hits.reset();
+            negativeHits.reset();
+            misses.reset();
+            refreshes.reset();
+        }
+
+        @Override
+        public void resolve(String host, int port, Promise<List<InetSocketAddress>> promise)
+        {
+            long now = NanoTime.now();
+            Entry entry;
+            boolean resolve = false;
+            try (AutoLock ignored = lock.lock())
+            {
+                entry = entries.get(host);
+                if (entry != null && entry.isExpired(now))
+                {
+                    entries.remove(host);
+                    entry = null;
+                }
+                if (entry == null)
+                {
+                    // Coalesce with a resolution in progress, if any.
+                    List<Waiter> waiters = pending.get(host);
+                    if (waiters == null)
+                    {
+                        waiters = new ArrayList<>();
+                        pending.put(host, waiters);
+                        resolve = true;
+                    }
+                    waiters.add(new Waiter(port, promise));
+                }
+                else if (entry.needsRefresh(now) && !pending.containsKey(host))
+                {
+                    pending.put(host, new ArrayList<>());
+                    resolve = true;
+                }
+            }
+
+            if (entry == null)
+            {
+                misses.increment();
+            }
+            else
+            {
+                if (entry.failure == null)
+                {
+                    hits.increment();
+                }
+                else
+                {
+                    negativeHits.increment();
+                }
+                entry.complete(host, port, promise);
+            }
+
+            if (resolve)
+            {
+                if (entry != null)
+                    refreshes.increment();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("{} {}", entry == null ? "Resolving" : "Refreshing", host);
+                resolver.resolve(host, 0, new Promise<>()
+                {
+                    @Override
+                    public void succeeded(List<InetSocketAddress> result)
+                    {
+                        List<InetAddress> addresses = new ArrayList<>(result.size());
+                        for (InetSocketAddress socketAddress : result)
+                        {
+                            addresses.add(socketAddress.getAddress());
+                        }
+                        long now = NanoTime.now();
+                        long ttl = TimeUnit.MILLISECONDS.toNanos(getTimeToLive());
+                        long refresh = getRefreshRatio() < 1 ? (long)(ttl * getRefreshRatio()) : ttl;
+                        onResolved(host, new Entry(addresses, null, now + ttl, now + refresh), true);
+                    }
+
+                    @Override
+                    public void failed(Throwable x)
+                    {
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("Failed to resolve {}", host, x);
+                        long negativeTTL = getNegativeTimeToLive();
+                        // Only cache definitive failures, not timeouts or interruptions.
+                        boolean cache = negativeTTL > 0 && x instanceof UnknownHostException;
+                        long expire = NanoTime.now() + TimeUnit.MILLISECONDS.toNanos(negativeTTL);
+                        onResolved(host, new Entry(null, x, expire, expire), cache);
+                    }
+                });
+            }
+        }
+
+        private void onResolved(String host, Entry entry, boolean cache)
+        {
+            List<Waiter> waiters;
+            try (AutoLock ignored = lock.lock())
+            {
+                waiters = pending.remove(host);
+                if (cache)
+                {
+                    // A failed refresh must not replace valid addresses.
+                    Entry existing = entries.get(host);
+                    if (entry.failure == null || existing == null || existing.failure != null)
+                        entries.put(host, entry);
+                }
+            }
+            if (waiters != null)
+            {
+                for (Waiter waiter : waiters)
+                {
+                    entry.complete(host, waiter.port, waiter.promise);
+                }
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x[size=%d,ttl=%d,resolver=%s]", getClass().getSimpleName(), hashCode(), getSize(), getTimeToLive(), resolver);
+        }
+
+        private record Waiter(int port, Promise<List<InetSocketAddress>> promise)
+        {
+        }
+
+        private static class Entry
+        {
+            private final List<InetAddress> addresses;
+            private final Throwable failure;
+            private final long expireNanoTime;
+            private final long refreshNanoTime;
+
+            private Entry(List<InetAddress> addresses, Throwable failure, long expireNanoTime, long refreshNanoTime)
+            {
+                this.addresses = addresses;
+                this.failure = failure;
+                this.expireNanoTime = expireNanoTime;
+                this.refreshNanoTime = refreshNanoTime;
+            }
+
+            private boolean isExpired(long now)
+            {
+                return NanoTime.isBeforeOrSame(expireNanoTime, now);
+            }
+
+            private boolean needsRefresh(long now)
+            {
+                return failure == null && NanoTime.isBeforeOrSame(refreshNanoTime, now);
+            }
+
+            private void complete(String host, int port, Promise<List<InetSocketAddress>> promise)
+            {
+                if (failure != null)
+                {
+                    if (failure instanceof UnknownHostException)
+                        promise.failed(new UnknownHostException(host));
+                    else
+                        promise.failed(failure);
+                    return;
+                }
+                List<InetSocketAddress> result = new ArrayList<>(addresses.size());
+                for (InetAddress address : addresses)
+                {
+                    result.add(new InetSocketAddress(address, port));
+                }
+                promise.succeeded(result);
+            }
+        }
+    }
 }
@@ -0,0 +1,98 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>A compression algorithm, identified by its HTTP content-coding
+ * (for example {@code gzip}, {@code br} or {@code zstd}), that
+ * provides {@link Encoder}s to compress content.</p>
+ * <p>Encoders may be expensive to create, so implementations should
+ * pool them, typically with a {@link CompressionPool}.
+ * If an implementation is also a {@link org.eclipse.jetty.util.component.LifeCycle},
+ * it is started and stopped by the component that uses it.</p>
+ * <p>Implementations that require third party libraries, such as Brotli or
+ * Zstandard codecs, may be discovered via {@link java.util.ServiceLoader}.</p>
+ */
+public interface CompressionCodec
+{
+    /**
+     * @return the HTTP content-coding of this codec, in lower case
+     */
+    String getEncoding();
+
+    /**
+     * @return the file extension of content compressed with this codec, for example {@code .gz}
+     */
+    String getExtension();
+
+    /**
+     * <p>Acquires an {@link Encoder}, that must be {@link Encoder#release() released}
+     * once the compression is complete.</p>
+     *
+     * @param syncFlush whether the encoder must flush all the compressed output at every
+     * {@link Encoder#encode(ByteBuffer)}, at the expense of compression ratio
+     * @return an encoder, or null if no encoder is available
+     */
+    Encoder newEncoder(boolean syncFlush);
+
+    /**
+     * <p>A stateful compressor of a single stream of content.</p>
+     * <p>The usage pattern is similar to that of {@link java.util.zip.Deflater}:</p>
+     * <ul>
+     * <li>input is provided with {@link #setInput(ByteBuffer)} when {@link #needsInput()} returns true;</li>
+     * <li>compressed output, including any header required by the format, is produced by
+     * repeatedly calling {@link #encode(ByteBuffer)};</li>
+     * <li>once all the input has been provided, {@link #finish()} is called and
+     * {@link #encode(ByteBuffer)} is called until {@link #isFinished()} returns true,
+     * meaning that any trailer required by the format has also been produced.</li>
+     * </ul>
+     */
+    interface Encoder
+    {
+        /**
+         * @param input the input to compress, consumed by subsequent calls to {@link #encode(ByteBuffer)}
+         */
+        void setInput(ByteBuffer input);
+
+        /**
+         * @return whether all the input has been consumed and more is needed
+         */
+        boolean needsInput();
+
+        /**
+         * <p>Compresses input into the given buffer.</p>
+         *
+         * @param output the buffer, in fill mode, to write the compressed output to
+         * @return the number of bytes written to the output buffer
+         */
+        int encode(ByteBuffer output);
+
+        /**
+         * <p>Indicates that the input provided so far is the whole content.</p>
+         */
+        void finish();
+
+        /**
+         * @return whether the whole compressed content, including any trailer, has been produced
+         */
+        boolean isFinished();
+
+        /**
+         * <p>Releases this encoder, possibly returning resources to a pool.</p>
+         */
+        void release();
+    }
+}
@@ -0,0 +1,186 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * <p>A {@link CompressionCodec} for the {@code gzip} content-coding (RFC 1952),
+ * using {@link Deflater}s from a {@link DeflaterPool}.</p>
+ * <p>The {@link DeflaterPool} must produce {@code nowrap} deflaters,
+ * as the GZIP header and trailer are produced by this codec.</p>
+ */
+public class GzipCompressionCodec implements CompressionCodec
+{
+    public static final String GZIP = "gzip";
+
+    // Per RFC-1952 this is the "unknown" OS value byte.
+    private static final byte OS_UNKNOWN = (byte)0xFF;
+    private static final byte[] GZIP_HEADER = new byte[]{
+        (byte)0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, OS_UNKNOWN
+    };
+    // Per RFC-1952, the GZIP trailer is 8 bytes
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    /**
+     * The minimum capacity of the output buffers passed to {@link Encoder#encode(ByteBuffer)}.
+     */
+    public static final int MIN_OUTPUT_SIZE = GZIP_HEADER.length + GZIP_TRAILER_SIZE;
+
+    private final DeflaterPool _deflaterPool;
+
+    public GzipCompressionCodec(DeflaterPool deflaterPool)
+    {
+        _deflaterPool = deflaterPool;
+    }
+
+    public DeflaterPool getDeflaterPool()
+    {
+        return _deflaterPool;
+    }
+
+    @Override
+    public String getEncoding()
+    {
+        return GZIP;
+    }
+
+    @Override
+    public String getExtension()
+    {
+        return ".gz";
+    }
+
+    @Override
+    public Encoder newEncoder(boolean syncFlush)
+    {
+        DeflaterPool.Entry entry = _deflaterPool.acquire();
+        if (entry == null)
+            return null;
+        return newEncoder(entry, syncFlush);
+    }
+
+    /**
+     * <p>Creates a new {@link Encoder} that uses the given deflater entry,
+     * which is released when the encoder is released.</p>
+     *
+     * @param deflaterEntry the deflater entry, producing {@code nowrap} deflaters
+     * @param syncFlush whether the encoder must flush all the compressed output at every
+     * {@link Encoder#encode(ByteBuffer)}, at the expense of compression ratio
+     * @return a new encoder
+     */
+    public Encoder newEncoder(DeflaterPool.Entry deflaterEntry, boolean syncFlush)
+    {
+        return new GzipEncoder(deflaterEntry, syncFlush);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s}", getClass().getSimpleName(), hashCode(), _deflaterPool);
+    }
+
+    private static class GzipEncoder implements Encoder
+    {
+        private final CRC32 _crc = new CRC32();
+        private final int _flushMode;
+        private DeflaterPool.Entry _deflaterEntry;
+        private boolean _header;
+        private boolean _finished;
+
+        private GzipEncoder(DeflaterPool.Entry deflaterEntry, boolean syncFlush)
+        {
+            _deflaterEntry = deflaterEntry;
+            _flushMode = syncFlush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH;
+        }
+
+        @Override
+        public void setInput(ByteBuffer input)
+        {
+            _crc.update(input.slice());
+            _deflaterEntry.get().setInput(input);
+        }
+
+        @Override
+        public boolean needsInput()
+        {
+            return _deflaterEntry.get().needsInput();
+        }
+
+        @Override
+        public int encode(ByteBuffer output)
+        {
+            int start = output.position();
+            if (!_header)
+            {
+                if (output.remaining() < GZIP_HEADER.length)
+                    return 0;
+                output.put(GZIP_HEADER, 0, GZIP_HEADER.length);
+                _header = true;
+            }
+
+            Deflater deflater = _deflaterEntry.get();
+            if (!deflater.finished())
+                deflater.deflate(output, _flushMode);
+
+            // Try to add the trailer in the same output.
+            if (deflater.finished() && !_finished && output.remaining() >= GZIP_TRAILER_SIZE)
+            {
+                // Per RFC-1952, the GZIP trailer is LITTLE_ENDIAN.
+                putIntLittleEndian(output, (int)_crc.getValue());
+                putIntLittleEndian(output, deflater.getTotalIn());
+                _finished = true;
+            }
+            return output.position() - start;
+        }
+
+        private static void putIntLittleEndian(ByteBuffer output, int value)
+        {
+            output.put((byte)value);
+            output.put((byte)(value >>> 8));
+            output.put((byte)(value >>> 16));
+            output.put((byte)(value >>> 24));
+        }
+
+        @Override
+        public void finish()
+        {
+            _deflaterEntry.get().finish();
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return _finished;
+        }
+
+        @Override
+        public void release()
+        {
+            if (_deflaterEntry != null)
+            {
+                _deflaterEntry.release();
+                _deflaterEntry = null;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{header=%b,finished=%b,%s}", getClass().getSimpleName(), hashCode(), _header, _finished, _deflaterEntry);
+        }
+    }
+}
@@ -48,6 +48,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -80,6 +81,7 @@ import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.TypeUtil;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.component.Dumpable;
 import org.eclipse.jetty.util.resource.Resource;
@@ -179,6 +181,8 @@ public abstract class SslContextFactory extends ContainerLifeCycle implements Du
     private boolean _sessionCachingEnabled = true;
     private int _sslSessionCacheSize = -1;
     private int _sslSessionTimeout = -1;
+    private final LongAdder _sessionResumptions = new LongAdder();
+    private final LongAdder _fullHandshakes = new LongAdder();
     private SSLContext _setContext;
     private String _endpointIdentificationAlgorithm = "HTTPS";
     private boolean _trustAll;
@@ -1582,6 +1586,51 @@ public abstract class SslContextFactory extends ContainerLifeCycle implements Du
         _sslSessionTimeout = sslSessionTimeout;
     }
 
+    /**
+     * <p>Records the completion of a TLS handshake, updating the session resumption statistics.</p>
+     * <p>A TLS session is considered resumed if it was created before the handshake started.</p>
+     *
+     * @param sslSession the TLS session of the completed handshake
+     * @param handshakeStart the time in milliseconds at which the handshake started
+     * @return whether the TLS session was resumed
+     * @see #getSessionResumptions()
+     * @see #getFullHandshakes()
+     */
+    public boolean onHandshakeSucceeded(SSLSession sslSession, long handshakeStart)
+    {
+        boolean resumed = sslSession.getCreationTime() < handshakeStart;
+        if (resumed)
+            _sessionResumptions.increment();
+        else
+            _fullHandshakes.increment();
+        return resumed;
+    }
+
+    /**
+     * @return the number of TLS handshakes that resumed a TLS session
+     */
+    @ManagedAttribute("The number of TLS handshakes that resumed a TLS session")
+    public long getSessionResumptions()
+    {
+        return _sessionResumptions.sum();
+    }
+
+    /**
+     * @return the number of TLS handshakes that created a new TLS session
+     */
+    @ManagedAttribute("The number of TLS handshakes that created a new TLS session")
+    public long getFullHandshakes()
+    {
+        return _fullHandshakes.sum();
+    }
+
+    @ManagedOperation(value = "Resets the TLS session resumption statistics", impact = "ACTION")
+    public void resetSessionStatistics()
+    {
+        _sessionResumptions.reset();
+        _fullHandshakes.reset();
+    }
+
     /**
      * Get the HostnameVerifier used by a client to verify host names in the server certificate.
      * @return the HostnameVerifier used by a client to verify host names in the server certificate
@@ -0,0 +1,305 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.statistic;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.thread.AutoLock;
+
+/**
+ * <p>Statistics on the distribution of a sampled value, such as a latency.</p>
+ * <p>Samples are counted in log-linear buckets, in the style of an HDR histogram:
+ * each power of two range of values is divided in {@code 2^precision} buckets of equal width,
+ * so that percentiles are reported with a relative error of at most {@code 2^-precision},
+ * using a bounded amount of memory that only depends on the highest trackable value
+ * and on the precision.</p>
+ * <p>Recording is lock-free: the buckets are striped, and each recording thread
+ * increments the buckets of the stripe selected by its thread id, so that
+ * threads rarely contend on the same counter.
+ * Snapshots sum the stripes, either since the last {@link #reset()} with
+ * {@link #snapshot()}, or since the previous interval snapshot with
+ * {@link #intervalSnapshot()}.</p>
+ */
+public class HistogramStatistic
+{
+    private final AutoLock _lock = new AutoLock();
+    private final int _precision;
+    private final int _buckets;
+    private final long _highestTrackableValue;
+    private final int _stripeMask;
+    private final AtomicLongArray _counts;
+    private final LongAdder _total = new LongAdder();
+    private final LongAccumulator _max = new LongAccumulator(Math::max, 0L);
+    private long[] _intervalCounts;
+    private long _intervalTotal;
+
+    /**
+     * <p>Creates a histogram for nanosecond latencies up to one hour, with a relative error of about 3%.</p>
+     */
+    public HistogramStatistic()
+    {
+        this(TimeUnit.HOURS.toNanos(1), 5);
+    }
+
+    /**
+     * @param highestTrackableValue the highest value that is tracked precisely; higher values are counted in the last bucket
+     * @param precision the number of bits of precision of the buckets, between 1 and 10
+     */
+    public HistogramStatistic(long highestTrackableValue, int precision)
+    {
+        this(highestTrackableValue, precision, Math.min(4, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1)));
+    }
+
+    /**
+     * @param highestTrackableValue the highest value that is tracked precisely; higher values are counted in the last bucket
+     * @param precision the number of bits of precision of the buckets, between 1 and 10
+     * @param stripes the number of stripes of buckets, rounded up to a power of 2
+     */
+    public HistogramStatistic(long highestTrackableValue, int precision, int stripes)
+    {
+        if (precision < 1 || precision > 10)
+            throw new IllegalArgumentException("Invalid precision: " + precision);
+        if (highestTrackableValue < 1)
+            throw new IllegalArgumentException("Invalid highest trackable value: " + highestTrackableValue);
+        if (stripes < 1)
+            throw new IllegalArgumentException("Invalid stripes: " + stripes);
+        _precision = precision;
+        _highestTrackableValue = highestTrackableValue;
+        _buckets = bucketIndex(highestTrackableValue) + 1;
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes)
+            size <<= 1;
+        _stripeMask = size - 1;
+        _counts = new AtomicLongArray(size * _buckets);
+        _intervalCounts = new long[_buckets];
+    }
+
+    /**
+     * @return the highest value that is tracked precisely
+     */
+    public long getHighestTrackableValue()
+    {
+        return _highestTrackableValue;
+    }
+
+    /**
+     * @return the number of bits of precision of the buckets
+     */
+    public int getPrecision()
+    {
+        return _precision;
+    }
+
+    /**
+     * Records a sample value.
+     *
+     * @param sample the value to record, negative values are recorded as zero
+     */
+    public void record(long sample)
+    {
+        if (sample < 0)
+            sample = 0;
+        int bucket = bucketIndex(Math.min(sample, _highestTrackableValue));
+        int stripe = (int)Thread.currentThread().getId() & _stripeMask;
+        _counts.getAndIncrement(stripe * _buckets + bucket);
+        _total.add(sample);
+        _max.accumulate(sample);
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public void reset()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            for (int i = 0; i < _counts.length(); ++i)
+            {
+                _counts.set(i, 0);
+            }
+            _total.reset();
+            _max.reset();
+            _intervalCounts = new long[_buckets];
+            _intervalTotal = 0;
+        }
+    }
+
+    /**
+     * @return a snapshot of the samples recorded since the last {@link #reset()}
+     */
+    public Snapshot snapshot()
+    {
+        return new Snapshot(this, sumStripes(), _total.sum(), _max.get());
+    }
+
+    /**
+     * <p>Returns a snapshot of the samples recorded since the previous call to this method,
+     * or since the last {@link #reset()}.</p>
+     * <p>There should be only one consumer of interval snapshots, as each call starts a new interval.</p>
+     *
+     * @return a snapshot of the samples recorded in the last interval
+     */
+    public Snapshot intervalSnapshot()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            long[] counts = sumStripes();
+            long total = _total.sum();
+            long[] interval = new long[_buckets];
+            for (int i = 0; i < _buckets; ++i)
+            {
+                interval[i] = Math.max(0, counts[i] - _intervalCounts[i]);
+            }
+            Snapshot snapshot = new Snapshot(this, interval, total - _intervalTotal, _max.get());
+            _intervalCounts = counts;
+            _intervalTotal = total;
+            return snapshot;
+        }
+    }
+
+    private long[] sumStripes()
+    {
+        long[] counts = new long[_buckets];
+        for (int i = 0; i < _counts.length(); ++i)
+        {
+            counts[i % _buckets] += _counts.get(i);
+        }
+        return counts;
+    }
+
+    private int bucketIndex(long value)
+    {
+        int subBuckets = 1 << _precision;
+        if (value < subBuckets)
+            return (int)value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - _precision;
+        return ((shift + 1) << _precision) + (int)((value >>> shift) - subBuckets);
+    }
+
+    private long highestEquivalentValue(int bucket)
+    {
+        int subBuckets = 1 << _precision;
+        if (bucket < subBuckets)
+            return bucket;
+        int shift = (bucket >> _precision) - 1;
+        long mantissa = subBuckets + (bucket & (subBuckets - 1));
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s}", getClass().getSimpleName(), hashCode(), snapshot().describe());
+    }
+
+    /**
+     * <p>An immutable view of the distribution of the samples recorded in a period of time.</p>
+     */
+    public static class Snapshot
+    {
+        private final HistogramStatistic _histogram;
+        private final long[] _counts;
+        private final long _count;
+        private final long _total;
+        private final long _max;
+
+        private Snapshot(HistogramStatistic histogram, long[] counts, long total, long max)
+        {
+            _histogram = histogram;
+            _counts = counts;
+            long count = 0;
+            int highest = -1;
+            for (int i = 0; i < counts.length; ++i)
+            {
+                count += counts[i];
+                if (counts[i] > 0)
+                    highest = i;
+            }
+            _count = count;
+            _total = total;
+            _max = highest < 0 ? 0 : Math.min(max, histogram.highestEquivalentValue(highest));
+        }
+
+        /**
+         * @return the number of samples
+         */
+        public long getCount()
+        {
+            return _count;
+        }
+
+        /**
+         * @return the sum of the samples
+         */
+        public long getTotal()
+        {
+            return _total;
+        }
+
+        /**
+         * @return the mean of the samples, or zero if there are no samples
+         */
+        public double getMean()
+        {
+            return _count == 0 ? 0.0 : (double)_total / _count;
+        }
+
+        /**
+         * @return the max value of the samples, within the precision of the histogram
+         */
+        public long getMax()
+        {
+            return _max;
+        }
+
+        /**
+         * <p>Returns the value below which the given percentage of the samples fall,
+         * within the precision of the histogram.</p>
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the value at the given percentile, or zero if there are no samples
+         */
+        public long getValueAtPercentile(double percentile)
+        {
+            if (_count == 0)
+                return 0;
+            percentile = Math.max(0.0, Math.min(100.0, percentile));
+            long rank = Math.max(1, (long)Math.ceil(percentile / 100.0 * _count));
+            long cumulative = 0;
+            for (int i = 0; i < _counts.length; ++i)
+            {
+                cumulative += _counts[i];
+                if (cumulative >= rank)
+                    return Math.min(_max, _histogram.highestEquivalentValue(i));
+            }
+            return _max;
+        }
+
+        private String describe()
+        {
+            return String.format("count=%d,mean=%.1f,p50=%d,p90=%d,p99=%d,p999=%d,max=%d",
+                getCount(), getMean(), getValueAtPercentile(50), getValueAtPercentile(90),
+                getValueAtPercentile(99), getValueAtPercentile(99.9), getMax());
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{%s}", getClass().getSimpleName(), hashCode(), describe());
+        }
+    }
+}
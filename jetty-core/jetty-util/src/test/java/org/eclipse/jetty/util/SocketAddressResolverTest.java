@@ -0,0 +1,236 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SocketAddressResolverTest
+{
+    @Test
+    public void testCachingResolverCachesAddresses() throws Exception
+    {
+        CountingResolver delegate = new CountingResolver();
+        SocketAddressResolver.Caching resolver = new SocketAddressResolver.Caching(delegate);
+
+        List<InetSocketAddress> result1 = resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(1, result1.size());
+        assertEquals(80, result1.get(0).getPort());
+
+        List<InetSocketAddress> result2 = resolve(resolver, "host", 8080).get(5, TimeUnit.SECONDS);
+        assertEquals(8080, result2.get(0).getPort());
+        assertEquals(result1.get(0).getAddress(), result2.get(0).getAddress());
+
+        assertEquals(1, delegate.resolutions.get());
+        assertEquals(1, resolver.getMisses());
+        assertEquals(1, resolver.getHits());
+        assertEquals(1, resolver.getSize());
+    }
+
+    @Test
+    public void testCachingResolverCoalescesConcurrentResolutions() throws Exception
+    {
+        CountingResolver delegate = new CountingResolver();
+        delegate.async = true;
+        SocketAddressResolver.Caching resolver = new SocketAddressResolver.Caching(delegate);
+
+        CompletableFuture<List<InetSocketAddress>> result1 = resolve(resolver, "host", 80);
+        CompletableFuture<List<InetSocketAddress>> result2 = resolve(resolver, "host", 81);
+        assertFalse(result1.isDone());
+        assertFalse(result2.isDone());
+
+        delegate.complete();
+
+        assertEquals(80, result1.get(5, TimeUnit.SECONDS).get(0).getPort());
+        assertEquals(81, result2.get(5, TimeUnit.SECONDS).get(0).getPort());
+        assertEquals(1, delegate.resolutions.get());
+    }
+
+    @Test
+    public void testCachingResolverExpiresAddresses() throws Exception
+    {
+        CountingResolver delegate = new CountingResolver();
+        SocketAddressResolver.Caching resolver = new SocketAddressResolver.Caching(delegate);
+        resolver.setTimeToLive(100);
+        resolver.setRefreshRatio(1);
+
+        resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(1, delegate.resolutions.get());
+
+        Thread.sleep(2 * resolver.getTimeToLive());
+
+        resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(2, delegate.resolutions.get());
+        assertEquals(2, resolver.getMisses());
+        assertEquals(0, resolver.getRefreshes());
+    }
+
+    @Test
+    public void testCachingResolverRefreshesInBackground() throws Exception
+    {
+        CountingResolver delegate = new CountingResolver();
+        SocketAddressResolver.Caching resolver = new SocketAddressResolver.Caching(delegate);
+        resolver.setTimeToLive(1000);
+        resolver.setRefreshRatio(0.1);
+
+        resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+
+        // The entry is stale, the cached value is returned while refreshing.
+        delegate.async = true;
+        CompletableFuture<List<InetSocketAddress>> result = resolve(resolver, "host", 80);
+        assertTrue(result.isDone());
+        assertEquals(2, delegate.resolutions.get());
+        assertEquals(1, resolver.getRefreshes());
+
+        // No other refresh while the refresh is in progress.
+        resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(2, delegate.resolutions.get());
+
+        delegate.complete();
+        assertEquals(2, resolver.getHits());
+        assertEquals(1, resolver.getMisses());
+    }
+
+    @Test
+    public void testCachingResolverFailedRefreshKeepsAddresses() throws Exception
+    {
+        CountingResolver delegate = new CountingResolver();
+        SocketAddressResolver.Caching resolver = new SocketAddressResolver.Caching(delegate);
+        resolver.setTimeToLive(1000);
+        resolver.setRefreshRatio(0.1);
+
+        resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+
+        delegate.fail = true;
+        resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(2, delegate.resolutions.get());
+
+        // The failed refresh did not replace the cached addresses.
+        assertEquals(1, resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS).size());
+        assertEquals(0, resolver.getNegativeHits());
+    }
+
+    @Test
+    public void testCachingResolverCachesFailures() throws Exception
+    {
+        CountingResolver delegate = new CountingResolver();
+        delegate.fail = true;
+        SocketAddressResolver.Caching resolver = new SocketAddressResolver.Caching(delegate);
+        resolver.setNegativeTimeToLive(100);
+
+        ExecutionException failure1 = assertThrows(ExecutionException.class, () -> resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS));
+        assertThat(failure1.getCause(), instanceOf(UnknownHostException.class));
+        ExecutionException failure2 = assertThrows(ExecutionException.class, () -> resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS));
+        assertThat(failure2.getCause(), instanceOf(UnknownHostException.class));
+        assertEquals(1, delegate.resolutions.get());
+        assertEquals(1, resolver.getNegativeHits());
+
+        Thread.sleep(2 * resolver.getNegativeTimeToLive());
+
+        delegate.fail = false;
+        assertThat(resolve(resolver, "host", 80).get(5, TimeUnit.SECONDS).size(), is(1));
+        assertEquals(2, delegate.resolutions.get());
+    }
+
+    @Test
+    public void testCachingResolverEvictsEntries() throws Exception
+    {
+        CountingResolver delegate = new CountingResolver();
+        SocketAddressResolver.Caching resolver = new SocketAddressResolver.Caching(delegate);
+        resolver.setMaxEntries(2);
+
+        resolve(resolver, "host1", 80).get(5, TimeUnit.SECONDS);
+        resolve(resolver, "host2", 80).get(5, TimeUnit.SECONDS);
+        resolve(resolver, "host1", 80).get(5, TimeUnit.SECONDS);
+        resolve(resolver, "host3", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(2, resolver.getSize());
+
+        // The least recently used host2 has been evicted.
+        resolve(resolver, "host1", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(3, delegate.resolutions.get());
+        resolve(resolver, "host2", 80).get(5, TimeUnit.SECONDS);
+        assertEquals(4, delegate.resolutions.get());
+    }
+
+    private static CompletableFuture<List<InetSocketAddress>> resolve(SocketAddressResolver resolver, String host, int port)
+    {
+        Promise.Completable<List<InetSocketAddress>> promise = new Promise.Completable<>();
+        resolver.resolve(host, port, promise);
+        return promise;
+    }
+
+    private static class CountingResolver implements SocketAddressResolver
+    {
+        private final AtomicInteger resolutions = new AtomicInteger();
+        private final List<Runnable> pending = new ArrayList<>();
+        private volatile boolean async;
+        private volatile boolean fail;
+
+        @Override
+        public void resolve(String host, int port, Promise<List<InetSocketAddress>> promise)
+        {
+            int count = resolutions.incrementAndGet();
+            boolean failure = fail;
+            Runnable task = () ->
+            {
+                if (failure)
+                {
+                    promise.failed(new UnknownHostException(host));
+                }
+                else
+                {
+                    try
+                    {
+                        InetAddress address = InetAddress.getByAddress(host, new byte[]{10, 0, 0, (byte)count});
+                        promise.succeeded(List.of(new InetSocketAddress(address, port)));
+                    }
+                    catch (UnknownHostException x)
+                    {
+                        promise.failed(x);
+                    }
+                }
+            };
+            if (async)
+                pending.add(task);
+            else
+                task.run();
+        }
+
+        private void complete()
+        {
+            pending.forEach(Runnable::run);
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.statistic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HistogramStatisticTest
+{
+    @Test
+    public void testEmpty()
+    {
+        HistogramStatistic histogram = new HistogramStatistic();
+        HistogramStatistic.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0.0, snapshot.getMean());
+    }
+
+    @Test
+    public void testSmallValuesAreExact()
+    {
+        HistogramStatistic histogram = new HistogramStatistic(1000, 5);
+        for (int i = 1; i <= 20; ++i)
+        {
+            histogram.record(i);
+        }
+        HistogramStatistic.Snapshot snapshot = histogram.snapshot();
+        assertEquals(20, snapshot.getCount());
+        assertEquals(210, snapshot.getTotal());
+        assertEquals(10, snapshot.getValueAtPercentile(50));
+        assertEquals(19, snapshot.getValueAtPercentile(95));
+        assertEquals(20, snapshot.getValueAtPercentile(100));
+        assertEquals(20, snapshot.getMax());
+    }
+
+    @Test
+    public void testPercentilesWithinPrecision()
+    {
+        int precision = 5;
+        HistogramStatistic histogram = new HistogramStatistic(1_000_000_000L, precision);
+        for (long i = 1; i <= 100_000; ++i)
+        {
+            histogram.record(i * 1000);
+        }
+        HistogramStatistic.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getCount());
+        double error = 1.0 / (1 << precision);
+        for (double percentile : new double[]{50, 90, 99, 99.9})
+        {
+            long expected = (long)(percentile * 1000 * 1000);
+            long actual = snapshot.getValueAtPercentile(percentile);
+            assertThat(actual, greaterThanOrEqualTo(expected));
+            assertThat(actual, lessThanOrEqualTo((long)(expected * (1 + error))));
+        }
+        assertEquals(100_000_000L, snapshot.getMax());
+    }
+
+    @Test
+    public void testValuesAboveHighestTrackableValue()
+    {
+        HistogramStatistic histogram = new HistogramStatistic(1000, 3);
+        histogram.record(10);
+        histogram.record(1_000_000);
+        HistogramStatistic.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(10, snapshot.getValueAtPercentile(50));
+        // The max is capped by the highest bucket.
+        assertThat(snapshot.getMax(), lessThanOrEqualTo(1023L));
+        assertThat(snapshot.getMax(), greaterThanOrEqualTo(1000L));
+    }
+
+    @Test
+    public void testIntervalSnapshot()
+    {
+        HistogramStatistic histogram = new HistogramStatistic(1000, 5);
+        histogram.record(10);
+        histogram.record(20);
+        HistogramStatistic.Snapshot interval = histogram.intervalSnapshot();
+        assertEquals(2, interval.getCount());
+        assertEquals(30, interval.getTotal());
+
+        histogram.record(500);
+        interval = histogram.intervalSnapshot();
+        assertEquals(1, interval.getCount());
+        assertEquals(500, interval.getTotal());
+        assertThat(interval.getValueAtPercentile(50), greaterThanOrEqualTo(500L));
+
+        assertEquals(0, histogram.intervalSnapshot().getCount());
+        assertEquals(3, histogram.snapshot().getCount());
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+        histogram.record(1);
+        assertEquals(1, histogram.intervalSnapshot().getCount());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception
+    {
+        HistogramStatistic histogram = new HistogramStatistic(1_000_000, 5, 4);
+        int threads = 8;
+        int samples = 10_000;
+        List<Thread> recorders = new ArrayList<>();
+        for (int t = 0; t < threads; ++t)
+        {
+            Thread thread = new Thread(() ->
+            {
+                for (int i = 0; i < samples; ++i)
+                {
+                    histogram.record(i);
+                }
+            });
+            recorders.add(thread);
+            thread.start();
+        }
+        for (Thread thread : recorders)
+        {
+            thread.join();
+        }
+        assertEquals(threads * samples, histogram.snapshot().getCount());
+    }
+
+    @Test
+    public void testInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new HistogramStatistic(1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HistogramStatistic(1000, 11));
+        assertThrows(IllegalArgumentException.class, () -> new HistogramStatistic(0, 5));
+        assertThrows(IllegalArgumentException.class, () -> new HistogramStatistic(1000, 5, 0));
+    }
+}
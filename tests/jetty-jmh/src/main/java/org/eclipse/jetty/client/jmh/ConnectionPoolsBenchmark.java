@@ -22,7 +22,7 @@ public class ConnectionPoolsBenchmark
     /** TODO
     private ConnectionPool pool;
 
-    @Param({"round-robin", "cached/multiplex", "uncached/multiplex", "cached/duplex", "uncached/duplex"})
+    @Param({"round-robin", "least-latency", "cached/multiplex", "uncached/multiplex", "cached/duplex", "uncached/duplex"})
     public static String POOL_TYPE;
 
     @Setup
@@ -69,6 +69,10 @@ public class ConnectionPoolsBenchmark
                 pool = new RoundRobinConnectionPool(httpDestination, maxConnections, Callback.NOOP);
                 pool.preCreateConnections(maxConnections).get();
                 break;
+            case "least-latency":
+                pool = new LeastLatencyConnectionPool(httpDestination, maxConnections, 12);
+                pool.preCreateConnections(initialConnections).get();
+                break;
             default:
                 throw new AssertionError("Unknown pool type: " + POOL_TYPE);
         }
@@ -0,0 +1,165 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.hpack.HpackDecoder;
+import org.eclipse.jetty.http2.hpack.HpackEncoder;
+import org.eclipse.jetty.util.NanoTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 2000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 2000, timeUnit = TimeUnit.MILLISECONDS)
+public class HpackBenchmark
+{
+    private static final HttpFields REQUEST_FIELDS = HttpFields.build()
+        .add(HttpHeader.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0")
+        .add(HttpHeader.ACCEPT, "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+        .add(HttpHeader.ACCEPT_LANGUAGE, "en-US,en;q=0.5")
+        .add(HttpHeader.ACCEPT_ENCODING, "gzip, deflate, br, zstd")
+        .add(HttpHeader.REFERER, "https://www.example.com/catalog/watches")
+        .add(HttpHeader.COOKIE, "session=8f14e45fceea167a5a36dedd4bea2543; consent=all; locale=en_US")
+        .add("sec-fetch-dest", "document")
+        .add("sec-fetch-mode", "navigate")
+        .add("sec-fetch-site", "same-origin")
+        .add("priority", "u=0, i")
+        .asImmutable();
+    private static final HttpURI REQUEST_URI = HttpURI.from("https://www.example.com/catalog/watches/12345");
+    private static final HttpFields RESPONSE_FIELDS = HttpFields.build()
+        .add(HttpHeader.SERVER, "Jetty(12.0.x)")
+        .add(HttpHeader.CONTENT_TYPE, "text/html;charset=utf-8")
+        .add(HttpHeader.CACHE_CONTROL, "private, no-cache")
+        .add(HttpHeader.VARY, "Accept-Encoding")
+        .add(HttpHeader.CONTENT_ENCODING, "gzip")
+        .add(HttpHeader.STRICT_TRANSPORT_SECURITY, "max-age=31536000; includeSubDomains")
+        .add("x-content-type-options", "nosniff")
+        .add("x-frame-options", "SAMEORIGIN")
+        .add(HttpHeader.CONTENT_LENGTH, "18324")
+        .asImmutable();
+
+    @Param({"request", "response"})
+    public String type;
+
+    @Param({"false", "true"})
+    public boolean varying;
+
+    private HpackEncoder encoder;
+    private ByteBuffer encodeBuffer;
+    private HpackDecoder decoder;
+    private ByteBuffer[] blocks;
+    private int block;
+    private int count;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws Exception
+    {
+        encoder = newHpackEncoder();
+        encodeBuffer = ByteBuffer.allocate(8192);
+
+        // The header blocks of a connection must be decoded in order, as the dynamic table
+        // changes, so the decoder is replaced every time the sequence of blocks restarts.
+        HpackEncoder blockEncoder = newHpackEncoder();
+        blocks = new ByteBuffer[1024];
+        for (int i = 0; i < blocks.length; i++)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            blockEncoder.encode(buffer, newMetaData());
+            blocks[i] = buffer.flip();
+        }
+        block = blocks.length;
+    }
+
+    private static HpackEncoder newHpackEncoder()
+    {
+        HpackEncoder encoder = new HpackEncoder();
+        encoder.setMaxTableCapacity(4096);
+        encoder.setTableCapacity(4096);
+        return encoder;
+    }
+
+    private MetaData newMetaData()
+    {
+        if ("request".equals(type))
+        {
+            // A varying path is added to the dynamic table at every encoding.
+            HttpURI uri = varying ? HttpURI.build(REQUEST_URI).path("/catalog/watches/" + count++) : REQUEST_URI;
+            return new MetaData.Request("GET", uri, HttpVersion.HTTP_2, REQUEST_FIELDS);
+        }
+        HttpFields fields = RESPONSE_FIELDS;
+        if (varying)
+        {
+            // A varying date is added to the dynamic table at every encoding.
+            fields = HttpFields.build(fields).add(HttpHeader.DATE, "Sun, 18 Oct 2026 10:40:" + count++);
+        }
+        return new MetaData.Response(200, null, HttpVersion.HTTP_2, fields);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public ByteBuffer testEncode() throws Exception
+    {
+        encodeBuffer.clear();
+        encoder.encode(encodeBuffer, newMetaData());
+        return encodeBuffer;
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public MetaData testDecode() throws Exception
+    {
+        if (block == blocks.length)
+        {
+            block = 0;
+            decoder = new HpackDecoder(8192, NanoTime::now);
+            decoder.setMaxTableCapacity(4096);
+        }
+        return decoder.decode(blocks[block++].duplicate());
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(HpackBenchmark.class.getSimpleName())
+            .warmupIterations(10)
+            .measurementIterations(10)
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .threads(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
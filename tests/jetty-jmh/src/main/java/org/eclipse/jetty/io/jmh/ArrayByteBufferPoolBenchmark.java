@@ -26,6 +26,7 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.profile.AsyncProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
@@ -64,13 +65,15 @@ public class ArrayByteBufferPoolBenchmark
     long maxMemory;
     @Param({"true"})
     boolean statisticsEnabled;
+    @Param({"0", "8"})
+    int magazineSize;
 
     ArrayByteBufferPool pool;
 
     @Setup
     public void prepare()
     {
-        pool = new ArrayByteBufferPool(minCapacity, factor, maxCapacity, maxBucketSize, maxMemory, maxMemory);
+        pool = new ArrayByteBufferPool(minCapacity, factor, maxCapacity, maxBucketSize, maxMemory, maxMemory, magazineSize);
         pool.setStatisticsEnabled(statisticsEnabled);
     }
 
@@ -132,4 +135,20 @@ public class ArrayByteBufferPoolBenchmark
         RetainableByteBuffer buffer = pool.acquire(65535, true);
         buffer.release();
     }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @Threads(64)
+    public void hotCapacitiesAcquireReleaseHighContention()
+    {
+        // Simulate many selector and worker threads using the most common
+        // buffer capacities at the same time; magazineSize=0 is the baseline.
+        RetainableByteBuffer input = pool.acquire(4096, true);
+        RetainableByteBuffer output = pool.acquire(16384, true);
+        RetainableByteBuffer aggregate = pool.acquire(32768, true);
+
+        aggregate.release();
+        output.release();
+        input.release();
+    }
 }
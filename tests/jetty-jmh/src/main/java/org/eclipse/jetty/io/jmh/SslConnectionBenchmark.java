@@ -0,0 +1,161 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io.jmh;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLSocket;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.resource.ResourceFactory;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * <p>Measures the throughput of TLS encrypted responses over a persistent connection per thread,
+ * varying the number of TLS records that are wrapped before writing them to the network.</p>
+ */
+@State(Scope.Benchmark)
+public class SslConnectionBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        Options opt = new OptionsBuilder()
+            .include(SslConnectionBenchmark.class.getSimpleName())
+            .warmupIterations(5)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .forks(1)
+            .threads(4)
+            .build();
+        new Runner(opt).run();
+    }
+
+    @Param({"1", "2", "4"})
+    public int maxOutputRecords;
+
+    @Param({"4096", "65536", "262144"})
+    public int contentLength;
+
+    Server server;
+    ServerConnector connector;
+    SslContextFactory.Client clientSslContextFactory;
+
+    @Setup
+    public void prepare() throws Exception
+    {
+        server = new Server();
+
+        SslContextFactory.Server serverSslContextFactory = new SslContextFactory.Server();
+        serverSslContextFactory.setKeyStoreResource(ResourceFactory.of(server).newClassLoaderResource("keystore.p12"));
+        serverSslContextFactory.setKeyStorePassword("storepwd");
+        SslConnectionFactory sslConnectionFactory = new SslConnectionFactory(serverSslContextFactory, "http/1.1");
+        sslConnectionFactory.setMaxOutputRecords(maxOutputRecords);
+        connector = new ServerConnector(server, sslConnectionFactory, new HttpConnectionFactory());
+        server.addConnector(connector);
+
+        ByteBuffer content = ByteBuffer.allocateDirect(contentLength);
+        while (content.hasRemaining())
+        {
+            content.put((byte)('a' + content.position() % 26));
+        }
+        content.flip();
+        server.setHandler(new Handler.Abstract()
+        {
+            @Override
+            public boolean handle(Request request, Response response, Callback callback)
+            {
+                response.getHeaders().put(HttpHeader.CONTENT_LENGTH, contentLength);
+                response.write(true, content.slice(), callback);
+                return true;
+            }
+        });
+        server.start();
+
+        clientSslContextFactory = new SslContextFactory.Client(true);
+        clientSslContextFactory.start();
+    }
+
+    @TearDown
+    public void dispose() throws Exception
+    {
+        clientSslContextFactory.stop();
+        server.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState
+    {
+        SSLSocket socket;
+        OutputStream output;
+        HttpTester.Input input;
+        byte[] request;
+
+        @Setup(Level.Trial)
+        public void connect(SslConnectionBenchmark benchmark) throws Exception
+        {
+            socket = (SSLSocket)benchmark.clientSslContextFactory.getSslContext().getSocketFactory()
+                .createSocket("localhost", benchmark.connector.getLocalPort());
+            socket.startHandshake();
+            output = socket.getOutputStream();
+            input = HttpTester.from(socket.getInputStream());
+            request = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @TearDown(Level.Trial)
+        public void disconnect() throws Exception
+        {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int response(ClientState client) throws Exception
+    {
+        client.output.write(client.request);
+        client.output.flush();
+        HttpTester.Response response = HttpTester.parseResponse(client.input);
+        if (response == null || response.getStatus() != HttpStatus.OK_200)
+            throw new IllegalStateException("Unexpected response " + response);
+        return response.getContentBytes().length;
+    }
+}
@@ -60,6 +60,10 @@ public class ServerConnectorAcceptBenchmark
     @Param({"4", "2", "1", "0"})
     public int acceptors;
 
+    // Sharded accept uses the selectors to accept, so it ignores the acceptors parameter.
+    @Param({"false", "true"})
+    public boolean sharded;
+
     final LongAdder count = new LongAdder();
 
     Server server;
@@ -69,7 +73,8 @@ public class ServerConnectorAcceptBenchmark
     public void prepare() throws Exception
     {
         server = new Server();
-        connector = new ServerConnector(server, acceptors, -1);
+        connector = new ServerConnector(server, sharded ? 0 : acceptors, -1);
+        connector.setShardedAccept(sharded);
         server.addConnector(connector);
         server.setHandler(new Handler.Abstract()
         {